@@ -0,0 +1,77 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.NullLogDisplay;
+import model.Customer;
+import model.CustomerServer;
+
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerServerBenchmark {
+	
+	private static final int CAPACITY = 1024;
+	
+	private CustomerServer server;
+	
+	@Setup
+	public void setup() {
+		server = new CustomerServer("Bench", CAPACITY, new NullLogDisplay());
+	}
+	
+	/**
+	 * Adds then removes one Customer on the same thread, measuring
+	 * the uncontended cost of a round trip through the queue.
+	 */
+	@Benchmark
+	@Group("roundTrip")
+	public Customer addAndTake() {
+		Customer cust = new Customer(0, 1);
+		server.addCustomer(cust);
+		Customer taken = server.beginService();
+		server.serveTimeUnit();
+		return taken;
+	}
+	
+	/**
+	 * Producer side of a producer/consumer pair. Full queues are skipped
+	 * rather than blocked on, so the benchmark can always stop cleanly.
+	 */
+	@Benchmark
+	@Group("producerConsumer")
+	@GroupThreads(1)
+	public boolean add() {
+		if(server.getRemainingCapacity() == 0) return false;
+		server.addCustomer(new Customer(0, 0));
+		return true;
+	}
+	
+	/**
+	 * Consumer side of a producer/consumer pair. Uses the non-blocking
+	 * {@link CustomerServer#beginService()}, so it returns null when the
+	 * producer falls behind.
+	 */
+	@Benchmark
+	@Group("producerConsumer")
+	@GroupThreads(1)
+	public Customer take() {
+		return server.beginService();
+	}
+}
@@ -0,0 +1,100 @@
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.NullLogDisplay;
+import model.Customer;
+import model.CustomerServer;
+import model.strategy.Strategy;
+import model.strategy.StrategyIndexedLowestNumber;
+import model.strategy.StrategyIndexedLowestTime;
+import model.strategy.StrategyLowestNumber;
+import model.strategy.StrategyLowestTime;
+import model.strategy.StrategyPowerOfChoices;
+import model.strategy.Strategy.Policy;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+	
+	@Param({"4", "64", "1024", "16384"})
+	public int servers;
+	
+	@Param({"SHORTEST_QUEUE", "SHORTEST_TIME", "INDEXED_SHORTEST_QUEUE", "INDEXED_SHORTEST_TIME",
+			"POWER_OF_TWO_QUEUE", "POWER_OF_TWO_TIME"})
+	public String policy;
+	
+	private Strategy strategy;
+	private List<CustomerServer> queues;
+	
+	@Setup
+	public void setup() {
+		queues = new ArrayList<CustomerServer>(servers);
+		for(int i = 0; i < servers; ++i) {
+			queues.add(new CustomerServer(i, "Server " + i, Integer.MAX_VALUE, new NullLogDisplay()));
+		}
+
+		switch(policy) {
+			case "SHORTEST_QUEUE":
+				strategy = new StrategyLowestNumber();
+				break;
+			case "SHORTEST_TIME":
+				strategy = new StrategyLowestTime();
+				break;
+			case "INDEXED_SHORTEST_QUEUE":
+				strategy = new StrategyIndexedLowestNumber(queues);
+				break;
+			case "INDEXED_SHORTEST_TIME":
+				strategy = new StrategyIndexedLowestTime(queues);
+				break;
+			case "POWER_OF_TWO_QUEUE":
+				strategy = new StrategyPowerOfChoices(2, Policy.SHORTEST_QUEUE);
+				break;
+			case "POWER_OF_TWO_TIME":
+				strategy = new StrategyPowerOfChoices(2, Policy.SHORTEST_TIME);
+				break;
+		}
+	}
+	
+	/**
+	 * Dispatches one Customer, then immediately serves it, so the load of
+	 * every server stays the same from one invocation to the next.
+	 */
+	private Customer dispatchAndServe() {
+		Customer cust = new Customer(0, 1);
+		CustomerServer target = strategy.dispatchCustomer(cust, queues);
+		target.beginService();
+		target.serveTimeUnit();
+		return cust;
+	}
+	
+	@Benchmark
+	public Customer dispatch() {
+		return dispatchAndServe();
+	}
+	
+	@Benchmark
+	@Threads(4)
+	public Customer dispatchConcurrent() {
+		return dispatchAndServe();
+	}
+}
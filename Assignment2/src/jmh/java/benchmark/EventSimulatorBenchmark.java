@@ -0,0 +1,81 @@
+package benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import controller.NullLogDisplay;
+import model.Customer;
+import model.CustomerGenerator;
+import model.QueueScheduler;
+import model.SimulationStatistics;
+import model.event.EventSimulator;
+import model.strategy.Strategy.Policy;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSimulatorBenchmark {
+	
+	@Param({"4", "64", "1024"})
+	public int servers;
+	
+	@Param({"SHORTEST_QUEUE", "SHORTEST_TIME"})
+	public Policy policy;
+	
+	@Param({"100000"})
+	public int customers;
+	
+	private List<Customer> generated;
+	private int timeLimit;
+	
+	/**
+	 * Reports how many simulation events were handled per second, next
+	 * to the number of complete runs per second.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class EventCounter {
+		public long events;
+		
+		@Setup(Level.Iteration)
+		public void reset() {
+			events = 0;
+		}
+	}
+	
+	@Setup
+	public void setup() {
+		// Keep the servers at roughly 90% load, whatever their number
+		timeLimit = (int) ((long) customers * 6 / servers / 0.9) + 10;
+		generated = CustomerGenerator.generateRandomClients(customers, 2, 9, timeLimit, new Random(42));
+	}
+	
+	@Benchmark
+	public SimulationStatistics run(EventCounter counter) {
+		QueueScheduler scheduler = new QueueScheduler(timeLimit, servers, Integer.MAX_VALUE, new NullLogDisplay());
+		scheduler.setStrategy(policy);
+		
+		EventSimulator simulator = new EventSimulator(scheduler, timeLimit);
+		SimulationStatistics statistics = simulator.run(generated);
+		counter.events += simulator.getProcessedEvents();
+		return statistics;
+	}
+}
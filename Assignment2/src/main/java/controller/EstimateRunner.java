@@ -0,0 +1,126 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import model.SimulationStatistics;
+import model.stats.QueueMetrics;
+import model.stats.QueueingEstimate;
+
+public class EstimateRunner {
+	
+	private static final String USAGE =
+			"Usage: EstimateRunner [config.properties] [key=value ...] [estimate=only|compare] [output=file]\n" +
+			"Estimates the simulation from queueing formulas; with estimate=compare, it is also\n" +
+			"simulated, followed by the errors of the estimate. Keys are those of HeadlessRunner.";
+	
+	/**
+	 * Writes the given analytical estimate as key=value lines. When the simulation
+	 * was run as well, the relative errors of the estimate against it follow, as a
+	 * report of how close the simulation gets to the queueing formulas.
+	 * @param estimate - the estimate to write
+	 * @param statistics - the statistics of the simulated run, or null if it was not run
+	 * @param out - the stream to write to
+	 */
+	public static void printEstimate(QueueingEstimate estimate, SimulationStatistics statistics, PrintStream out) {
+		out.println("estimate.arrivalRate=" + String.format("%.4f", estimate.getArrivalRate()));
+		out.println("estimate.utilisation=" + String.format("%.4f", estimate.getUtilisation()));
+		out.println("estimate.probabilityOfWaiting=" + String.format("%.4f", estimate.getProbabilityOfWaiting()));
+		out.println("estimate.queuedTime=" + String.format("%.2f", estimate.getQueuedTime()));
+		out.println("estimate.sojournTime=" + String.format("%.2f", estimate.getSojournTime()));
+		out.println("estimate.queueLength=" + String.format("%.2f", estimate.getQueueLength()));
+		
+		if(statistics == null || statistics.getMetrics() == null) return;
+		QueueMetrics metrics = statistics.getMetrics();
+		out.println("estimate.utilisationError=" + relativeError(metrics.getUtilisation(), estimate.getUtilisation()));
+		out.println("estimate.queuedTimeError=" + relativeError(metrics.getWaitingTime().getMean(), estimate.getQueuedTime()));
+		out.println("estimate.sojournTimeError=" + relativeError(metrics.getSojournTime().getMean(), estimate.getSojournTime()));
+	}
+	
+	/**
+	 * Formats how far the estimate is from the simulated value, relative to the latter.
+	 */
+	private static String relativeError(double simulated, double estimated) {
+		if(simulated == 0) return estimated == 0 ? "0.0000" : "-";
+		return String.format("%.4f", (estimated - simulated) / simulated);
+	}
+	
+	/**
+	 * Writes the statistics of the simulated run, if there is one, then the estimate.
+	 */
+	private static void print(QueueingEstimate estimate, SimulationStatistics statistics, PrintStream out) {
+		if(statistics != null) HeadlessRunner.printStatistics(statistics, out);
+		printEstimate(estimate, statistics, out);
+	}
+	
+	public static void main(String args[]) {
+		SimulationConfig config = new SimulationConfig();
+		String output = null;
+		boolean compare = false;
+		
+		// Arguments are applied in order, so later ones override earlier ones
+		try {
+			for(String arg : args) {
+				int split = arg.indexOf('=');
+				if(split < 0) {
+					config.load(Paths.get(arg));
+				} else if(arg.substring(0, split).equals("output")) {
+					output = arg.substring(split + 1);
+				} else if(arg.substring(0, split).equals("estimate")) {
+					String mode = arg.substring(split + 1);
+					if(!mode.equals("only") && !mode.equals("compare")) {
+						throw new IllegalArgumentException("estimate must be only or compare, not " + mode);
+					}
+					compare = mode.equals("compare");
+				} else {
+					config.set(arg.substring(0, split), arg.substring(split + 1));
+				}
+			}
+			config.validate(false);
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Invalid configuration: " + e.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		
+		// The estimate takes microseconds, so it is made before any simulation
+		QueueingEstimate estimate = null;
+		try {
+			estimate = config.estimate();
+		} catch (IllegalArgumentException e) {
+			System.err.println("Could not estimate the simulation: " + e.getMessage());
+			System.exit(1);
+		}
+		
+		SimulationStatistics statistics = null;
+		if(compare) {
+			try {
+				statistics = HeadlessRunner.run(config);
+			} catch (UncheckedIOException e) {
+				System.err.println("Could not access the arrival file: " + e.getMessage());
+				System.exit(1);
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				System.err.println("Invalid configuration: " + e.getMessage());
+				System.exit(1);
+			}
+		}
+		
+		if(output == null) {
+			print(estimate, statistics, System.out);
+		} else {
+			try(PrintStream out = new PrintStream(Files.newOutputStream(Paths.get(output)), true, StandardCharsets.UTF_8.name())) {
+				print(estimate, statistics, out);
+			} catch (IOException e) {
+				System.err.println("Could not write to " + output + ": " + e.getMessage());
+				System.exit(1);
+			}
+		}
+		
+		// Do not wait for any threads the run left behind, such as the display refreshers
+		System.exit(0);
+	}
+}
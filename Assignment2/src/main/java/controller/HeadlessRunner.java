@@ -0,0 +1,400 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.Customer;
+import model.CustomerGenerator;
+import model.QueueScheduler;
+import model.QueueScheduler.QueueType;
+import model.RealTimeSimulator;
+import model.SimulationStatistics;
+import model.Simulator;
+import model.arrival.ArrivalFiles;
+import model.arrival.ArrivalSource;
+import model.arrival.BinaryArrivalWriter;
+import model.arrival.GeneratedArrivalSource;
+import model.arrival.ListArrivalSource;
+import model.distribution.Distribution;
+import model.event.Checkpoint;
+import model.event.CheckpointWriter;
+import model.event.EventSimulator;
+import model.monitor.Instrumentation;
+import model.monitor.JmxMetricsRegistry;
+import model.monitor.MapMetricsRegistry;
+import model.monitor.MetricsRegistry;
+import model.network.NetworkStatistics;
+import model.stats.Histogram;
+import model.stats.QueueMetrics;
+import model.stats.ServerMetrics;
+import model.store.CustomerStore;
+import model.trace.TraceReader;
+import model.trace.TraceRecorder;
+import model.trace.TraceReplay;
+import model.trace.TraceWriter;
+import model.strategy.StrategyPowerOfChoices;
+import model.strategy.Strategy.Policy;
+
+public class HeadlessRunner {
+	
+	// Gives each measured run its own name, as sweeps measure several at once
+	private static final AtomicInteger RUN_COUNTER = new AtomicInteger();
+	
+	private static final String USAGE =
+			"Usage: HeadlessRunner [config.properties] [key=value ...] [output=file] [trace=file]\n" +
+			"       HeadlessRunner replay=file [output=file]\n" +
+			"       HeadlessRunner arrivalFile=file convert=file\n" +
+			"Keys: timeLimit, minProcessingTime, maxProcessingTime, numberOfQueues,\n" +
+			"      numberOfClients, maxClientsPerQueue, selectionPolicy, choices,\n" +
+			"      choicesBasis, engine, executionMode, seed, arrivalFile, compactCustomers,\n" +
+			"      monitoring, workStealing, admission, maxRetries, retryDelay,\n" +
+			"      overflowCapacity, batchDispatch, elasticPool, minServers, warmUp,\n" +
+			"      scaleUpWaitingTime, scaleUpQueueLength, scaleDownWaitingTime, scaleCooldown,\n" +
+			"      networkFile, checkpointFile, checkpointInterval, resumeFile, partitions,\n" +
+			"      arrivals, arrivalProfile, serviceDistribution\n" +
+			"Estimates, sweeps and replications have their own runners: EstimateRunner,\n" +
+			"ParameterSweep and Replications.";
+	
+	/**
+	 * Runs a single simulation with the given configuration, without any
+	 * user interface. Log events are discarded.
+	 * @param config - the parameters of the simulation
+	 * @return the statistics gathered over the simulation
+	 */
+	public static SimulationStatistics run(SimulationConfig config) {
+		try {
+			return run(config, null);
+		} catch (IOException e) {
+			// Nothing is written when there is no trace file
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Runs a single simulation with the given configuration, without any
+	 * user interface, recording every queue event in a binary trace file.
+	 * Log events are discarded.
+	 * @param config - the parameters of the simulation
+	 * @param traceFile - where to write the trace, or null not to write one
+	 * @return the statistics gathered over the simulation
+	 * @throws IOException if the arrival file cannot be read or the trace file cannot be written
+	 * @see TraceReplay
+	 */
+	public static SimulationStatistics run(SimulationConfig config, Path traceFile) throws IOException {
+		return run(config, traceFile, null);
+	}
+	
+	/**
+	 * Runs a single simulation with the given configuration, without any
+	 * user interface, optionally recording every queue event in a binary trace
+	 * file and publishing metrics of the scheduler and servers while it runs.
+	 * On the event engine, the run may take checkpoints or resume one, as per
+	 * {@link SimulationConfig#getCheckpointFile()} and {@link SimulationConfig#getResumeFile()}.
+	 * Queue networks and partitioned runs are handed to {@link NetworkRunner} and
+	 * {@link PartitionRunner}. Log events are discarded.
+	 * @param config - the parameters of the simulation
+	 * @param traceFile - where to write the trace, or null not to write one
+	 * @param registry - where to publish metrics, or null not to measure anything
+	 * @return the statistics gathered over the simulation
+	 * @throws IOException if the arrival or checkpoint file cannot be read, the trace
+	 * 				or checkpoint file cannot be written, or a partitioned run is interrupted
+	 * @throws IllegalArgumentException if some of the settings cannot be used together,
+	 * 				as per {@link SimulationConfig#validate(boolean)}
+	 * @see Instrumentation
+	 */
+	public static SimulationStatistics run(SimulationConfig config, Path traceFile, MetricsRegistry registry) throws IOException {
+		config.validate(traceFile != null);
+		LogDisplay logger = new NullLogDisplay();
+		if(config.getNetworkFile() != null) return NetworkRunner.run(config, registry, logger);
+		if(config.getPartitions() > 0) return PartitionRunner.run(config, logger);
+		
+		// Stealing takes Customers from the end of queues, which only deques allow
+		QueueType queueType = QueueType.LINKED;
+		if(config.isWorkStealing()) {
+			queueType = QueueType.DEQUE;
+		} else if(config.isCompactCustomers()) {
+			queueType = QueueType.COMPACT;
+		}
+		
+		Checkpoint resumed = null;
+		if(config.getResumeFile() != null) {
+			resumed = Checkpoint.read(Paths.get(config.getResumeFile()));
+		}
+		
+		QueueScheduler scheduler = new QueueScheduler(config.getTimeLimit(), config.getNumberOfQueues(),
+				config.getMaxClientsPerQueue(), queueType, logger);
+		applyStrategy(scheduler, config);
+		
+		scheduler.setAdmission(config.createAdmission());
+		if(config.isElasticPool()) {
+			config.applyElasticPool(scheduler);
+		}
+		
+		Simulator simulator;
+		CheckpointWriter checkpoints = null;
+		switch(config.getEngine()) {
+			case REAL_TIME:
+				RealTimeSimulator realTime = new RealTimeSimulator(scheduler, config.getTimeLimit(), logger);
+				realTime.setExecutionMode(config.getExecutionMode());
+				realTime.setBatchDispatch(config.isBatchDispatch());
+				simulator = realTime;
+				break;
+			case EVENT:
+			default:
+				EventSimulator events = new EventSimulator(scheduler, config.getTimeLimit());
+				events.setBatchDispatch(config.isBatchDispatch());
+				if(config.getCheckpointFile() != null) {
+					checkpoints = new CheckpointWriter(Paths.get(config.getCheckpointFile()));
+					events.setCheckpoints(config.getCheckpointInterval(), checkpoints);
+				}
+				simulator = events;
+				break;
+		}
+		if(config.isWorkStealing()) {
+			scheduler.enableWorkStealing(simulator::getCurrentTime);
+		}
+		
+		Instrumentation instrumentation = null;
+		if(registry != null) {
+			instrumentation = Instrumentation.attach(scheduler, registry, nextRunName());
+		}
+		
+		try(ArrivalSource arrivals = openArrivals(config)) {
+			if(traceFile == null) return start(simulator, arrivals, resumed);
+			
+			try(TraceWriter writer = new TraceWriter(traceFile)) {
+				TraceRecorder recorder = new TraceRecorder(writer, simulator::getCurrentTime);
+				recorder.attach(scheduler);
+				SimulationStatistics statistics = start(simulator, arrivals, resumed);
+				recorder.detach(scheduler);
+				return statistics;
+			}
+		} finally {
+			if(instrumentation != null) instrumentation.detach();
+			// The last checkpoint is complete on disk before the run returns
+			if(checkpoints != null) checkpoints.close();
+		}
+	}
+	
+	/**
+	 * Runs the given simulator from the start, or from the given checkpoint if there is one.
+	 */
+	private static SimulationStatistics start(Simulator simulator, ArrivalSource arrivals, Checkpoint resumed) throws IOException {
+		if(resumed == null) return simulator.run(arrivals);
+		return ((EventSimulator) simulator).resume(resumed, arrivals);
+	}
+	
+	/**
+	 * Gives a measured run a name of its own, under which its metrics are published.
+	 * @return a name not given to any other run of this process
+	 */
+	static String nextRunName() {
+		return "run-" + RUN_COUNTER.incrementAndGet();
+	}
+	
+	/**
+	 * Sets the strategy of the given QueueScheduler to the selection policy
+	 * of the given configuration.
+	 * @param scheduler - the QueueScheduler whose strategy to set
+	 * @param config - the configuration giving the policy and its settings
+	 */
+	static void applyStrategy(QueueScheduler scheduler, SimulationConfig config) {
+		if(config.getSelectionPolicy() == Policy.POWER_OF_D_CHOICES) {
+			// Seeded runs also make the same random choices, so they can be repeated exactly
+			scheduler.setStrategy(new StrategyPowerOfChoices(config.getChoices(), config.getChoicesBasis(), config.getSeed()));
+		} else {
+			scheduler.setStrategy(config.getSelectionPolicy());
+		}
+	}
+	
+	/**
+	 * Opens the Customers to simulate with the given configuration: those of its
+	 * arrival file if it has one, or randomly generated ones otherwise. Poisson
+	 * arrivals are generated as they are read, uniform ones all up front.
+	 * @param config - the parameters of the simulation
+	 * @return the Customers to simulate, in ascending order of arrival
+	 * @throws IOException if the arrival file cannot be read
+	 */
+	public static ArrivalSource openArrivals(SimulationConfig config) throws IOException {
+		if(config.getArrivalFile() != null) {
+			return ArrivalFiles.open(Paths.get(config.getArrivalFile()));
+		}
+		
+		Random rand = config.getSeed() == null ? new Random() : new Random(config.getSeed());
+		Distribution serviceTimes = config.createServiceDistribution();
+		if(config.getArrivals() == SimulationConfig.Arrivals.POISSON) {
+			// Without Customers the arrival rate is zero, and nothing ever arrives
+			if(config.getNumberOfClients() == 0) return new ListArrivalSource(Collections.<Customer>emptyList());
+			// Generated as they arrive, so there is no list to keep compact
+			return new GeneratedArrivalSource(config.createArrivalProcess(), serviceTimes, config.getTimeLimit(), rand);
+		}
+		if(config.isCompactCustomers()) {
+			return CustomerStore.generateRandomClients(config.getNumberOfClients(), serviceTimes, config.getTimeLimit(), rand).arrivals();
+		}
+		
+		List<Customer> customers = CustomerGenerator.generateRandomClients(config.getNumberOfClients(),
+				serviceTimes, config.getTimeLimit(), rand);
+		return new ListArrivalSource(customers);
+	}
+	
+	/**
+	 * Writes the given statistics to the given stream, one "key=value"
+	 * pair per line, so the output can itself be read as a properties file.
+	 * @param statistics - the statistics to write
+	 * @param out - the stream to write to
+	 */
+	public static void printStatistics(SimulationStatistics statistics, PrintStream out) {
+		out.println("peakHour=" + statistics.getPeakHour());
+		out.println("peakWaiting=" + statistics.getPeakWaiting());
+		out.println("dispatchedCustomers=" + statistics.getDispatchedCustomers());
+		out.println("totalWaitingTime=" + statistics.getTotalWaitingTime());
+		out.println("averageWaitingTime=" + statistics.getAverageWaitingTime());
+		out.println("rejectedCustomers=" + statistics.getRejectedCustomers());
+		out.println("redirectedCustomers=" + statistics.getRedirectedCustomers());
+		out.println("lossRate=" + String.format("%.4f", statistics.getLossRate()));
+		out.println("serverTime=" + statistics.getServerTime());
+		out.println("averageServers=" + String.format("%.2f", statistics.getAverageServers()));
+		out.println("peakServers=" + statistics.getPeakServers());
+		
+		QueueMetrics metrics = statistics.getMetrics();
+		if(metrics == null) return;
+		
+		printHistogram("queuedTime", metrics.getWaitingTime(), out);
+		printHistogram("sojournTime", metrics.getSojournTime(), out);
+		printHistogram("queueLength", metrics.getQueueLength(), out);
+		out.println("utilisation=" + String.format("%.4f", metrics.getUtilisation()));
+		if(statistics instanceof NetworkStatistics) {
+			NetworkRunner.printStages((NetworkStatistics) statistics, out);
+			return;
+		}
+		
+		for(ServerMetrics server : metrics.getServers()) {
+			String prefix = "server." + server.getServerId() + ".";
+			out.println(prefix + "utilisation=" + String.format("%.4f", metrics.getUtilisation(server.getServerId())));
+			printHistogram(prefix + "queuedTime", server.getWaitingTime(), out);
+			printHistogram(prefix + "sojournTime", server.getSojournTime(), out);
+		}
+	}
+	
+	private static void printMetrics(MapMetricsRegistry registry, PrintStream out) {
+		for(Map.Entry<String, Number> metric : registry.snapshot().entrySet()) {
+			out.println("metrics." + metric.getKey() + "=" + metric.getValue());
+		}
+	}
+	
+	static void printHistogram(String name, Histogram histogram, PrintStream out) {
+		out.println(name + ".mean=" + String.format("%.2f", histogram.getMean()));
+		out.println(name + ".p50=" + histogram.getValueAtPercentile(50));
+		out.println(name + ".p90=" + histogram.getValueAtPercentile(90));
+		out.println(name + ".p95=" + histogram.getValueAtPercentile(95));
+		out.println(name + ".p99=" + histogram.getValueAtPercentile(99));
+		out.println(name + ".max=" + histogram.getMax());
+	}
+	
+	/**
+	 * Writes the statistics, followed by the monitored metrics if there are any.
+	 */
+	private static void print(SimulationStatistics statistics, MapMetricsRegistry monitored, PrintStream out) {
+		printStatistics(statistics, out);
+		printMetrics(monitored, out);
+	}
+	
+	public static void main(String args[]) {
+		SimulationConfig config = new SimulationConfig();
+		String output = null;
+		Path trace = null;
+		Path replay = null;
+		Path convert = null;
+		
+		// Arguments are applied in order, so later ones override earlier ones
+		try {
+			for(String arg : args) {
+				int split = arg.indexOf('=');
+				if(split < 0) {
+					config.load(Paths.get(arg));
+				} else if(arg.substring(0, split).equals("output")) {
+					output = arg.substring(split + 1);
+				} else if(arg.substring(0, split).equals("trace")) {
+					trace = Paths.get(arg.substring(split + 1));
+				} else if(arg.substring(0, split).equals("replay")) {
+					replay = Paths.get(arg.substring(split + 1));
+				} else if(arg.substring(0, split).equals("convert")) {
+					convert = Paths.get(arg.substring(split + 1));
+				} else {
+					config.set(arg.substring(0, split), arg.substring(split + 1));
+				}
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Invalid configuration: " + e.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		
+		if(convert != null) {
+			// Rewrite the arrivals in the compact binary format, instead of simulating them
+			try(ArrivalSource arrivals = openArrivals(config)) {
+				long count = BinaryArrivalWriter.convert(arrivals, convert);
+				// Explicit ids are not kept, see BinaryArrivalWriter#write(Customer)
+				System.out.println("Wrote " + count + " customers to " + convert + ", numbered in order of arrival");
+			} catch (IOException | RuntimeException e) {
+				System.err.println("Could not convert the arrivals: " + e.getMessage());
+				System.exit(1);
+			}
+			return;
+		}
+		
+		SimulationStatistics statistics = null;
+		MapMetricsRegistry monitored = new MapMetricsRegistry();
+		try {
+			if(replay != null) {
+				try(TraceReader reader = new TraceReader(replay)) {
+					statistics = TraceReplay.replayStatistics(reader);
+				}
+			} else {
+				switch(config.getMonitoring()) {
+					case JMX:
+						statistics = run(config, trace, new JmxMetricsRegistry());
+						break;
+					case PRINT:
+						statistics = run(config, trace, monitored);
+						break;
+					case NONE:
+					default:
+						statistics = run(config, trace);
+						break;
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Could not access the arrival or trace file: " + e.getMessage());
+			System.exit(1);
+		} catch (IllegalArgumentException | IllegalStateException e) {
+			// Settings that clash, as per SimulationConfig#validate(boolean)
+			System.err.println("Invalid configuration: " + e.getMessage());
+			System.exit(1);
+		}
+		
+		if(output == null) {
+			print(statistics, monitored, System.out);
+		} else {
+			try(PrintStream out = new PrintStream(Files.newOutputStream(Paths.get(output)), true, StandardCharsets.UTF_8.name())) {
+				print(statistics, monitored, out);
+			} catch (IOException e) {
+				System.err.println("Could not write to " + output + ": " + e.getMessage());
+				System.exit(1);
+			}
+		}
+		
+		// Do not wait for any threads the run left behind, such as the display refreshers
+		System.exit(0);
+	}
+}
@@ -0,0 +1,107 @@
+package controller;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import model.QueueScheduler;
+import model.QueueScheduler.QueueType;
+import model.network.QueueNetwork;
+import model.network.Stage;
+
+public class NetworkConfig {
+
+	private static final String STAGE_PREFIX = "stage.";
+	private static final String ROUTE_PREFIX = "route.";
+	
+	/**
+	 * Reads a queue network from the properties file at the given path. The file
+	 * lists the names of the stages in order, e.g. "stages=intake,processing,checkout",
+	 * the first being where Customers enter. Each stage has the queues, strategy and
+	 * service times of the given configuration, unless overridden by keys such as
+	 * "stage.processing.numberOfQueues=8" or "stage.checkout.selectionPolicy=SHORTEST_QUEUE",
+	 * which accept the same keys as {@link SimulationConfig#set(String, String)}.
+	 * Routes are given as "route.intake.processing=0.9", the probability of going
+	 * from one stage to the other; Customers that no route takes leave the network.
+	 * @param path - the location of the properties file
+	 * @param defaults - the configuration each stage starts from
+	 * @param logger - a LogDisplay element to which the servers post log events
+	 * @return the network described by the file
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file contains an unknown key or invalid value
+	 */
+	public static QueueNetwork load(Path path, SimulationConfig defaults, LogDisplay logger) throws IOException {
+		Properties properties = new Properties();
+		try(Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		
+		String stageList = properties.getProperty("stages");
+		if(stageList == null || stageList.trim().isEmpty()) {
+			throw new IllegalArgumentException("The network file lists no stages");
+		}
+		String[] names = stageList.split(",");
+		
+		// Each stage gets its own copy of the configuration, with its overrides applied
+		SimulationConfig[] configs = new SimulationConfig[names.length];
+		for(int i = 0; i < names.length; ++i) {
+			names[i] = names[i].trim();
+			configs[i] = new SimulationConfig(defaults);
+		}
+		for(String key : properties.stringPropertyNames()) {
+			if(key.equals("stages")) continue;
+			
+			String value = properties.getProperty(key);
+			if(key.startsWith(STAGE_PREFIX)) {
+				String rest = key.substring(STAGE_PREFIX.length());
+				int split = rest.lastIndexOf('.');
+				int stage = split < 0 ? -1 : indexOf(names, rest.substring(0, split));
+				if(stage < 0) throw new IllegalArgumentException("Unknown stage in key: " + key);
+				configs[stage].set(rest.substring(split + 1), value);
+			} else if(!key.startsWith(ROUTE_PREFIX)) {
+				throw new IllegalArgumentException("Unknown network key: " + key);
+			}
+		}
+		
+		QueueNetwork network = new QueueNetwork();
+		for(int i = 0; i < names.length; ++i) {
+			SimulationConfig config = configs[i];
+			QueueScheduler scheduler = new QueueScheduler(config.getTimeLimit(), config.getNumberOfQueues(),
+					config.getMaxClientsPerQueue(), QueueType.LINKED, logger);
+			HeadlessRunner.applyStrategy(scheduler, config);
+			network.addStage(names[i], scheduler, config.getMinProcessingTime(), config.getMaxProcessingTime());
+		}
+		
+		// Stage names may contain dots, so routes are matched against every pair of names;
+		// they are added in a fixed order, so the same seed always gives the same routes
+		for(String key : new TreeSet<String>(properties.stringPropertyNames())) {
+			if(!key.startsWith(ROUTE_PREFIX)) continue;
+			
+			String rest = key.substring(ROUTE_PREFIX.length());
+			Stage from = null, to = null;
+			for(Stage stage : network.getStages()) {
+				String prefix = stage.getName() + ".";
+				if(rest.startsWith(prefix) && network.getStage(rest.substring(prefix.length())) != null) {
+					from = stage;
+					to = network.getStage(rest.substring(prefix.length()));
+					break;
+				}
+			}
+			if(from == null) throw new IllegalArgumentException("Unknown stages in route: " + key);
+			network.route(from, to, Double.parseDouble(properties.getProperty(key).trim()));
+		}
+		
+		return network;
+	}
+	
+	private static int indexOf(String[] names, String name) {
+		for(int i = 0; i < names.length; ++i) {
+			if(names[i].equals(name)) return i;
+		}
+		return -1;
+	}
+}
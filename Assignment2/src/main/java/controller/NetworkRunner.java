@@ -0,0 +1,74 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.arrival.ArrivalSource;
+import model.event.NetworkSimulator;
+import model.monitor.Instrumentation;
+import model.monitor.MetricsRegistry;
+import model.network.NetworkStatistics;
+import model.network.QueueNetwork;
+import model.network.Stage;
+import model.stats.QueueMetrics;
+
+public class NetworkRunner {
+	
+	/**
+	 * Runs the queue network described by the network file of the given configuration
+	 * on the event engine, without any user interface, publishing the metrics of every
+	 * stage under its own name.
+	 * @param config - the parameters of the simulation, which are also the defaults of the stages
+	 * @param registry - where to publish metrics, or null not to measure anything
+	 * @param logger - where the stages write their log events
+	 * @return the statistics gathered over the simulation, with those of every stage
+	 * @throws IOException if the network or arrival file cannot be read
+	 * @throws IllegalArgumentException if the configuration does not describe a network
+	 * 				that can be simulated, as per {@link SimulationConfig#validate(boolean)}
+	 */
+	public static NetworkStatistics run(SimulationConfig config, MetricsRegistry registry, LogDisplay logger) throws IOException {
+		if(config.getNetworkFile() == null) throw new IllegalArgumentException("No network file is configured");
+		config.validate(false);
+		
+		QueueNetwork network = NetworkConfig.load(Paths.get(config.getNetworkFile()), config, logger);
+		NetworkSimulator simulator = new NetworkSimulator(network, config.getTimeLimit(), config.getSeed());
+		
+		List<Instrumentation> instrumentations = new ArrayList<Instrumentation>();
+		if(registry != null) {
+			String name = HeadlessRunner.nextRunName();
+			for(Stage stage : network.getStages()) {
+				instrumentations.add(Instrumentation.attach(stage.getScheduler(), registry, name + "." + stage.getName()));
+			}
+		}
+		
+		try(ArrivalSource arrivals = HeadlessRunner.openArrivals(config)) {
+			return simulator.run(arrivals);
+		} finally {
+			for(Instrumentation instrumentation : instrumentations) {
+				instrumentation.detach();
+			}
+		}
+	}
+	
+	/**
+	 * Writes the end-to-end time of a queue network, then the metrics of each stage.
+	 * Servers are only summarised per stage, as networks may have thousands of them.
+	 * @param statistics - the statistics of the network
+	 * @param out - the stream to write to
+	 */
+	static void printStages(NetworkStatistics statistics, PrintStream out) {
+		HeadlessRunner.printHistogram("endToEndTime", statistics.getEndToEndTime(), out);
+		for(int i = 0; i < statistics.getStageNames().size(); ++i) {
+			String prefix = "stage." + statistics.getStageNames().get(i) + ".";
+			QueueMetrics metrics = statistics.getStageMetrics(i);
+			out.println(prefix + "visits=" + metrics.getSojournTime().getCount());
+			out.println(prefix + "utilisation=" + String.format("%.4f", metrics.getUtilisation()));
+			HeadlessRunner.printHistogram(prefix + "queuedTime", metrics.getWaitingTime(), out);
+			HeadlessRunner.printHistogram(prefix + "sojournTime", metrics.getSojournTime(), out);
+			HeadlessRunner.printHistogram(prefix + "queueLength", metrics.getQueueLength(), out);
+		}
+	}
+}
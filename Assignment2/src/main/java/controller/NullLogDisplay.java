@@ -0,0 +1,23 @@
+package controller;
+
+public class NullLogDisplay implements LogDisplay {
+	
+	/**
+	 * Always returns an empty String, since this LogDisplay discards
+	 * everything written to it.
+	 */
+	@Override
+	public String getText() {
+		return "";
+	}
+
+	@Override
+	public void setText(String text) {
+		// Discarded
+	}
+
+	@Override
+	public void addTextLine(String text) {
+		// Discarded
+	}
+}
@@ -0,0 +1,275 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import model.stats.QueueMetrics;
+import model.stats.QueueingEstimate;
+import model.strategy.Strategy.Policy;
+
+public class ParameterSweep {
+	
+	private static final String USAGE =
+			"Usage: ParameterSweep [config.properties] [key=value ...] [output=file] [parallelism=n]\n" +
+			"Values may be single values, comma-separated lists (SHORTEST_QUEUE,SHORTEST_TIME)\n" +
+			"or integer ranges (2..16 or 2..16:2). Every combination of values is simulated,\n" +
+			"except those estimated above maxUtilisation=u (e.g. 0.95), which are pruned.";
+	
+	private final SimulationConfig base;
+	private final Map<String, List<String>> dimensions = new LinkedHashMap<String, List<String>>();
+	private double maxUtilisation = Double.POSITIVE_INFINITY;
+	
+	/**
+	 * Creates a new ParameterSweep whose runs start from the given configuration.
+	 * Parameters that are not swept keep the values of this configuration.
+	 * @param base - the configuration shared by all runs
+	 */
+	public ParameterSweep(SimulationConfig base) {
+		this.base = new SimulationConfig(base);
+	}
+	
+	/**
+	 * Adds a parameter to sweep over. Every value of the parameter is combined
+	 * with every value of the other swept parameters. Adding the same key twice
+	 * replaces its previous values.
+	 * @param key - the name of the parameter, as per {@link SimulationConfig#set(String, String)}
+	 * @param values - the values the parameter takes
+	 */
+	public void addValues(String key, List<String> values) {
+		dimensions.put(key, new ArrayList<String>(values));
+	}
+	
+	/**
+	 * Parses a value specification, which is either a comma-separated list of
+	 * values or an integer range in the form "from..to" or "from..to:step",
+	 * with both ends included.
+	 * @param spec - the value specification
+	 * @return the list of values described
+	 * @throws IllegalArgumentException if a range is malformed
+	 */
+	public static List<String> parseValues(String spec) {
+		int dots = spec.indexOf("..");
+		if(dots < 0) return Arrays.asList(spec.split(","));
+		
+		int colon = spec.indexOf(':', dots);
+		int from = Integer.parseInt(spec.substring(0, dots).trim());
+		int to = Integer.parseInt(spec.substring(dots + 2, colon < 0 ? spec.length() : colon).trim());
+		int step = colon < 0 ? 1 : Integer.parseInt(spec.substring(colon + 1).trim());
+		if(step <= 0 || to < from) throw new IllegalArgumentException("Invalid range: " + spec);
+		
+		List<String> values = new ArrayList<String>();
+		for(int v = from; v <= to; v += step) {
+			values.add(Integer.toString(v));
+		}
+		return values;
+	}
+	
+	/**
+	 * Builds one independent configuration for every combination of the
+	 * swept parameter values, in lexicographic order of the parameters
+	 * as they were added.
+	 * @return a list of configurations, one per run
+	 */
+	public List<SimulationConfig> getConfigurations() {
+		List<SimulationConfig> configs = new ArrayList<SimulationConfig>();
+		configs.add(new SimulationConfig(base));
+		
+		for(Map.Entry<String, List<String>> dimension : dimensions.entrySet()) {
+			List<SimulationConfig> expanded = new ArrayList<SimulationConfig>(configs.size() * dimension.getValue().size());
+			for(SimulationConfig config : configs) {
+				for(String value : dimension.getValue()) {
+					SimulationConfig copy = new SimulationConfig(config);
+					copy.set(dimension.getKey(), value);
+					expanded.add(copy);
+				}
+			}
+			configs = expanded;
+		}
+		
+		return configs;
+	}
+	
+	/**
+	 * Skips simulating the configurations whose estimated utilisation is above the
+	 * given bound, as their queues would only grow. Configurations that cannot be
+	 * estimated are always simulated.
+	 * @param maxUtilisation - the highest estimated utilisation still simulated
+	 * @see SimulationConfig#estimate()
+	 */
+	public void setMaxUtilisation(double maxUtilisation) {
+		this.maxUtilisation = maxUtilisation;
+	}
+	
+	/**
+	 * Runs every configuration of this sweep as an independent simulation,
+	 * spread over the given number of worker threads. When the base configuration
+	 * has a seed, all runs see the same Customers, so they can be compared fairly.
+	 * Each run is estimated first, and pruned if the estimate is too poor, as per
+	 * {@link #setMaxUtilisation(double)}.
+	 * @param parallelism - the number of simulations to run at the same time
+	 * @return the results, in the same order as {@link #getConfigurations()}
+	 * @throws InterruptedException if interrupted while waiting for the runs
+	 * @throws IllegalArgumentException if the parallelism is less than 1
+	 */
+	public List<SweepResult> run(int parallelism) throws InterruptedException {
+		if(parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1, not " + parallelism);
+		List<SimulationConfig> configs = getConfigurations();
+		
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.submit(() -> configs.parallelStream()
+					.map(this::run)
+					.collect(Collectors.toList())).get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A simulation run failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+	}
+	
+	private SweepResult run(SimulationConfig config) {
+		QueueingEstimate estimate = null;
+		try {
+			estimate = config.estimate();
+		} catch (IllegalArgumentException e) {
+			// Arrival files and networks are simulated without an estimate
+		}
+		
+		if(estimate != null && estimate.getUtilisation() > maxUtilisation) {
+			return new SweepResult(config, null, estimate);
+		}
+		return new SweepResult(config, HeadlessRunner.run(config), estimate);
+	}
+	
+	/**
+	 * Writes the given results as a tab-separated table, with a header line
+	 * followed by one line per run. The estimated time in queue and utilisation
+	 * follow the simulated ones, to show how far apart they are. Pruned runs
+	 * only have their estimates, and configurations without one have none.
+	 * @param results - the results to write
+	 * @param out - the stream to write to
+	 */
+	public static void printTable(List<SweepResult> results, PrintStream out) {
+		out.println("queues\tmaxPerQueue\tminServe\tmaxServe\tpolicy\tavgWait\tpeakHour\tpeakWaiting"
+				+ "\tp95Queued\tp99Queued\tutilisation\tlossRate\tserverTime"
+				+ "\tmeanQueued\testQueued\testUtilisation");
+		for(SweepResult result : results) {
+			SimulationConfig c = result.getConfig();
+			String line = c.getNumberOfQueues() + "\t" + c.getMaxClientsPerQueue() + "\t"
+					+ c.getMinProcessingTime() + "\t" + c.getMaxProcessingTime() + "\t" + describePolicy(c) + "\t";
+			
+			if(result.isPruned()) {
+				line += "-\t-\t-\t-\t-\t-\t-\t-\t-";
+			} else {
+				QueueMetrics metrics = result.getStatistics().getMetrics();
+				line += result.getStatistics().getAverageWaitingTime() + "\t"
+						+ result.getStatistics().getPeakHour() + "\t" + result.getStatistics().getPeakWaiting() + "\t"
+						+ metrics.getWaitingTime().getValueAtPercentile(95) + "\t"
+						+ metrics.getWaitingTime().getValueAtPercentile(99) + "\t"
+						+ String.format("%.3f", metrics.getUtilisation()) + "\t"
+						+ String.format("%.4f", result.getStatistics().getLossRate()) + "\t"
+						+ result.getStatistics().getServerTime() + "\t"
+						+ String.format("%.2f", metrics.getWaitingTime().getMean());
+			}
+			
+			QueueingEstimate estimate = result.getEstimate();
+			if(estimate == null) {
+				line += "\t-\t-";
+			} else {
+				line += "\t" + String.format("%.2f", estimate.getQueuedTime())
+						+ "\t" + String.format("%.3f", estimate.getUtilisation());
+			}
+			out.println(line);
+		}
+	}
+	
+	private static String describePolicy(SimulationConfig config) {
+		if(config.getSelectionPolicy() != Policy.POWER_OF_D_CHOICES) return config.getSelectionPolicy().toString();
+		return config.getSelectionPolicy() + "(" + config.getChoices() + ", " + config.getChoicesBasis() + ")";
+	}
+	
+	public static void main(String args[]) {
+		SimulationConfig config = new SimulationConfig();
+		Map<String, List<String>> sweeps = new LinkedHashMap<String, List<String>>();
+		String output = null;
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		double maxUtilisation = Double.POSITIVE_INFINITY;
+		
+		try {
+			for(String arg : args) {
+				int split = arg.indexOf('=');
+				if(split < 0) {
+					config.load(Paths.get(arg));
+					continue;
+				}
+				
+				String key = arg.substring(0, split);
+				String value = arg.substring(split + 1);
+				if(key.equals("output")) {
+					output = value;
+				} else if(key.equals("parallelism")) {
+					parallelism = Integer.parseInt(value);
+					if(parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1, not " + parallelism);
+				} else if(key.equals("maxUtilisation")) {
+					maxUtilisation = Double.parseDouble(value);
+				} else {
+					List<String> values = parseValues(value);
+					// Check every value up front, rather than in the middle of the sweep
+					for(String v : values) {
+						new SimulationConfig().set(key, v);
+					}
+					sweeps.put(key, values);
+				}
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Invalid configuration: " + e.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		
+		ParameterSweep sweep = new ParameterSweep(config);
+		sweep.setMaxUtilisation(maxUtilisation);
+		for(Map.Entry<String, List<String>> entry : sweeps.entrySet()) {
+			sweep.addValues(entry.getKey(), entry.getValue());
+		}
+		
+		// Combinations of values may clash even when every value is valid alone
+		try {
+			for(SimulationConfig run : sweep.getConfigurations()) {
+				run.validate(false);
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println("Invalid configuration: " + e.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		
+		try {
+			List<SweepResult> results = sweep.run(parallelism);
+			if(output == null) {
+				printTable(results, System.out);
+			} else {
+				try(PrintStream out = new PrintStream(Files.newOutputStream(Paths.get(output)), true, StandardCharsets.UTF_8.name())) {
+					printTable(results, out);
+				}
+			}
+		} catch (InterruptedException e) {
+			System.out.println("Interrupted in ParameterSweep#main!");
+			e.printStackTrace();
+		} catch (IOException e) {
+			System.err.println("Could not write to " + output + ": " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
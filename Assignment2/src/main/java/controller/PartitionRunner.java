@@ -0,0 +1,102 @@
+package controller;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.QueueScheduler.QueueType;
+import model.SimulationStatistics;
+import model.arrival.ArrivalSource;
+import model.partition.PartitionWorker;
+import model.partition.PartitionedSimulator;
+import model.strategy.StrategyPowerOfChoices;
+import model.strategy.Strategy.Policy;
+
+public class PartitionRunner {
+	
+	private static final String USAGE = "Usage: PartitionRunner worker=host:port";
+	
+	/**
+	 * Runs the simulation of the given configuration with its servers spread over
+	 * worker processes, started here from the same class path, as per {@link PartitionedSimulator}.
+	 * The scheduler and servers of the workers are not instrumented. If the run fails or
+	 * the thread is interrupted, the workers still running are destroyed.
+	 * @param config - the parameters of the simulation, with at least one partition
+	 * @param logger - where log events are written
+	 * @return the statistics gathered over the simulation
+	 * @throws IOException if the arrival file cannot be read, the workers cannot be
+	 * 				started or reached, or the thread is interrupted, which is thrown as an
+	 * 				InterruptedIOException, with the thread's interrupt flag set again
+	 * @throws IllegalArgumentException if the configuration cannot be partitioned,
+	 * 				as per {@link SimulationConfig#validate(boolean)}
+	 */
+	public static SimulationStatistics run(SimulationConfig config, LogDisplay logger) throws IOException {
+		if(config.getPartitions() <= 0) throw new IllegalArgumentException("No partitions are configured");
+		config.validate(false);
+		
+		QueueType queueType = config.isCompactCustomers() ? QueueType.COMPACT : QueueType.LINKED;
+		PartitionedSimulator simulator = new PartitionedSimulator(config.getNumberOfQueues(), config.getMaxClientsPerQueue(),
+				queueType, config.getTimeLimit(), config.getPartitions(), logger);
+		if(config.getSelectionPolicy() == Policy.POWER_OF_D_CHOICES) {
+			simulator.setStrategy(new StrategyPowerOfChoices(config.getChoices(), config.getChoicesBasis(), config.getSeed()));
+		} else {
+			simulator.setStrategy(config.getSelectionPolicy());
+		}
+		
+		// Workers run this class again, connecting back to the port given to them
+		int port = simulator.listen();
+		String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+		List<Process> workers = new ArrayList<Process>();
+		try {
+			for(int w = 0; w < config.getPartitions(); ++w) {
+				workers.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+						PartitionRunner.class.getName(), "worker=127.0.0.1:" + port).inheritIO().start());
+			}
+			
+			SimulationStatistics statistics;
+			try(ArrivalSource arrivals = HeadlessRunner.openArrivals(config)) {
+				statistics = simulator.run(arrivals);
+			}
+			for(Process worker : workers) {
+				worker.waitFor();
+			}
+			return statistics;
+		} catch (InterruptedException e) {
+			// Keep the interrupt for the caller, whose run cannot be completed
+			Thread.currentThread().interrupt();
+			InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for the workers");
+			interrupted.initCause(e);
+			throw interrupted;
+		} finally {
+			// Workers that are still running after a failure or interruption are stopped
+			for(Process worker : workers) {
+				if(worker.isAlive()) worker.destroy();
+			}
+		}
+	}
+	
+	/**
+	 * Simulates one partition for the {@link PartitionedSimulator} at the given address, then exits.
+	 */
+	private static void runWorker(String address) {
+		int split = address.lastIndexOf(':');
+		try(PartitionWorker worker = new PartitionWorker(address.substring(0, split),
+				Integer.parseInt(address.substring(split + 1)), new NullLogDisplay())) {
+			worker.run();
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Partition worker failed: " + e.getMessage());
+			System.exit(1);
+		}
+		System.exit(0);
+	}
+	
+	public static void main(String args[]) {
+		if(args.length != 1 || !args[0].startsWith("worker=") || args[0].lastIndexOf(':') < 0) {
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		runWorker(args[0].substring("worker=".length()));
+	}
+}
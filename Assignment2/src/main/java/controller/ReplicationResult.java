@@ -0,0 +1,109 @@
+package controller;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import model.SimulationStatistics;
+import model.stats.QueueMetrics;
+import model.stats.SampleStatistics;
+
+public class ReplicationResult {
+	
+	/**
+	 * Names of the per-replication values summarised by a ReplicationResult
+	 */
+	public static final String AVERAGE_WAITING_TIME = "averageWaitingTime";
+	public static final String QUEUED_TIME = "queuedTime.mean";
+	public static final String QUEUED_TIME_P95 = "queuedTime.p95";
+	public static final String PEAK_WAITING = "peakWaiting";
+	public static final String UTILISATION = "utilisation";
+	public static final String SERVER_TIME = "serverTime";
+	
+	private final long seed;
+	private final Map<String, SampleStatistics> samples = new LinkedHashMap<String, SampleStatistics>();
+	private QueueMetrics pooledMetrics = null;
+	private boolean converged = false;
+	
+	/**
+	 * Creates a new, empty ReplicationResult for replications whose random
+	 * streams are split from the given seed.
+	 * @param seed - the seed the replications were derived from
+	 */
+	public ReplicationResult(long seed) {
+		this.seed = seed;
+		for(String name : new String[] {AVERAGE_WAITING_TIME, QUEUED_TIME, QUEUED_TIME_P95, PEAK_WAITING, UTILISATION, SERVER_TIME}) {
+			samples.put(name, new SampleStatistics());
+		}
+	}
+	
+	/**
+	 * Adds the statistics of one more replication.
+	 * @param statistics - the statistics gathered by the replication
+	 */
+	public void add(SimulationStatistics statistics) {
+		QueueMetrics metrics = statistics.getMetrics();
+		
+		// The exact average, rather than the rounded down one
+		samples.get(AVERAGE_WAITING_TIME).add(statistics.getDispatchedCustomers() == 0 ? 0
+				: (double) statistics.getTotalWaitingTime() / statistics.getDispatchedCustomers());
+		samples.get(QUEUED_TIME).add(metrics.getWaitingTime().getMean());
+		samples.get(QUEUED_TIME_P95).add(metrics.getWaitingTime().getValueAtPercentile(95));
+		samples.get(PEAK_WAITING).add(statistics.getPeakWaiting());
+		samples.get(UTILISATION).add(metrics.getUtilisation());
+		samples.get(SERVER_TIME).add(statistics.getServerTime());
+		
+		if(pooledMetrics == null) {
+			pooledMetrics = new QueueMetrics(metrics.getServers(), metrics.getElapsedTime());
+		} else {
+			pooledMetrics.add(metrics);
+		}
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+	
+	public long getReplications() {
+		return samples.get(PEAK_WAITING).getCount();
+	}
+	
+	/**
+	 * Returns the summary of one of the per-replication values, such as {@link #QUEUED_TIME}.
+	 * @param name - the name of the value
+	 * @return the mean, variance and confidence interval of the value across replications
+	 */
+	public SampleStatistics getSample(String name) {
+		return samples.get(name);
+	}
+	
+	/**
+	 * Returns the summaries of every per-replication value, by name.
+	 * @return an unmodifiable map of summaries
+	 */
+	public Map<String, SampleStatistics> getSamples() {
+		return Collections.unmodifiableMap(samples);
+	}
+	
+	/**
+	 * Returns the waiting time, sojourn time and queue length histograms of
+	 * all replications together.
+	 * @return the pooled metrics, or null if there were no replications
+	 */
+	public QueueMetrics getPooledMetrics() {
+		return pooledMetrics;
+	}
+	
+	/**
+	 * Checks whether the replications stopped because the confidence intervals
+	 * became narrow enough, rather than because the maximum number was reached.
+	 * @return true if the requested precision was reached
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
+	void setConverged(boolean converged) {
+		this.converged = converged;
+	}
+}
@@ -0,0 +1,310 @@
+package controller;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import model.SimulationStatistics;
+import model.stats.Histogram;
+import model.stats.SampleStatistics;
+
+public class Replications {
+	
+	private static final String USAGE =
+			"Usage: Replications [config.properties] [key=value ...] [output=file] [parallelism=n]\n" +
+			"                    [replications=max] [minReplications=n] [batch=n]\n" +
+			"                    [precision=fraction] [confidence=level]\n" +
+			"Runs independent replications of one configuration, split from its seed,\n" +
+			"until the confidence intervals of the mean time in queue and of the peak\n" +
+			"load are within the given fraction of their means.";
+	
+	private final SimulationConfig base;
+	private static final int DEFAULT_MIN_REPLICATIONS = 5;
+	
+	// Null until set, so that a lower maximum also lowers the default minimum
+	private Integer minReplications = null;
+	private int maxReplications = 100;
+	private double precision = 0.05;
+	private double confidence = 0.95;
+	
+	/**
+	 * Creates a new Replications of the given configuration. If it has a seed,
+	 * every replication's seed is split from it, so the whole set can be repeated
+	 * exactly; otherwise a seed is picked at random and reported in the result.
+	 * @param base - the configuration to replicate
+	 */
+	public Replications(SimulationConfig base) {
+		this.base = new SimulationConfig(base);
+	}
+	
+	/**
+	 * Runs replications in batches of the given size, each batch spread over
+	 * the worker threads, until the mean time in queue and the peak load are
+	 * both known precisely enough or the maximum number of replications is
+	 * reached. Replications are numbered and summarised in the same order
+	 * whatever the number of threads, so the result only depends on the seed
+	 * and the batch size.
+	 * @param parallelism - the number of replications to run at the same time
+	 * @param batch - the number of replications between two checks of precision
+	 * @return the summary of all replications run
+	 * @throws InterruptedException if interrupted while waiting for the replications
+	 * @throws IllegalArgumentException if the parallelism or batch size is below 1, or
+	 * 				the minimum number of replications is above the maximum
+	 */
+	public ReplicationResult run(int parallelism, int batch) throws InterruptedException {
+		validate(parallelism, batch);
+		
+		long seed = base.getSeed() != null ? base.getSeed() : new SplittableRandom().nextLong();
+		SplittableRandom streams = new SplittableRandom(seed);
+		ReplicationResult result = new ReplicationResult(seed);
+		
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			while(result.getReplications() < maxReplications) {
+				int size = (int) Math.min(batch, maxReplications - result.getReplications());
+				
+				// Split the streams in order, before running anything in parallel
+				List<SimulationConfig> configs = new ArrayList<SimulationConfig>(size);
+				for(int i = 0; i < size; ++i) {
+					SimulationConfig config = new SimulationConfig(base);
+					config.setSeed(streams.split().nextLong());
+					configs.add(config);
+				}
+				
+				List<SimulationStatistics> statistics = pool.submit(() -> configs.parallelStream()
+						.map(HeadlessRunner::run)
+						.collect(Collectors.toList())).get();
+				for(SimulationStatistics replication : statistics) {
+					result.add(replication);
+				}
+				
+				if(result.getReplications() >= getMinReplications() && isPrecise(result)) {
+					result.setConverged(true);
+					break;
+				}
+			}
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A replication failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+		
+		return result;
+	}
+	
+	/**
+	 * Checks that replications can be run with the given settings and those of this object.
+	 * @param parallelism - the number of replications to run at the same time
+	 * @param batch - the number of replications between two checks of precision
+	 * @throws IllegalArgumentException if any of them is out of range
+	 */
+	public void validate(int parallelism, int batch) {
+		if(parallelism < 1) throw new IllegalArgumentException("parallelism must be at least 1, not " + parallelism);
+		if(batch < 1) throw new IllegalArgumentException("batch must be at least 1, not " + batch);
+		if(minReplications != null && minReplications > maxReplications) {
+			throw new IllegalArgumentException("minReplications (" + minReplications
+					+ ") must not be above replications (" + maxReplications + ")");
+		}
+	}
+	
+	private boolean isPrecise(ReplicationResult result) {
+		return result.getSample(ReplicationResult.QUEUED_TIME).isPrecise(confidence, precision)
+				&& result.getSample(ReplicationResult.PEAK_WAITING).isPrecise(confidence, precision);
+	}
+	
+	/**
+	 * Writes the given result as "key=value" lines: for each summarised value
+	 * its mean, standard deviation and confidence interval, followed by
+	 * percentiles of all replications pooled together.
+	 * @param result - the result to write
+	 * @param confidence - the confidence level of the intervals
+	 * @param out - the stream to write to
+	 */
+	public static void printResult(ReplicationResult result, double confidence, PrintStream out) {
+		out.println("seed=" + result.getSeed());
+		out.println("replications=" + result.getReplications());
+		out.println("converged=" + result.isConverged());
+		out.println("confidence=" + confidence);
+		
+		for(Map.Entry<String, SampleStatistics> entry : result.getSamples().entrySet()) {
+			SampleStatistics sample = entry.getValue();
+			double halfWidth = sample.getHalfWidth(confidence);
+			out.println(entry.getKey() + ".mean=" + String.format("%.4f", sample.getMean()));
+			out.println(entry.getKey() + ".stdDev=" + String.format("%.4f", sample.getStandardDeviation()));
+			out.println(entry.getKey() + ".low=" + String.format("%.4f", sample.getMean() - halfWidth));
+			out.println(entry.getKey() + ".high=" + String.format("%.4f", sample.getMean() + halfWidth));
+		}
+		
+		if(result.getPooledMetrics() == null) return;
+		Histogram queued = result.getPooledMetrics().getWaitingTime();
+		out.println("pooled.queuedTime.p50=" + queued.getValueAtPercentile(50));
+		out.println("pooled.queuedTime.p95=" + queued.getValueAtPercentile(95));
+		out.println("pooled.queuedTime.p99=" + queued.getValueAtPercentile(99));
+		out.println("pooled.queuedTime.max=" + queued.getMax());
+	}
+
+	/**
+	 * Returns the number of replications run before their precision is first checked:
+	 * the one set, or by default 5, or the maximum number of replications if lower.
+	 * @return the minimum number of replications
+	 */
+	public int getMinReplications() {
+		return minReplications != null ? minReplications : Math.min(DEFAULT_MIN_REPLICATIONS, maxReplications);
+	}
+
+	/**
+	 * Sets the number of replications run before their precision is first checked.
+	 * @param minReplications - the minimum number of replications, at least 1
+	 * @throws IllegalArgumentException if the number is below 1
+	 */
+	public void setMinReplications(int minReplications) {
+		if(minReplications < 1) throw new IllegalArgumentException("minReplications must be at least 1, not " + minReplications);
+		this.minReplications = minReplications;
+	}
+
+	public int getMaxReplications() {
+		return maxReplications;
+	}
+
+	/**
+	 * Sets the number of replications after which the run stops, however precise.
+	 * @param maxReplications - the maximum number of replications, at least 1
+	 * @throws IllegalArgumentException if the number is below 1
+	 */
+	public void setMaxReplications(int maxReplications) {
+		if(maxReplications < 1) throw new IllegalArgumentException("replications must be at least 1, not " + maxReplications);
+		this.maxReplications = maxReplications;
+	}
+	
+	/**
+	 * Returns the largest accepted half-width of the confidence intervals,
+	 * as a fraction of their means.
+	 * @return the target precision, e.g. 0.05 for plus or minus 5%
+	 */
+	public double getPrecision() {
+		return precision;
+	}
+
+	/**
+	 * Sets the largest accepted half-width of the confidence intervals.
+	 * @param precision - the target precision, as a positive fraction of the means
+	 * @throws IllegalArgumentException if the precision is not positive
+	 */
+	public void setPrecision(double precision) {
+		if(!(precision > 0)) throw new IllegalArgumentException("precision must be positive, not " + precision);
+		this.precision = precision;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Sets the confidence level of the intervals.
+	 * @param confidence - the level, strictly between 0 and 1
+	 * @throws IllegalArgumentException if the level is out of range
+	 */
+	public void setConfidence(double confidence) {
+		if(!(confidence > 0 && confidence < 1)) {
+			throw new IllegalArgumentException("confidence must be between 0 and 1, not " + confidence);
+		}
+		this.confidence = confidence;
+	}
+	
+	public static void main(String args[]) {
+		SimulationConfig config = new SimulationConfig();
+		String output = null;
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		Integer batch = null;
+		Replications replications = null;
+		
+		// Arguments are applied in order, so later ones override earlier ones
+		try {
+			List<String[]> options = new ArrayList<String[]>();
+			for(String arg : args) {
+				int split = arg.indexOf('=');
+				if(split < 0) {
+					config.load(Paths.get(arg));
+					continue;
+				}
+				
+				String key = arg.substring(0, split);
+				String value = arg.substring(split + 1);
+				switch(key) {
+					case "output":
+						output = value;
+						break;
+					case "parallelism":
+						parallelism = Integer.parseInt(value);
+						break;
+					case "batch":
+						batch = Integer.parseInt(value);
+						break;
+					case "replications":
+					case "minReplications":
+					case "precision":
+					case "confidence":
+						options.add(new String[] {key, value});
+						break;
+					default:
+						config.set(key, value);
+						break;
+				}
+			}
+			
+			replications = new Replications(config);
+			for(String[] option : options) {
+				switch(option[0]) {
+					case "replications":
+						replications.setMaxReplications(Integer.parseInt(option[1]));
+						break;
+					case "minReplications":
+						replications.setMinReplications(Integer.parseInt(option[1]));
+						break;
+					case "precision":
+						replications.setPrecision(Double.parseDouble(option[1]));
+						break;
+					case "confidence":
+						replications.setConfidence(Double.parseDouble(option[1]));
+						break;
+				}
+			}
+			
+			config.validate(false);
+			
+			// Batches default to one replication per thread
+			if(batch == null) batch = parallelism;
+			replications.validate(parallelism, batch);
+		} catch (IOException | IllegalArgumentException e) {
+			System.err.println("Invalid configuration: " + e.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+		
+		try {
+			ReplicationResult result = replications.run(parallelism, batch);
+			if(output == null) {
+				printResult(result, replications.getConfidence(), System.out);
+			} else {
+				try(PrintStream out = new PrintStream(Files.newOutputStream(Paths.get(output)), true, StandardCharsets.UTF_8.name())) {
+					printResult(result, replications.getConfidence(), out);
+				}
+			}
+		} catch (InterruptedException e) {
+			System.out.println("Interrupted in Replications#main!");
+			e.printStackTrace();
+		} catch (IOException e) {
+			System.err.println("Could not write to " + output + ": " + e.getMessage());
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,833 @@
+package controller;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import model.AdmissionControl;
+import model.ElasticPool;
+import model.ExecutionMode;
+import model.QueueScheduler;
+import model.distribution.ArrivalProcess;
+import model.distribution.Distribution;
+import model.distribution.Distributions;
+import model.distribution.PoissonProcess;
+import model.distribution.ThinnedPoissonProcess;
+import model.distribution.UniformDistribution;
+import model.stats.QueueingEstimate;
+import model.strategy.Strategy.Policy;
+
+public class SimulationConfig {
+	
+	public enum Engine {
+		/**
+		 * Events are processed on a virtual clock, as fast as possible
+		 */
+		EVENT,
+		/**
+		 * Each time moment lasts one second, with one thread per queue
+		 */
+		REAL_TIME
+	}
+	
+	public enum Arrivals {
+		/**
+		 * Customers arrive at uniformly random times that let them finish by the time
+		 * limit, all generated up front
+		 */
+		UNIFORM,
+		/**
+		 * Customers arrive as a Poisson process, following the arrival profile if there
+		 * is one, and are generated one at a time as they arrive
+		 */
+		POISSON
+	}
+	
+	public enum Monitoring {
+		/**
+		 * Nothing is measured beyond the usual statistics
+		 */
+		NONE,
+		/**
+		 * The scheduler and servers are published as MBeans while the simulation runs
+		 */
+		JMX,
+		/**
+		 * The final value of every scheduler and server metric is printed with the statistics
+		 */
+		PRINT
+	}
+	
+	private int timeLimit = 100;
+	private int minProcessingTime = 2;
+	private int maxProcessingTime = 9;
+	private int numberOfQueues = 4;
+	private int numberOfClients = 100;
+	private int maxClientsPerQueue = 15;
+	private Policy selectionPolicy = Policy.SHORTEST_TIME;
+	private int choices = QueueScheduler.DEFAULT_CHOICES;
+	private Policy choicesBasis = Policy.SHORTEST_TIME;
+	private Engine engine = Engine.EVENT;
+	private ExecutionMode executionMode = ExecutionMode.PLATFORM_THREADS;
+	private Long seed = null;
+	private String arrivalFile = null;
+	private Arrivals arrivals = Arrivals.UNIFORM;
+	private double[] arrivalProfile = null;
+	private Distribution serviceDistribution = null;
+	private String networkFile = null;
+	private boolean compactCustomers = false;
+	private boolean workStealing = false;
+	private boolean batchDispatch = false;
+	private AdmissionControl.Policy admission = AdmissionControl.Policy.BLOCK;
+	private int maxRetries = AdmissionControl.DEFAULT_MAX_RETRIES;
+	private int retryDelay = AdmissionControl.DEFAULT_RETRY_DELAY;
+	private int overflowCapacity = AdmissionControl.DEFAULT_OVERFLOW_CAPACITY;
+	private boolean elasticPool = false;
+	private int minServers = 1;
+	private int warmUp = ElasticPool.DEFAULT_WARM_UP;
+	private int scaleUpWaitingTime = ElasticPool.DEFAULT_SCALE_UP_WAITING_TIME;
+	private double scaleUpQueueLength = ElasticPool.DEFAULT_SCALE_UP_QUEUE_LENGTH;
+	private int scaleDownWaitingTime = ElasticPool.DEFAULT_SCALE_DOWN_WAITING_TIME;
+	private int scaleCooldown = ElasticPool.DEFAULT_COOLDOWN;
+	private Monitoring monitoring = Monitoring.NONE;
+	private String checkpointFile = null;
+	private int checkpointInterval = 1000;
+	private String resumeFile = null;
+	private int partitions = 0;
+	
+	/**
+	 * Creates a new SimulationConfig with the same default values as the UI.
+	 */
+	public SimulationConfig() {
+	}
+	
+	/**
+	 * Creates a new SimulationConfig holding the same values as the given one.
+	 * @param other - the SimulationConfig to copy
+	 */
+	public SimulationConfig(SimulationConfig other) {
+		this.timeLimit = other.timeLimit;
+		this.minProcessingTime = other.minProcessingTime;
+		this.maxProcessingTime = other.maxProcessingTime;
+		this.numberOfQueues = other.numberOfQueues;
+		this.numberOfClients = other.numberOfClients;
+		this.maxClientsPerQueue = other.maxClientsPerQueue;
+		this.selectionPolicy = other.selectionPolicy;
+		this.choices = other.choices;
+		this.choicesBasis = other.choicesBasis;
+		this.engine = other.engine;
+		this.executionMode = other.executionMode;
+		this.seed = other.seed;
+		this.arrivalFile = other.arrivalFile;
+		this.arrivals = other.arrivals;
+		this.arrivalProfile = other.arrivalProfile;
+		this.serviceDistribution = other.serviceDistribution;
+		this.networkFile = other.networkFile;
+		this.compactCustomers = other.compactCustomers;
+		this.workStealing = other.workStealing;
+		this.batchDispatch = other.batchDispatch;
+		this.admission = other.admission;
+		this.maxRetries = other.maxRetries;
+		this.retryDelay = other.retryDelay;
+		this.overflowCapacity = other.overflowCapacity;
+		this.elasticPool = other.elasticPool;
+		this.minServers = other.minServers;
+		this.warmUp = other.warmUp;
+		this.scaleUpWaitingTime = other.scaleUpWaitingTime;
+		this.scaleUpQueueLength = other.scaleUpQueueLength;
+		this.scaleDownWaitingTime = other.scaleDownWaitingTime;
+		this.scaleCooldown = other.scaleCooldown;
+		this.monitoring = other.monitoring;
+		this.checkpointFile = other.checkpointFile;
+		this.checkpointInterval = other.checkpointInterval;
+		this.resumeFile = other.resumeFile;
+		this.partitions = other.partitions;
+	}
+	
+	/**
+	 * Reads the properties file at the given path and applies every
+	 * property in it, as per {@link #set(String, String)}.
+	 * @param path - the location of the properties file
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if the file contains an unknown key or invalid value
+	 */
+	public void load(Path path) throws IOException {
+		Properties properties = new Properties();
+		try(Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+		
+		for(String key : properties.stringPropertyNames()) {
+			set(key, properties.getProperty(key));
+		}
+	}
+	
+	/**
+	 * Sets the parameter with the given key to the given value. The accepted
+	 * keys are the names of the properties of this class, e.g. "timeLimit" or
+	 * "selectionPolicy". Policies and engines are given by their enum names.
+	 * @param key - the name of the parameter
+	 * @param value - the new value of the parameter, as text
+	 * @throws IllegalArgumentException if the key is unknown or the value is invalid
+	 */
+	public void set(String key, String value) {
+		value = value.trim();
+		switch(key.trim()) {
+			case "timeLimit":
+				timeLimit = Integer.parseInt(value);
+				break;
+			case "minProcessingTime":
+				minProcessingTime = Integer.parseInt(value);
+				break;
+			case "maxProcessingTime":
+				maxProcessingTime = Integer.parseInt(value);
+				break;
+			case "numberOfQueues":
+				numberOfQueues = Integer.parseInt(value);
+				break;
+			case "numberOfClients":
+				numberOfClients = Integer.parseInt(value);
+				break;
+			case "maxClientsPerQueue":
+				maxClientsPerQueue = Integer.parseInt(value);
+				break;
+			case "selectionPolicy":
+				selectionPolicy = Policy.valueOf(value);
+				break;
+			case "choices":
+				choices = Integer.parseInt(value);
+				break;
+			case "choicesBasis":
+				choicesBasis = Policy.valueOf(value);
+				break;
+			case "engine":
+				engine = Engine.valueOf(value);
+				break;
+			case "executionMode":
+				executionMode = ExecutionMode.valueOf(value);
+				break;
+			case "seed":
+				seed = value.isEmpty() ? null : Long.valueOf(value);
+				break;
+			case "arrivalFile":
+				arrivalFile = value.isEmpty() ? null : value;
+				break;
+			case "networkFile":
+				networkFile = value.isEmpty() ? null : value;
+				break;
+			case "compactCustomers":
+				compactCustomers = Boolean.parseBoolean(value);
+				break;
+			case "workStealing":
+				workStealing = Boolean.parseBoolean(value);
+				break;
+			case "batchDispatch":
+				batchDispatch = Boolean.parseBoolean(value);
+				break;
+			case "admission":
+				admission = AdmissionControl.Policy.valueOf(value);
+				break;
+			case "maxRetries":
+				maxRetries = Integer.parseInt(value);
+				break;
+			case "retryDelay":
+				retryDelay = Integer.parseInt(value);
+				break;
+			case "overflowCapacity":
+				overflowCapacity = Integer.parseInt(value);
+				break;
+			case "elasticPool":
+				elasticPool = Boolean.parseBoolean(value);
+				break;
+			case "minServers":
+				minServers = Integer.parseInt(value);
+				break;
+			case "warmUp":
+				warmUp = Integer.parseInt(value);
+				break;
+			case "scaleUpWaitingTime":
+				scaleUpWaitingTime = Integer.parseInt(value);
+				break;
+			case "scaleUpQueueLength":
+				scaleUpQueueLength = Double.parseDouble(value);
+				break;
+			case "scaleDownWaitingTime":
+				scaleDownWaitingTime = Integer.parseInt(value);
+				break;
+			case "scaleCooldown":
+				scaleCooldown = Integer.parseInt(value);
+				break;
+			case "arrivals":
+				arrivals = Arrivals.valueOf(value);
+				break;
+			case "arrivalProfile":
+				arrivalProfile = value.isEmpty() ? null : parseProfile(value);
+				break;
+			case "serviceDistribution":
+				serviceDistribution = value.isEmpty() ? null : Distributions.parse(value);
+				break;
+			case "monitoring":
+				monitoring = Monitoring.valueOf(value);
+				break;
+			case "checkpointFile":
+				checkpointFile = value.isEmpty() ? null : value;
+				break;
+			case "checkpointInterval":
+				checkpointInterval = Integer.parseInt(value);
+				break;
+			case "resumeFile":
+				resumeFile = value.isEmpty() ? null : value;
+				break;
+			case "partitions":
+				partitions = Integer.parseInt(value);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown configuration key: " + key);
+		}
+	}
+
+	public int getTimeLimit() {
+		return timeLimit;
+	}
+
+	public void setTimeLimit(int timeLimit) {
+		this.timeLimit = timeLimit;
+	}
+
+	public int getMinProcessingTime() {
+		return minProcessingTime;
+	}
+
+	public void setMinProcessingTime(int minProcessingTime) {
+		this.minProcessingTime = minProcessingTime;
+	}
+
+	public int getMaxProcessingTime() {
+		return maxProcessingTime;
+	}
+
+	public void setMaxProcessingTime(int maxProcessingTime) {
+		this.maxProcessingTime = maxProcessingTime;
+	}
+
+	public int getNumberOfQueues() {
+		return numberOfQueues;
+	}
+
+	public void setNumberOfQueues(int numberOfQueues) {
+		this.numberOfQueues = numberOfQueues;
+	}
+
+	public int getNumberOfClients() {
+		return numberOfClients;
+	}
+
+	public void setNumberOfClients(int numberOfClients) {
+		this.numberOfClients = numberOfClients;
+	}
+
+	public int getMaxClientsPerQueue() {
+		return maxClientsPerQueue;
+	}
+
+	public void setMaxClientsPerQueue(int maxClientsPerQueue) {
+		this.maxClientsPerQueue = maxClientsPerQueue;
+	}
+
+	public Policy getSelectionPolicy() {
+		return selectionPolicy;
+	}
+
+	public void setSelectionPolicy(Policy selectionPolicy) {
+		this.selectionPolicy = selectionPolicy;
+	}
+
+	/**
+	 * Returns the number of queues sampled per Customer when the selection
+	 * policy is {@link Policy#POWER_OF_D_CHOICES}.
+	 * @return the number of sampled queues
+	 */
+	public int getChoices() {
+		return choices;
+	}
+
+	public void setChoices(int choices) {
+		this.choices = choices;
+	}
+
+	/**
+	 * Returns the policy by which sampled queues are compared when the
+	 * selection policy is {@link Policy#POWER_OF_D_CHOICES}.
+	 * @return either {@link Policy#SHORTEST_QUEUE} or {@link Policy#SHORTEST_TIME}
+	 */
+	public Policy getChoicesBasis() {
+		return choicesBasis;
+	}
+
+	public void setChoicesBasis(Policy choicesBasis) {
+		this.choicesBasis = choicesBasis;
+	}
+
+	public Engine getEngine() {
+		return engine;
+	}
+
+	public void setEngine(Engine engine) {
+		this.engine = engine;
+	}
+
+	/**
+	 * Returns how CustomerServers are run by the {@link Engine#REAL_TIME} engine.
+	 * @return the execution mode of the servers
+	 */
+	public ExecutionMode getExecutionMode() {
+		return executionMode;
+	}
+
+	public void setExecutionMode(ExecutionMode executionMode) {
+		this.executionMode = executionMode;
+	}
+
+	/**
+	 * Returns the seed used to generate Customers, or null if every run
+	 * should generate different Customers.
+	 * @return the seed, or null if there is none
+	 */
+	public Long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(Long seed) {
+		this.seed = seed;
+	}
+
+	/**
+	 * Returns the CSV or binary file that Customers are read from, or null if
+	 * Customers should be generated at random instead.
+	 * @return the path of the arrival file, or null if there is none
+	 * @see model.arrival.ArrivalFiles#open(Path)
+	 */
+	public String getArrivalFile() {
+		return arrivalFile;
+	}
+
+	public void setArrivalFile(String arrivalFile) {
+		this.arrivalFile = arrivalFile;
+	}
+
+	/**
+	 * Returns the properties file describing the stages and routes of a queue
+	 * network to simulate, or null if Customers are only served once.
+	 * @return the path of the network file, or null if there is none
+	 * @see NetworkConfig#load(Path, SimulationConfig, LogDisplay)
+	 */
+	public String getNetworkFile() {
+		return networkFile;
+	}
+
+	public void setNetworkFile(String networkFile) {
+		this.networkFile = networkFile;
+	}
+
+	/**
+	 * Returns whether generated and queued Customers should be stored as
+	 * primitive fields rather than objects, for runs with very many Customers.
+	 * @return true if Customers should be stored compactly
+	 * @see model.store.CustomerStore
+	 * @see model.store.CompactCustomerQueue
+	 */
+	public boolean isCompactCustomers() {
+		return compactCustomers;
+	}
+
+	public void setCompactCustomers(boolean compactCustomers) {
+		this.compactCustomers = compactCustomers;
+	}
+
+	/**
+	 * Returns whether idle servers take over Customers waiting at the most loaded
+	 * server. Queues then keep Customer objects even if {@link #isCompactCustomers()}.
+	 * @return true if work stealing is enabled
+	 * @see model.WorkStealing
+	 */
+	public boolean isWorkStealing() {
+		return workStealing;
+	}
+
+	public void setWorkStealing(boolean workStealing) {
+		this.workStealing = workStealing;
+	}
+
+	/**
+	 * Returns whether the Customers arriving in the same time moment are
+	 * dispatched together against a single snapshot of the servers' load.
+	 * @return true if arrivals are dispatched in batches
+	 * @see model.QueueScheduler#dispatchBatch(java.util.List)
+	 */
+	public boolean isBatchDispatch() {
+		return batchDispatch;
+	}
+
+	public void setBatchDispatch(boolean batchDispatch) {
+		this.batchDispatch = batchDispatch;
+	}
+
+	/**
+	 * Returns what happens to arriving Customers whose chosen queue is full.
+	 * @return the admission policy
+	 */
+	public AdmissionControl.Policy getAdmission() {
+		return admission;
+	}
+
+	public void setAdmission(AdmissionControl.Policy admission) {
+		this.admission = admission;
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	public void setMaxRetries(int maxRetries) {
+		this.maxRetries = maxRetries;
+	}
+
+	public int getRetryDelay() {
+		return retryDelay;
+	}
+
+	public void setRetryDelay(int retryDelay) {
+		this.retryDelay = retryDelay;
+	}
+
+	public int getOverflowCapacity() {
+		return overflowCapacity;
+	}
+
+	public void setOverflowCapacity(int overflowCapacity) {
+		this.overflowCapacity = overflowCapacity;
+	}
+
+	/**
+	 * Creates the admission control described by this configuration.
+	 * @return a new AdmissionControl with the configured policy and settings
+	 */
+	public AdmissionControl createAdmission() {
+		return new AdmissionControl(admission, maxRetries, retryDelay, overflowCapacity);
+	}
+
+	/**
+	 * Returns whether servers are opened and closed as the load changes, with
+	 * {@link #getNumberOfQueues()} as the largest number of servers.
+	 * @return true if the servers form an elastic pool
+	 * @see model.ElasticPool
+	 */
+	public boolean isElasticPool() {
+		return elasticPool;
+	}
+
+	public void setElasticPool(boolean elasticPool) {
+		this.elasticPool = elasticPool;
+	}
+
+	/**
+	 * Returns the number of servers of an elastic pool that are always open.
+	 * @return the smallest number of open servers
+	 */
+	public int getMinServers() {
+		return minServers;
+	}
+
+	public void setMinServers(int minServers) {
+		this.minServers = minServers;
+	}
+
+	/**
+	 * Returns how many time moments a server of an elastic pool takes to open.
+	 * @return the warm-up delay
+	 */
+	public int getWarmUp() {
+		return warmUp;
+	}
+
+	public void setWarmUp(int warmUp) {
+		this.warmUp = warmUp;
+	}
+
+	public int getScaleUpWaitingTime() {
+		return scaleUpWaitingTime;
+	}
+
+	public void setScaleUpWaitingTime(int scaleUpWaitingTime) {
+		this.scaleUpWaitingTime = scaleUpWaitingTime;
+	}
+
+	public double getScaleUpQueueLength() {
+		return scaleUpQueueLength;
+	}
+
+	public void setScaleUpQueueLength(double scaleUpQueueLength) {
+		this.scaleUpQueueLength = scaleUpQueueLength;
+	}
+
+	public int getScaleDownWaitingTime() {
+		return scaleDownWaitingTime;
+	}
+
+	public void setScaleDownWaitingTime(int scaleDownWaitingTime) {
+		this.scaleDownWaitingTime = scaleDownWaitingTime;
+	}
+
+	public int getScaleCooldown() {
+		return scaleCooldown;
+	}
+
+	public void setScaleCooldown(int scaleCooldown) {
+		this.scaleCooldown = scaleCooldown;
+	}
+
+	/**
+	 * Returns how generated Customers arrive over time. Customers of an arrival file
+	 * arrive as the file says instead.
+	 * @return the arrival process of generated Customers
+	 */
+	public Arrivals getArrivals() {
+		return arrivals;
+	}
+
+	public void setArrivals(Arrivals arrivals) {
+		this.arrivals = arrivals;
+	}
+
+	/**
+	 * Returns the relative arrival rate over equal segments of the time limit, such as
+	 * the hours of a day, for {@link Arrivals#POISSON} arrivals. The profile is scaled so
+	 * that the number of Customers expected over the time limit is {@link #getNumberOfClients()}.
+	 * @return the weight of each segment, or null for a constant rate
+	 */
+	public double[] getArrivalProfile() {
+		return arrivalProfile;
+	}
+
+	public void setArrivalProfile(double[] arrivalProfile) {
+		this.arrivalProfile = arrivalProfile;
+	}
+
+	private static double[] parseProfile(String value) {
+		String[] weights = value.split(",");
+		double[] profile = new double[weights.length];
+		double total = 0;
+		for(int i = 0; i < weights.length; ++i) {
+			profile[i] = Double.parseDouble(weights[i].trim());
+			if(!(profile[i] >= 0) || Double.isInfinite(profile[i])) {
+				throw new IllegalArgumentException("Invalid arrival profile weight " + weights[i].trim());
+			}
+			total += profile[i];
+		}
+		if(total == 0) throw new IllegalArgumentException("The arrival profile has only zero weights");
+		return profile;
+	}
+
+	/**
+	 * Returns the distribution the serving times of generated Customers are drawn from,
+	 * as set with the "serviceDistribution" key in the form of {@link Distributions#parse(String)}.
+	 * @return the distribution of serving times, or null to draw them uniformly between
+	 * 			the minimum and maximum processing times
+	 */
+	public Distribution getServiceDistribution() {
+		return serviceDistribution;
+	}
+
+	public void setServiceDistribution(Distribution serviceDistribution) {
+		this.serviceDistribution = serviceDistribution;
+	}
+
+	/**
+	 * Creates the distribution of serving times of generated Customers.
+	 * @return the configured distribution, or a uniform one between the minimum and
+	 * 			maximum processing times, both included
+	 * @throws IllegalArgumentException if the maximum processing time is below the minimum
+	 */
+	public Distribution createServiceDistribution() {
+		if(serviceDistribution != null) return serviceDistribution;
+		return new UniformDistribution(minProcessingTime, maxProcessingTime);
+	}
+
+	/**
+	 * Creates the Poisson process by which generated Customers arrive, on average
+	 * {@link #getNumberOfClients()} of them up to the time limit, at the rate of the
+	 * arrival profile if there is one.
+	 * @return the arrival process for {@link Arrivals#POISSON} arrivals
+	 * @throws IllegalArgumentException if there are no Customers, as no process has an
+	 * 				arrival rate of zero, or the profile has negative weights or only zero ones
+	 */
+	public ArrivalProcess createArrivalProcess() {
+		// Customers arrive in time moments 0 to timeLimit
+		double moments = timeLimit + 1;
+		if(arrivalProfile == null) return new PoissonProcess(numberOfClients / moments);
+		
+		double total = 0;
+		for(double weight : arrivalProfile) {
+			total += weight;
+		}
+		double segmentLength = moments / arrivalProfile.length;
+		double[] rates = new double[arrivalProfile.length];
+		for(int i = 0; i < rates.length; ++i) {
+			rates[i] = numberOfClients * arrivalProfile[i] / (total * segmentLength);
+		}
+		return ThinnedPoissonProcess.periodic(rates, segmentLength);
+	}
+
+	/**
+	 * Estimates the steady state of the simulation described by this configuration
+	 * from queueing formulas, without simulating it. The estimate ignores the capacity
+	 * of the queues, the selection policy and the elastic pool, which keeps all its servers.
+	 * It uses the average arrival rate, so the peaks of an arrival profile wait longer.
+	 * @return the estimate for the generated Customers
+	 * @throws IllegalArgumentException if the Customers come from an arrival file or
+	 * 				the configuration describes a queue network
+	 * @see QueueingEstimate
+	 */
+	public QueueingEstimate estimate() {
+		if(arrivalFile != null || networkFile != null) {
+			throw new IllegalArgumentException("Only single-stage runs of generated Customers can be estimated");
+		}
+		
+		// Uniform arrivals leave room for Customers to finish before the time limit
+		Distribution service = createServiceDistribution();
+		double rate = arrivals == Arrivals.POISSON ? (double) numberOfClients / (timeLimit + 1)
+				: numberOfClients / Math.max(1, timeLimit - service.getMean());
+		return new QueueingEstimate(rate, service.getMean(), service.getVariance(), numberOfQueues);
+	}
+
+	/**
+	 * Turns the servers of the given QueueScheduler into the elastic pool
+	 * described by this configuration.
+	 * @param scheduler - the QueueScheduler whose servers form the pool
+	 * @return the ElasticPool managing the servers
+	 * @throws IllegalArgumentException if the pool settings are invalid
+	 */
+	public ElasticPool applyElasticPool(QueueScheduler scheduler) {
+		ElasticPool pool = scheduler.enableElasticPool(minServers, warmUp);
+		pool.setScaleUp(scaleUpWaitingTime, scaleUpQueueLength);
+		pool.setScaleDown(scaleDownWaitingTime);
+		pool.setCooldown(scaleCooldown);
+		return pool;
+	}
+
+	/**
+	 * Checks that the settings of this configuration are in range and can be simulated
+	 * together, as queue networks, partitioned runs and checkpoints each support only part
+	 * of the others. Runs check this before setting anything up, so mistakes are reported
+	 * up front, naming the key at fault.
+	 * @param traced - whether the run records a trace of its queue events
+	 * @throws IllegalArgumentException if a setting is out of range, or some of the
+	 * 				settings cannot be used together
+	 */
+	public void validate(boolean traced) {
+		if(timeLimit < 1) throw new IllegalArgumentException("timeLimit must be at least 1, not " + timeLimit);
+		if(numberOfQueues < 1) throw new IllegalArgumentException("numberOfQueues must be at least 1, not " + numberOfQueues);
+		if(maxClientsPerQueue < 1) {
+			throw new IllegalArgumentException("maxClientsPerQueue must be at least 1, not " + maxClientsPerQueue);
+		}
+		if(numberOfClients < 0) throw new IllegalArgumentException("numberOfClients must be at least 0, not " + numberOfClients);
+		
+		boolean checkpoints = checkpointFile != null || resumeFile != null;
+		if(networkFile != null) {
+			if(traced) throw new IllegalArgumentException("Queue networks cannot be traced");
+			if(checkpoints) throw new IllegalArgumentException("Queue networks cannot take or resume checkpoints");
+			if(engine != Engine.EVENT) {
+				throw new IllegalArgumentException("Queue networks only run on the " + Engine.EVENT + " engine");
+			}
+			return;
+		}
+		
+		if(partitions > 0) {
+			if(traced) throw new IllegalArgumentException("Partitioned simulations cannot be traced");
+			if(engine != Engine.EVENT) {
+				throw new IllegalArgumentException("Partitioned simulations only run on the " + Engine.EVENT + " engine");
+			}
+			if(checkpoints) throw new IllegalArgumentException("Partitioned simulations cannot take or resume checkpoints");
+			if(workStealing || elasticPool) {
+				throw new IllegalArgumentException("Partitioned simulations cannot steal work or scale the servers");
+			}
+			if(admission != AdmissionControl.Policy.BLOCK) {
+				throw new IllegalArgumentException("Partitioned simulations only admit Customers with " + AdmissionControl.Policy.BLOCK);
+			}
+			return;
+		}
+		
+		// Checkpoints hold the state of the event engine alone, without an elastic pool
+		if(checkpoints && engine != Engine.EVENT) {
+			throw new IllegalArgumentException("Only the event engine can take or resume checkpoints");
+		}
+		if(checkpoints && elasticPool) throw new IllegalArgumentException("Checkpoints do not cover elastic pools");
+	}
+
+	/**
+	 * Returns how the scheduler and servers are instrumented while the simulation runs.
+	 * @return the kind of monitoring
+	 */
+	public Monitoring getMonitoring() {
+		return monitoring;
+	}
+
+	public void setMonitoring(Monitoring monitoring) {
+		this.monitoring = monitoring;
+	}
+
+	/**
+	 * Returns the file to which the event engine writes a checkpoint of the
+	 * simulation every {@link #getCheckpointInterval()} time moments, each
+	 * replacing the previous one.
+	 * @return the path of the checkpoint file, or null if no checkpoints are taken
+	 * @see model.event.EventSimulator#setCheckpoints(int, java.util.function.Consumer)
+	 */
+	public String getCheckpointFile() {
+		return checkpointFile;
+	}
+
+	public void setCheckpointFile(String checkpointFile) {
+		this.checkpointFile = checkpointFile;
+	}
+
+	public int getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	public void setCheckpointInterval(int checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Returns the checkpoint from which the event engine continues, instead of
+	 * starting the simulation over. The arrivals must be those the checkpoint was
+	 * taken with, while the strategy, time limit and such may differ.
+	 * @return the path of the checkpoint file, or null to start from the beginning
+	 * @see model.event.EventSimulator#resume(model.event.Checkpoint, model.arrival.ArrivalSource)
+	 */
+	public String getResumeFile() {
+		return resumeFile;
+	}
+
+	public void setResumeFile(String resumeFile) {
+		this.resumeFile = resumeFile;
+	}
+
+	/**
+	 * Returns the number of worker processes over which the servers are spread,
+	 * each simulating its own share of them on the event engine.
+	 * @return the number of worker processes, or 0 to simulate in this process alone
+	 * @see model.partition.PartitionedSimulator
+	 */
+	public int getPartitions() {
+		return partitions;
+	}
+
+	public void setPartitions(int partitions) {
+		this.partitions = partitions;
+	}
+}
@@ -1,28 +1,29 @@
 package controller;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
 import model.Customer;
+import model.CustomerGenerator;
 import model.QueueScheduler;
+import model.RealTimeSimulator;
+import model.SimulationStatistics;
+import model.monitor.Instrumentation;
+import model.monitor.JmxMetricsRegistry;
+import model.monitor.MetricsRegistry;
+import model.stats.QueueMetrics;
+import model.stats.ServerMetrics;
 import model.strategy.Strategy.Policy;
 import view.SimulatorFrame;
 
 public class SimulationManager implements Runnable {
 	
 	// Default values to be overwritten by reading from the UI
-	private int timeLimit = 100;
-	private int minProcesingTime = 2;
-	private int maxProcessingTime = 9;
-	private int numberOfQueues = 4;
-	private int numberOfClients = 100;
-	private int maxClientsPerQueue = 15;
-	private Policy selectionPolicy = Policy.SHORTEST_TIME;
+	private SimulationConfig config = new SimulationConfig();
 	
 	private SimulatorFrame frame;
-	private QueueScheduler scheduler;
-	private List<Customer> generatedClients;
+	private MetricsRegistry jmxRegistry = new JmxMetricsRegistry();
+	private Instrumentation instrumentation = null;
 	
 	private boolean starting = false;
 	
@@ -43,20 +44,7 @@ public class SimulationManager implements Runnable {
 	 * @return a list of randomised Customers
 	 */
 	protected List<Customer> generateRandomClients(int number, int minProcTime, int maxProcTime, int maxTime) {
-		List<Customer> customers = new ArrayList<Customer>(numberOfClients);
-		
-		Random rand = new Random();
-		for(int i = 0; i < number; ++i) {
-			int procTime = minProcTime + rand.nextInt(maxProcTime - minProcTime);
-			int arrivTime = rand.nextInt(maxTime - procTime);
-			
-			customers.add(new Customer(arrivTime, procTime));
-		}
-		
-		// Sort customers in ascending order of arrival, for commodity
-		customers.sort( (Customer a, Customer b) -> Integer.compare(a.getArrivalTime(), b.getArrivalTime()) );
-		
-		return customers;
+		return CustomerGenerator.generateRandomClients(number, minProcTime, maxProcTime, maxTime, new Random());
 	}
 	
 	/**
@@ -72,12 +60,16 @@ public class SimulationManager implements Runnable {
 	 * </ul>
 	 */
 	protected void gatherInputs() {
-		try { timeLimit = Integer.parseInt( frame.getTime() ); } catch (NumberFormatException e) {}
-		try { numberOfQueues = Integer.parseInt( frame.getNoQueues() ); } catch (NumberFormatException e) {}
-		try { numberOfClients = Integer.parseInt( frame.getClients() ); } catch (NumberFormatException e) {}
-		try { minProcesingTime = Integer.parseInt( frame.getMinServeTime() ); } catch (NumberFormatException e) {}
-		try { maxProcessingTime = Integer.parseInt( frame.getMaxServeTime() ); } catch (NumberFormatException e) {}
-		selectionPolicy = frame.getStrategy() == 0 ? Policy.SHORTEST_QUEUE : Policy.SHORTEST_TIME;
+		try { config.setTimeLimit( Integer.parseInt( frame.getTime() ) ); } catch (NumberFormatException e) {}
+		try { config.setNumberOfQueues( Integer.parseInt( frame.getNoQueues() ) ); } catch (NumberFormatException e) {}
+		try { config.setNumberOfClients( Integer.parseInt( frame.getClients() ) ); } catch (NumberFormatException e) {}
+		try { config.setMinProcessingTime( Integer.parseInt( frame.getMinServeTime() ) ); } catch (NumberFormatException e) {}
+		try { config.setMaxProcessingTime( Integer.parseInt( frame.getMaxServeTime() ) ); } catch (NumberFormatException e) {}
+		switch(frame.getStrategy()) {
+			case 0: config.setSelectionPolicy(Policy.SHORTEST_QUEUE); break;
+			case 1: config.setSelectionPolicy(Policy.SHORTEST_TIME); break;
+			case 2: config.setSelectionPolicy(Policy.POWER_OF_D_CHOICES); break;
+		}
 	}
 
 	@Override
@@ -98,56 +90,38 @@ public class SimulationManager implements Runnable {
 			frame.getLoggingArea().setText("");
 			
 			// Initialise values
-			scheduler = new QueueScheduler(timeLimit, numberOfQueues, maxClientsPerQueue, frame.getLoggingArea());
-			scheduler.setStrategy(selectionPolicy);
+			QueueScheduler scheduler = new QueueScheduler(config.getTimeLimit(), config.getNumberOfQueues(),
+					config.getMaxClientsPerQueue(), frame.getLoggingArea());
+			scheduler.setStrategy(config.getSelectionPolicy());
+			scheduler.setAdmission(config.createAdmission());
 			
-			generatedClients = generateRandomClients(numberOfClients, minProcesingTime, maxProcessingTime, timeLimit);
+			List<Customer> generatedClients = generateRandomClients(config.getNumberOfClients(),
+					config.getMinProcessingTime(), config.getMaxProcessingTime(), config.getTimeLimit());
 			
-			// Prepare to find the peak hour
-			int peakHour = 0;
-			int peakWaiting = 0;
+			// Run the simulation in real time
+			RealTimeSimulator simulator = new RealTimeSimulator(scheduler, config.getTimeLimit(), frame.getLoggingArea());
+			frame.displayQueues(scheduler);
 			
-			// Prepare to find average waiting time
-			int totalWaitingTime = 0;
+			// Publish the queues of the current simulation to JConsole and other JMX tools
+			if(instrumentation != null) instrumentation.detach();
+			instrumentation = Instrumentation.attach(scheduler, jmxRegistry, "simulator");
+			SimulationStatistics statistics = simulator.run(generatedClients);
 			
-			// Begin simulation
-			scheduler.start();
-			for(int currentTime = 0; currentTime <= timeLimit; ++currentTime) {
-				frame.getLoggingArea().addTextLine("Time moment " + currentTime + ".");
-				
-				// Have Customers arrive
-				for(Customer c : generatedClients) {
-					if (c.getArrivalTime() == currentTime) {
-						frame.getLoggingArea().addTextLine("Dispatching client " + c.toString());
-						scheduler.dispatchCustomer(c);
-						
-						totalWaitingTime += c.getFinishTime() - c.getArrivalTime();
-					}
-				}
-				
-				// Update UI
-				frame.displayData(scheduler.getQueueDescriptions());
-				
-				// Check for peak hour
-				int waitingRightNow = scheduler.getCustomerCount();
-				if(waitingRightNow > peakWaiting) {
-					peakHour = currentTime;
-					peakWaiting = waitingRightNow;
-				}
-				
-				// Skip one second
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					System.out.println("Interrupted in SimulationManager#run!");
-					e.printStackTrace();
-				}
+			// Announce the peak hour and other statistics
+			frame.getLoggingArea().addTextLine("Peak hour: " + statistics.getPeakHour() + " with " + statistics.getPeakWaiting() + " waiting people.");
+			frame.getLoggingArea().addTextLine("Average waiting time: " + statistics.getAverageWaitingTime() + ".");
+			if(statistics.getRejectedCustomers() > 0) {
+				frame.getLoggingArea().addTextLine("Customers lost to full queues: " + statistics.getRejectedCustomers() + ".");
 			}
-			scheduler.endSimulation();
 			
-			// Announce the peak hour and other statistics
-			frame.getLoggingArea().addTextLine("Peak hour: " + peakHour + " with " + peakWaiting + " waiting people.");
-			frame.getLoggingArea().addTextLine("Average waiting time: " + totalWaitingTime / numberOfClients + ".");
+			QueueMetrics metrics = statistics.getMetrics();
+			frame.getLoggingArea().addTextLine("Time in queue: " + metrics.getWaitingTime() + ".");
+			frame.getLoggingArea().addTextLine("Time until served: " + metrics.getSojournTime() + ".");
+			for(ServerMetrics server : metrics.getServers()) {
+				frame.getLoggingArea().addTextLine(server.getServerName() + " was busy "
+						+ Math.round(100 * metrics.getUtilisation(server.getServerId())) + "% of the time, p95 time in queue "
+						+ server.getWaitingTime().getValueAtPercentile(95) + ".");
+			}
 			
 			starting = false; // Set this value to false at the end, so the button must be re-pressed
 		}
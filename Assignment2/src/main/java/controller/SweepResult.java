@@ -0,0 +1,63 @@
+package controller;
+
+import model.SimulationStatistics;
+import model.stats.QueueingEstimate;
+
+public class SweepResult {
+	
+	private final SimulationConfig config;
+	private final SimulationStatistics statistics;
+	private final QueueingEstimate estimate;
+	
+	/**
+	 * Creates a new SweepResult pairing the configuration of one run
+	 * with the statistics it produced.
+	 * @param config - the parameters of the run
+	 * @param statistics - the statistics gathered during the run
+	 */
+	public SweepResult(SimulationConfig config, SimulationStatistics statistics) {
+		this(config, statistics, null);
+	}
+	
+	/**
+	 * Creates a new SweepResult pairing the configuration of one run with the
+	 * statistics it produced and the estimate made for it beforehand.
+	 * @param config - the parameters of the run
+	 * @param statistics - the statistics gathered during the run, or null if it was pruned
+	 * @param estimate - the analytical estimate for the run, or null if it has none
+	 */
+	public SweepResult(SimulationConfig config, SimulationStatistics statistics, QueueingEstimate estimate) {
+		this.config = config;
+		this.statistics = statistics;
+		this.estimate = estimate;
+	}
+
+	public SimulationConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * Returns the statistics gathered during the run.
+	 * @return the statistics, or null if the run was pruned without simulating it
+	 */
+	public SimulationStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Returns the analytical estimate made for the run.
+	 * @return the estimate, or null if the configuration cannot be estimated
+	 * @see SimulationConfig#estimate()
+	 */
+	public QueueingEstimate getEstimate() {
+		return estimate;
+	}
+
+	/**
+	 * Returns whether the run was skipped, as its estimate was already too poor.
+	 * @return true if the run was not simulated
+	 */
+	public boolean isPruned() {
+		return statistics == null;
+	}
+}
@@ -0,0 +1,317 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class AdmissionControl {
+
+	/**
+	 * What happens to a Customer whose chosen queue is full
+	 */
+	public enum Policy {
+		/**
+		 * The Customer waits for a place, holding up every later arrival
+		 */
+		BLOCK,
+		/**
+		 * The Customer leaves (balks)
+		 */
+		REJECT,
+		/**
+		 * The Customer goes to the least loaded queue that has room,
+		 * leaving only if every queue is full
+		 */
+		REDIRECT,
+		/**
+		 * The Customer comes back after a delay, a limited number
+		 * of times, then leaves
+		 */
+		RETRY,
+		/**
+		 * The Customer waits in a shared overflow queue of limited size, from
+		 * which it is admitted once a place frees up, or leaves if that is full too
+		 */
+		OVERFLOW
+	}
+	
+	/**
+	 * What became of a Customer that could not be admitted
+	 */
+	public enum Outcome {
+		/**
+		 * The Customer should be offered again after {@link AdmissionControl#getRetryDelay()}
+		 */
+		RETRY,
+		/**
+		 * The Customer was put in the overflow queue
+		 */
+		OVERFLOWED,
+		/**
+		 * The Customer left and is lost
+		 */
+		REJECTED
+	}
+	
+	public final static int DEFAULT_MAX_RETRIES = 3;
+	public final static int DEFAULT_RETRY_DELAY = 5;
+	public final static int DEFAULT_OVERFLOW_CAPACITY = 1000;
+	
+	private final Policy policy;
+	private final int maxRetries;
+	private final int retryDelay;
+	private final int overflowCapacity;
+	
+	// Only used by the thread running the simulation
+	private final Map<Customer, Integer> attempts = new IdentityHashMap<Customer, Integer>();
+	private final Deque<Customer> overflow = new ArrayDeque<Customer>();
+	
+	// Also read by monitoring threads
+	private final LongAdder rejectedCustomers = new LongAdder();
+	private final LongAdder redirectedCustomers = new LongAdder();
+	private final LongAdder retriedCustomers = new LongAdder();
+	private final LongAdder overflowedCustomers = new LongAdder();
+	
+	/**
+	 * Creates a new AdmissionControl with the given policy and default settings.
+	 * @param policy - what happens to Customers whose chosen queue is full
+	 */
+	public AdmissionControl(Policy policy) {
+		this(policy, DEFAULT_MAX_RETRIES, DEFAULT_RETRY_DELAY, DEFAULT_OVERFLOW_CAPACITY);
+	}
+	
+	/**
+	 * Creates a new AdmissionControl with the given policy and settings.
+	 * @param policy - what happens to Customers whose chosen queue is full
+	 * @param maxRetries - how many times a Customer comes back under {@link Policy#RETRY}
+	 * @param retryDelay - how many time moments a Customer stays away under {@link Policy#RETRY}
+	 * @param overflowCapacity - the size of the overflow queue under {@link Policy#OVERFLOW}
+	 * @throws IllegalArgumentException if a setting is negative, or the retry delay is zero
+	 */
+	public AdmissionControl(Policy policy, int maxRetries, int retryDelay, int overflowCapacity) {
+		if(maxRetries < 0 || retryDelay < 1 || overflowCapacity < 0) {
+			throw new IllegalArgumentException("Invalid admission settings: maxRetries=" + maxRetries
+					+ ", retryDelay=" + retryDelay + ", overflowCapacity=" + overflowCapacity);
+		}
+		
+		this.policy = policy;
+		this.maxRetries = maxRetries;
+		this.retryDelay = retryDelay;
+		this.overflowCapacity = overflowCapacity;
+	}
+	
+	/**
+	 * Offers the given Customer to the CustomerServer chosen by the strategy of the
+	 * given QueueScheduler, without waiting if it is full. Under {@link Policy#REDIRECT},
+	 * the least loaded server with room is tried next. Callers should pass Customers
+	 * that could not be admitted to {@link #turnAway(Customer)}.
+	 * @param cust - the Customer to admit
+	 * @param scheduler - the QueueScheduler whose servers and strategy are used
+	 * @return the CustomerServer to which the Customer was added, or null if there was no room
+	 */
+	public CustomerServer admit(Customer cust, QueueScheduler scheduler) {
+		CustomerServer target = scheduler.selectServer(cust);
+		if(target != null && target.offerCustomer(cust)) return admitted(cust, target);
+		
+		if(policy == Policy.REDIRECT) {
+			CustomerServer other = leastLoadedWithRoom(scheduler, target);
+			if(other != null && other.offerCustomer(cust)) {
+				redirectedCustomers.increment();
+				return admitted(cust, other);
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Admits the Customer at the head of the overflow queue, as given by
+	 * {@link #peekOverflow()}, to the least loaded CustomerServer with room, if
+	 * there is one. Simulators call this whenever places may have freed up.
+	 * @param scheduler - the QueueScheduler whose servers are used
+	 * @return the CustomerServer to which the Customer was added, or null if the
+	 * 		   overflow queue is empty or every queue is full
+	 */
+	public CustomerServer admitFromOverflow(QueueScheduler scheduler) {
+		Customer cust = overflow.peek();
+		if(cust == null) return null;
+		
+		CustomerServer target = leastLoadedWithRoom(scheduler, null);
+		if(target == null || !target.offerCustomer(cust)) return null;
+		
+		overflow.poll();
+		return target;
+	}
+	
+	/**
+	 * Returns the Customer that has waited longest in the overflow queue.
+	 * @return the head of the overflow queue, or null if it is empty
+	 */
+	public Customer peekOverflow() {
+		return overflow.peek();
+	}
+	
+	/**
+	 * Decides what becomes of a Customer that {@link #admit(Customer, QueueScheduler)}
+	 * found no room for, and counts it.
+	 * @param cust - the Customer that could not be admitted
+	 * @return whether the Customer will retry, waits in the overflow queue or was lost
+	 */
+	public Outcome turnAway(Customer cust) {
+		switch(policy) {
+			case RETRY:
+				Integer tried = attempts.get(cust);
+				int count = tried == null ? 0 : tried;
+				if(count < maxRetries) {
+					attempts.put(cust, count + 1);
+					retriedCustomers.increment();
+					return Outcome.RETRY;
+				}
+				attempts.remove(cust);
+				break;
+			case OVERFLOW:
+				if(overflow.size() < overflowCapacity) {
+					overflow.add(cust);
+					overflowedCustomers.increment();
+					return Outcome.OVERFLOWED;
+				}
+				break;
+			default:
+				break;
+		}
+		
+		rejectedCustomers.increment();
+		return Outcome.REJECTED;
+	}
+	
+	/**
+	 * Returns how many times the given Customer has been sent away to retry so far.
+	 * @param cust - a Customer waiting to retry
+	 * @return the number of retries, or 0 if the Customer has not been turned away
+	 */
+	public int getAttempts(Customer cust) {
+		Integer tried = attempts.get(cust);
+		return tried == null ? 0 : tried;
+	}
+	
+	/**
+	 * Returns the Customers waiting in the overflow queue.
+	 * @return a copy of the overflow queue, in the order the Customers will be admitted
+	 */
+	public List<Customer> getOverflow() {
+		return new ArrayList<Customer>(overflow);
+	}
+	
+	/**
+	 * Replaces the state of this AdmissionControl with the given one, e.g. when resuming
+	 * a simulation from a checkpoint. The counters continue from the given values.
+	 * @param overflow - the Customers in the overflow queue, in order
+	 * @param attempts - the number of retries so far of each Customer waiting to retry
+	 * @param rejected - the number of Customers lost so far
+	 * @param redirected - the number of Customers redirected so far
+	 * @param retried - the number of retries so far
+	 * @param overflowed - the number of Customers put in the overflow queue so far
+	 */
+	public void restore(List<Customer> overflow, Map<Customer, Integer> attempts,
+			long rejected, long redirected, long retried, long overflowed) {
+		this.overflow.clear();
+		this.overflow.addAll(overflow);
+		this.attempts.clear();
+		this.attempts.putAll(attempts);
+		
+		restoreCounter(rejectedCustomers, rejected);
+		restoreCounter(redirectedCustomers, redirected);
+		restoreCounter(retriedCustomers, retried);
+		restoreCounter(overflowedCustomers, overflowed);
+	}
+	
+	private static void restoreCounter(LongAdder counter, long value) {
+		counter.reset();
+		counter.add(value);
+	}
+	
+	private CustomerServer admitted(Customer cust, CustomerServer target) {
+		if(policy == Policy.RETRY) attempts.remove(cust);
+		return target;
+	}
+	
+	private static CustomerServer leastLoadedWithRoom(QueueScheduler scheduler, CustomerServer excluded) {
+		CustomerServer best = null;
+		for(CustomerServer server : scheduler.getServers()) {
+			if(server == excluded || server.getRemainingCapacity() == 0) continue;
+			if(best == null || server.getWaitingTime() < best.getWaitingTime()) best = server;
+		}
+		return best;
+	}
+	
+	public Policy getPolicy() {
+		return policy;
+	}
+	
+	/**
+	 * Checks whether this AdmissionControl lets Customers wait for a place, as
+	 * {@link QueueScheduler#dispatchCustomer(Customer)} does, instead of admitting
+	 * them without waiting.
+	 * @return true if the policy is {@link Policy#BLOCK}
+	 */
+	public boolean isBlocking() {
+		return policy == Policy.BLOCK;
+	}
+	
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+	
+	public int getRetryDelay() {
+		return retryDelay;
+	}
+	
+	public int getOverflowCapacity() {
+		return overflowCapacity;
+	}
+	
+	/**
+	 * Returns the number of Customers waiting in the overflow queue.
+	 * @return the size of the overflow queue
+	 */
+	public int getOverflowSize() {
+		return overflow.size();
+	}
+	
+	/**
+	 * Returns the number of Customers that left because there was no room for them.
+	 * @return the number of lost Customers
+	 */
+	public long getRejectedCustomers() {
+		return rejectedCustomers.sum();
+	}
+	
+	/**
+	 * Returns the number of Customers admitted to another queue than the one
+	 * their strategy chose, because it was full.
+	 * @return the number of redirected Customers
+	 */
+	public long getRedirectedCustomers() {
+		return redirectedCustomers.sum();
+	}
+	
+	/**
+	 * Returns the number of times a Customer was sent away to retry later.
+	 * @return the number of retries
+	 */
+	public long getRetriedCustomers() {
+		return retriedCustomers.sum();
+	}
+	
+	/**
+	 * Returns the number of Customers that were put in the overflow queue.
+	 * @return the number of overflowed Customers
+	 */
+	public long getOverflowedCustomers() {
+		return overflowedCustomers.sum();
+	}
+}
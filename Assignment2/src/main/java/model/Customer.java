@@ -2,7 +2,10 @@ package model;
 
 public class Customer {
 	
+	private int id;
 	private int arrivalTime;
+	// Stays the same while the arrival time moves on from stage to stage of a queue network
+	private int entryTime;
 	private int servingTime;
 	private int finishTime;
 	
@@ -13,9 +16,23 @@ public class Customer {
 	 */
 	public Customer(int arrivalTime, int servingTime) {
 		this.arrivalTime = arrivalTime;
+		this.entryTime = arrivalTime;
 		this.servingTime = servingTime;
 	}
 
+	/**
+	 * Returns the number identifying this Customer, such as its position in
+	 * the order of arrival. Customers have the id zero unless given another.
+	 * @return the id of this Customer
+	 */
+	public int getId() {
+		return id;
+	}
+
+	public void setId(int id) {
+		this.id = id;
+	}
+
 	public int getArrivalTime() {
 		return arrivalTime;
 	}
@@ -24,6 +41,20 @@ public class Customer {
 		this.arrivalTime = arrivalTime;
 	}
 
+	/**
+	 * Returns the time this Customer first arrived. In a queue network, the arrival
+	 * time is that at the current stage, while this stays the time of entering
+	 * the network.
+	 * @return the time this Customer entered the simulation
+	 */
+	public int getEntryTime() {
+		return entryTime;
+	}
+
+	public void setEntryTime(int entryTime) {
+		this.entryTime = entryTime;
+	}
+
 	public int getServingTime() {
 		return servingTime;
 	}
@@ -41,11 +72,14 @@ public class Customer {
 	}
 	
 	/**
-	 * Computes the finish time for this Customer, given the time it had to wait in queue
-	 * @param waitingTime - the time the Customer waited before s/he started being served
+	 * Computes the finish time for this Customer, given the time it had to wait in queue.
+	 * The arrival time is kept as it is, so a Customer that joined a queue later than it
+	 * arrived still counts the time in between as spent waiting.
+	 * @param dispatchTime - the time moment the Customer joined the queue
+	 * @param waitingTime - the time the Customer waited in queue before s/he started being served
 	 */
-	public void computeFinishTime(int waitingTime) {
-		this.finishTime = arrivalTime + waitingTime + servingTime;
+	public void computeFinishTime(int dispatchTime, int waitingTime) {
+		this.finishTime = dispatchTime + waitingTime + servingTime;
 	}
 
 	/**
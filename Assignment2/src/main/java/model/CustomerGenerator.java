@@ -0,0 +1,59 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.distribution.Distribution;
+import model.distribution.UniformDistribution;
+
+public class CustomerGenerator {
+	
+	/**
+	 * Generates a list of randomised Customers with the given parameters. The
+	 * list is guaranteed to be sorted in ascended order of arrival times, and each Customer's
+	 * id is its position in the list. It is guaranteed
+	 * that the ideal finishing time of each client (that is, the finish time assuming they
+	 * are served as soon as they arrive) is no greater than <b>maxTime</b>.
+	 * @param number - the number of clients to generate
+	 * @param minProcTime - the minimum processing time for each client
+	 * @param maxProcTime - the maximum processing time for each client, included
+	 * @param maxTime - a maximum bound on the client's time as per the description
+	 * @param rand - the source of randomness to use
+	 * @return a list of randomised Customers
+	 */
+	public static List<Customer> generateRandomClients(int number, int minProcTime, int maxProcTime, int maxTime, Random rand) {
+		return generateRandomClients(number, new UniformDistribution(minProcTime, maxProcTime), maxTime, rand);
+	}
+	
+	/**
+	 * Generates a list of randomised Customers like {@link #generateRandomClients(int, int, int, int, Random)},
+	 * with processing times drawn from the given distribution. Clients whose processing
+	 * time does not fit before <b>maxTime</b> arrive at time 0.
+	 * @param number - the number of clients to generate
+	 * @param procTimes - the distribution of processing times
+	 * @param maxTime - a maximum bound on the client's time as per the description
+	 * @param rand - the source of randomness to use
+	 * @return a list of randomised Customers
+	 */
+	public static List<Customer> generateRandomClients(int number, Distribution procTimes, int maxTime, Random rand) {
+		List<Customer> customers = new ArrayList<Customer>(number);
+		
+		for(int i = 0; i < number; ++i) {
+			int procTime = procTimes.sampleTime(rand, maxTime);
+			int arrivTime = rand.nextInt(Math.max(1, maxTime - procTime));
+			
+			customers.add(new Customer(arrivTime, procTime));
+		}
+		
+		// Sort customers in ascending order of arrival, for commodity
+		customers.sort( (Customer a, Customer b) -> Integer.compare(a.getArrivalTime(), b.getArrivalTime()) );
+		
+		// Number customers in their order of arrival
+		for(int i = 0; i < number; ++i) {
+			customers.get(i).setId(i);
+		}
+		
+		return customers;
+	}
+}
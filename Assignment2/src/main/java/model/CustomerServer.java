@@ -1,25 +1,48 @@
 package model;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
 
 import controller.LogDisplay;
 
 public class CustomerServer implements Runnable {
 	
+	private int id;
 	private String name;
 	
 	private BlockingQueue<Customer> queue;
+	// The service time of the Customers in queue, plus what is left of the current
+	// one unless the server is on a clock, which counts that part apart
 	private AtomicInteger waitingTime;
 	
-	private boolean simulationOver = false;
+	// Null unless service is counted on a virtual clock instead of unit by unit
+	private volatile IntSupplier clock = null;
+	// The Customer being served, the time moment its service ends on the clock,
+	// and how much of its service listeners have been told about
+	private volatile Customer current = null;
+	private volatile int serviceEnd = 0;
+	private int reportedTime = 0;
+	
+	private volatile boolean simulationOver = false;
+	// Cleared while the server is closed, or draining before it closes
+	private volatile boolean accepting = true;
+	// Null unless idle time is spent taking Customers from other servers
+	private volatile WorkStealing workStealing = null;
 	
 	private LogDisplay logger;
+	private List<CustomerServerListener> listeners = new CopyOnWriteArrayList<CustomerServerListener>();
 
 	/**
 	 * Creates a new CustomerServer with the given name, with an empty queue
 	 * of the given capacity and a default waiting time of initially zero.
+	 * Its id is zero.
 	 * @param name - the name of this CustomerServer, which will be displayed
 	 * 				 in its {@link #toString()} method.
 	 * @param maxTasks - the maximum number of Customers in queue that this
@@ -27,9 +50,38 @@ public class CustomerServer implements Runnable {
 	 * @param logger - a LogDisplay element to which events can be written
 	 */
 	public CustomerServer(String name, int maxTasks, LogDisplay logger) {
+		this(0, name, maxTasks, logger);
+	}
+	
+	/**
+	 * Creates a new CustomerServer with the given id and name, with an empty queue
+	 * of the given capacity and a default waiting time of initially zero.
+	 * @param id - a number identifying this CustomerServer within its QueueScheduler
+	 * @param name - the name of this CustomerServer, which will be displayed
+	 * 				 in its {@link #toString()} method.
+	 * @param maxTasks - the maximum number of Customers in queue that this
+	 * 					 CustomerServer will accept
+	 * @param logger - a LogDisplay element to which events can be written
+	 */
+	public CustomerServer(int id, String name, int maxTasks, LogDisplay logger) {
+		this(id, name, new LinkedBlockingQueue<Customer>(maxTasks), logger);
+	}
+	
+	/**
+	 * Creates a new CustomerServer with the given id and name, storing its
+	 * Customers in the given empty BlockingQueue, with a waiting time of initially zero.
+	 * @param id - a number identifying this CustomerServer within its QueueScheduler
+	 * @param name - the name of this CustomerServer, which will be displayed
+	 * 				 in its {@link #toString()} method.
+	 * @param queue - an empty BlockingQueue, whose capacity is the maximum
+	 * 				  number of Customers in queue
+	 * @param logger - a LogDisplay element to which events can be written
+	 */
+	public CustomerServer(int id, String name, BlockingQueue<Customer> queue, LogDisplay logger) {
+		this.id = id;
 		this.name = name;
 		
-		this.queue = new LinkedBlockingQueue<Customer>(maxTasks);
+		this.queue = queue;
 		this.waitingTime = new AtomicInteger(0);
 		
 		this.logger = logger;
@@ -47,10 +99,8 @@ public class CustomerServer implements Runnable {
 	 * @param logger - a LogDisplay element to which events can be written
 	 */
 	public CustomerServer(String name, BlockingQueue<Customer> queue, int waitingTime, LogDisplay logger) {
-		this.name = name;
-		
-		this.queue = queue;
-		this.waitingTime = new AtomicInteger(waitingTime);
+		this(0, name, queue, logger);
+		this.waitingTime.set(waitingTime);
 	}
 	
 	/**
@@ -60,18 +110,354 @@ public class CustomerServer implements Runnable {
 	 */
 	public void addCustomer(Customer cust) {
 		try {
-			cust.computeFinishTime(waitingTime.get());
+			computeFinishTime(cust);
 			queue.put(cust);
 			
 			waitingTime.addAndGet(cust.getServingTime());
 			
 			logger.addTextLine(name + " received customer " + cust.toString());
+			for(CustomerServerListener listener : listeners) {
+				listener.customerAdded(this, cust);
+			}
 		} catch (InterruptedException e) {
 			System.out.println("Interrupted in addCustomer!");
 			e.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Adds the given Customers to the queue of this CustomerServer in order, like
+	 * {@link #addCustomer(Customer)} for each of them. The waiting time is updated
+	 * for each Customer before listeners hear of it, so they always see a waiting
+	 * time that matches the queue. If interrupted while waiting for room, the
+	 * Customers not added yet are dropped.
+	 * @param custs - the Customers to be added to queue
+	 */
+	public void addCustomers(List<Customer> custs) {
+		try {
+			for(Customer cust : custs) {
+				computeFinishTime(cust);
+				queue.put(cust);
+				waitingTime.addAndGet(cust.getServingTime());
+				
+				logger.addTextLine(name + " received customer " + cust.toString());
+				for(CustomerServerListener listener : listeners) {
+					listener.customerAdded(this, cust);
+				}
+			}
+		} catch (InterruptedException e) {
+			System.out.println("Interrupted in addCustomers!");
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Adds the given Customer to the queue of this CustomerServer if there is
+	 * room for it, like {@link #addCustomer(Customer)}, but without waiting
+	 * when the queue is full.
+	 * @param cust - the Customer to be added to queue
+	 * @return true if the Customer was added, false if it was rejected
+	 */
+	public boolean offerCustomer(Customer cust) {
+		computeFinishTime(cust);
+		if(!queue.offer(cust)) {
+			for(CustomerServerListener listener : listeners) {
+				listener.customerRejected(this, cust);
+			}
+			return false;
+		}
+		
+		waitingTime.addAndGet(cust.getServingTime());
+		
+		logger.addTextLine(name + " received customer " + cust.toString());
+		for(CustomerServerListener listener : listeners) {
+			listener.customerAdded(this, cust);
+		}
+		return true;
+	}
+	
+	/**
+	 * Sets the finish time of a Customer joining the end of the queue, once the current
+	 * Customer and every one in queue have been served. On a clock, this counts from the
+	 * current time moment, which is later than the arrival of a Customer that was held
+	 * back or came back to retry. Servers run in real time are given their Customers in
+	 * the moment they arrive, and have already served that moment's unit of the current one.
+	 */
+	private void computeFinishTime(Customer cust) {
+		IntSupplier clock = this.clock;
+		Customer served = current;
+		if(clock != null) {
+			int now = clock.getAsInt();
+			int start = served == null ? now : Math.max(now, serviceEnd);
+			cust.computeFinishTime(start, waitingTime.get());
+		} else {
+			int busy = served == null ? 0 : 1;
+			cust.computeFinishTime(cust.getArrivalTime(), getWaitingTime() + busy);
+		}
+	}
+	
+	/**
+	 * Replaces the Customers in queue and the waiting time of this CustomerServer,
+	 * e.g. when resuming a simulation from a checkpoint. Unlike {@link #addCustomer(Customer)},
+	 * the finish times of the Customers are kept as they are, and listeners are only
+	 * told through {@link CustomerServerListener#queueRestored(CustomerServer)}.
+	 * @param custs - the Customers to be in queue, in the order they will be served
+	 * @param waitingTime - the waiting time matching the Customers and the one being served
+	 * @throws IllegalArgumentException if the Customers do not fit in the queue
+	 */
+	public void restoreQueue(List<Customer> custs, int waitingTime) {
+		restoreQueue(custs, waitingTime, null, 0);
+	}
+	
+	/**
+	 * Replaces the Customers in queue and the waiting time of this CustomerServer, like
+	 * {@link #restoreQueue(List, int)}, and for a server on a clock, also the Customer
+	 * being served and the time moment its service ends. The time it has already been
+	 * served for counts as reported to listeners.
+	 * @param custs - the Customers to be in queue, in the order they will be served
+	 * @param waitingTime - the waiting time matching the Customers and the one being served
+	 * @param cust - the Customer being served, or null if the server is idle
+	 * @param serviceEnd - the time moment at which the service of that Customer ends,
+	 * 					   as given by {@link #getServiceEnd()}
+	 * @throws IllegalArgumentException if the Customers do not fit in the queue
+	 */
+	public void restoreQueue(List<Customer> custs, int waitingTime, Customer cust, int serviceEnd) {
+		if(custs.size() > getCapacity()) {
+			throw new IllegalArgumentException(name + " cannot hold " + custs.size() + " customers");
+		}
+		
+		queue.clear();
+		queue.addAll(custs);
+		
+		IntSupplier clock = this.clock;
+		if(clock != null) {
+			this.current = cust;
+			this.serviceEnd = serviceEnd;
+			int remaining = remainingServiceTime(clock.getAsInt());
+			reportedTime = cust == null ? 0 : cust.getServingTime() - remaining;
+			waitingTime -= remaining;
+		}
+		this.waitingTime.set(waitingTime);
+		
+		for(CustomerServerListener listener : listeners) {
+			listener.queueRestored(this);
+		}
+	}
+	
+	/**
+	 * Removes the next Customer from the queue so that it starts being served.
+	 * Unlike {@link #run()}, this method does not block when the queue is empty.
+	 * @return the Customer that started being served, or null if the queue is empty
+	 */
+	public Customer beginService() {
+		Customer cust = queue.poll();
+		if(cust == null) return null;
+		
+		if(clock != null) {
+			waitingTime.addAndGet(-cust.getServingTime());
+			serveOnClock(cust);
+		}
+		notifyServiceStarted(cust);
+		return cust;
+	}
+	
+	/**
+	 * Takes the last Customer waiting in the queue of the given CustomerServer and
+	 * starts serving it here instead. This is meant for an idle CustomerServer, as
+	 * arranged by {@link WorkStealing}. The waiting times of both servers are updated,
+	 * and the Customer's finish time becomes the time it will now finish here.
+	 * @param victim - the CustomerServer to take the Customer from, whose queue
+	 * 				   must be a BlockingDeque
+	 * @param currentTime - the current time moment of the simulation
+	 * @return the Customer that started being served, or null if the victim had none waiting
+	 * @throws IllegalStateException if the victim's queue is not a BlockingDeque
+	 */
+	public Customer stealCustomer(CustomerServer victim, int currentTime) {
+		if(!victim.isStealable()) {
+			throw new IllegalStateException(victim.name + " cannot give up Customers from the end of its queue");
+		}
+		
+		Customer cust = ((BlockingDeque<Customer>) victim.queue).pollLast();
+		if(cust == null) return null;
+		victim.waitingTime.addAndGet(-cust.getServingTime());
+		
+		// Service starts right away, after whatever this server still had to do
+		cust.setFinishTime(currentTime + getWaitingTime() + cust.getServingTime());
+		if(clock != null) {
+			serveOnClock(cust);
+		} else {
+			waitingTime.addAndGet(cust.getServingTime());
+		}
+		
+		logger.addTextLine(name + " took over customer " + cust.toString() + " from " + victim.name);
+		for(CustomerServerListener listener : listeners) {
+			listener.customerStolen(victim, this, cust);
+		}
+		for(CustomerServerListener listener : victim.listeners) {
+			if(!listeners.contains(listener)) listener.customerStolen(victim, this, cust);
+		}
+		
+		notifyServiceStarted(cust);
+		return cust;
+	}
+	
+	private void serveOnClock(Customer cust) {
+		current = cust;
+		serviceEnd = clock.getAsInt() + cust.getServingTime();
+		reportedTime = 0;
+	}
+	
+	/**
+	 * Returns the time the current Customer is still owed at the given time moment,
+	 * for a server on a clock. Each unit of service counts as spent from the start of
+	 * the moment it takes up, just like {@link #run()} serves the unit before sleeping.
+	 */
+	private int remainingServiceTime(int time) {
+		return current == null ? 0 : Math.max(0, serviceEnd - 1 - time);
+	}
+	
+	private void notifyServiceStarted(Customer cust) {
+		for(CustomerServerListener listener : listeners) {
+			listener.serviceStarted(this, cust);
+		}
+	}
+	
+	/**
+	 * Marks one unit of time as spent serving the current Customer, decreasing
+	 * the waiting time of this CustomerServer accordingly. Servers on a clock,
+	 * as per {@link #setClock(IntSupplier)}, do not need this.
+	 */
+	public void serveTimeUnit() {
+		waitingTime.decrementAndGet();
+		for(CustomerServerListener listener : listeners) {
+			listener.timeUnitServed(this);
+		}
+	}
+	
+	/**
+	 * Announces that the given Customer has finished being served.
+	 * @param cust - the Customer that was being served
+	 */
+	public void finishService(Customer cust) {
+		if(clock != null) reportServedTime();
+		current = null;
+		
+		logger.addTextLine(name + " finished serving customer " + cust.toString());
+		for(CustomerServerListener listener : listeners) {
+			listener.serviceFinished(this, cust);
+		}
+	}
+	
+	/**
+	 * Makes this CustomerServer count the service of its Customers on the given
+	 * clock, as an event-driven simulation does, instead of being told about every
+	 * unit of time through {@link #serveTimeUnit()}. Its waiting time then drops on
+	 * its own as the clock advances, and listeners are told how long it spent serving
+	 * through {@link CustomerServerListener#timeServed(CustomerServer, int)} once
+	 * the service ends, or when {@link #reportServedTime()} is called. The clock
+	 * must be set while the server is idle.
+	 * @param clock - gives the current time moment of the simulation, or null
+	 * 				  to count service unit by unit again
+	 */
+	public void setClock(IntSupplier clock) {
+		this.clock = clock;
+		this.current = null;
+	}
+	
+	/**
+	 * Returns whether this CustomerServer counts its service on a clock,
+	 * as per {@link #setClock(IntSupplier)}.
+	 * @return true if a clock was set
+	 */
+	public boolean hasClock() {
+		return clock != null;
+	}
+	
+	/**
+	 * Tells listeners how much time this CustomerServer has spent serving its current
+	 * Customer on its clock since they were last told, e.g. before reading metrics while
+	 * a Customer is still being served. Nothing happens for a server without a clock.
+	 */
+	public void reportServedTime() {
+		IntSupplier clock = this.clock;
+		Customer cust = current;
+		if(clock == null || cust == null) return;
+		
+		int served = cust.getServingTime() - remainingServiceTime(clock.getAsInt());
+		if(served <= reportedTime) return;
+		
+		int units = served - reportedTime;
+		reportedTime = served;
+		for(CustomerServerListener listener : listeners) {
+			listener.timeServed(this, units);
+		}
+	}
+	
+	/**
+	 * Registers a listener to be notified of every change in the queue of this
+	 * CustomerServer. Listeners are called on the thread making the change.
+	 * @param listener - the listener to be added
+	 */
+	public void addListener(CustomerServerListener listener) {
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Removes a listener previously added with {@link #addListener(CustomerServerListener)}.
+	 * @param listener - the listener to be removed
+	 */
+	public void removeListener(CustomerServerListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Lets this CustomerServer take Customers from other servers through the given
+	 * WorkStealing whenever its own queue is empty, usually through
+	 * {@link QueueScheduler#enableWorkStealing(java.util.function.IntSupplier)}.
+	 * @param workStealing - the WorkStealing to use, or null to only serve this queue
+	 */
+	public void setWorkStealing(WorkStealing workStealing) {
+		this.workStealing = workStealing;
+	}
+	
+	public WorkStealing getWorkStealing() {
+		return workStealing;
+	}
+	
+	/**
+	 * Opens or closes this CustomerServer to new Customers, usually as decided by an
+	 * {@link ElasticPool}. A closed server still serves the Customers already in its
+	 * queue, but reports no remaining capacity, so that strategies pass it over,
+	 * and does not take Customers from other servers.
+	 * @param accepting - whether new Customers may be added
+	 */
+	public void setAccepting(boolean accepting) {
+		if(this.accepting == accepting) return;
+		
+		this.accepting = accepting;
+		logger.addTextLine(name + (accepting ? " opened" : " closed to new customers"));
+		for(CustomerServerListener listener : listeners) {
+			listener.acceptingChanged(this);
+		}
+	}
+	
+	/**
+	 * Checks whether this CustomerServer accepts new Customers.
+	 * @return false if it was closed with {@link #setAccepting(boolean)}
+	 */
+	public boolean isAccepting() {
+		return accepting;
+	}
+	
+	/**
+	 * Checks whether other CustomerServers can take Customers from the end of
+	 * the queue of this one, through {@link #stealCustomer(CustomerServer, int)}.
+	 * @return true if the queue is a BlockingDeque
+	 */
+	public boolean isStealable() {
+		return queue instanceof BlockingDeque;
+	}
+	
 	/**
 	 * Marks the simulation as over, causing this CustomerServer to finish all of
 	 * its current duties, then stop. (This usually means it will finish serving its
@@ -79,6 +465,17 @@ public class CustomerServer implements Runnable {
 	 */
 	public void endSimulation() {
 		this.simulationOver = true;
+		for(CustomerServerListener listener : listeners) {
+			listener.simulationEnded(this);
+		}
+	}
+	
+	/**
+	 * Checks whether the simulation has been marked as over for this CustomerServer.
+	 * @return true if {@link #endSimulation()} has been called
+	 */
+	public boolean isSimulationOver() {
+		return simulationOver;
 	}
 	
 	/**
@@ -89,12 +486,44 @@ public class CustomerServer implements Runnable {
 	 */
 	@Override
 	public String toString() {
-		String toReturn = name + ":";
+		return describeQueue(Integer.MAX_VALUE);
+	}
+	
+	/**
+	 * Returns a string like {@link #toString()}, but listing at most the given
+	 * number of Customers, followed by how many were left out. For example,
+	 * with a limit of two, a CustomerServer named Maurice which has five
+	 * Customers will return "Maurice: C1 C2 (+3 more)".
+	 * @param maxCustomers - the maximum number of Customers to list
+	 * @return a string identifying this CustomerServer and its first Customers
+	 */
+	public String describeQueue(int maxCustomers) {
+		StringBuilder builder = new StringBuilder(name).append(':');
+		
+		int shown = 0;
 		for(Customer cust : queue) {
-			toReturn += " " + cust.toString();
+			if(shown == maxCustomers) {
+				// Customers may be served meanwhile, so the count is only a hint
+				builder.append(" (+").append(Math.max(1, queue.size() - shown)).append(" more)");
+				break;
+			}
+			builder.append(' ').append(cust.toString());
+			++shown;
 		}
 		
-		return toReturn;
+		return builder.toString();
+	}
+	
+	/**
+	 * Returns the number identifying this CustomerServer within its QueueScheduler.
+	 * @return the id of this CustomerServer
+	 */
+	public int getId() {
+		return id;
+	}
+	
+	public String getName() {
+		return name;
 	}
 	
 	/**
@@ -103,7 +532,30 @@ public class CustomerServer implements Runnable {
 	 * 		   Customer would start being served
 	 */
 	public int getWaitingTime() {
-		return waitingTime.get();
+		IntSupplier clock = this.clock;
+		int waiting = waitingTime.get();
+		return clock == null ? waiting : waiting + remainingServiceTime(clock.getAsInt());
+	}
+	
+	/**
+	 * Returns the time moment by which this CustomerServer will have served its current
+	 * Customer and every one in queue, on the clock set with {@link #setClock(IntSupplier)}.
+	 * Unlike the waiting time, this stays the same as the clock advances while the server
+	 * is busy, until its queue changes. Without a clock, this is the waiting time.
+	 * @return the current time moment plus the waiting time
+	 */
+	public int getDrainTime() {
+		IntSupplier clock = this.clock;
+		return clock == null ? waitingTime.get() : clock.getAsInt() + getWaitingTime();
+	}
+	
+	/**
+	 * Returns the time moment at which the Customer being served on the clock set with
+	 * {@link #setClock(IntSupplier)} finishes, e.g. to save it in a checkpoint.
+	 * @return the end of the current service, or of the last one if the server is idle
+	 */
+	public int getServiceEnd() {
+		return serviceEnd;
 	}
 	
 	/**
@@ -115,38 +567,71 @@ public class CustomerServer implements Runnable {
 		return queue.size();
 	}
 	
+	/**
+	 * Returns the Customers waiting to be served by this CustomerServer.
+	 * @return a copy of the queue, in the order the Customers will be served
+	 */
+	public List<Customer> getQueuedCustomers() {
+		return new ArrayList<Customer>(queue);
+	}
+	
 	/**
 	 * Return the number of Customers that could, in absence of physical
 	 * limitations such as memory, be added to this CustomerServer, as per
-	 * {@link BlockingQueue#remainingCapacity()}.
+	 * {@link BlockingQueue#remainingCapacity()}. This is zero while the
+	 * server does not accept new Customers.
 	 * @return - the remaining capacity of this CustomerServer
 	 */
 	public int getRemainingCapacity() {
-		return queue.remainingCapacity();
+		return accepting ? queue.remainingCapacity() : 0;
+	}
+	
+	/**
+	 * Returns the maximum number of Customers in queue for this CustomerServer,
+	 * whether or not it accepts new Customers right now.
+	 * @return the capacity of the queue
+	 */
+	public int getCapacity() {
+		return queue.size() + queue.remainingCapacity();
 	}
 
 	/**
 	 * Simulates the behaviour of a queue by serving clients in order and waiting
 	 * an appropriate amount for each client. New clients may be added while the
 	 * simulation runs by inserting them with the {@link #addCustomer(Customer)}
-	 * method of this class.
+	 * method of this class. If work stealing is enabled, a CustomerServer whose
+	 * queue is empty first tries to take over a Customer waiting at another server.
 	 */
 	@Override
 	public void run() {
 		while (!simulationOver) {
 			try {
-				Customer currentlyServed = queue.take();
+				Customer currentlyServed = null;
+				WorkStealing stealing = workStealing;
+				if(stealing != null && queue.isEmpty()) {
+					currentlyServed = stealing.steal(this);
+				}
+				
+				if(currentlyServed == null) {
+					// Wait for a Customer, checking now and then whether the simulation ended
+					currentlyServed = queue.poll(1, TimeUnit.SECONDS);
+					if(currentlyServed == null) continue;
+					notifyServiceStarted(currentlyServed);
+				}
+				current = currentlyServed;
 				
 				// Wait in intervals of one second at a time, for better accuracy
 				// of remaining waiting time for new-arriving Customers
 				for(int i = currentlyServed.getServingTime(); i > 0; --i) {
-					waitingTime.decrementAndGet();
+					serveTimeUnit();
 					Thread.sleep(1000);
 				}
 				
-				logger.addTextLine(name + " finished serving customer " +
-								   currentlyServed.toString());
+				finishService(currentlyServed);
 			} catch (InterruptedException e) {
+				// Being interrupted once the simulation is over means it was cancelled
+				if(simulationOver) return;
+				
 				System.out.println("Interrupted in CustomerServer#run!");
 				e.printStackTrace();
 			}
@@ -0,0 +1,82 @@
+package model;
+
+public interface CustomerServerListener {
+	
+	/**
+	 * Called after a Customer has been added to the queue of a CustomerServer.
+	 * @param server - the CustomerServer that received the Customer
+	 * @param cust - the Customer that was added
+	 */
+	public default void customerAdded(CustomerServer server, Customer cust) {}
+	
+	/**
+	 * Called after a CustomerServer has turned a Customer away because its
+	 * queue was full, as per {@link CustomerServer#offerCustomer(Customer)}.
+	 * @param server - the CustomerServer that rejected the Customer
+	 * @param cust - the Customer that was rejected
+	 */
+	public default void customerRejected(CustomerServer server, Customer cust) {}
+	
+	/**
+	 * Called after a CustomerServer has taken a Customer out of its queue
+	 * to start serving it.
+	 * @param server - the CustomerServer serving the Customer
+	 * @param cust - the Customer that started being served
+	 */
+	public default void serviceStarted(CustomerServer server, Customer cust) {}
+	
+	/**
+	 * Called after an idle CustomerServer has taken a Customer from the end of
+	 * another one's queue, as per {@link CustomerServer#stealCustomer(CustomerServer, int)}.
+	 * A listener of both servers is only called once. The thief then starts serving
+	 * the Customer, which is announced through {@link #serviceStarted(CustomerServer, Customer)}.
+	 * @param victim - the CustomerServer whose queue the Customer was taken from
+	 * @param thief - the CustomerServer that took the Customer
+	 * @param cust - the Customer that was moved
+	 */
+	public default void customerStolen(CustomerServer victim, CustomerServer thief, Customer cust) {}
+	
+	/**
+	 * Called after a CustomerServer has started or stopped accepting new Customers,
+	 * as per {@link CustomerServer#setAccepting(boolean)}.
+	 * @param server - the CustomerServer that was opened or closed
+	 */
+	public default void acceptingChanged(CustomerServer server) {}
+	
+	/**
+	 * Called after the queue and waiting time of a CustomerServer have been replaced
+	 * all at once, as per {@link CustomerServer#restoreQueue(java.util.List, int)}.
+	 * @param server - the CustomerServer whose queue was restored
+	 */
+	public default void queueRestored(CustomerServer server) {}
+	
+	/**
+	 * Called after a CustomerServer has spent one unit of time serving
+	 * its current Customer.
+	 * @param server - the CustomerServer serving the Customer
+	 */
+	public default void timeUnitServed(CustomerServer server) {}
+
+	/**
+	 * Called after a CustomerServer on a clock has spent the given units of time serving
+	 * its current Customer, as per {@link CustomerServer#setClock(java.util.function.IntSupplier)}.
+	 * Such servers report their service in one go, instead of calling
+	 * {@link #timeUnitServed(CustomerServer)} for every unit.
+	 * @param server - the CustomerServer serving the Customer
+	 * @param units - the number of time units served since the last call
+	 */
+	public default void timeServed(CustomerServer server, int units) {}
+
+	/**
+	 * Called after a CustomerServer has finished serving a Customer.
+	 * @param server - the CustomerServer that served the Customer
+	 * @param cust - the Customer that was served
+	 */
+	public default void serviceFinished(CustomerServer server, Customer cust) {}
+	
+	/**
+	 * Called after the simulation has been marked as over for a CustomerServer.
+	 * @param server - the CustomerServer whose simulation ended
+	 */
+	public default void simulationEnded(CustomerServer server) {}
+}
@@ -0,0 +1,436 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+public class ElasticPool implements CustomerServerListener {
+	
+	/**
+	 * The states a CustomerServer of an ElasticPool goes through
+	 */
+	public enum State {
+		/**
+		 * The server is staffed and accepts Customers
+		 */
+		OPEN,
+		/**
+		 * The server is staffed, but only accepts Customers once its warm-up is over
+		 */
+		WARMING_UP,
+		/**
+		 * The server is staffed and serves the Customers it still has, but
+		 * accepts no new ones; it closes once it is idle
+		 */
+		DRAINING,
+		/**
+		 * The server is not staffed and accepts no Customers
+		 */
+		CLOSED
+	}
+	
+	public final static int DEFAULT_WARM_UP = 5;
+	public final static int DEFAULT_COOLDOWN = 5;
+	public final static int DEFAULT_SCALE_UP_WAITING_TIME = 20;
+	public final static double DEFAULT_SCALE_UP_QUEUE_LENGTH = 5;
+	public final static int DEFAULT_SCALE_DOWN_WAITING_TIME = 2;
+	
+	private final List<CustomerServer> servers;
+	private final int minServers;
+	private final int warmUp;
+	
+	private int scaleUpWaitingTime = DEFAULT_SCALE_UP_WAITING_TIME;
+	private double scaleUpQueueLength = DEFAULT_SCALE_UP_QUEUE_LENGTH;
+	private int scaleDownWaitingTime = DEFAULT_SCALE_DOWN_WAITING_TIME;
+	private int cooldown = DEFAULT_COOLDOWN;
+	
+	// Servers 0 to provisioned - 1 are open or warming up, the others draining or closed,
+	// so the first server, to which Customers go when every queue is full, never closes
+	private final State[] states;
+	private final int[] readyTime;
+	private int provisioned;
+	private int openServers;
+	private int staffedServers;
+	// The servers warming up, in the order they open, and those draining
+	private final Deque<Integer> warmingUp = new ArrayDeque<Integer>();
+	private final List<Integer> draining = new ArrayList<Integer>();
+	// The earliest time moment at which the pool may grow or shrink again
+	private int nextScaling = 0;
+	
+	// The load of every server as last heard from it, which is from the threads
+	// of the servers in real-time runs, and its totals over the open servers
+	private final boolean[] busy;
+	private final boolean[] working;
+	private final int[] clients;
+	private final int[] drainTime;
+	private int openWorking = 0;
+	private long openClients = 0;
+	private long openDrainTime = 0;
+	// Set when the load of an open server changes or a draining server goes idle
+	private boolean changed = false;
+	
+	private long serverTime = 0;
+	// The first time moment whose staffed servers have not been counted yet
+	private int countedUntil = 0;
+	private int peakServers = 0;
+	private int scaleUps = 0;
+	private int scaleDowns = 0;
+	
+	/**
+	 * Creates a new ElasticPool over the given CustomerServers, which must have the
+	 * ids 0, 1, 2... in the order they appear in the list. Only the first minServers
+	 * of them are left open; the others are closed until the load calls for them.
+	 * The pool listens to every server to keep track of its load, until
+	 * {@link #detach()} is called.
+	 * @param servers - the CustomerServers that can be opened, in the order they are opened
+	 * @param minServers - the number of servers that are always open
+	 * @param warmUp - how many time moments a server takes to open
+	 * @throws IllegalArgumentException if minServers is not between 1 and the number
+	 * 				of servers, or warmUp is negative
+	 */
+	public ElasticPool(List<CustomerServer> servers, int minServers, int warmUp) {
+		if(minServers < 1 || minServers > servers.size() || warmUp < 0) {
+			throw new IllegalArgumentException("Invalid pool settings: minServers=" + minServers
+					+ " of " + servers.size() + ", warmUp=" + warmUp);
+		}
+		
+		this.servers = servers;
+		this.minServers = minServers;
+		this.warmUp = warmUp;
+		this.states = new State[servers.size()];
+		this.readyTime = new int[servers.size()];
+		this.busy = new boolean[servers.size()];
+		this.working = new boolean[servers.size()];
+		this.clients = new int[servers.size()];
+		this.drainTime = new int[servers.size()];
+		this.provisioned = minServers;
+		
+		for(int i = 0; i < servers.size(); ++i) {
+			CustomerServer server = servers.get(i);
+			if(server.getId() != i) {
+				throw new IllegalArgumentException("Server " + i + " has id " + server.getId());
+			}
+			
+			states[i] = i < minServers ? State.OPEN : State.CLOSED;
+			server.setAccepting(i < minServers);
+			refresh(server);
+			server.addListener(this);
+		}
+		this.openServers = minServers;
+		this.staffedServers = minServers;
+	}
+	
+	/**
+	 * Sets when another server is opened: when the average waiting time of the open
+	 * servers exceeds the given time, or their average number of waiting Customers
+	 * exceeds the given length.
+	 * @param waitingTime - the average waiting time above which to open a server
+	 * @param queueLength - the average queue length above which to open a server
+	 */
+	public void setScaleUp(int waitingTime, double queueLength) {
+		this.scaleUpWaitingTime = waitingTime;
+		this.scaleUpQueueLength = queueLength;
+	}
+	
+	/**
+	 * Sets when a server is drained and closed: when the average waiting time of the
+	 * open servers is at most the given time. This should be well below the waiting
+	 * time set by {@link #setScaleUp(int, double)}, so the pool does not keep
+	 * opening and closing the same server.
+	 * @param waitingTime - the average waiting time at or below which to close a server
+	 */
+	public void setScaleDown(int waitingTime) {
+		this.scaleDownWaitingTime = waitingTime;
+	}
+	
+	/**
+	 * Sets how many time moments must pass after the pool grows or shrinks
+	 * before it may do so again, so the effect of a change can show first.
+	 * @param cooldown - the number of time moments between two changes
+	 */
+	public void setCooldown(int cooldown) {
+		this.cooldown = cooldown;
+	}
+	
+	/**
+	 * Brings the pool up to date at the given time moment: servers whose warm-up is
+	 * over open, draining servers that went idle close, and a server is opened or
+	 * drained if the load of the open servers calls for it. The servers staffed
+	 * during this time moment are then counted, along with those of the moments
+	 * since the last update, in which the pool stayed the same. Real-time simulators
+	 * call this once every time moment; event-driven ones may skip the moments
+	 * before {@link #getNextUpdate(int)} in which the pool has not {@link #hasChanged()}.
+	 * The load of the open servers is kept from their listener calls, so this takes
+	 * constant time, apart from the servers warming up or draining.
+	 * @param currentTime - the current time moment of the simulation, later than the last one
+	 */
+	public synchronized void update(int currentTime) {
+		changed = false;
+		countUntil(currentTime);
+		
+		while(!warmingUp.isEmpty() && readyTime[warmingUp.peek()] <= currentTime) {
+			open(warmingUp.poll());
+		}
+		for(Iterator<Integer> it = draining.iterator(); it.hasNext(); ) {
+			int id = it.next();
+			if(!working[id]) {
+				states[id] = State.CLOSED;
+				--staffedServers;
+				it.remove();
+			}
+		}
+		
+		if(currentTime >= nextScaling) {
+			int scaling = scalingAt(currentTime);
+			if(scaling > 0) {
+				scaleUp(currentTime);
+			} else if(scaling < 0) {
+				scaleDown(currentTime);
+			}
+		}
+		
+		serverTime += staffedServers;
+		countedUntil = currentTime + 1;
+		peakServers = Math.max(peakServers, staffedServers);
+	}
+	
+	/**
+	 * Returns the earliest time moment after the given one at which {@link #update(int)}
+	 * would change the pool, as long as the load of the servers does not change in
+	 * the meantime: the end of a warm-up, the end of the cooldown while the load
+	 * calls for a change, or the moment the waiting time of servers on a clock
+	 * has dropped far enough for one to be drained.
+	 * @param currentTime - the time moment of the last update
+	 * @return the time moment of the next update needed, or Integer.MAX_VALUE if there is none
+	 */
+	public synchronized int getNextUpdate(int currentTime) {
+		int next = warmingUp.isEmpty() ? Integer.MAX_VALUE : readyTime[warmingUp.peek()];
+		
+		int earliest = Math.max(currentTime + 1, nextScaling);
+		if(scalingAt(earliest) != 0) return Math.min(next, earliest);
+		
+		// Only the waiting time changes as time passes, and only downwards
+		if(openWorking == 0 || !servers.get(0).hasClock() || provisioned <= minServers) return next;
+		long excess = openDrainTime - (long) scaleDownWaitingTime * openServers;
+		long drained = Math.max(earliest, (excess + openWorking - 1) / openWorking);
+		while(drained < next && scalingAt((int) drained) == 0) {
+			++drained;
+		}
+		return (int) Math.min(next, drained);
+	}
+	
+	/**
+	 * Returns whether the load of the open servers changed, or a draining server went
+	 * idle, since the last call to {@link #update(int)}, so that it should be called again.
+	 * @return true if the pool should be updated
+	 */
+	public synchronized boolean hasChanged() {
+		return changed;
+	}
+	
+	/**
+	 * Counts the servers staffed in the time moments before the given one, for
+	 * simulators that do not update the pool in every moment, before they read
+	 * {@link #getServerTime()}.
+	 * @param time - the first time moment not to count
+	 */
+	public synchronized void countUntil(int time) {
+		if(time > countedUntil) {
+			serverTime += (long) staffedServers * (time - countedUntil);
+			countedUntil = time;
+		}
+	}
+	
+	/**
+	 * Decides whether the load of the open servers at the given time moment calls for
+	 * another server, when positive, or for one less, when negative.
+	 */
+	private int scalingAt(int time) {
+		// Servers on a clock serve their Customers by their drain time, so every busy
+		// one has a unit of waiting time less at every time moment that passes
+		long waitingTime = openDrainTime;
+		if(servers.get(0).hasClock()) waitingTime -= (long) openWorking * time;
+		
+		double averageWaiting = (double) waitingTime / openServers;
+		double averageClients = (double) openClients / openServers;
+		if((averageWaiting > scaleUpWaitingTime || averageClients > scaleUpQueueLength)
+				&& provisioned < states.length) {
+			return 1;
+		} else if(averageWaiting <= scaleDownWaitingTime && provisioned > minServers) {
+			return -1;
+		}
+		return 0;
+	}
+	
+	private void scaleUp(int currentTime) {
+		int id = provisioned++;
+		nextScaling = currentTime + cooldown;
+		++scaleUps;
+		
+		// A server that is still draining has its staff at hand, so it reopens at once
+		if(states[id] == State.DRAINING) {
+			draining.remove(Integer.valueOf(id));
+			open(id);
+		} else if(warmUp == 0) {
+			++staffedServers;
+			open(id);
+		} else {
+			++staffedServers;
+			states[id] = State.WARMING_UP;
+			readyTime[id] = currentTime + warmUp;
+			warmingUp.add(id);
+		}
+	}
+	
+	private void scaleDown(int currentTime) {
+		int id = --provisioned;
+		nextScaling = currentTime + cooldown;
+		++scaleDowns;
+		
+		if(states[id] == State.WARMING_UP) {
+			states[id] = State.CLOSED;
+			--staffedServers;
+			warmingUp.removeLastOccurrence(id);
+		} else {
+			addLoad(id, -1);
+			--openServers;
+			states[id] = State.DRAINING;
+			draining.add(id);
+			// An idle server closes at the next update
+			if(!working[id]) changed = true;
+			servers.get(id).setAccepting(false);
+		}
+	}
+	
+	private void open(int id) {
+		states[id] = State.OPEN;
+		++openServers;
+		addLoad(id, 1);
+		servers.get(id).setAccepting(true);
+	}
+	
+	private void addLoad(int id, int sign) {
+		openWorking += working[id] ? sign : 0;
+		openClients += sign * clients[id];
+		openDrainTime += sign * drainTime[id];
+	}
+	
+	/**
+	 * Takes in the current load of the given server, which counts towards the totals
+	 * only if it is open. Idle servers have no drain time, so that the drain time of
+	 * the open servers minus the current time for each busy one gives their waiting time.
+	 */
+	private synchronized void refresh(CustomerServer server) {
+		int id = server.getId();
+		boolean nowWorking = busy[id] || server.getNoOfClients() > 0;
+		int nowClients = server.getNoOfClients();
+		int nowDrainTime = nowWorking ? server.getDrainTime() : 0;
+		
+		if(states[id] == State.OPEN) {
+			if(nowClients != clients[id] || nowDrainTime != drainTime[id] || nowWorking != working[id]) changed = true;
+			addLoad(id, -1);
+		} else if(states[id] == State.DRAINING && working[id] && !nowWorking) {
+			changed = true;
+		}
+		
+		working[id] = nowWorking;
+		clients[id] = nowClients;
+		drainTime[id] = nowDrainTime;
+		if(states[id] == State.OPEN) addLoad(id, 1);
+	}
+	
+	/**
+	 * Stops listening to the CustomerServers. The pool must not be
+	 * updated afterwards.
+	 */
+	public void detach() {
+		for(CustomerServer server : servers) {
+			server.removeListener(this);
+		}
+	}
+	
+	@Override
+	public void customerAdded(CustomerServer server, Customer cust) {
+		refresh(server);
+	}
+	
+	@Override
+	public void customerStolen(CustomerServer victim, CustomerServer thief, Customer cust) {
+		refresh(victim);
+	}
+	
+	@Override
+	public void queueRestored(CustomerServer server) {
+		refresh(server);
+	}
+	
+	@Override
+	public synchronized void serviceStarted(CustomerServer server, Customer cust) {
+		busy[server.getId()] = true;
+		refresh(server);
+	}
+	
+	@Override
+	public void timeUnitServed(CustomerServer server) {
+		refresh(server);
+	}
+	
+	@Override
+	public synchronized void serviceFinished(CustomerServer server, Customer cust) {
+		busy[server.getId()] = false;
+		refresh(server);
+	}
+	
+	/**
+	 * Returns the state of the CustomerServer with the given id.
+	 * @param id - the id of the server
+	 * @return whether the server is open, warming up, draining or closed
+	 */
+	public synchronized State getState(int id) {
+		return states[id];
+	}
+	
+	/**
+	 * Returns the number of servers that are staffed right now, i.e. those that
+	 * are open, warming up or draining.
+	 * @return the number of staffed servers
+	 */
+	public synchronized int getStaffedServers() {
+		return staffedServers;
+	}
+	
+	/**
+	 * Returns the total time the servers were staffed, in server-time moments,
+	 * summed over every call to {@link #update(int)} and the moments in between.
+	 * @return the number of server-time moments consumed
+	 */
+	public synchronized long getServerTime() {
+		return serverTime;
+	}
+	
+	/**
+	 * Returns the highest number of servers staffed at once.
+	 * @return the peak number of staffed servers
+	 */
+	public synchronized int getPeakServers() {
+		return peakServers;
+	}
+	
+	public int getScaleUps() {
+		return scaleUps;
+	}
+	
+	public int getScaleDowns() {
+		return scaleDowns;
+	}
+	
+	public int getMinServers() {
+		return minServers;
+	}
+	
+	public int getWarmUp() {
+		return warmUp;
+	}
+}
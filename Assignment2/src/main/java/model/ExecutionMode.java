@@ -0,0 +1,17 @@
+package model;
+
+public enum ExecutionMode {
+	/**
+	 * Each CustomerServer runs on its own platform thread
+	 */
+	PLATFORM_THREADS,
+	/**
+	 * Each CustomerServer runs on its own virtual thread (Java 21 or later)
+	 */
+	VIRTUAL_THREADS,
+	/**
+	 * CustomerServers take turns on a small shared pool of threads, one
+	 * unit of service at a time, so no thread is held while they wait
+	 */
+	SHARED_POOL
+}
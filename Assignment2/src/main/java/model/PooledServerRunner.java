@@ -0,0 +1,138 @@
+package model;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class PooledServerRunner implements CustomerServerListener {
+	
+	private final CustomerServer server;
+	private final ScheduledExecutorService pool;
+	private final SimulationHandle handle;
+	
+	// Set while a step is queued or running, so only one runs at a time
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	private final AtomicBoolean stopped = new AtomicBoolean(false);
+	// Set while a look for Customers to steal is scheduled, so only one is
+	private final AtomicBoolean idleCheckPending = new AtomicBoolean(false);
+	
+	// Only touched by the step that currently holds the running flag
+	private Customer current = null;
+	private int remainingUnits = 0;
+	
+	/**
+	 * Creates a runner that serves the Customers of the given CustomerServer with
+	 * the same timing as {@link CustomerServer#run()}, but schedules each unit of
+	 * service as a separate task on the given pool instead of sleeping on a thread.
+	 * With work stealing, an idle server checks every second for Customers to take over.
+	 * @param server - the CustomerServer to run
+	 * @param pool - the pool on which the steps are scheduled
+	 * @param handle - the handle to notify when the server stops
+	 */
+	PooledServerRunner(CustomerServer server, ScheduledExecutorService pool, SimulationHandle handle) {
+		this.server = server;
+		this.pool = pool;
+		this.handle = handle;
+	}
+	
+	/**
+	 * Starts listening to the CustomerServer and serves any Customers
+	 * already in its queue.
+	 */
+	void start() {
+		server.addListener(this);
+		wake();
+	}
+	
+	@Override
+	public void customerAdded(CustomerServer server, Customer cust) {
+		wake();
+	}
+
+	@Override
+	public void simulationEnded(CustomerServer server) {
+		wake();
+	}
+	
+	private void wake() {
+		if(running.compareAndSet(false, true)) {
+			submit(0);
+		}
+	}
+	
+	private void submit(long delaySeconds) {
+		try {
+			pool.schedule(this::step, delaySeconds, TimeUnit.SECONDS);
+		} catch (RejectedExecutionException e) {
+			// The pool was shut down because the simulation was cancelled
+			stop();
+		}
+	}
+	
+	private void scheduleIdleCheck() {
+		if(!idleCheckPending.compareAndSet(false, true)) return;
+		
+		try {
+			pool.schedule(() -> {
+				idleCheckPending.set(false);
+				wake();
+			}, 1, TimeUnit.SECONDS);
+		} catch (RejectedExecutionException e) {
+			stop();
+		}
+	}
+	
+	private void step() {
+		while(true) {
+			if(current == null) {
+				if(server.isSimulationOver()) {
+					stop();
+					return;
+				}
+				
+				current = server.beginService();
+				WorkStealing stealing = server.getWorkStealing();
+				if(current == null && stealing != null) {
+					current = stealing.steal(server);
+				}
+				
+				if(current == null) {
+					running.set(false);
+					
+					// A Customer or the end of the simulation may have come in
+					// after the queue was checked, without being able to wake us
+					if((server.getNoOfClients() > 0 || server.isSimulationOver())
+							&& running.compareAndSet(false, true)) continue;
+					
+					// Other servers do not wake us when they have Customers to spare,
+					// so look again after a second, like a thread polling its queue
+					if(stealing != null) scheduleIdleCheck();
+					return;
+				}
+				remainingUnits = current.getServingTime();
+			}
+			
+			if(remainingUnits > 0) {
+				server.serveTimeUnit();
+				--remainingUnits;
+				submit(1);
+				return;
+			}
+			
+			server.finishService(current);
+			current = null;
+		}
+	}
+	
+	/**
+	 * Stops listening to the CustomerServer and tells the handle that it has stopped,
+	 * unless that was done already.
+	 */
+	void stop() {
+		if(stopped.compareAndSet(false, true)) {
+			server.removeListener(this);
+			handle.serverStopped();
+		}
+	}
+}
@@ -1,16 +1,50 @@
 package model;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.IntSupplier;
 
 import model.strategy.Strategy;
 import model.strategy.Strategy.Policy;
 import controller.LogDisplay;
+import model.monitor.SchedulerInstruments;
+import model.store.CompactCustomerQueue;
+import model.strategy.IndexedStrategy;
+import model.strategy.StrategyIndexedLowestNumber;
+import model.strategy.StrategyIndexedLowestTime;
 import model.strategy.StrategyLowestNumber;
 import model.strategy.StrategyLowestTime;
+import model.strategy.StrategyPowerOfChoices;
 
 public class QueueScheduler {
 	
+	/**
+	 * The kinds of queue that CustomerServers can keep their Customers in
+	 */
+	public enum QueueType {
+		/**
+		 * A LinkedBlockingQueue of Customer objects
+		 */
+		LINKED,
+		/**
+		 * A {@link CompactCustomerQueue}, which uses far less memory for long queues
+		 */
+		COMPACT,
+		/**
+		 * A LinkedBlockingDeque of Customer objects, from whose end idle
+		 * servers can take Customers, as needed for {@link #enableWorkStealing(IntSupplier)}
+		 */
+		DEQUE
+	}
+	
 	private final static String[] NAMES = {
 			"Bill",
 			"John",
@@ -24,6 +58,18 @@ public class QueueScheduler {
 			"Irma",
 			"Mira"
 	};
+	
+	/**
+	 * Number of queues from which strategies keep an index of the queues
+	 * ordered by load, instead of scanning all of them on every dispatch
+	 */
+	public final static int INDEXED_STRATEGY_THRESHOLD = 32;
+	
+	/**
+	 * Number of queues sampled for {@link Policy#POWER_OF_D_CHOICES}, unless
+	 * a different strategy is given to {@link #setStrategy(Strategy)}
+	 */
+	public final static int DEFAULT_CHOICES = 2;
 
 	private int maxNoQueues;
 	// Unused field, kept because it may be useful in the future
@@ -31,8 +77,13 @@ public class QueueScheduler {
 	private int maxCustomersPerQueue;
 	
 	private List<CustomerServer> queues;
+	private final QueueType queueType;
 	
 	private Strategy strategy;
+	private volatile SchedulerInstruments instruments = null;
+	private WorkStealing workStealing = null;
+	private ElasticPool elasticPool = null;
+	private AdmissionControl admission = new AdmissionControl(AdmissionControl.Policy.BLOCK);
 	
 	/**
 	 * Creates a new QueueScheduler object with the given maximum number of
@@ -44,62 +95,371 @@ public class QueueScheduler {
 	 * @param logger - a LogDisplay element to which log events can be posted
 	 */
 	public QueueScheduler(int simulationTime, int maxNoQueues, int maxCustomersPerQueue, LogDisplay logger) {
+		this(simulationTime, maxNoQueues, maxCustomersPerQueue, QueueType.LINKED, logger);
+	}
+	
+	/**
+	 * Creates a new QueueScheduler object with the given maximum number of
+	 * queues and maximum number of customers per queue, whose servers keep their
+	 * Customers in the given type of queue. This constructor defaults to a
+	 * {@link Policy#SHORTEST_QUEUE} strategy.
+	 * @param simulationTime - maximum time to run the simulation for
+	 * @param maxNoQueues - maximum number of queues that can be active
+	 * @param maxCustomersPerQueue - maximum number of customers for each queue
+	 * @param queueType - the type of queue used by every server
+	 * @param logger - a LogDisplay element to which log events can be posted
+	 */
+	public QueueScheduler(int simulationTime, int maxNoQueues, int maxCustomersPerQueue, QueueType queueType, LogDisplay logger) {
 		// Initialise attributes
 		this.maxNoQueues = maxNoQueues;
 		this.maxCustomersPerQueue = maxCustomersPerQueue;
-		this.strategy = new StrategyLowestNumber();
+		this.queueType = queueType;
 		
 		// Initialise CustomerServers
 		queues = new ArrayList<CustomerServer>(maxNoQueues);
 		for(int i = 0; i < maxNoQueues; ++i) {
-			CustomerServer server = new CustomerServer(NAMES[i % NAMES.length], maxCustomersPerQueue, logger);
+			CustomerServer server;
+			switch(queueType) {
+				case COMPACT:
+					server = new CustomerServer(i, serverName(i), new CompactCustomerQueue(maxCustomersPerQueue), logger);
+					break;
+				case DEQUE:
+					server = new CustomerServer(i, serverName(i), new LinkedBlockingDeque<Customer>(maxCustomersPerQueue), logger);
+					break;
+				case LINKED:
+				default:
+					server = new CustomerServer(i, serverName(i), maxCustomersPerQueue, logger);
+					break;
+			}
 			
 			queues.add(server);
 		}
+		
+		setStrategy(Policy.SHORTEST_QUEUE);
+	}
+	
+	/**
+	 * Returns the name given to the CustomerServer with the given id.
+	 * @param id - the id of the CustomerServer
+	 * @return the name of the CustomerServer
+	 */
+	public static String serverName(int id) {
+		return NAMES[id % NAMES.length];
 	}
 	
 	/**
 	 * Sets the strategy for assigning Customers to queues based on the given
-	 * policy.
+	 * policy. From {@link #INDEXED_STRATEGY_THRESHOLD} queues upwards, an indexed
+	 * strategy with the same behaviour is used, so that each assignment takes
+	 * logarithmic rather than linear time.
 	 * @param policy - the policy to follow for assignments
 	 * @see Policy#SHORTEST_QUEUE
 	 * @see Policy#SHORTEST_TIME
+	 * @see Policy#POWER_OF_D_CHOICES
 	 */
 	public void setStrategy(Policy policy) {
+		boolean indexed = queues.size() >= INDEXED_STRATEGY_THRESHOLD;
 		switch(policy) {
 			case SHORTEST_QUEUE:
-				this.strategy = new StrategyLowestNumber();
+				setStrategy(indexed ? new StrategyIndexedLowestNumber(queues) : new StrategyLowestNumber());
 				break;
 			case SHORTEST_TIME:
-				this.strategy = new StrategyLowestTime();
+				setStrategy(indexed ? new StrategyIndexedLowestTime(queues) : new StrategyLowestTime());
+				break;
+			case POWER_OF_D_CHOICES:
+				setStrategy(new StrategyPowerOfChoices(DEFAULT_CHOICES, Policy.SHORTEST_TIME));
 				break;
 		}
 	}
 	
+	/**
+	 * Sets the given strategy for assigning Customers to queues, for strategies
+	 * that need more settings than a {@link Policy}.
+	 * @param strategy - the strategy to follow for assignments
+	 */
+	public void setStrategy(Strategy strategy) {
+		// Indexed strategies listen to the servers, so stop the old one first
+		if(this.strategy instanceof IndexedStrategy && this.strategy != strategy) {
+			((IndexedStrategy) this.strategy).detach();
+		}
+		
+		this.strategy = strategy;
+	}
+	
 	/**
 	 * Assigns the given Customer to one of the CustomerServers. The exact
-	 * CustomerServer depends on the chosen strategy, as set with {@link #setStrategy(Policy)}.
+	 * CustomerServer depends on the chosen strategy, as set with {@link #setStrategy(Policy)}
+	 * or {@link #setStrategy(Strategy)}.
+	 * @param cust - the Customer to be assigned to a queue
+	 * @return the CustomerServer to which the Customer was assigned
+	 */
+	public CustomerServer dispatchCustomer(Customer cust) {
+		SchedulerInstruments measured = instruments;
+		if(measured == null) return strategy.dispatchCustomer(cust, queues);
+		
+		long start = System.nanoTime();
+		CustomerServer target = strategy.dispatchCustomer(cust, queues);
+		measured.recordDispatch(System.nanoTime() - start);
+		return target;
+	}
+	
+	/**
+	 * Assigns the given Customer to one of the CustomerServers like
+	 * {@link #dispatchCustomer(Customer)}, but only if some server has room for it,
+	 * instead of waiting for a place when every queue is full.
 	 * @param cust - the Customer to be assigned to a queue
+	 * @return the CustomerServer to which the Customer was assigned, or null if
+	 * 		   no server accepting Customers had room
 	 */
-	public void dispatchCustomer(Customer cust) {
-		strategy.dispatchCustomer(cust, queues);
+	public CustomerServer tryDispatchCustomer(Customer cust) {
+		CustomerServer target = selectServer(cust);
+		
+		// The servers considered were all full, so look for any server with room
+		if(target == null) {
+			for(CustomerServer server : queues) {
+				if(server.getRemainingCapacity() > 0) {
+					target = server;
+					break;
+				}
+			}
+			if(target == null) return null;
+		}
+		
+		target.addCustomer(cust);
+		return target;
 	}
 	
 	/**
-	 * Starts the simulation as per the conditions of {@link #QueueScheduler(int, int, int)}
-	 * and returns a list of Threads containing the threads that were generated.
-	 * @return a list of Threads containing one thread for each queue generated
+	 * Assigns a batch of Customers arriving in the same time moment to the
+	 * CustomerServers, with the same kind of choice as {@link #dispatchCustomer(Customer)}.
+	 * If the strategy supports it, the load of the servers is read once for the whole
+	 * batch and every Customer is chosen against that snapshot, after which each
+	 * server receives its Customers all at once. Customers for which no server had
+	 * room, as well as all of them under other strategies, are dispatched one by one.
+	 * @param batch - the Customers to be assigned to queues, in order of arrival
+	 * @return the CustomerServer to which each Customer was assigned, in the same order
+	 * @see Strategy#selectServers(List, List)
 	 */
-	public List<Thread> start() {
-		List<Thread> threads = new ArrayList<Thread>();
+	public CustomerServer[] dispatchBatch(List<Customer> batch) {
+		CustomerServer[] targets = new CustomerServer[batch.size()];
+		
+		SchedulerInstruments measured = instruments;
+		long start = measured == null ? 0 : System.nanoTime();
+		int[] chosen = strategy.selectServers(batch, queues);
+		if(chosen == null) {
+			for(int i = 0; i < targets.length; ++i) {
+				targets[i] = dispatchCustomer(batch.get(i));
+			}
+			return targets;
+		}
 		
-		for (CustomerServer server : queues) {
-			Thread t = new Thread(server);
-			threads.add(t);
-			t.start();
+		// Group the Customers by server, keeping their order of arrival
+		Map<Integer, List<Customer>> groups = new LinkedHashMap<Integer, List<Customer>>();
+		int grouped = 0;
+		for(int i = 0; i < targets.length; ++i) {
+			if(chosen[i] < 0) continue;
+			
+			groups.computeIfAbsent(chosen[i], id -> new ArrayList<Customer>()).add(batch.get(i));
+			targets[i] = queues.get(chosen[i]);
+			++grouped;
+		}
+		for(Map.Entry<Integer, List<Customer>> group : groups.entrySet()) {
+			queues.get(group.getKey()).addCustomers(group.getValue());
+		}
+		if(measured != null) measured.recordBatch(grouped, System.nanoTime() - start);
+		
+		// No server had room for these, so they wait for a place as usual
+		for(int i = 0; i < targets.length; ++i) {
+			if(chosen[i] < 0) targets[i] = dispatchCustomer(batch.get(i));
 		}
+		return targets;
+	}
+	
+	/**
+	 * Chooses the CustomerServer to which the given Customer should go according
+	 * to the strategy, without adding it there, as used by {@link AdmissionControl}.
+	 * @param cust - the Customer to be assigned to a queue
+	 * @return the chosen CustomerServer, or null if the strategy found no server with room
+	 * @see Strategy#selectServer(Customer, List)
+	 */
+	public CustomerServer selectServer(Customer cust) {
+		SchedulerInstruments measured = instruments;
+		if(measured == null) return strategy.selectServer(cust, queues);
 		
-		return threads;
+		long start = System.nanoTime();
+		CustomerServer target = strategy.selectServer(cust, queues);
+		measured.recordDispatch(System.nanoTime() - start);
+		return target;
+	}
+	
+	/**
+	 * Sets what the simulators do with arriving Customers whose chosen queue is
+	 * full. By default, they wait for a place, as per {@link AdmissionControl.Policy#BLOCK}.
+	 * @param admission - the admission control to use
+	 */
+	public void setAdmission(AdmissionControl admission) {
+		this.admission = admission;
+	}
+	
+	public AdmissionControl getAdmission() {
+		return admission;
+	}
+	
+	/**
+	 * Sets the instruments that measure every dispatch of this QueueScheduler,
+	 * usually through {@link model.monitor.Instrumentation#attach(QueueScheduler, model.monitor.MetricsRegistry, String)}.
+	 * @param instruments - the instruments to use, or null to stop measuring
+	 */
+	public void setInstruments(SchedulerInstruments instruments) {
+		this.instruments = instruments;
+	}
+	
+	/**
+	 * Lets every CustomerServer that runs out of Customers take over the last
+	 * Customer waiting at the most loaded other server, instead of staying idle.
+	 * This needs the queues to have been created as {@link QueueType#DEQUE}.
+	 * @param clock - gives the current time moment of the simulation, from which
+	 * 				  the new finish times of moved Customers are computed
+	 * @return the WorkStealing shared by the servers
+	 * @throws IllegalStateException if the queues are not of type {@link QueueType#DEQUE}
+	 * @see WorkStealing#steal(CustomerServer)
+	 */
+	public WorkStealing enableWorkStealing(IntSupplier clock) {
+		for(CustomerServer server : queues) {
+			if(!server.isStealable()) {
+				throw new IllegalStateException("Work stealing needs queues of type " + QueueType.DEQUE);
+			}
+		}
+		
+		// The old WorkStealing listens to the servers, so stop it first
+		if(workStealing != null) workStealing.detach();
+		workStealing = new WorkStealing(getServers(), clock);
+		for(CustomerServer server : queues) {
+			server.setWorkStealing(workStealing);
+		}
+		return workStealing;
+	}
+	
+	/**
+	 * Returns the WorkStealing set up by {@link #enableWorkStealing(IntSupplier)}.
+	 * @return the WorkStealing shared by the servers, or null if it was not enabled
+	 */
+	public WorkStealing getWorkStealing() {
+		return workStealing;
+	}
+	
+	/**
+	 * Makes the number of open CustomerServers follow the load, instead of keeping
+	 * all of them open for the whole simulation. The servers of this QueueScheduler
+	 * become the largest pool that can be staffed, of which only the first minServers
+	 * are open at first. Simulators update the pool once every time moment.
+	 * @param minServers - the number of servers that are always open
+	 * @param warmUp - how many time moments a server takes to open
+	 * @return the ElasticPool managing the servers, whose thresholds can still be changed
+	 * @throws IllegalArgumentException if minServers is not between 1 and the number
+	 * 				of servers, or warmUp is negative
+	 * @see ElasticPool#update(int)
+	 */
+	public ElasticPool enableElasticPool(int minServers, int warmUp) {
+		elasticPool = new ElasticPool(getServers(), minServers, warmUp);
+		return elasticPool;
+	}
+	
+	/**
+	 * Returns the ElasticPool set up by {@link #enableElasticPool(int, int)}.
+	 * @return the pool managing the servers, or null if every server is always open
+	 */
+	public ElasticPool getElasticPool() {
+		return elasticPool;
+	}
+	
+	/**
+	 * Starts the simulation as per the conditions of {@link #QueueScheduler(int, int, int, LogDisplay)},
+	 * running each CustomerServer on its own platform thread.
+	 * @return a handle through which the running servers can be awaited or cancelled
+	 */
+	public SimulationHandle start() {
+		return start(ExecutionMode.PLATFORM_THREADS);
+	}
+	
+	/**
+	 * Starts the simulation as per the conditions of {@link #QueueScheduler(int, int, int, LogDisplay)},
+	 * running the CustomerServers in the given execution mode. The threads used are
+	 * released once every server has stopped.
+	 * @param mode - how the CustomerServers should be run
+	 * @return a handle through which the running servers can be awaited or cancelled
+	 * @throws UnsupportedOperationException if virtual threads are requested but
+	 * 				the running Java version does not provide them
+	 */
+	public SimulationHandle start(ExecutionMode mode) {
+		switch(mode) {
+			case VIRTUAL_THREADS:
+				return start(newVirtualThreadExecutor(), true);
+			case SHARED_POOL:
+				ScheduledExecutorService pool = Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors());
+				SimulationHandle handle = new SimulationHandle(this, pool, true);
+				for(CustomerServer server : queues) {
+					PooledServerRunner runner = new PooledServerRunner(server, pool, handle);
+					handle.addRunner(runner);
+					runner.start();
+				}
+				return handle;
+			case PLATFORM_THREADS:
+			default:
+				return start(Executors.newCachedThreadPool(), true);
+		}
+	}
+	
+	/**
+	 * Starts the simulation as per the conditions of {@link #QueueScheduler(int, int, int, LogDisplay)},
+	 * running each CustomerServer as a task on the given executor. Since each task
+	 * blocks for as long as its server runs, the executor must be able to run all
+	 * of them at once. The executor is not shut down afterwards.
+	 * @param executor - the executor on which to run the servers
+	 * @return a handle through which the running servers can be awaited or cancelled
+	 */
+	public SimulationHandle start(ExecutorService executor) {
+		return start(executor, false);
+	}
+	
+	private SimulationHandle start(ExecutorService executor, boolean ownsExecutor) {
+		SimulationHandle handle = new SimulationHandle(this, executor, ownsExecutor);
+		
+		for(CustomerServer server : queues) {
+			handle.submit(server);
+		}
+		
+		return handle;
+	}
+	
+	/**
+	 * Creates an executor that starts a new virtual thread for each task. Virtual
+	 * threads only exist from Java 21, so the executor is looked up reflectively.
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new UnsupportedOperationException("Virtual threads need Java 21 or later", e);
+		}
+	}
+	
+	/**
+	 * Returns the CustomerServers managed by this QueueScheduler, in the order
+	 * in which they were created. The returned list cannot be modified.
+	 * @return an unmodifiable list of CustomerServers
+	 */
+	public List<CustomerServer> getServers() {
+		return Collections.unmodifiableList(queues);
+	}
+	
+	/**
+	 * Returns the type of queue in which the CustomerServers keep their Customers.
+	 * @return the queue type given at creation
+	 */
+	public QueueType getQueueType() {
+		return queueType;
 	}
 	
 	/**
@@ -0,0 +1,203 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import controller.LogDisplay;
+import model.arrival.ArrivalSource;
+import model.stats.MetricsRecorder;
+
+public class RealTimeSimulator implements Simulator {
+	
+	private final QueueScheduler scheduler;
+	private final int timeLimit;
+	private final LogDisplay logger;
+	
+	private Consumer<List<String>> queueDisplay = null;
+	private ExecutionMode executionMode = ExecutionMode.PLATFORM_THREADS;
+	private boolean batchDispatch = false;
+	private volatile int currentTime = 0;
+	
+	// Customers sent away to retry, by the time moment they come back
+	private final Map<Integer, List<Customer>> retries = new HashMap<Integer, List<Customer>>();
+	
+	/**
+	 * Creates a new RealTimeSimulator, which starts one thread for each CustomerServer
+	 * of the given QueueScheduler and advances the simulation by one time moment
+	 * every second.
+	 * @param scheduler - the QueueScheduler whose servers and strategy will be used
+	 * @param timeLimit - the last time moment that is simulated
+	 * @param logger - a LogDisplay element to which log events can be posted
+	 */
+	public RealTimeSimulator(QueueScheduler scheduler, int timeLimit, LogDisplay logger) {
+		this.scheduler = scheduler;
+		this.timeLimit = timeLimit;
+		this.logger = logger;
+	}
+	
+	/**
+	 * Sets the element that is given the description of every queue after
+	 * each time moment, as per {@link QueueScheduler#getQueueDescriptions()}.
+	 * If no element is set, the descriptions are never computed.
+	 * @param queueDisplay - the element to which queue descriptions are passed
+	 */
+	public void setQueueDisplay(Consumer<List<String>> queueDisplay) {
+		this.queueDisplay = queueDisplay;
+	}
+	
+	/**
+	 * Sets how the CustomerServers are run; by default, each gets its own platform thread.
+	 * @param executionMode - the execution mode of the servers
+	 */
+	public void setExecutionMode(ExecutionMode executionMode) {
+		this.executionMode = executionMode;
+	}
+	
+	/**
+	 * Sets whether the Customers arriving in the same time moment are dispatched
+	 * together, as per {@link QueueScheduler#dispatchBatch(List)}, rather than one
+	 * by one. Batches are only used under the {@link AdmissionControl.Policy#BLOCK} policy.
+	 * @param batchDispatch - whether to dispatch arrivals in batches
+	 */
+	public void setBatchDispatch(boolean batchDispatch) {
+		this.batchDispatch = batchDispatch;
+	}
+	
+	/**
+	 * Runs the simulation for the given Customers, waiting one second between
+	 * consecutive time moments. Unless the admission control of the QueueScheduler
+	 * blocks, Customers turned away by a full queue never hold up the clock;
+	 * those waiting to retry or in the overflow queue are offered a place again
+	 * at the start of each time moment. If the QueueScheduler has an elastic pool,
+	 * it is updated at the end of every time moment, once the arrivals are dispatched.
+	 * @param arrivals - the Customers to simulate, in ascending order of arrival
+	 * @return the statistics gathered over the simulation
+	 */
+	@Override
+	public SimulationStatistics run(ArrivalSource arrivals) {
+		// Prepare to find the peak hour and average waiting time
+		SimulationStatistics statistics = new SimulationStatistics();
+		MetricsRecorder metrics = new MetricsRecorder(this::getCurrentTime);
+		metrics.attach(scheduler);
+		AdmissionControl admission = scheduler.getAdmission();
+		ElasticPool pool = scheduler.getElasticPool();
+		
+		// Begin simulation
+		SimulationHandle handle = scheduler.start(executionMode);
+		for(currentTime = 0; currentTime <= timeLimit; ++currentTime) {
+			logger.addTextLine("Time moment " + currentTime + ".");
+			
+			// Customers held back earlier get the places that freed up first
+			Customer held;
+			while((held = admission.peekOverflow()) != null && admission.admitFromOverflow(scheduler) != null) {
+				statistics.recordDispatch(held);
+			}
+			List<Customer> retrying = retries.remove(currentTime);
+			if(retrying != null) {
+				for(Customer c : retrying) {
+					offer(c, admission, statistics);
+				}
+			}
+			
+			// Have Customers arrive
+			if(batchDispatch && admission.isBlocking()) {
+				List<Customer> batch = new ArrayList<Customer>();
+				while(arrivals.hasNext() && arrivals.peekArrivalTime() <= currentTime) {
+					Customer c = arrivals.next();
+					logger.addTextLine("Dispatching client " + c.toString());
+					batch.add(c);
+				}
+				
+				scheduler.dispatchBatch(batch);
+				for(Customer c : batch) {
+					statistics.recordDispatch(c);
+				}
+			}
+			while(arrivals.hasNext() && arrivals.peekArrivalTime() <= currentTime) {
+				Customer c = arrivals.next();
+				
+				logger.addTextLine("Dispatching client " + c.toString());
+				if(admission.isBlocking()) {
+					scheduler.dispatchCustomer(c);
+					statistics.recordDispatch(c);
+				} else {
+					offer(c, admission, statistics);
+				}
+			}
+			
+			// Open or close servers as the load requires
+			if(pool != null) pool.update(currentTime);
+			
+			// Update UI
+			if(queueDisplay != null) {
+				queueDisplay.accept(scheduler.getQueueDescriptions());
+			}
+			
+			// Check for peak hour
+			statistics.recordWaiting(currentTime, scheduler.getCustomerCount());
+			
+			// Skip one second
+			try {
+				Thread.sleep(1000);
+			} catch (InterruptedException e) {
+				System.out.println("Interrupted in RealTimeSimulator#run!");
+				e.printStackTrace();
+			}
+		}
+		scheduler.endSimulation();
+		
+		// Let the servers finish their last Customers, past the time limit,
+		// so that nothing changes the statistics after they are read
+		try {
+			handle.await();
+		} catch (InterruptedException e) {
+			System.out.println("Interrupted in RealTimeSimulator#run!");
+			e.printStackTrace();
+			handle.cancel();
+		}
+		metrics.detach(scheduler);
+		statistics.setMetrics(metrics.getMetrics(timeLimit + 1));
+		statistics.recordAdmission(admission);
+		if(pool != null) {
+			statistics.recordServerTime(pool.getServerTime(), pool.getPeakServers(), timeLimit + 1);
+		} else {
+			int servers = scheduler.getServers().size();
+			statistics.recordServerTime((long) servers * (timeLimit + 1), servers, timeLimit + 1);
+		}
+		retries.clear();
+		return statistics;
+	}
+	
+	/**
+	 * Admits the given Customer without waiting, or decides what becomes of it
+	 * if there is no room, as per the given admission control.
+	 */
+	private void offer(Customer cust, AdmissionControl admission, SimulationStatistics statistics) {
+		if(admission.admit(cust, scheduler) != null) {
+			statistics.recordDispatch(cust);
+			return;
+		}
+		
+		switch(admission.turnAway(cust)) {
+			case RETRY:
+				int returnTime = currentTime + admission.getRetryDelay();
+				retries.computeIfAbsent(returnTime, time -> new ArrayList<Customer>()).add(cust);
+				logger.addTextLine("Client " + cust.toString() + " will come back at " + returnTime);
+				break;
+			case OVERFLOWED:
+				logger.addTextLine("Client " + cust.toString() + " waits in the overflow queue");
+				break;
+			case REJECTED:
+				logger.addTextLine("Client " + cust.toString() + " left, as every queue was full");
+				break;
+		}
+	}
+	
+	@Override
+	public int getCurrentTime() {
+		return currentTime;
+	}
+}
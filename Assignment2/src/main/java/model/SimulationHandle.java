@@ -0,0 +1,153 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SimulationHandle {
+	
+	private final QueueScheduler scheduler;
+	private final ExecutorService executor;
+	private final boolean ownsExecutor;
+	private final CountDownLatch runningServers;
+	// Filled in while the servers are started, before the handle is given out
+	private final List<ServerTask> tasks = new ArrayList<ServerTask>();
+	private final List<PooledServerRunner> runners = new ArrayList<PooledServerRunner>();
+	
+	/**
+	 * Creates a handle for the CustomerServers of the given QueueScheduler,
+	 * which run on the given executor.
+	 * @param scheduler - the QueueScheduler whose servers were started
+	 * @param executor - the executor the servers run on
+	 * @param ownsExecutor - whether the executor should be shut down with the servers
+	 */
+	SimulationHandle(QueueScheduler scheduler, ExecutorService executor, boolean ownsExecutor) {
+		this.scheduler = scheduler;
+		this.executor = executor;
+		this.ownsExecutor = ownsExecutor;
+		this.runningServers = new CountDownLatch(scheduler.getServers().size());
+		
+		if(ownsExecutor && runningServers.getCount() == 0) executor.shutdown();
+	}
+	
+	/**
+	 * Runs the given CustomerServer as a task on the executor of this handle.
+	 * @param server - the CustomerServer to run
+	 */
+	void submit(CustomerServer server) {
+		ServerTask task = new ServerTask(server);
+		tasks.add(task);
+		task.future = executor.submit(task);
+	}
+	
+	/**
+	 * Keeps the given runner, which serves its CustomerServer in steps on the
+	 * executor of this handle, so that it can be stopped when cancelled.
+	 * @param runner - the runner of one CustomerServer
+	 */
+	void addRunner(PooledServerRunner runner) {
+		runners.add(runner);
+	}
+	
+	/**
+	 * Records that one of the CustomerServers has stopped running.
+	 */
+	void serverStopped() {
+		runningServers.countDown();
+		if(ownsExecutor && runningServers.getCount() == 0) executor.shutdown();
+	}
+	
+	/**
+	 * Waits until every CustomerServer has stopped. Servers only stop once the
+	 * simulation has been ended with {@link QueueScheduler#endSimulation()} and
+	 * they have finished serving their current Customer, or once cancelled.
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void await() throws InterruptedException {
+		runningServers.await();
+		// Steps of pooled servers may still be returning after they were stopped
+		if(ownsExecutor) executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * Waits until every CustomerServer has stopped, or until the given time has passed.
+	 * @param timeout - the maximum time to wait
+	 * @param unit - the unit of the timeout
+	 * @return true if every server has stopped, false if the time ran out first
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		if(!runningServers.await(timeout, unit)) return false;
+		return !ownsExecutor || executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+	}
+	
+	/**
+	 * Checks whether every CustomerServer has stopped.
+	 * @return true if no server is running anymore
+	 */
+	public boolean isDone() {
+		return runningServers.getCount() == 0 && (!ownsExecutor || executor.isTerminated());
+	}
+	
+	/**
+	 * Ends the simulation and stops every CustomerServer right away, without
+	 * letting them finish their current Customer. Servers that are running are
+	 * interrupted, so the handle only counts as done once they have returned;
+	 * {@link #await()} waits for that.
+	 */
+	public void cancel() {
+		scheduler.endSimulation();
+		for(ServerTask task : tasks) {
+			task.cancel();
+		}
+		if(ownsExecutor) {
+			executor.shutdownNow();
+		}
+		
+		// Pooled servers have no task of their own; no more of their steps run now
+		for(PooledServerRunner runner : runners) {
+			runner.stop();
+		}
+	}
+	
+	private class ServerTask implements Runnable {
+		
+		private final CustomerServer server;
+		// Claimed by the task when it starts, or by cancel() if it comes first
+		private final AtomicBoolean claimed = new AtomicBoolean(false);
+		private volatile Future<?> future;
+		
+		ServerTask(CustomerServer server) {
+			this.server = server;
+		}
+		
+		@Override
+		public void run() {
+			if(!claimed.compareAndSet(false, true)) return;
+			
+			try {
+				server.run();
+			} finally {
+				serverStopped();
+			}
+		}
+		
+		/**
+		 * Stops the task: one that never started is counted as stopped right
+		 * away, while a running one is interrupted and counts once it returns.
+		 */
+		void cancel() {
+			if(claimed.compareAndSet(false, true)) {
+				future.cancel(false);
+				serverStopped();
+			} else {
+				future.cancel(true);
+			}
+		}
+	}
+}
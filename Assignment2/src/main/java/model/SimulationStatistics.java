@@ -0,0 +1,187 @@
+package model;
+
+import model.stats.QueueMetrics;
+
+public class SimulationStatistics {
+	
+	private int peakHour = 0;
+	private int peakWaiting = 0;
+	
+	private long totalWaitingTime = 0;
+	private int dispatchedCustomers = 0;
+	private long rejectedCustomers = 0;
+	private long redirectedCustomers = 0;
+	
+	private long serverTime = 0;
+	private int peakServers = 0;
+	private int simulatedTime = 0;
+	
+	private QueueMetrics metrics = null;
+	
+	/**
+	 * Records a Customer that has just been dispatched to a queue. The Customer's
+	 * finish time must already have been computed by its CustomerServer.
+	 * @param cust - the Customer that was dispatched
+	 */
+	public void recordDispatch(Customer cust) {
+		recordDispatch(cust.getArrivalTime(), cust.getFinishTime());
+	}
+	
+	/**
+	 * Records a Customer with the given arrival and finish times that has
+	 * just been dispatched to a queue.
+	 * @param arrivalTime - the time the Customer arrived
+	 * @param finishTime - the time the Customer will finish being served
+	 */
+	public void recordDispatch(int arrivalTime, int finishTime) {
+		totalWaitingTime += finishTime - arrivalTime;
+		++dispatchedCustomers;
+	}
+	
+	/**
+	 * Records the number of Customers waiting across all queues at the given
+	 * time moment, updating the peak hour if this is a new maximum. If several
+	 * time moments share the same maximum, the earliest one is kept.
+	 * @param currentTime - the current time moment of the simulation
+	 * @param waitingRightNow - the number of Customers currently waiting
+	 */
+	public void recordWaiting(int currentTime, int waitingRightNow) {
+		if(waitingRightNow > peakWaiting) {
+			peakHour = currentTime;
+			peakWaiting = waitingRightNow;
+		}
+	}
+
+	/**
+	 * Records how many Customers the given admission control turned away
+	 * or sent to another queue over the simulation.
+	 * @param admission - the admission control used by the simulation
+	 */
+	public void recordAdmission(AdmissionControl admission) {
+		rejectedCustomers = admission.getRejectedCustomers();
+		redirectedCustomers = admission.getRedirectedCustomers();
+	}
+
+	/**
+	 * Records how long servers were staffed over the simulation, which is the number
+	 * of servers times the simulated time unless they were part of an elastic pool.
+	 * @param serverTime - the total time servers were staffed, in server-time moments
+	 * @param peakServers - the highest number of servers staffed at once
+	 * @param simulatedTime - the number of time moments simulated
+	 * @see ElasticPool#getServerTime()
+	 */
+	public void recordServerTime(long serverTime, int peakServers, int simulatedTime) {
+		this.serverTime = serverTime;
+		this.peakServers = peakServers;
+		this.simulatedTime = simulatedTime;
+	}
+
+	/**
+	 * Continues from the given values rather than from zero, e.g. when resuming a
+	 * simulation from a checkpoint.
+	 * @param peakHour - the peak hour so far
+	 * @param peakWaiting - the number of Customers waiting at the peak hour
+	 * @param totalWaitingTime - the total waiting time of the Customers dispatched so far
+	 * @param dispatchedCustomers - the number of Customers dispatched so far
+	 */
+	public void restore(int peakHour, int peakWaiting, long totalWaitingTime, int dispatchedCustomers) {
+		this.peakHour = peakHour;
+		this.peakWaiting = peakWaiting;
+		this.totalWaitingTime = totalWaitingTime;
+		this.dispatchedCustomers = dispatchedCustomers;
+	}
+
+	public int getPeakHour() {
+		return peakHour;
+	}
+
+	public int getPeakWaiting() {
+		return peakWaiting;
+	}
+
+	public long getTotalWaitingTime() {
+		return totalWaitingTime;
+	}
+
+	public int getDispatchedCustomers() {
+		return dispatchedCustomers;
+	}
+	
+	/**
+	 * Returns the number of Customers that left because every queue
+	 * they could go to was full.
+	 * @return the number of lost Customers
+	 */
+	public long getRejectedCustomers() {
+		return rejectedCustomers;
+	}
+
+	/**
+	 * Returns the number of Customers that went to another queue than
+	 * the one chosen for them, because it was full.
+	 * @return the number of redirected Customers
+	 */
+	public long getRedirectedCustomers() {
+		return redirectedCustomers;
+	}
+	
+	/**
+	 * Returns the fraction of Customers that were lost, out of those that
+	 * were either dispatched or lost. Customers still waiting to retry or in
+	 * the overflow queue when the simulation ended are not counted.
+	 * @return the loss rate, between 0 and 1
+	 */
+	public double getLossRate() {
+		long total = dispatchedCustomers + rejectedCustomers;
+		return total == 0 ? 0 : (double) rejectedCustomers / total;
+	}
+	
+	/**
+	 * Returns the total time servers were staffed, in server-time moments (server-seconds
+	 * in real-time runs), to be weighed against the waiting time achieved with them.
+	 * @return the server time consumed
+	 */
+	public long getServerTime() {
+		return serverTime;
+	}
+	
+	/**
+	 * Returns the highest number of servers staffed at once.
+	 * @return the peak number of servers
+	 */
+	public int getPeakServers() {
+		return peakServers;
+	}
+	
+	/**
+	 * Returns the average number of servers staffed per time moment.
+	 * @return the average number of servers, or 0 if nothing was simulated
+	 */
+	public double getAverageServers() {
+		return simulatedTime == 0 ? 0 : (double) serverTime / simulatedTime;
+	}
+	
+	/**
+	 * Returns the average time, rounded down, that dispatched Customers spent
+	 * between their arrival and their finish time. This includes the time spent
+	 * being served; see {@link #getMetrics()} for the time spent in the queue alone.
+	 * @return the average waiting time, or 0 if no Customers were dispatched
+	 */
+	public int getAverageWaitingTime() {
+		if(dispatchedCustomers == 0) return 0;
+		return (int) (totalWaitingTime / dispatchedCustomers);
+	}
+
+	/**
+	 * Returns the histograms of waiting time, sojourn time and queue length,
+	 * per server and overall, along with the utilisation of each server.
+	 * @return the metrics gathered over the simulation, or null if none were gathered
+	 */
+	public QueueMetrics getMetrics() {
+		return metrics;
+	}
+
+	public void setMetrics(QueueMetrics metrics) {
+		this.metrics = metrics;
+	}
+}
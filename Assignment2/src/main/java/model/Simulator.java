@@ -0,0 +1,34 @@
+package model;
+
+import java.util.List;
+
+import model.arrival.ArrivalSource;
+import model.arrival.ListArrivalSource;
+
+public interface Simulator {
+	
+	/**
+	 * Runs the simulation for the given Customers.
+	 * @param customers - the Customers to simulate, in ascending order of arrival
+	 * @return the statistics gathered over the simulation
+	 */
+	public default SimulationStatistics run(List<Customer> customers) {
+		return run(new ListArrivalSource(customers));
+	}
+	
+	/**
+	 * Runs the simulation for the Customers of the given source, taking them
+	 * out one at a time as they arrive. Customers arriving after the end of the
+	 * simulation are never read.
+	 * @param arrivals - the Customers to simulate, in ascending order of arrival
+	 * @return the statistics gathered over the simulation
+	 */
+	public SimulationStatistics run(ArrivalSource arrivals);
+	
+	/**
+	 * Returns the time moment the simulation has reached. This may be called
+	 * from other threads while the simulation runs.
+	 * @return the current time moment
+	 */
+	public int getCurrentTime();
+}
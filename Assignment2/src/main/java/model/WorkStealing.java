@@ -0,0 +1,117 @@
+package model;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import model.strategy.LoadHeap;
+
+public class WorkStealing implements CustomerServerListener {
+
+	private final List<CustomerServer> servers;
+	private final IntSupplier clock;
+	// The servers with Customers waiting, most loaded first
+	private final LoadHeap victims;
+
+	/**
+	 * Creates a new WorkStealing that lets idle CustomerServers among the given ones
+	 * take over Customers waiting at the others. Every queue must be a BlockingDeque,
+	 * so that Customers can be taken from its end. The servers must have the ids 0, 1,
+	 * 2... in the order they appear in the list; they are listened to, so that the most
+	 * loaded one is known without scanning them, until {@link #detach()} is called.
+	 * @param servers - the CustomerServers that may take Customers from each other
+	 * @param clock - gives the current time moment of the simulation,
+	 * 				  e.g. {@link Simulator#getCurrentTime()}
+	 * @throws IllegalArgumentException if the ids do not match the positions in the list
+	 */
+	public WorkStealing(List<CustomerServer> servers, IntSupplier clock) {
+		this.servers = servers;
+		this.clock = clock;
+		this.victims = new LoadHeap(servers.size());
+		
+		for(int i = 0; i < servers.size(); ++i) {
+			CustomerServer server = servers.get(i);
+			if(server.getId() != i) {
+				throw new IllegalArgumentException("Server " + i + " has id " + server.getId());
+			}
+			
+			server.addListener(this);
+			refresh(server);
+		}
+	}
+
+	/**
+	 * Lets the given idle CustomerServer take the last Customer waiting at the most
+	 * loaded other server, judged by waiting time, and start serving it. The last
+	 * Customer is the one that would have waited the longest there, and taking it
+	 * leaves the finish times of everyone ahead of it unchanged. Among equally loaded
+	 * servers, the one with the lowest id is chosen. This takes constant time to find
+	 * the server, however many there are.
+	 * @param thief - the idle CustomerServer, which must have no Customers waiting
+	 * @return the Customer that the thief started serving, or null if no other
+	 * 		   server had Customers waiting or the thief does not accept Customers
+	 */
+	public Customer steal(CustomerServer thief) {
+		// Servers that are closing should go idle, not take on more work
+		if(!thief.isAccepting()) return null;
+		
+		CustomerServer victim = mostLoaded();
+		if(victim == null || victim == thief) return null;
+		
+		// Another thief may have emptied the victim meanwhile, giving null here
+		return thief.stealCustomer(victim, clock.getAsInt());
+	}
+	
+	/**
+	 * Stops listening to the CustomerServers. Customers must not be stolen
+	 * through this WorkStealing afterwards.
+	 */
+	public void detach() {
+		for(CustomerServer server : servers) {
+			server.removeListener(this);
+		}
+	}
+	
+	private synchronized CustomerServer mostLoaded() {
+		int id = victims.peek();
+		return id < 0 ? null : servers.get(id);
+	}
+	
+	/**
+	 * Keys each server with Customers waiting by the time it will have served them,
+	 * highest first, which orders them like their waiting times do. On a clock, this
+	 * stays the same while a server is busy, so the passing of time needs no updates.
+	 */
+	private synchronized void refresh(CustomerServer server) {
+		victims.update(server.getId(), -server.getDrainTime(), server.getNoOfClients() > 0);
+	}
+
+	@Override
+	public void customerAdded(CustomerServer server, Customer cust) {
+		refresh(server);
+	}
+
+	@Override
+	public void queueRestored(CustomerServer server) {
+		refresh(server);
+	}
+
+	@Override
+	public void customerStolen(CustomerServer victim, CustomerServer thief, Customer cust) {
+		refresh(victim);
+	}
+
+	@Override
+	public void serviceStarted(CustomerServer server, Customer cust) {
+		refresh(server);
+	}
+
+	@Override
+	public void timeUnitServed(CustomerServer server) {
+		refresh(server);
+	}
+
+	@Override
+	public void serviceFinished(CustomerServer server, Customer cust) {
+		refresh(server);
+	}
+}
@@ -0,0 +1,27 @@
+package model.arrival;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ArrivalFiles {
+	
+	/**
+	 * Opens the given file as a stream of arrivals, reading it as a binary
+	 * arrival file if it starts with the matching header, or as CSV otherwise.
+	 * @param path - the location of the file
+	 * @return an ArrivalSource reading the file
+	 * @throws IOException if the file cannot be read
+	 * @see BinaryArrivalSource
+	 * @see CsvArrivalSource
+	 */
+	public static ArrivalSource open(Path path) throws IOException {
+		boolean binary;
+		try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			binary = BinaryArrivalWriter.hasHeader(channel);
+		}
+		
+		return binary ? new BinaryArrivalSource(path) : new CsvArrivalSource(path);
+	}
+}
@@ -0,0 +1,29 @@
+package model.arrival;
+
+import java.io.Closeable;
+
+import model.Customer;
+
+public interface ArrivalSource extends Closeable {
+	
+	/**
+	 * Checks whether any Customers are left to arrive.
+	 * @return true if {@link #next()} would return a Customer
+	 */
+	public boolean hasNext();
+	
+	/**
+	 * Returns the next Customer to arrive. Customers are returned in
+	 * ascending order of arrival time.
+	 * @return the next Customer
+	 * @throws java.util.NoSuchElementException if no Customers are left
+	 */
+	public Customer next();
+	
+	/**
+	 * Returns the arrival time of the Customer that {@link #next()} would return,
+	 * without taking it out of the source.
+	 * @return the next arrival time, or {@link Integer#MAX_VALUE} if no Customers are left
+	 */
+	public int peekArrivalTime();
+}
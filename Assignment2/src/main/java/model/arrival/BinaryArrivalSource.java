@@ -0,0 +1,108 @@
+package model.arrival;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+import model.Customer;
+
+public class BinaryArrivalSource implements ArrivalSource {
+	
+	// A whole number of records, just under the 2 GB limit of a mapping
+	private static final long REGION_SIZE = (Integer.MAX_VALUE / BinaryArrivalWriter.RECORD_SIZE)
+			* (long) BinaryArrivalWriter.RECORD_SIZE;
+	
+	private final FileChannel channel;
+	private final long size;
+	private MappedByteBuffer region;
+	private long regionEnd;
+	
+	private int nextId = 0;
+	private int lastArrival = Integer.MIN_VALUE;
+	
+	/**
+	 * Opens a file written by {@link BinaryArrivalWriter} as a stream of arrivals.
+	 * Customers are numbered by their position in the file. The file is
+	 * memory-mapped a region at a time, so memory use does not depend on its length.
+	 * @param path - the location of the file
+	 * @throws IOException if the file cannot be read or is not an arrival file
+	 */
+	public BinaryArrivalSource(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = channel.size();
+		
+		if(!BinaryArrivalWriter.hasHeader(channel)) {
+			channel.close();
+			throw new IOException(path + " is not a version " + BinaryArrivalWriter.VERSION + " arrival file");
+		}
+		mapRegion(BinaryArrivalWriter.HEADER_SIZE);
+	}
+	
+	/**
+	 * Returns the number of Customers in the file.
+	 * @return the number of Customers
+	 */
+	public long getCustomerCount() {
+		return (size - BinaryArrivalWriter.HEADER_SIZE) / BinaryArrivalWriter.RECORD_SIZE;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return region.remaining() >= BinaryArrivalWriter.RECORD_SIZE
+				|| size - regionEnd >= BinaryArrivalWriter.RECORD_SIZE;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws IllegalStateException if the file is not in order of arrival
+	 * @throws UncheckedIOException if the file cannot be read
+	 */
+	@Override
+	public Customer next() {
+		if(!hasNext()) throw new NoSuchElementException();
+		if(region.remaining() < BinaryArrivalWriter.RECORD_SIZE) {
+			try {
+				mapRegion(regionEnd);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		
+		Customer cust = new Customer(region.getInt(), region.getInt());
+		cust.setId(nextId++);
+		
+		if(cust.getArrivalTime() < lastArrival) {
+			throw new IllegalStateException("Customer " + cust.getId() + " arrives before the one preceding it");
+		}
+		lastArrival = cust.getArrivalTime();
+		return cust;
+	}
+
+	@Override
+	public int peekArrivalTime() {
+		if(!hasNext()) return Integer.MAX_VALUE;
+		if(region.remaining() >= BinaryArrivalWriter.RECORD_SIZE) return region.getInt(region.position());
+		
+		try {
+			mapRegion(regionEnd);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return region.getInt(region.position());
+	}
+	
+	private void mapRegion(long start) throws IOException {
+		long length = Math.min(REGION_SIZE, size - start);
+		region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		regionEnd = start + length;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
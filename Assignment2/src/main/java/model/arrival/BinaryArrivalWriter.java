@@ -0,0 +1,113 @@
+package model.arrival;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import model.Customer;
+
+public class BinaryArrivalWriter implements Closeable {
+	
+	/**
+	 * Marks the start of every arrival file ("QARR" in ASCII)
+	 */
+	public static final int MAGIC = 0x51415252;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 16;
+	/**
+	 * Size of each record: arrival time and serving time, as two big-endian ints
+	 */
+	public static final int RECORD_SIZE = 2 * Integer.BYTES;
+	
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+	private int lastArrival = Integer.MIN_VALUE;
+	
+	/**
+	 * Creates a new BinaryArrivalWriter that writes to the file at the given
+	 * path, replacing it if it already exists.
+	 * @param path - the location of the arrival file
+	 * @throws IOException if the file cannot be created
+	 */
+	public BinaryArrivalWriter(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.WRITE);
+		
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(RECORD_SIZE);
+		buffer.putInt(0);
+	}
+	
+	/**
+	 * Checks whether the given channel starts with the header of an arrival file.
+	 * @param channel - the channel to check, which is left at its current position
+	 * @return true if the channel holds an arrival file
+	 * @throws IOException if the channel cannot be read
+	 */
+	public static boolean hasHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while(header.hasRemaining() && channel.read(header, header.position()) >= 0);
+		if(header.hasRemaining()) return false;
+		
+		header.flip();
+		return header.getInt() == MAGIC && header.getInt() == VERSION && header.getInt() == RECORD_SIZE;
+	}
+	
+	/**
+	 * Appends the given Customer to the file. Customers must be written in
+	 * ascending order of arrival. Their ids are not stored: a
+	 * {@link BinaryArrivalSource} numbers Customers by their position in the
+	 * file, so ids that were given explicitly, e.g. in a CSV file, are lost.
+	 * @param cust - the Customer to write
+	 * @throws IOException if the file cannot be written
+	 * @throws IllegalArgumentException if the Customer arrives before the previous one
+	 */
+	public void write(Customer cust) throws IOException {
+		if(cust.getArrivalTime() < lastArrival) {
+			throw new IllegalArgumentException("Customer " + cust + " arrives before the one preceding it");
+		}
+		lastArrival = cust.getArrivalTime();
+		
+		if(buffer.remaining() < RECORD_SIZE) flush();
+		buffer.putInt(cust.getArrivalTime());
+		buffer.putInt(cust.getServingTime());
+	}
+	
+	/**
+	 * Writes every Customer of the given source to a new arrival file. The file
+	 * keeps arrival and serving times only, so the converted Customers are
+	 * renumbered 0, 1, 2... in order of arrival, whatever ids they had.
+	 * @param source - the Customers to write
+	 * @param path - the location of the arrival file
+	 * @return the number of Customers written
+	 * @throws IOException if the file cannot be written
+	 */
+	public static long convert(ArrivalSource source, Path path) throws IOException {
+		long count = 0;
+		try(BinaryArrivalWriter writer = new BinaryArrivalWriter(path)) {
+			while(source.hasNext()) {
+				writer.write(source.next());
+				++count;
+			}
+		}
+		return count;
+	}
+	
+	private void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		channel.close();
+	}
+}
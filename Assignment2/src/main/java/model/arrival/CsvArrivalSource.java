@@ -0,0 +1,178 @@
+package model.arrival;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+import model.Customer;
+
+public class CsvArrivalSource implements ArrivalSource {
+	
+	private static final long REGION_SIZE = 1 << 28;
+	private static final int MAX_FIELDS = 3;
+	
+	private final FileChannel channel;
+	private final long size;
+	private MappedByteBuffer region;
+	private long regionEnd = 0;
+	
+	// The values of the last line read, reused for every line
+	private final long[] fields = new long[MAX_FIELDS];
+	private int fieldCount;
+	private long lineNumber = 0;
+	
+	private Customer upcoming;
+	private int nextId = 0;
+	
+	/**
+	 * Opens the CSV file at the given path as a stream of arrivals. Each line holds
+	 * the arrival time and serving time of one Customer, optionally followed by
+	 * its id; Customers without an id are numbered by their position in the file.
+	 * Every value must be between 0 and {@link Integer#MAX_VALUE}.
+	 * A first line that is not numeric is taken as a header and skipped, as are
+	 * empty lines. The file is memory-mapped a region at a time, so memory use does
+	 * not depend on its length.
+	 * @param path - the location of the CSV file
+	 * @throws IOException if the file cannot be opened
+	 * @throws IllegalArgumentException if the first Customer is malformed
+	 */
+	public CsvArrivalSource(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = channel.size();
+		
+		advance();
+	}
+
+	@Override
+	public boolean hasNext() {
+		return upcoming != null;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * @throws IllegalArgumentException if the line after this Customer is malformed
+	 * @throws IllegalStateException if the Customer after this one arrives earlier
+	 * @throws UncheckedIOException if the file cannot be read
+	 */
+	@Override
+	public Customer next() {
+		if(upcoming == null) throw new NoSuchElementException();
+		
+		Customer cust = upcoming;
+		try {
+			advance();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		
+		if(upcoming != null && upcoming.getArrivalTime() < cust.getArrivalTime()) {
+			throw new IllegalStateException("Line " + lineNumber + " arrives before the line preceding it");
+		}
+		return cust;
+	}
+
+	@Override
+	public int peekArrivalTime() {
+		return upcoming == null ? Integer.MAX_VALUE : upcoming.getArrivalTime();
+	}
+	
+	/**
+	 * Reads lines until the next Customer is found, or the file ends.
+	 */
+	private void advance() throws IOException {
+		upcoming = null;
+		
+		while(true) {
+			int status = readLine();
+			if(status < 0) return;
+			
+			// Skip empty lines, and a header on the first line
+			if(status == 1 && fieldCount == 0) continue;
+			if(status == 0 && lineNumber == 1) continue;
+			
+			if(status == 0 || fieldCount < 2) {
+				throw new IllegalArgumentException("Line " + lineNumber + " is not a valid arrival");
+			}
+			for(int i = 0; i < fieldCount; ++i) {
+				if(fields[i] < 0) {
+					throw new IllegalArgumentException("Line " + lineNumber + " has a negative value: " + fields[i]);
+				}
+				if(fields[i] > Integer.MAX_VALUE) {
+					throw new IllegalArgumentException("Line " + lineNumber + " has a value above " + Integer.MAX_VALUE);
+				}
+			}
+			
+			upcoming = new Customer((int) fields[0], (int) fields[1]);
+			upcoming.setId(fieldCount > 2 ? (int) fields[2] : nextId);
+			++nextId;
+			return;
+		}
+	}
+	
+	/**
+	 * Parses the next line into {@link #fields}, without creating any objects.
+	 * @return -1 at the end of the file, 0 if the line contained anything other
+	 * 		   than numbers, commas and whitespace, or 1 if it was numeric
+	 */
+	private int readLine() throws IOException {
+		int b = nextByte();
+		if(b < 0) return -1;
+		++lineNumber;
+		
+		fieldCount = 0;
+		boolean numeric = true;
+		boolean hasDigits = false;
+		boolean negative = false;
+		long value = 0;
+		
+		while(b >= 0 && b != '\n') {
+			if(b >= '0' && b <= '9') {
+				// Values past the int range are rejected anyway, so stop growing them there
+				if(value <= Integer.MAX_VALUE) value = value * 10 + (b - '0');
+				hasDigits = true;
+			} else if(b == ',') {
+				if(!storeField(hasDigits, negative ? -value : value)) numeric = false;
+				hasDigits = false;
+				negative = false;
+				value = 0;
+			} else if(b == '-' && !hasDigits) {
+				negative = true;
+			} else if(b != ' ' && b != '\t' && b != '\r') {
+				numeric = false;
+			}
+			b = nextByte();
+		}
+		if(hasDigits || fieldCount > 0) {
+			if(!storeField(hasDigits, negative ? -value : value)) numeric = false;
+		}
+		
+		return numeric ? 1 : 0;
+	}
+	
+	private boolean storeField(boolean hasDigits, long value) {
+		if(!hasDigits || fieldCount == MAX_FIELDS) return false;
+		
+		fields[fieldCount++] = value;
+		return true;
+	}
+	
+	private int nextByte() throws IOException {
+		if(region == null || !region.hasRemaining()) {
+			if(regionEnd >= size) return -1;
+			
+			long length = Math.min(REGION_SIZE, size - regionEnd);
+			region = channel.map(FileChannel.MapMode.READ_ONLY, regionEnd, length);
+			regionEnd += length;
+		}
+		return region.get() & 0xFF;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
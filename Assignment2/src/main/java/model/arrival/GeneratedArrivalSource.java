@@ -0,0 +1,63 @@
+package model.arrival;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import model.Customer;
+import model.distribution.ArrivalProcess;
+import model.distribution.Distribution;
+
+public class GeneratedArrivalSource implements ArrivalSource {
+	
+	private final ArrivalProcess arrivals;
+	private final Distribution serviceTimes;
+	private final int timeLimit;
+	private final Random rand;
+	
+	// The time of the next arrival, before rounding down to its time moment
+	private double nextTime;
+	private int nextId = 0;
+	
+	/**
+	 * Creates an ArrivalSource that generates Customers one at a time as they are
+	 * read, rather than all of them up front, so memory use does not grow with their
+	 * number. Customers arrive in the time moment their arrival time falls in, up to
+	 * the time limit, and are numbered in order of arrival.
+	 * @param arrivals - the process that arrival times follow
+	 * @param serviceTimes - the distribution of serving times
+	 * @param timeLimit - the last time moment in which Customers arrive
+	 * @param rand - the source of randomness to use
+	 */
+	public GeneratedArrivalSource(ArrivalProcess arrivals, Distribution serviceTimes, int timeLimit, Random rand) {
+		this.arrivals = arrivals;
+		this.serviceTimes = serviceTimes;
+		this.timeLimit = timeLimit;
+		this.rand = rand;
+		this.nextTime = arrivals.nextArrival(0, rand);
+	}
+	
+	@Override
+	public boolean hasNext() {
+		return nextTime < timeLimit + 1;
+	}
+	
+	@Override
+	public Customer next() {
+		if(!hasNext()) throw new NoSuchElementException();
+		
+		Customer cust = new Customer((int) nextTime, serviceTimes.sampleTime(rand, timeLimit));
+		cust.setId(nextId++);
+		nextTime = arrivals.nextArrival(nextTime, rand);
+		return cust;
+	}
+	
+	@Override
+	public int peekArrivalTime() {
+		return hasNext() ? (int) nextTime : Integer.MAX_VALUE;
+	}
+	
+	@Override
+	public void close() {
+		// Nothing to release
+	}
+}
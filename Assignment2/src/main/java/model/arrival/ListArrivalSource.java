@@ -0,0 +1,42 @@
+package model.arrival;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import model.Customer;
+
+public class ListArrivalSource implements ArrivalSource {
+	
+	private final List<Customer> customers;
+	private int nextArrival = 0;
+	
+	/**
+	 * Creates an ArrivalSource that returns the Customers of the given list
+	 * one by one. The list must be sorted in ascending order of arrival.
+	 * @param customers - the Customers to return
+	 */
+	public ListArrivalSource(List<Customer> customers) {
+		this.customers = customers;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return nextArrival < customers.size();
+	}
+
+	@Override
+	public Customer next() {
+		if(!hasNext()) throw new NoSuchElementException();
+		return customers.get(nextArrival++);
+	}
+
+	@Override
+	public int peekArrivalTime() {
+		return hasNext() ? customers.get(nextArrival).getArrivalTime() : Integer.MAX_VALUE;
+	}
+
+	@Override
+	public void close() {
+		// Nothing to release
+	}
+}
@@ -0,0 +1,14 @@
+package model.distribution;
+
+import java.util.Random;
+
+public interface ArrivalProcess {
+	
+	/**
+	 * Draws the time of the next arrival after the given one.
+	 * @param time - the time of the previous arrival, or 0 for the first one
+	 * @param rand - the source of randomness to use
+	 * @return the time of the next arrival, not before the given one
+	 */
+	public double nextArrival(double time, Random rand);
+}
@@ -0,0 +1,41 @@
+package model.distribution;
+
+import java.util.Random;
+
+public interface Distribution {
+	
+	/**
+	 * Draws a value from this distribution, in constant time.
+	 * @param rand - the source of randomness to use
+	 * @return the value drawn
+	 */
+	public double sample(Random rand);
+	
+	/**
+	 * Draws a time from this distribution, rounded to the nearest whole time moment.
+	 * Times are at least one time moment long, so that every Customer takes some serving,
+	 * and at most the given bound, usually the time limit of the simulation, which ends
+	 * before any longer service would. Heavy tails may otherwise draw times that overflow
+	 * the waiting time of a queue, which counts in ints.
+	 * @param rand - the source of randomness to use
+	 * @param maxTime - the longest time that may be drawn
+	 * @return the time drawn, between 1 and the bound
+	 */
+	public default int sampleTime(Random rand, int maxTime) {
+		double value = sample(rand);
+		int bound = Math.max(1, maxTime);
+		return value >= bound ? bound : Math.max(1, (int) Math.round(value));
+	}
+	
+	/**
+	 * Returns the mean of this distribution.
+	 * @return the mean, or infinity if it has none
+	 */
+	public double getMean();
+	
+	/**
+	 * Returns the variance of this distribution.
+	 * @return the variance, or infinity if it has none
+	 */
+	public double getVariance();
+}
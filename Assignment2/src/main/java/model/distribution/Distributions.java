@@ -0,0 +1,66 @@
+package model.distribution;
+
+public class Distributions {
+	
+	/**
+	 * Parses a distribution in the form "name:parameters", one of
+	 * <ul>
+	 * <li>uniform:min,max - whole numbers from min to max, both included</li>
+	 * <li>exponential:mean</li>
+	 * <li>lognormal:mean,standardDeviation</li>
+	 * <li>pareto:scale,shape</li>
+	 * <li>empirical:value=weight,value=weight,... - the given values, in proportion to their weights</li>
+	 * </ul>
+	 * @param spec - the description of the distribution
+	 * @return the distribution described
+	 * @throws IllegalArgumentException if the description is malformed
+	 */
+	public static Distribution parse(String spec) {
+		int colon = spec.indexOf(':');
+		if(colon < 0) throw new IllegalArgumentException("Distributions are given as name:parameters, not " + spec);
+		
+		String name = spec.substring(0, colon).trim();
+		String[] parameters = spec.substring(colon + 1).split(",");
+		try {
+			switch(name) {
+				case "uniform":
+					expect(spec, parameters, 2);
+					return new UniformDistribution(Integer.parseInt(parameters[0].trim()), Integer.parseInt(parameters[1].trim()));
+				case "exponential":
+					expect(spec, parameters, 1);
+					return new ExponentialDistribution(Double.parseDouble(parameters[0]));
+				case "lognormal":
+					expect(spec, parameters, 2);
+					return new LogNormalDistribution(Double.parseDouble(parameters[0]), Double.parseDouble(parameters[1]));
+				case "pareto":
+					expect(spec, parameters, 2);
+					return new ParetoDistribution(Double.parseDouble(parameters[0]), Double.parseDouble(parameters[1]));
+				case "empirical":
+					return parseEmpirical(spec, parameters);
+				default:
+					throw new IllegalArgumentException("Unknown distribution: " + name);
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid distribution parameters: " + spec, e);
+		}
+	}
+	
+	private static EmpiricalDistribution parseEmpirical(String spec, String[] parameters) {
+		double[] values = new double[parameters.length];
+		double[] weights = new double[parameters.length];
+		for(int i = 0; i < parameters.length; ++i) {
+			int equals = parameters[i].indexOf('=');
+			if(equals < 0) throw new IllegalArgumentException("Empirical values are given as value=weight: " + spec);
+			
+			values[i] = Double.parseDouble(parameters[i].substring(0, equals));
+			weights[i] = Double.parseDouble(parameters[i].substring(equals + 1));
+		}
+		return new EmpiricalDistribution(values, weights);
+	}
+	
+	private static void expect(String spec, String[] parameters, int count) {
+		if(parameters.length != count) {
+			throw new IllegalArgumentException("Expected " + count + " parameters for " + spec);
+		}
+	}
+}
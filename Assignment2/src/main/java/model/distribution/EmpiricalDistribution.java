@@ -0,0 +1,99 @@
+package model.distribution;
+
+import java.util.Random;
+
+public class EmpiricalDistribution implements Distribution {
+	
+	private final double[] values;
+	// Alias tables: column i yields values[i] with probability cutoff[i], values[alias[i]] otherwise
+	private final double[] cutoff;
+	private final int[] alias;
+	private final double mean;
+	private final double variance;
+	
+	/**
+	 * Creates a new EmpiricalDistribution that draws each of the given values with
+	 * a probability proportional to its weight, such as service times observed in
+	 * production together with how often they were seen. Sampling takes constant time
+	 * however many values there are, by Vose's alias method.
+	 * @param values - the values to draw
+	 * @param weights - the weight of each value, in the same order
+	 * @throws IllegalArgumentException if there are no values, the number of weights differs,
+	 * 				or a weight is negative or all of them are 0
+	 */
+	public EmpiricalDistribution(double[] values, double[] weights) {
+		if(values.length == 0 || values.length != weights.length) {
+			throw new IllegalArgumentException("An empirical distribution needs one weight for each of its values");
+		}
+		
+		int n = values.length;
+		double total = 0;
+		for(double weight : weights) {
+			if(!(weight >= 0)) throw new IllegalArgumentException("Invalid empirical weight " + weight);
+			total += weight;
+		}
+		if(!(total > 0)) throw new IllegalArgumentException("The empirical weights add up to " + total);
+		
+		this.values = values.clone();
+		this.cutoff = new double[n];
+		this.alias = new int[n];
+		
+		double mean = 0;
+		double square = 0;
+		for(int i = 0; i < n; ++i) {
+			mean += values[i] * weights[i] / total;
+			square += values[i] * values[i] * weights[i] / total;
+		}
+		this.mean = mean;
+		this.variance = Math.max(0, square - mean * mean);
+		
+		// Scale the probabilities so they average 1, then pair every column below 1 with one above
+		double[] scaled = new double[n];
+		int[] small = new int[n];
+		int[] large = new int[n];
+		int smalls = 0;
+		int larges = 0;
+		for(int i = 0; i < n; ++i) {
+			scaled[i] = weights[i] * n / total;
+			if(scaled[i] < 1) {
+				small[smalls++] = i;
+			} else {
+				large[larges++] = i;
+			}
+		}
+		
+		while(smalls > 0 && larges > 0) {
+			int less = small[--smalls];
+			int more = large[--larges];
+			cutoff[less] = scaled[less];
+			alias[less] = more;
+			
+			// The larger column gives away what fills up the smaller one
+			scaled[more] = scaled[more] + scaled[less] - 1;
+			if(scaled[more] < 1) {
+				small[smalls++] = more;
+			} else {
+				large[larges++] = more;
+			}
+		}
+		// Whatever is left is 1 up to rounding errors
+		while(larges > 0) cutoff[large[--larges]] = 1;
+		while(smalls > 0) cutoff[small[--smalls]] = 1;
+	}
+	
+	@Override
+	public double sample(Random rand) {
+		int column = rand.nextInt(values.length);
+		return rand.nextDouble() < cutoff[column] ? values[column] : values[alias[column]];
+	}
+	
+	@Override
+	public double getMean() {
+		return mean;
+	}
+	
+	@Override
+	public double getVariance() {
+		return variance;
+	}
+}
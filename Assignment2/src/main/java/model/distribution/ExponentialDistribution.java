@@ -0,0 +1,36 @@
+package model.distribution;
+
+import java.util.Random;
+
+public class ExponentialDistribution implements Distribution {
+	
+	private final double mean;
+	
+	/**
+	 * Creates a new ExponentialDistribution with the given mean. Its values are
+	 * the times between the events of a Poisson process of rate 1 / mean.
+	 * @param mean - the mean of the distribution
+	 * @throws IllegalArgumentException if the mean is not positive
+	 */
+	public ExponentialDistribution(double mean) {
+		if(!(mean > 0)) throw new IllegalArgumentException("The exponential mean must be positive, not " + mean);
+		
+		this.mean = mean;
+	}
+	
+	@Override
+	public double sample(Random rand) {
+		// Inverse transform; 1 - u is never 0, so the logarithm stays finite
+		return -mean * Math.log(1 - rand.nextDouble());
+	}
+	
+	@Override
+	public double getMean() {
+		return mean;
+	}
+	
+	@Override
+	public double getVariance() {
+		return mean * mean;
+	}
+}
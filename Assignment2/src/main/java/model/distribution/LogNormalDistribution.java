@@ -0,0 +1,47 @@
+package model.distribution;
+
+import java.util.Random;
+
+public class LogNormalDistribution implements Distribution {
+	
+	private final double mean;
+	private final double variance;
+	// The mean and standard deviation of the logarithm of the values
+	private final double mu;
+	private final double sigma;
+	
+	/**
+	 * Creates a new LogNormalDistribution with the given mean and standard deviation,
+	 * which are those of its values rather than of their logarithm. A standard deviation
+	 * several times the mean gives the long tail typical of service times.
+	 * @param mean - the mean of the distribution
+	 * @param standardDeviation - the standard deviation of the distribution
+	 * @throws IllegalArgumentException if the mean is not positive or the standard deviation is negative
+	 */
+	public LogNormalDistribution(double mean, double standardDeviation) {
+		if(!(mean > 0) || !(standardDeviation >= 0)) {
+			throw new IllegalArgumentException("Invalid lognormal mean " + mean + " or standard deviation " + standardDeviation);
+		}
+		
+		this.mean = mean;
+		this.variance = standardDeviation * standardDeviation;
+		double logVariance = Math.log1p(variance / (mean * mean));
+		this.mu = Math.log(mean) - logVariance / 2;
+		this.sigma = Math.sqrt(logVariance);
+	}
+	
+	@Override
+	public double sample(Random rand) {
+		return Math.exp(mu + sigma * rand.nextGaussian());
+	}
+	
+	@Override
+	public double getMean() {
+		return mean;
+	}
+	
+	@Override
+	public double getVariance() {
+		return variance;
+	}
+}
@@ -0,0 +1,45 @@
+package model.distribution;
+
+import java.util.Random;
+
+public class ParetoDistribution implements Distribution {
+	
+	private final double scale;
+	private final double shape;
+	
+	/**
+	 * Creates a new ParetoDistribution, whose values are at least the given scale
+	 * and exceed any x with probability (scale / x)^shape. The smaller the shape,
+	 * the heavier the tail: at 2 or below the variance is infinite, and at 1 or
+	 * below so is the mean.
+	 * @param scale - the smallest value
+	 * @param shape - the tail index of the distribution
+	 * @throws IllegalArgumentException if the scale or shape is not positive
+	 */
+	public ParetoDistribution(double scale, double shape) {
+		if(!(scale > 0) || !(shape > 0)) {
+			throw new IllegalArgumentException("Invalid Pareto scale " + scale + " or shape " + shape);
+		}
+		
+		this.scale = scale;
+		this.shape = shape;
+	}
+	
+	@Override
+	public double sample(Random rand) {
+		// Inverse transform; 1 - u is never 0, so the value stays finite
+		return scale / Math.pow(1 - rand.nextDouble(), 1 / shape);
+	}
+	
+	@Override
+	public double getMean() {
+		if(shape <= 1) return Double.POSITIVE_INFINITY;
+		return shape * scale / (shape - 1);
+	}
+	
+	@Override
+	public double getVariance() {
+		if(shape <= 2) return Double.POSITIVE_INFINITY;
+		return scale * scale * shape / ((shape - 1) * (shape - 1) * (shape - 2));
+	}
+}
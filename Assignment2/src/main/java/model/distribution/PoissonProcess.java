@@ -0,0 +1,25 @@
+package model.distribution;
+
+import java.util.Random;
+
+public class PoissonProcess implements ArrivalProcess {
+	
+	private final ExponentialDistribution gaps;
+	
+	/**
+	 * Creates a new PoissonProcess with the given constant rate, whose arrivals
+	 * are independent of each other and exponentially distributed apart.
+	 * @param rate - the average number of arrivals per time moment
+	 * @throws IllegalArgumentException if the rate is not positive
+	 */
+	public PoissonProcess(double rate) {
+		if(!(rate > 0)) throw new IllegalArgumentException("The arrival rate must be positive, not " + rate);
+		
+		this.gaps = new ExponentialDistribution(1 / rate);
+	}
+	
+	@Override
+	public double nextArrival(double time, Random rand) {
+		return time + gaps.sample(rand);
+	}
+}
@@ -0,0 +1,57 @@
+package model.distribution;
+
+import java.util.Random;
+import java.util.function.DoubleUnaryOperator;
+
+public class ThinnedPoissonProcess implements ArrivalProcess {
+	
+	private final DoubleUnaryOperator rate;
+	private final PoissonProcess candidates;
+	private final double maxRate;
+	
+	/**
+	 * Creates a new ThinnedPoissonProcess whose rate changes over time, such as with
+	 * the peak hours of a day. Arrivals are drawn by thinning: candidates come at the
+	 * highest rate, and each is kept with probability rate(t) / maxRate. Each arrival
+	 * thus costs maxRate over the average rate candidates, on average.
+	 * @param rate - the average number of arrivals per time moment, at each time
+	 * @param maxRate - a bound on the rate at any time
+	 * @throws IllegalArgumentException if the bound is not positive
+	 */
+	public ThinnedPoissonProcess(DoubleUnaryOperator rate, double maxRate) {
+		this.rate = rate;
+		this.candidates = new PoissonProcess(maxRate);
+		this.maxRate = maxRate;
+	}
+	
+	/**
+	 * Creates a ThinnedPoissonProcess whose rate follows the given profile, one
+	 * value per segment of the given length, and repeats it after the last segment.
+	 * @param rates - the rate during each segment
+	 * @param segmentLength - the number of time moments in each segment
+	 * @return the process following the profile
+	 * @throws IllegalArgumentException if the profile is empty, has negative rates or only zero ones
+	 */
+	public static ThinnedPoissonProcess periodic(double[] rates, double segmentLength) {
+		if(rates.length == 0 || !(segmentLength > 0)) throw new IllegalArgumentException("The rate profile is empty");
+		
+		double[] profile = rates.clone();
+		double maxRate = 0;
+		for(double r : profile) {
+			if(!(r >= 0)) throw new IllegalArgumentException("Invalid arrival rate " + r);
+			maxRate = Math.max(maxRate, r);
+		}
+		if(maxRate == 0) throw new IllegalArgumentException("The rate profile never has any arrivals");
+		
+		return new ThinnedPoissonProcess(t -> profile[(int) (t / segmentLength) % profile.length], maxRate);
+	}
+	
+	@Override
+	public double nextArrival(double time, Random rand) {
+		double next = time;
+		do {
+			next = candidates.nextArrival(next, rand);
+		} while(rand.nextDouble() * maxRate >= rate.applyAsDouble(next));
+		return next;
+	}
+}
@@ -0,0 +1,39 @@
+package model.distribution;
+
+import java.util.Random;
+
+public class UniformDistribution implements Distribution {
+	
+	private final int min;
+	private final int max;
+	
+	/**
+	 * Creates a new UniformDistribution over the whole numbers from min to max,
+	 * both included, each drawn with the same probability.
+	 * @param min - the smallest value
+	 * @param max - the largest value
+	 * @throws IllegalArgumentException if max is below min
+	 */
+	public UniformDistribution(int min, int max) {
+		if(max < min) throw new IllegalArgumentException("The uniform maximum " + max + " is below the minimum " + min);
+		
+		this.min = min;
+		this.max = max;
+	}
+	
+	@Override
+	public double sample(Random rand) {
+		return min + rand.nextInt(max - min + 1);
+	}
+	
+	@Override
+	public double getMean() {
+		return (min + (double) max) / 2;
+	}
+	
+	@Override
+	public double getVariance() {
+		double values = (double) max - min + 1;
+		return (values * values - 1) / 12;
+	}
+}
@@ -0,0 +1,114 @@
+package model.event;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+public class Checkpoint {
+
+	/**
+	 * Marks the start of every checkpoint file ("QCKP" in ASCII)
+	 */
+	public static final int MAGIC = 0x51434B50;
+	public static final int VERSION = 2;
+	/**
+	 * Size of the header: magic, version, time moment and number of servers,
+	 * as four big-endian ints
+	 */
+	public static final int HEADER_SIZE = 16;
+	
+	private final int time;
+	private final int servers;
+	// The whole checkpoint as written to a file, header included
+	private final byte[] data;
+	
+	/**
+	 * Wraps the given bytes, which must start with the header of a checkpoint.
+	 * @param data - the encoded checkpoint
+	 * @throws IOException if the bytes do not hold a checkpoint of this version
+	 */
+	Checkpoint(byte[] data) throws IOException {
+		if(data.length < HEADER_SIZE) throw new IOException("Checkpoint is truncated");
+		
+		ByteBuffer header = ByteBuffer.wrap(data, 0, HEADER_SIZE);
+		if(header.getInt() != MAGIC || header.getInt() != VERSION) {
+			throw new IOException("Not a version " + VERSION + " checkpoint");
+		}
+		this.time = header.getInt();
+		this.servers = header.getInt();
+		this.data = data;
+	}
+	
+	/**
+	 * Reads a checkpoint written with {@link #write(Path)}. The whole file is read
+	 * into memory, to be decoded when resumed with
+	 * {@link EventSimulator#resume(Checkpoint, model.arrival.ArrivalSource)}.
+	 * @param path - the location of the checkpoint file
+	 * @return the checkpoint held by the file
+	 * @throws IOException if the file cannot be read or holds no checkpoint
+	 */
+	public static Checkpoint read(Path path) throws IOException {
+		try {
+			return new Checkpoint(Files.readAllBytes(path));
+		} catch (IOException e) {
+			throw new IOException(path + ": " + e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Writes this checkpoint to the file at the given path, replacing it if it
+	 * already exists. The bytes go to a temporary file next to it first, which is
+	 * then moved into place, so that a run stopped while writing never leaves
+	 * behind a damaged checkpoint.
+	 * @param path - the location of the checkpoint file
+	 * @throws IOException if the file cannot be written
+	 */
+	public void write(Path path) throws IOException {
+		Path absolute = path.toAbsolutePath();
+		Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+		Files.write(temporary, data);
+		try {
+			Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	
+	/**
+	 * Returns the time moment after which the checkpoint was taken. Resuming it
+	 * continues the simulation with the next time moment.
+	 * @return the last time moment simulated before the checkpoint
+	 */
+	public int getTime() {
+		return time;
+	}
+	
+	/**
+	 * Returns the number of CustomerServers of the simulation, which the
+	 * QueueScheduler of a resumed run must match.
+	 * @return the number of servers
+	 */
+	public int getServers() {
+		return servers;
+	}
+	
+	/**
+	 * Returns the size of this checkpoint as written to a file.
+	 * @return the number of bytes
+	 */
+	public int size() {
+		return data.length;
+	}
+	
+	/**
+	 * Opens the state held by this checkpoint for decoding, past the header.
+	 */
+	DataInputStream open() {
+		return new DataInputStream(new ByteArrayInputStream(data, HEADER_SIZE, data.length - HEADER_SIZE));
+	}
+}
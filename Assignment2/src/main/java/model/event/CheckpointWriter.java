@@ -0,0 +1,84 @@
+package model.event;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+public class CheckpointWriter implements Consumer<Checkpoint>, Closeable {
+
+	private final Path path;
+	private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "checkpoint-writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	// The latest checkpoint not yet written; older ones are skipped if writing falls behind
+	private final AtomicReference<Checkpoint> pending = new AtomicReference<Checkpoint>();
+	private volatile IOException failure = null;
+	private volatile int writtenCheckpoints = 0;
+	
+	/**
+	 * Creates a new CheckpointWriter that writes the checkpoints it is given to the
+	 * file at the given path on a thread of its own, so that the simulation goes on
+	 * meanwhile. Each checkpoint replaces the previous one, as per {@link Checkpoint#write(Path)}.
+	 * @param path - the location of the checkpoint file
+	 */
+	public CheckpointWriter(Path path) {
+		this.path = path;
+	}
+	
+	/**
+	 * Queues the given checkpoint to be written, instead of any older one still waiting.
+	 * @param checkpoint - the checkpoint to write
+	 */
+	@Override
+	public void accept(Checkpoint checkpoint) {
+		// Only schedule a write if none is waiting already; that one will take the latest
+		if(pending.getAndSet(checkpoint) == null) {
+			executor.execute(this::writePending);
+		}
+	}
+	
+	private void writePending() {
+		Checkpoint checkpoint = pending.getAndSet(null);
+		if(checkpoint == null) return;
+		
+		try {
+			checkpoint.write(path);
+			++writtenCheckpoints;
+		} catch (IOException e) {
+			failure = e;
+		}
+	}
+	
+	/**
+	 * Returns the number of checkpoints written so far.
+	 * @return the number of written checkpoints
+	 */
+	public int getWrittenCheckpoints() {
+		return writtenCheckpoints;
+	}
+	
+	/**
+	 * Waits for the last checkpoint to be written, then stops the writing thread.
+	 * @throws IOException if any checkpoint could not be written
+	 */
+	@Override
+	public void close() throws IOException {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			System.out.println("Interrupted in CheckpointWriter#close!");
+			e.printStackTrace();
+		}
+		
+		if(failure != null) throw failure;
+	}
+}
@@ -0,0 +1,60 @@
+package model.event;
+
+import model.Customer;
+
+class Event implements Comparable<Event> {
+	
+	/**
+	 * The kinds of events handled by the {@link EventSimulator}. Events that
+	 * happen at the same time moment are handled in the order in which the
+	 * types are declared here, so servers free up before new Customers arrive.
+	 */
+	enum Type {
+		/**
+		 * A CustomerServer finishes serving its current Customer
+		 */
+		SERVICE_END,
+		/**
+		 * A CustomerServer takes the next Customer from its queue
+		 */
+		SERVICE_START,
+		/**
+		 * A Customer turned away earlier comes back, as per {@link model.AdmissionControl.Policy#RETRY}
+		 */
+		RETRY,
+		/**
+		 * A Customer arrives and is dispatched to a queue
+		 */
+		ARRIVAL,
+		/**
+		 * The elastic pool of servers is brought up to date, once in any time moment
+		 * in which it may change, as per {@link model.ElasticPool#update(int)}
+		 */
+		SCALE
+	}
+	
+	final int time;
+	final Type type;
+	final long sequence;
+	final Customer customer;
+	final ServerState server;
+	
+	Event(int time, Type type, long sequence, Customer customer, ServerState server) {
+		this.time = time;
+		this.type = type;
+		this.sequence = sequence;
+		this.customer = customer;
+		this.server = server;
+	}
+
+	/**
+	 * Orders events by time, then by type, then by the order in which they were
+	 * scheduled, so that the simulation is fully deterministic.
+	 */
+	@Override
+	public int compareTo(Event other) {
+		if(time != other.time) return Integer.compare(time, other.time);
+		if(type != other.type) return type.compareTo(other.type);
+		return Long.compare(sequence, other.sequence);
+	}
+}
@@ -0,0 +1,807 @@
+package model.event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+import model.AdmissionControl;
+import model.Customer;
+import model.CustomerServer;
+import model.ElasticPool;
+import model.QueueScheduler;
+import model.SimulationStatistics;
+import model.Simulator;
+import model.WorkStealing;
+import model.arrival.ArrivalSource;
+import model.arrival.ListArrivalSource;
+import model.stats.MetricsRecorder;
+import model.stats.ServerMetrics;
+
+public class EventSimulator implements Simulator {
+	
+	private final QueueScheduler scheduler;
+	private final int timeLimit;
+	
+	private final PriorityQueue<Event> events = new PriorityQueue<Event>();
+	private final Map<CustomerServer, ServerState> states = new IdentityHashMap<CustomerServer, ServerState>();
+	private long nextSequence = 0;
+	private long processedEvents = 0;
+	
+	private ArrivalSource arrivals;
+	// Customers taken from the arrival source so far, to be skipped when resuming
+	private long consumedArrivals = 0;
+	private AdmissionControl admission;
+	private final Deque<Customer> blockedArrivals = new ArrayDeque<Customer>();
+	// Null unless idle servers take over Customers waiting at other servers
+	private WorkStealing stealing;
+	private final Deque<ServerState> idleServers = new ArrayDeque<ServerState>();
+	private final List<ServerState> finishedServers = new ArrayList<ServerState>();
+	// Null unless the number of open servers follows the load
+	private ElasticPool pool;
+	// The earliest SCALE event pending, and the last time moment at which the pool
+	// was updated or can no longer be; SCALE events are only scheduled when needed
+	private int nextScale = Integer.MAX_VALUE;
+	private int lastScale = -1;
+	private int waitingCustomers = 0;
+	private volatile int currentTime = 0;
+	private long totalCapacity = 0;
+	private boolean batchDispatch = false;
+	private SimulationStatistics statistics;
+	private MetricsRecorder metrics;
+	
+	// Null unless checkpoints are taken while running
+	private Consumer<Checkpoint> checkpointSink;
+	private int checkpointInterval = 0;
+	private int nextCheckpoint = 0;
+	
+	/**
+	 * Creates a new EventSimulator that drives the CustomerServers of the given
+	 * QueueScheduler on a virtual clock, instead of starting a thread for each
+	 * of them. The servers count their service on the virtual clock, as per
+	 * {@link CustomerServer#setClock(java.util.function.IntSupplier)}, so that each
+	 * Customer only takes one event to start and one to finish being served. The
+	 * QueueScheduler must not also be started with {@link QueueScheduler#start()}.
+	 * @param scheduler - the QueueScheduler whose servers and strategy will be used
+	 * @param timeLimit - the last time moment that is simulated
+	 */
+	public EventSimulator(QueueScheduler scheduler, int timeLimit) {
+		this.scheduler = scheduler;
+		this.timeLimit = timeLimit;
+		
+		for(CustomerServer server : scheduler.getServers()) {
+			states.put(server, new ServerState(server));
+			totalCapacity += server.getCapacity();
+			server.setClock(this::getCurrentTime);
+		}
+	}
+	
+	/**
+	 * Runs the simulation for the given Customers, jumping directly from one event
+	 * to the next instead of waiting in real time. Each unit of service behaves
+	 * exactly like one second of {@link CustomerServer#run()}, so the statistics
+	 * match those of a real-time run with the same input. If work stealing was
+	 * enabled on the QueueScheduler, servers left idle at the end of a time moment
+	 * take over Customers waiting elsewhere before the moment is over. If the
+	 * QueueScheduler has an elastic pool, it is updated at the end of the time
+	 * moments in which its load changed or it would change by itself, which gives
+	 * the same result as updating it at the end of every one.
+	 * @param arrivals - the Customers to simulate, in ascending order of arrival
+	 * @return the statistics gathered over the simulation
+	 */
+	@Override
+	public SimulationStatistics run(ArrivalSource arrivals) {
+		begin(arrivals);
+		scheduleNextArrival();
+		
+		if(pool != null) scheduleScale(0);
+		if(stealing != null) {
+			for(CustomerServer server : scheduler.getServers()) {
+				markIdle(states.get(server));
+			}
+		}
+		
+		return simulate(0);
+	}
+	
+	/**
+	 * Continues the simulation saved in the given checkpoint, as taken by a run with
+	 * {@link #setCheckpoints(int, Consumer)}, up to the time limit of this EventSimulator.
+	 * The QueueScheduler must be new, with as many servers as the one that was saved,
+	 * each with room for the Customers it had, and the same admission policy. The given
+	 * arrivals must be those of the saved run, from the start: the Customers it had
+	 * already read are skipped. The same checkpoint can be resumed any number of times,
+	 * e.g. with other strategies or time limits, to explore "what-if" scenarios from the
+	 * same warmed-up state. Strategies that choose servers at random continue with a
+	 * stream of their own, so only runs with other strategies match an uninterrupted run.
+	 * @param checkpoint - the saved simulation
+	 * @param arrivals - the Customers of the saved run, in ascending order of arrival
+	 * @return the statistics gathered over the whole simulation, before and after the checkpoint
+	 * @throws IOException if the checkpoint cannot be decoded
+	 * @throws IllegalArgumentException if the QueueScheduler or the arrivals do not
+	 * 				match the checkpoint, or it was taken after the time limit
+	 * @throws IllegalStateException if the QueueScheduler has an elastic pool
+	 */
+	public SimulationStatistics resume(Checkpoint checkpoint, ArrivalSource arrivals) throws IOException {
+		if(checkpoint.getServers() != scheduler.getServers().size()) {
+			throw new IllegalArgumentException("The checkpoint has " + checkpoint.getServers() + " servers, not "
+					+ scheduler.getServers().size());
+		}
+		if(scheduler.getElasticPool() != null) {
+			throw new IllegalStateException("Checkpoints do not cover elastic pools");
+		}
+		
+		if(timeLimit < checkpoint.getTime()) {
+			throw new IllegalArgumentException("The checkpoint was taken after the time limit of " + timeLimit);
+		}
+		
+		begin(arrivals);
+		// The servers work out what is left of their services from the time
+		currentTime = checkpoint.getTime();
+		try(DataInputStream in = checkpoint.open()) {
+			readState(in);
+		}
+		// Servers that were idle are listed for stealing, even if the saved run did not steal
+		if(stealing != null) {
+			for(CustomerServer server : scheduler.getServers()) {
+				ServerState state = states.get(server);
+				if(state.current == null) markIdle(state);
+			}
+		}
+		
+		for(long i = 0; i < consumedArrivals; ++i) {
+			if(!arrivals.hasNext()) {
+				throw new IllegalArgumentException("The arrivals end before the " + consumedArrivals + " read by the checkpoint");
+			}
+			arrivals.next();
+		}
+		// A shorter time limit may have left the next arrival unread
+		boolean arrivalPending = false;
+		for(Event event : events) {
+			arrivalPending |= event.type == Event.Type.ARRIVAL;
+		}
+		if(!arrivalPending) scheduleNextArrival();
+		
+		return simulate(checkpoint.getTime() + 1);
+	}
+	
+	/**
+	 * Starts a run whose Customers are handed over by the caller one time moment at
+	 * a time, each already assigned to a server, instead of being read from an
+	 * ArrivalSource and dispatched by the strategy of the QueueScheduler. This lets
+	 * a coordinator choose among the servers of every partition of a simulation spread
+	 * over several processes, as per {@link model.partition.PartitionedSimulator}. For each
+	 * time moment with arrivals, call {@link #advanceTo(int)}, then {@link #admit(List, CustomerServer)}
+	 * for each server receiving Customers, then {@link #finishMoment()}; end with {@link #finish()}.
+	 * @throws IllegalStateException if the QueueScheduler has an elastic pool
+	 */
+	public void start() {
+		if(scheduler.getElasticPool() != null) {
+			throw new IllegalStateException("Runs driven step by step do not support elastic pools");
+		}
+		
+		begin(new ListArrivalSource(Collections.<Customer>emptyList()));
+		if(stealing != null) {
+			for(CustomerServer server : scheduler.getServers()) {
+				markIdle(states.get(server));
+			}
+		}
+	}
+	
+	/**
+	 * Simulates every time moment before the given one, then the part of the given
+	 * moment that comes before arrivals, such as services ending, so that the load of
+	 * the servers is what a strategy would see when the Customers arriving then are
+	 * dispatched. The current time becomes the given one.
+	 * @param time - the next time moment in which Customers arrive
+	 * @throws IllegalArgumentException if the time is before the current time or
+	 * 				after the time limit
+	 */
+	public void advanceTo(int time) {
+		if(time < currentTime || time > timeLimit) {
+			throw new IllegalArgumentException("Cannot advance from " + currentTime + " to " + time);
+		}
+		
+		while(!events.isEmpty() && events.peek().time < time) {
+			currentTime = events.peek().time;
+			simulateMoment();
+		}
+		
+		currentTime = time;
+		while(!events.isEmpty() && events.peek().time == time && events.peek().type.compareTo(Event.Type.ARRIVAL) < 0) {
+			handle(events.poll());
+			++processedEvents;
+		}
+	}
+	
+	/**
+	 * Adds the given Customers to the given server in the current time moment, as
+	 * if they had arrived and been dispatched there together, with {@link CustomerServer#addCustomers(List)}.
+	 * Admission control does not apply; the caller must only send Customers where
+	 * there is room, as they would wait for a place otherwise.
+	 * @param custs - the Customers assigned to the server, in order of arrival
+	 * @param target - the server of this EventSimulator's QueueScheduler they go to
+	 */
+	public void admit(List<Customer> custs, CustomerServer target) {
+		target.addCustomers(custs);
+		for(Customer cust : custs) {
+			admitted(cust, target, currentTime);
+		}
+	}
+	
+	/**
+	 * Simulates the rest of the current time moment, after its arrivals.
+	 * @return the number of Customers waiting in queues at the end of the moment
+	 */
+	public int finishMoment() {
+		simulateMoment();
+		return waitingCustomers;
+	}
+	
+	/**
+	 * Simulates the time moments left up to the time limit, once every Customer
+	 * has been admitted, and ends a run started with {@link #start()}.
+	 * @return the statistics gathered over the simulation
+	 */
+	public SimulationStatistics finish() {
+		return simulate(currentTime + 1);
+	}
+	
+	/**
+	 * Prepares a run or resumed run, attaching the metrics and reading the
+	 * admission control, work stealing and elastic pool of the QueueScheduler.
+	 */
+	private void begin(ArrivalSource arrivals) {
+		pool = scheduler.getElasticPool();
+		if(pool != null && checkpointSink != null) {
+			throw new IllegalStateException("Checkpoints do not cover elastic pools");
+		}
+		
+		statistics = new SimulationStatistics();
+		metrics = new MetricsRecorder(this::getCurrentTime);
+		metrics.attach(scheduler);
+		
+		this.arrivals = arrivals;
+		this.admission = scheduler.getAdmission();
+		this.stealing = scheduler.getWorkStealing();
+	}
+	
+	/**
+	 * Handles the scheduled events up to the time limit, taking checkpoints on the
+	 * way if asked to, then gathers the statistics.
+	 * @param firstTime - the first time moment that has not been simulated yet
+	 */
+	private SimulationStatistics simulate(int firstTime) {
+		if(checkpointSink != null) nextCheckpoint = nextMultiple(firstTime, checkpointInterval);
+		
+		while(!events.isEmpty() && events.peek().time <= timeLimit) {
+			currentTime = events.peek().time;
+			simulateMoment();
+		}
+		
+		// Services still going on count as far as the time limit
+		currentTime = timeLimit;
+		reportServedTime();
+		metrics.detach(scheduler);
+		statistics.setMetrics(metrics.getMetrics(timeLimit + 1));
+		statistics.recordAdmission(admission);
+		if(pool != null) {
+			pool.countUntil(timeLimit + 1);
+			statistics.recordServerTime(pool.getServerTime(), pool.getPeakServers(), timeLimit + 1);
+		} else {
+			int servers = scheduler.getServers().size();
+			statistics.recordServerTime((long) servers * (timeLimit + 1), servers, timeLimit + 1);
+		}
+		return statistics;
+	}
+	
+	/**
+	 * Handles everything that happens in the current time moment, including any
+	 * events scheduled for the same moment while doing so.
+	 */
+	private void simulateMoment() {
+		do {
+			while(!events.isEmpty() && events.peek().time == currentTime) {
+				handle(events.poll());
+				++processedEvents;
+			}
+			lastScale = currentTime;
+		} while(stealing != null && stealForIdleServers(currentTime));
+		if(pool != null && pool.hasChanged()) scheduleScale(currentTime + 1);
+		
+		statistics.recordWaiting(currentTime, waitingCustomers);
+		
+		// Between two time moments, the state is complete and consistent
+		if(checkpointSink != null && currentTime >= nextCheckpoint) {
+			checkpointSink.accept(checkpoint());
+			nextCheckpoint = nextMultiple(currentTime + 1, checkpointInterval);
+		}
+	}
+	
+	private static int nextMultiple(int time, int interval) {
+		return (int) Math.min(((long) time + interval - 1) / interval * interval, Integer.MAX_VALUE);
+	}
+	
+	@Override
+	public int getCurrentTime() {
+		return currentTime;
+	}
+	
+	/**
+	 * Sets whether the Customers arriving in the same time moment are dispatched
+	 * together, as per {@link QueueScheduler#dispatchBatch(List)}, rather than one
+	 * by one. Within a batch, servers that were idle only start serving once every
+	 * Customer of the batch has been assigned, so the choices can differ slightly.
+	 * Batches are only used under the {@link AdmissionControl.Policy#BLOCK} policy.
+	 * @param batchDispatch - whether to dispatch arrivals in batches
+	 */
+	public void setBatchDispatch(boolean batchDispatch) {
+		this.batchDispatch = batchDispatch;
+	}
+	
+	/**
+	 * Makes the run hand a checkpoint of the whole simulation to the given consumer
+	 * every given number of time moments, as soon as the first time moment past each
+	 * multiple of the interval has been simulated. Checkpoints are encoded in memory
+	 * between two time moments, without stopping the run for longer than that; the
+	 * consumer is called on the thread running the simulation, so it should hand slow
+	 * work such as writing files to another thread. Checkpoints are not taken when the
+	 * QueueScheduler has an elastic pool.
+	 * @param interval - the number of time moments between checkpoints
+	 * @param sink - receives each checkpoint, or null to take none
+	 * @throws IllegalArgumentException if the interval is not positive
+	 * @see #resume(Checkpoint, ArrivalSource)
+	 */
+	public void setCheckpoints(int interval, Consumer<Checkpoint> sink) {
+		if(sink != null && interval < 1) {
+			throw new IllegalArgumentException("Invalid checkpoint interval: " + interval);
+		}
+		
+		this.checkpointInterval = interval;
+		this.checkpointSink = sink;
+	}
+	
+	/**
+	 * Returns the number of events handled so far by this EventSimulator.
+	 * @return the number of handled events
+	 */
+	public long getProcessedEvents() {
+		return processedEvents;
+	}
+	
+	private void handle(Event event) {
+		switch(event.type) {
+			case ARRIVAL:
+				handleArrival(event);
+				break;
+			case RETRY:
+				offer(event.customer, event.time);
+				break;
+			case SERVICE_START:
+				handleServiceStart(event);
+				break;
+			case SERVICE_END:
+				handleServiceEnds(event);
+				break;
+			case SCALE:
+				handleScale(event);
+				break;
+		}
+		
+		// The pool is updated once the rest of the moment has been handled, or in the
+		// next moment if that is over; it need not be while its load stays the same
+		if(pool != null && pool.hasChanged()) scheduleScale(Math.max(event.time, lastScale + 1));
+	}
+	
+	private void handleArrival(Event event) {
+		// When every queue is full, a real-time run blocks on the arrival until
+		// a place frees up; the same is done here by holding the Customer back
+		if(!admission.isBlocking()) {
+			offer(event.customer, event.time);
+		} else if(!blockedArrivals.isEmpty()) {
+			blockedArrivals.add(event.customer);
+		} else if(batchDispatch && pool == null && waitingCustomers < totalCapacity) {
+			dispatchBatch(event.customer, event.time);
+		} else if(!tryDispatch(event.customer, event.time)) {
+			blockedArrivals.add(event.customer);
+		}
+		
+		scheduleNextArrival();
+	}
+	
+	/**
+	 * Dispatches the given Customer if some open server has room for it.
+	 * @return false if the Customer has to wait for a place
+	 */
+	private boolean tryDispatch(Customer cust, int currentTime) {
+		// Cheap check for every queue being full, before asking the scheduler
+		if(waitingCustomers >= totalCapacity) return false;
+		
+		CustomerServer target = scheduler.tryDispatchCustomer(cust);
+		if(target == null) return false;
+		admitted(cust, target, currentTime);
+		return true;
+	}
+	
+	/**
+	 * Dispatches the given Customer together with every other Customer arriving in
+	 * the same time moment, as long as there is room for all of them somewhere.
+	 * Since closed servers have no room, this is not used with an elastic pool.
+	 */
+	private void dispatchBatch(Customer first, int currentTime) {
+		List<Customer> batch = new ArrayList<Customer>();
+		batch.add(first);
+		long room = totalCapacity - waitingCustomers;
+		while(batch.size() < room && arrivals.hasNext() && arrivals.peekArrivalTime() == currentTime) {
+			batch.add(arrivals.next());
+			++consumedArrivals;
+		}
+		
+		CustomerServer[] targets = scheduler.dispatchBatch(batch);
+		for(int i = 0; i < targets.length; ++i) {
+			admitted(batch.get(i), targets[i], currentTime);
+		}
+	}
+	
+	/**
+	 * Admits the given Customer without waiting, as per the admission control
+	 * of the QueueScheduler, sending it away to retry later if need be.
+	 */
+	private void offer(Customer cust, int currentTime) {
+		CustomerServer target = admission.admit(cust, scheduler);
+		if(target != null) {
+			admitted(cust, target, currentTime);
+		} else if(admission.turnAway(cust) == AdmissionControl.Outcome.RETRY) {
+			schedule(currentTime + admission.getRetryDelay(), Event.Type.RETRY, cust, null);
+		}
+	}
+	
+	private void admitted(Customer cust, CustomerServer target, int currentTime) {
+		statistics.recordDispatch(cust);
+		++waitingCustomers;
+		
+		// An idle server picks up the Customer right away
+		ServerState state = states.get(target);
+		if(state.current == null) {
+			schedule(currentTime, Event.Type.SERVICE_START, null, state);
+		}
+	}
+	
+	private void handleServiceStart(Event event) {
+		ServerState state = event.server;
+		if(state.current != null) return;
+		
+		Customer cust = state.server.beginService();
+		if(cust == null) return;
+		startService(state, cust, event.time);
+	}
+	
+	/**
+	 * Starts serving a Customer that has just left the queue it waited in.
+	 */
+	private void startService(ServerState state, Customer cust, int currentTime) {
+		--waitingCustomers;
+		if(!blockedArrivals.isEmpty()) {
+			// The place may have freed up at a server that no longer accepts Customers
+			if(tryDispatch(blockedArrivals.peek(), currentTime)) blockedArrivals.poll();
+		} else {
+			// A place has freed up for the first Customer in the overflow queue
+			Customer held = admission.peekOverflow();
+			CustomerServer target = admission.admitFromOverflow(scheduler);
+			if(target != null) admitted(held, target, currentTime);
+		}
+		
+		state.current = cust;
+		schedule(currentTime + cust.getServingTime(), Event.Type.SERVICE_END, null, state);
+	}
+	
+	/**
+	 * Finishes the given service and every other one ending in the same moment, then
+	 * has each of their servers start its next Customer or look for one to steal.
+	 * Finishing them all first keeps the drain time of every server up to date
+	 * by the time the first of them looks at the load of the others.
+	 * @param event - the first SERVICE_END event of the moment
+	 */
+	private void handleServiceEnds(Event event) {
+		finishService(event.server);
+		while(!events.isEmpty() && events.peek().time == event.time && events.peek().type == Event.Type.SERVICE_END) {
+			finishService(events.poll().server);
+			++processedEvents;
+		}
+		
+		for(ServerState state : finishedServers) {
+			if(state.server.getNoOfClients() > 0) {
+				schedule(event.time, Event.Type.SERVICE_START, null, state);
+			} else if(stealing != null && !steal(state, event.time)) {
+				markIdle(state);
+			}
+		}
+		finishedServers.clear();
+	}
+	
+	private void finishService(ServerState state) {
+		state.server.finishService(state.current);
+		state.current = null;
+		finishedServers.add(state);
+	}
+	
+	/**
+	 * Updates the elastic pool, then lets Customers held back take the places at
+	 * newly opened servers. Idle servers that opened are listed for stealing.
+	 * The next update is scheduled for when the pool would change by itself,
+	 * or earlier by {@link #handle(Event)} if the load changes first.
+	 */
+	private void handleScale(Event event) {
+		// A moment may have been scheduled twice, once to follow the load and once ahead
+		if(event.time <= lastScale) return;
+		lastScale = event.time;
+		if(event.time == nextScale) nextScale = Integer.MAX_VALUE;
+		pool.update(event.time);
+		
+		while(!blockedArrivals.isEmpty() && tryDispatch(blockedArrivals.peek(), event.time)) {
+			blockedArrivals.poll();
+		}
+		Customer held;
+		CustomerServer target;
+		while((held = admission.peekOverflow()) != null && (target = admission.admitFromOverflow(scheduler)) != null) {
+			admitted(held, target, event.time);
+		}
+		if(stealing != null) {
+			for(CustomerServer server : scheduler.getServers()) {
+				ServerState state = states.get(server);
+				if(state.current == null && server.isAccepting()) markIdle(state);
+			}
+		}
+		
+		scheduleScale(pool.getNextUpdate(event.time));
+	}
+	
+	private void scheduleScale(int time) {
+		if(time <= timeLimit && time < nextScale) {
+			nextScale = time;
+			schedule(time, Event.Type.SCALE, null, null);
+		}
+	}
+	
+	/**
+	 * Lets the given idle server take over a Customer waiting at another server.
+	 * @return true if a Customer was taken over
+	 */
+	private boolean steal(ServerState state, int currentTime) {
+		if(waitingCustomers == 0) return false;
+		
+		Customer cust = stealing.steal(state.server);
+		if(cust == null) return false;
+		startService(state, cust, currentTime);
+		return true;
+	}
+	
+	private void markIdle(ServerState state) {
+		if(!state.listedIdle) {
+			state.listedIdle = true;
+			idleServers.add(state);
+		}
+	}
+	
+	/**
+	 * Lets the servers that went idle take over Customers still waiting elsewhere,
+	 * e.g. after a burst of arrivals went to servers that were busy.
+	 * @return true if any Customer was taken over, which may have scheduled new events
+	 */
+	private boolean stealForIdleServers(int currentTime) {
+		boolean stolen = false;
+		while(waitingCustomers > 0 && !idleServers.isEmpty()) {
+			ServerState state = idleServers.peek();
+			
+			// Servers that received a Customer since going idle, or stopped accepting
+			// Customers, are dropped from the list
+			if(state.current == null && state.server.getNoOfClients() == 0 && state.server.isAccepting()) {
+				if(!steal(state, currentTime)) break;
+				stolen = true;
+			}
+			
+			idleServers.poll();
+			state.listedIdle = false;
+		}
+		return stolen;
+	}
+	
+	private void scheduleNextArrival() {
+		// Customers past the time limit would never be handled, so leave them unread
+		if(arrivals.hasNext() && arrivals.peekArrivalTime() <= timeLimit) {
+			Customer next = arrivals.next();
+			++consumedArrivals;
+			schedule(next.getArrivalTime(), Event.Type.ARRIVAL, next, null);
+		}
+	}
+	
+	private void schedule(int time, Event.Type type, Customer cust, ServerState state) {
+		events.add(new Event(time, type, nextSequence++, cust, state));
+	}
+	
+	/**
+	 * Brings the busy time measured for Customers still being served up to the current time.
+	 */
+	private void reportServedTime() {
+		for(CustomerServer server : scheduler.getServers()) {
+			server.reportServedTime();
+		}
+	}
+	
+	/**
+	 * Encodes the state of the simulation after the current time moment.
+	 */
+	private Checkpoint checkpoint() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(Checkpoint.HEADER_SIZE + 64 * (events.size() + waitingCustomers));
+		try(DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(Checkpoint.MAGIC);
+			out.writeInt(Checkpoint.VERSION);
+			out.writeInt(currentTime);
+			out.writeInt(scheduler.getServers().size());
+			writeState(out);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not encode the checkpoint", e);
+		}
+		
+		try {
+			return new Checkpoint(bytes.toByteArray());
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not encode the checkpoint", e);
+		}
+	}
+	
+	private void writeState(DataOutputStream out) throws IOException {
+		out.writeLong(nextSequence);
+		out.writeLong(processedEvents);
+		out.writeLong(consumedArrivals);
+		out.writeInt(waitingCustomers);
+		out.writeInt(statistics.getPeakHour());
+		out.writeInt(statistics.getPeakWaiting());
+		out.writeLong(statistics.getTotalWaitingTime());
+		out.writeInt(statistics.getDispatchedCustomers());
+		
+		reportServedTime();
+		for(CustomerServer server : scheduler.getServers()) {
+			ServerState state = states.get(server);
+			out.writeInt(server.getWaitingTime());
+			writeCustomers(out, server.getQueuedCustomers());
+			writeCustomer(out, state.current);
+			out.writeInt(server.getServiceEnd());
+		}
+		out.writeInt(idleServers.size());
+		for(ServerState state : idleServers) {
+			out.writeInt(state.server.getId());
+		}
+		writeCustomers(out, blockedArrivals);
+		
+		out.writeByte(admission.getPolicy().ordinal());
+		writeCustomers(out, admission.getOverflow());
+		out.writeLong(admission.getRejectedCustomers());
+		out.writeLong(admission.getRedirectedCustomers());
+		out.writeLong(admission.getRetriedCustomers());
+		out.writeLong(admission.getOverflowedCustomers());
+		
+		// Events are written in no particular order; their sequence numbers keep the order
+		out.writeInt(events.size());
+		for(Event event : events) {
+			out.writeInt(event.time);
+			out.writeByte(event.type.ordinal());
+			out.writeLong(event.sequence);
+			out.writeInt(event.server == null ? -1 : event.server.server.getId());
+			writeCustomer(out, event.customer);
+			if(event.type == Event.Type.RETRY) out.writeInt(admission.getAttempts(event.customer));
+		}
+		
+		List<ServerMetrics> measured = metrics.getMetrics(currentTime + 1).getServers();
+		out.writeInt(measured.size());
+		for(ServerMetrics serverMetrics : measured) {
+			serverMetrics.write(out);
+		}
+	}
+	
+	private void readState(DataInputStream in) throws IOException {
+		nextSequence = in.readLong();
+		processedEvents = in.readLong();
+		consumedArrivals = in.readLong();
+		waitingCustomers = in.readInt();
+		statistics.restore(in.readInt(), in.readInt(), in.readLong(), in.readInt());
+		
+		List<CustomerServer> servers = scheduler.getServers();
+		for(CustomerServer server : servers) {
+			ServerState state = states.get(server);
+			int waitingTime = in.readInt();
+			List<Customer> queued = readCustomers(in);
+			state.current = readCustomer(in);
+			server.restoreQueue(queued, waitingTime, state.current, in.readInt());
+		}
+		for(int i = in.readInt(); i > 0; --i) {
+			markIdle(states.get(serverAt(servers, in.readInt())));
+		}
+		blockedArrivals.addAll(readCustomers(in));
+		
+		int policy = in.readByte();
+		if(policy != admission.getPolicy().ordinal()) {
+			throw new IllegalArgumentException("The checkpoint was taken under the "
+					+ AdmissionControl.Policy.values()[policy] + " admission policy, not " + admission.getPolicy());
+		}
+		List<Customer> overflow = readCustomers(in);
+		long rejected = in.readLong(), redirected = in.readLong(), retried = in.readLong(), overflowed = in.readLong();
+		
+		Map<Customer, Integer> attempts = new IdentityHashMap<Customer, Integer>();
+		for(int i = in.readInt(); i > 0; --i) {
+			int time = in.readInt();
+			Event.Type type = Event.Type.values()[in.readByte()];
+			long sequence = in.readLong();
+			int serverId = in.readInt();
+			ServerState state = serverId < 0 ? null : states.get(serverAt(servers, serverId));
+			Customer cust = readCustomer(in);
+			if(type == Event.Type.RETRY) attempts.put(cust, in.readInt());
+			events.add(new Event(time, type, sequence, cust, state));
+		}
+		admission.restore(overflow, attempts, rejected, redirected, retried, overflowed);
+		
+		List<ServerMetrics> measured = new ArrayList<ServerMetrics>();
+		for(int i = in.readInt(); i > 0; --i) {
+			measured.add(ServerMetrics.read(in));
+		}
+		metrics.restore(measured);
+	}
+	
+	private static CustomerServer serverAt(List<CustomerServer> servers, int id) throws IOException {
+		if(id < 0 || id >= servers.size()) throw new IOException("Checkpoint refers to unknown server " + id);
+		return servers.get(id);
+	}
+	
+	private static void writeCustomers(DataOutputStream out, Collection<Customer> custs) throws IOException {
+		out.writeInt(custs.size());
+		for(Customer cust : custs) {
+			writeCustomer(out, cust);
+		}
+	}
+	
+	private static List<Customer> readCustomers(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		List<Customer> custs = new ArrayList<Customer>(count);
+		for(int i = 0; i < count; ++i) {
+			custs.add(readCustomer(in));
+		}
+		return custs;
+	}
+	
+	/**
+	 * Writes a presence flag, then the id, arrival, entry, serving and finish times of the Customer.
+	 */
+	private static void writeCustomer(DataOutputStream out, Customer cust) throws IOException {
+		out.writeBoolean(cust != null);
+		if(cust == null) return;
+		
+		out.writeInt(cust.getId());
+		out.writeInt(cust.getArrivalTime());
+		out.writeInt(cust.getEntryTime());
+		out.writeInt(cust.getServingTime());
+		out.writeInt(cust.getFinishTime());
+	}
+	
+	private static Customer readCustomer(DataInputStream in) throws IOException {
+		if(!in.readBoolean()) return null;
+		
+		int id = in.readInt();
+		Customer cust = new Customer(in.readInt(), 0);
+		cust.setId(id);
+		cust.setEntryTime(in.readInt());
+		cust.setServingTime(in.readInt());
+		cust.setFinishTime(in.readInt());
+		return cust;
+	}
+}
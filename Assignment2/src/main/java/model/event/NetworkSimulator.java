@@ -0,0 +1,246 @@
+package model.event;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+import model.Customer;
+import model.CustomerServer;
+import model.Simulator;
+import model.arrival.ArrivalSource;
+import model.network.NetworkStatistics;
+import model.network.QueueNetwork;
+import model.network.Stage;
+import model.stats.MetricsRecorder;
+import model.stats.QueueMetrics;
+import model.stats.ServerMetrics;
+
+public class NetworkSimulator implements Simulator {
+
+	private final QueueNetwork network;
+	private final List<Stage> stages;
+	private final int timeLimit;
+	private final SplittableRandom random;
+	
+	private final PriorityQueue<Event> events = new PriorityQueue<Event>();
+	// states[stage][id] is the state of the server with that id at that stage
+	private final ServerState[][] states;
+	private long nextSequence = 0;
+	private long processedEvents = 0;
+	
+	private ArrivalSource arrivals;
+	// Per stage: Customers waiting in queues, places in queues, and Customers
+	// held back until a place frees up because every queue was full
+	private final int[] waitingCustomers;
+	private final long[] totalCapacity;
+	private final List<Deque<Customer>> heldCustomers;
+	private int totalWaiting = 0;
+	private volatile int currentTime = 0;
+	private NetworkStatistics statistics;
+	
+	/**
+	 * Creates a new NetworkSimulator that drives the CustomerServers of every stage
+	 * of the given network on a virtual clock, drawing routes and service times
+	 * from a generator with the given seed. The servers count their service on the
+	 * same clock, as per {@link CustomerServer#setClock(java.util.function.IntSupplier)}.
+	 * @param network - the stages and routes to simulate
+	 * @param timeLimit - the last time moment at which Customers enter the network
+	 * @param seed - the seed for routes and service times, or null for a random one
+	 * @throws IllegalStateException if the network is invalid, as per {@link QueueNetwork#validate()}
+	 */
+	public NetworkSimulator(QueueNetwork network, int timeLimit, Long seed) {
+		network.validate();
+		
+		this.network = network;
+		this.stages = network.getStages();
+		this.timeLimit = timeLimit;
+		this.random = seed == null ? new SplittableRandom() : new SplittableRandom(seed);
+		
+		this.states = new ServerState[stages.size()][];
+		this.waitingCustomers = new int[stages.size()];
+		this.totalCapacity = new long[stages.size()];
+		this.heldCustomers = new ArrayList<Deque<Customer>>(stages.size());
+		for(Stage stage : stages) {
+			List<CustomerServer> servers = stage.getScheduler().getServers();
+			states[stage.getIndex()] = new ServerState[servers.size()];
+			for(CustomerServer server : servers) {
+				states[stage.getIndex()][server.getId()] = new ServerState(server, stage.getIndex());
+				totalCapacity[stage.getIndex()] += server.getCapacity();
+				server.setClock(this::getCurrentTime);
+			}
+			heldCustomers.add(new ArrayDeque<Customer>());
+		}
+	}
+	
+	/**
+	 * Runs the simulation for the given Customers, who enter the network at its first
+	 * stage and are routed from stage to stage until they leave. Customers arriving
+	 * after the time limit are not read, but those already in the network are followed
+	 * until they leave, so that every end-to-end time is complete. When every queue of
+	 * a stage is full, Customers sent there wait for a place in arrival order.
+	 * @param arrivals - the Customers to simulate, in ascending order of arrival
+	 * @return the statistics gathered over the simulation, as {@link NetworkStatistics}
+	 */
+	@Override
+	public NetworkStatistics run(ArrivalSource arrivals) {
+		List<String> names = new ArrayList<String>(stages.size());
+		List<MetricsRecorder> recorders = new ArrayList<MetricsRecorder>(stages.size());
+		for(Stage stage : stages) {
+			names.add(stage.getName());
+			MetricsRecorder recorder = new MetricsRecorder(this::getCurrentTime);
+			recorder.attach(stage.getScheduler());
+			recorders.add(recorder);
+		}
+		statistics = new NetworkStatistics(names);
+		
+		this.arrivals = arrivals;
+		scheduleNextArrival();
+		
+		while(!events.isEmpty()) {
+			currentTime = events.peek().time;
+			
+			// Handle everything that happens in this time moment, including
+			// any events scheduled for the same moment while doing so
+			while(!events.isEmpty() && events.peek().time == currentTime) {
+				handle(events.poll());
+				++processedEvents;
+			}
+			
+			statistics.recordWaiting(currentTime, totalWaiting);
+		}
+		
+		// The metrics of the whole network cover the servers of every stage
+		List<ServerMetrics> allServers = new ArrayList<ServerMetrics>();
+		int totalServers = 0;
+		for(Stage stage : stages) {
+			MetricsRecorder recorder = recorders.get(stage.getIndex());
+			recorder.detach(stage.getScheduler());
+			
+			QueueMetrics metrics = recorder.getMetrics(currentTime + 1);
+			statistics.setStageMetrics(stage.getIndex(), metrics);
+			allServers.addAll(metrics.getServers());
+			totalServers += stage.getScheduler().getServers().size();
+		}
+		statistics.setMetrics(new QueueMetrics(allServers, currentTime + 1));
+		statistics.recordServerTime((long) totalServers * (currentTime + 1), totalServers, currentTime + 1);
+		return statistics;
+	}
+	
+	@Override
+	public int getCurrentTime() {
+		return currentTime;
+	}
+	
+	/**
+	 * Returns the number of events handled so far by this NetworkSimulator.
+	 * @return the number of handled events
+	 */
+	public long getProcessedEvents() {
+		return processedEvents;
+	}
+	
+	public QueueNetwork getNetwork() {
+		return network;
+	}
+	
+	private void handle(Event event) {
+		switch(event.type) {
+			case ARRIVAL:
+				event.customer.setEntryTime(event.time);
+				enter(network.getEntry().getIndex(), event.customer, event.time);
+				scheduleNextArrival();
+				break;
+			case SERVICE_START:
+				handleServiceStart(event);
+				break;
+			case SERVICE_END:
+				handleServiceEnd(event);
+				break;
+			default:
+				// Retries and elastic pools are not part of queue networks
+				break;
+		}
+	}
+	
+	/**
+	 * Sends the given Customer to a queue of the given stage, or holds it back
+	 * if every queue there is full or others are already held back.
+	 */
+	private void enter(int stage, Customer cust, int currentTime) {
+		Deque<Customer> held = heldCustomers.get(stage);
+		if(!held.isEmpty() || !tryDispatch(stage, cust, currentTime)) {
+			held.add(cust);
+		}
+	}
+	
+	private boolean tryDispatch(int stage, Customer cust, int currentTime) {
+		if(waitingCustomers[stage] >= totalCapacity[stage]) return false;
+		
+		CustomerServer target = stages.get(stage).getScheduler().tryDispatchCustomer(cust);
+		if(target == null) return false;
+		
+		++waitingCustomers[stage];
+		++totalWaiting;
+		
+		// An idle server picks up the Customer right away
+		ServerState state = states[stage][target.getId()];
+		if(state.current == null) {
+			schedule(currentTime, Event.Type.SERVICE_START, null, state);
+		}
+		return true;
+	}
+	
+	private void handleServiceStart(Event event) {
+		ServerState state = event.server;
+		if(state.current != null) return;
+		
+		Customer cust = state.server.beginService();
+		if(cust == null) return;
+		
+		--waitingCustomers[state.stage];
+		--totalWaiting;
+		Deque<Customer> held = heldCustomers.get(state.stage);
+		if(!held.isEmpty() && tryDispatch(state.stage, held.peek(), event.time)) {
+			held.poll();
+		}
+		
+		state.current = cust;
+		schedule(event.time + cust.getServingTime(), Event.Type.SERVICE_END, null, state);
+	}
+	
+	private void handleServiceEnd(Event event) {
+		ServerState state = event.server;
+		Customer cust = state.current;
+		state.server.finishService(cust);
+		state.current = null;
+		
+		if(state.server.getNoOfClients() > 0) {
+			schedule(event.time, Event.Type.SERVICE_START, null, state);
+		}
+		
+		// Hand the same Customer on to the next stage, or let it leave
+		int next = stages.get(state.stage).nextStage(random.nextDouble());
+		if(next < 0) {
+			statistics.recordExit(cust.getEntryTime(), event.time);
+		} else {
+			cust.setArrivalTime(event.time);
+			cust.setServingTime(stages.get(next).drawServiceTime(random));
+			enter(next, cust, event.time);
+		}
+	}
+	
+	private void scheduleNextArrival() {
+		// Customers past the time limit would never enter, so leave them unread
+		if(arrivals.hasNext() && arrivals.peekArrivalTime() <= timeLimit) {
+			Customer next = arrivals.next();
+			schedule(next.getArrivalTime(), Event.Type.ARRIVAL, next, null);
+		}
+	}
+	
+	private void schedule(int time, Event.Type type, Customer cust, ServerState state) {
+		events.add(new Event(time, type, nextSequence++, cust, state));
+	}
+}
@@ -0,0 +1,25 @@
+package model.event;
+
+import model.Customer;
+import model.CustomerServer;
+
+class ServerState {
+	
+	final CustomerServer server;
+	// The position of the server's stage in a queue network, or zero
+	final int stage;
+	
+	// The Customer being served right now, or null if the server is idle
+	Customer current;
+	// Set while waiting in the list of servers that may steal Customers
+	boolean listedIdle;
+	
+	ServerState(CustomerServer server) {
+		this(server, 0);
+	}
+	
+	ServerState(CustomerServer server, int stage) {
+		this.server = server;
+		this.stage = stage;
+	}
+}
@@ -0,0 +1,74 @@
+package model.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import model.CustomerServer;
+import model.QueueScheduler;
+
+public class Instrumentation {
+	
+	private final QueueScheduler scheduler;
+	private final MetricsRegistry registry;
+	private final String name;
+	
+	private final SchedulerInstruments schedulerInstruments;
+	private final List<ServerInstruments> serverInstruments = new ArrayList<ServerInstruments>();
+	
+	private Instrumentation(QueueScheduler scheduler, MetricsRegistry registry, String name) {
+		this.scheduler = scheduler;
+		this.registry = registry;
+		this.name = name;
+		this.schedulerInstruments = new SchedulerInstruments(scheduler);
+	}
+	
+	/**
+	 * Starts measuring the given QueueScheduler and each of its CustomerServers,
+	 * publishing their metrics in the given registry. Servers are published as
+	 * "<i>name</i>.<i>server id</i>".
+	 * @param scheduler - the QueueScheduler to measure
+	 * @param registry - where to publish the metrics
+	 * @param name - the name of the simulation, unique within the registry
+	 * @return the Instrumentation, through which measuring can be stopped
+	 */
+	public static Instrumentation attach(QueueScheduler scheduler, MetricsRegistry registry, String name) {
+		Instrumentation instrumentation = new Instrumentation(scheduler, registry, name);
+		
+		for(CustomerServer server : scheduler.getServers()) {
+			ServerInstruments instruments = new ServerInstruments(server);
+			server.addListener(instruments);
+			registry.register("CustomerServer", name + "." + server.getId(), instruments.getMetrics());
+			instrumentation.serverInstruments.add(instruments);
+		}
+		
+		scheduler.setInstruments(instrumentation.schedulerInstruments);
+		registry.register("QueueScheduler", name, instrumentation.schedulerInstruments.getMetrics());
+		
+		return instrumentation;
+	}
+	
+	/**
+	 * Stops measuring, and removes the metrics from the registry.
+	 */
+	public void detach() {
+		scheduler.setInstruments(null);
+		registry.unregister("QueueScheduler", name);
+		
+		for(ServerInstruments instruments : serverInstruments) {
+			instruments.getServer().removeListener(instruments);
+			registry.unregister("CustomerServer", name + "." + instruments.getServer().getId());
+		}
+	}
+
+	public SchedulerInstruments getSchedulerInstruments() {
+		return schedulerInstruments;
+	}
+	
+	/**
+	 * Returns the instruments of each CustomerServer, in order of id.
+	 * @return the per-server instruments
+	 */
+	public List<ServerInstruments> getServerInstruments() {
+		return serverInstruments;
+	}
+}
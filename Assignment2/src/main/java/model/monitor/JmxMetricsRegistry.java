@@ -0,0 +1,143 @@
+package model.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+public class JmxMetricsRegistry implements MetricsRegistry {
+	
+	/**
+	 * Domain of the ObjectNames under which metrics are published
+	 */
+	public static final String DOMAIN = "queuesimulator";
+	
+	private final MBeanServer server;
+	
+	/**
+	 * Creates a new JmxMetricsRegistry publishing to the platform MBeanServer,
+	 * where tools such as JConsole or VisualVM can read it.
+	 */
+	public JmxMetricsRegistry() {
+		this(ManagementFactory.getPlatformMBeanServer());
+	}
+	
+	/**
+	 * Creates a new JmxMetricsRegistry publishing every group of metrics as
+	 * a read-only MBean of the given MBeanServer, with one attribute per metric.
+	 * @param server - the MBeanServer to publish to
+	 */
+	public JmxMetricsRegistry(MBeanServer server) {
+		this.server = server;
+	}
+	
+	/**
+	 * {@inheritDoc}
+	 * The group is published as the MBean "queuesimulator:type=<i>type</i>,name=<i>name</i>",
+	 * replacing any MBean already published under that name.
+	 * @throws IllegalStateException if the MBean cannot be registered
+	 */
+	@Override
+	public void register(String type, String name, Map<String, Supplier<? extends Number>> metrics) {
+		ObjectName objectName = objectName(type, name);
+		try {
+			if(server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(new MetricsMBean(type, metrics), objectName);
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not register " + objectName, e);
+		}
+	}
+
+	@Override
+	public void unregister(String type, String name) {
+		try {
+			server.unregisterMBean(objectName(type, name));
+		} catch (InstanceNotFoundException e) {
+			// Already unregistered
+		} catch (JMException e) {
+			throw new IllegalStateException("Could not unregister " + type + " " + name, e);
+		}
+	}
+	
+	private static ObjectName objectName(String type, String name) {
+		try {
+			return new ObjectName(DOMAIN + ":type=" + ObjectName.quote(type) + ",name=" + ObjectName.quote(name));
+		} catch (MalformedObjectNameException e) {
+			// Quoted values are always valid
+			throw new IllegalArgumentException(e);
+		}
+	}
+	
+	// A read-only MBean whose attributes are read from suppliers
+	private static class MetricsMBean implements DynamicMBean {
+		
+		private final Map<String, Supplier<? extends Number>> metrics;
+		private final MBeanInfo info;
+		
+		private MetricsMBean(String type, Map<String, Supplier<? extends Number>> metrics) {
+			this.metrics = new LinkedHashMap<String, Supplier<? extends Number>>(metrics);
+			
+			// The attribute types are those of the current values, so that tools can chart them
+			MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[metrics.size()];
+			int i = 0;
+			for(Map.Entry<String, Supplier<? extends Number>> metric : this.metrics.entrySet()) {
+				attributes[i++] = new MBeanAttributeInfo(metric.getKey(), metric.getValue().get().getClass().getName(),
+						metric.getKey(), true, false, false);
+			}
+			this.info = new MBeanInfo(getClass().getName(), "Metrics of a " + type, attributes, null, null, null);
+		}
+
+		@Override
+		public Object getAttribute(String attribute) throws AttributeNotFoundException {
+			Supplier<? extends Number> metric = metrics.get(attribute);
+			if(metric == null) throw new AttributeNotFoundException(attribute);
+			return metric.get();
+		}
+
+		@Override
+		public AttributeList getAttributes(String[] attributes) {
+			List<Attribute> values = new ArrayList<Attribute>();
+			for(String attribute : attributes) {
+				Supplier<? extends Number> metric = metrics.get(attribute);
+				if(metric != null) values.add(new Attribute(attribute, metric.get()));
+			}
+			return new AttributeList(values);
+		}
+
+		@Override
+		public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+			throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+		}
+
+		@Override
+		public AttributeList setAttributes(AttributeList attributes) {
+			return new AttributeList();
+		}
+
+		@Override
+		public Object invoke(String actionName, Object[] params, String[] signature) {
+			throw new UnsupportedOperationException("No operations on " + actionName);
+		}
+
+		@Override
+		public MBeanInfo getMBeanInfo() {
+			return info;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package model.monitor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+public class MapMetricsRegistry implements MetricsRegistry {
+	
+	private final Map<String, Map<String, Supplier<? extends Number>>> groups =
+			new ConcurrentSkipListMap<String, Map<String, Supplier<? extends Number>>>();
+
+	@Override
+	public void register(String type, String name, Map<String, Supplier<? extends Number>> metrics) {
+		groups.put(type + "." + name, new LinkedHashMap<String, Supplier<? extends Number>>(metrics));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * The values the metrics have at this point are kept, and still returned
+	 * by {@link #snapshot()}, so that the metrics of a finished simulation can
+	 * be read after it stops being measured. Use {@link #clear()} to remove them.
+	 */
+	@Override
+	public void unregister(String type, String name) {
+		Map<String, Supplier<? extends Number>> group = groups.get(type + "." + name);
+		if(group == null) return;
+		
+		Map<String, Supplier<? extends Number>> frozen = new LinkedHashMap<String, Supplier<? extends Number>>();
+		for(Map.Entry<String, Supplier<? extends Number>> metric : group.entrySet()) {
+			Number value = metric.getValue().get();
+			frozen.put(metric.getKey(), () -> value);
+		}
+		groups.put(type + "." + name, frozen);
+	}
+	
+	/**
+	 * Removes every metric, including those kept after being unregistered.
+	 */
+	public void clear() {
+		groups.clear();
+	}
+	
+	/**
+	 * Reads the current value of every registered metric.
+	 * @return the values of the metrics, by "type.name.metric", in order of group
+	 */
+	public Map<String, Number> snapshot() {
+		Map<String, Number> values = new LinkedHashMap<String, Number>();
+		for(Map.Entry<String, Map<String, Supplier<? extends Number>>> group : groups.entrySet()) {
+			for(Map.Entry<String, Supplier<? extends Number>> metric : group.getValue().entrySet()) {
+				values.put(group.getKey() + "." + metric.getKey(), metric.getValue().get());
+			}
+		}
+		return values;
+	}
+}
@@ -0,0 +1,25 @@
+package model.monitor;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+public interface MetricsRegistry {
+	
+	/**
+	 * Publishes a group of related metrics, such as those of one CustomerServer.
+	 * Each metric is read from its supplier whenever it is looked at, so
+	 * suppliers must be cheap and safe to call from any thread.
+	 * @param type - the kind of object measured, e.g. "CustomerServer"
+	 * @param name - the name of the measured object, unique within its type
+	 * @param metrics - the suppliers of each metric, by metric name
+	 */
+	public void register(String type, String name, Map<String, Supplier<? extends Number>> metrics);
+	
+	/**
+	 * Stops publishing a group of metrics registered before. Does nothing
+	 * if there is no such group.
+	 * @param type - the kind of object measured
+	 * @param name - the name of the measured object
+	 */
+	public void unregister(String type, String name);
+}
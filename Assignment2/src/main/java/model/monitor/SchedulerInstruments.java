@@ -0,0 +1,102 @@
+package model.monitor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import model.QueueScheduler;
+
+public class SchedulerInstruments {
+	
+	private final QueueScheduler scheduler;
+	private final long startNanos = System.nanoTime();
+	
+	// Striped counters, so that concurrent dispatches never contend
+	private final LongAdder dispatchedCustomers = new LongAdder();
+	private final LongAdder dispatchNanos = new LongAdder();
+	private final LongAccumulator maxDispatchNanos = new LongAccumulator(Math::max, 0);
+	
+	/**
+	 * Creates new instruments for the given QueueScheduler. They only count
+	 * dispatches once set with {@link QueueScheduler#setInstruments(SchedulerInstruments)}.
+	 * @param scheduler - the QueueScheduler to measure
+	 */
+	public SchedulerInstruments(QueueScheduler scheduler) {
+		this.scheduler = scheduler;
+	}
+	
+	/**
+	 * Records one dispatched Customer.
+	 * @param nanos - the time the dispatch took, in nanoseconds, including any
+	 * 				  time spent waiting for room in a full queue
+	 */
+	public void recordDispatch(long nanos) {
+		dispatchedCustomers.increment();
+		dispatchNanos.add(nanos);
+		maxDispatchNanos.accumulate(nanos);
+	}
+	
+	/**
+	 * Records a batch of Customers dispatched together, as per
+	 * {@link QueueScheduler#dispatchBatch(java.util.List)}.
+	 * @param customers - the number of Customers in the batch
+	 * @param nanos - the time the whole batch took, in nanoseconds
+	 */
+	public void recordBatch(int customers, long nanos) {
+		if(customers == 0) return;
+		
+		dispatchedCustomers.add(customers);
+		dispatchNanos.add(nanos);
+		maxDispatchNanos.accumulate(nanos / customers);
+	}
+	
+	/**
+	 * Returns the gauges and counters of the QueueScheduler, for publishing
+	 * in a {@link MetricsRegistry}.
+	 * @return the suppliers of each metric, by metric name
+	 */
+	public Map<String, Supplier<? extends Number>> getMetrics() {
+		Map<String, Supplier<? extends Number>> metrics = new LinkedHashMap<String, Supplier<? extends Number>>();
+		metrics.put("Queues", () -> scheduler.getServers().size());
+		metrics.put("WaitingCustomers", scheduler::getCustomerCount);
+		metrics.put("DispatchedCustomers", dispatchedCustomers::sum);
+		metrics.put("DispatchRate", this::getDispatchRate);
+		metrics.put("MeanDispatchLatencyNanos", this::getMeanDispatchNanos);
+		metrics.put("MaxDispatchLatencyNanos", maxDispatchNanos::get);
+		metrics.put("RejectedCustomers", () -> scheduler.getAdmission().getRejectedCustomers());
+		metrics.put("RedirectedCustomers", () -> scheduler.getAdmission().getRedirectedCustomers());
+		metrics.put("RetriedCustomers", () -> scheduler.getAdmission().getRetriedCustomers());
+		metrics.put("OverflowQueueLength", () -> scheduler.getAdmission().getOverflowSize());
+		return metrics;
+	}
+	
+	public long getDispatchedCustomers() {
+		return dispatchedCustomers.sum();
+	}
+	
+	/**
+	 * Returns the average number of Customers dispatched per second of wall
+	 * clock time, since these instruments were created.
+	 * @return the dispatch rate, in Customers per second
+	 */
+	public double getDispatchRate() {
+		double seconds = (System.nanoTime() - startNanos) / 1e9;
+		return seconds <= 0 ? 0 : dispatchedCustomers.sum() / seconds;
+	}
+	
+	/**
+	 * Returns the average time a dispatch took, including any time spent
+	 * waiting for room in a full queue.
+	 * @return the mean dispatch latency, in nanoseconds
+	 */
+	public double getMeanDispatchNanos() {
+		long count = dispatchedCustomers.sum();
+		return count == 0 ? 0 : (double) dispatchNanos.sum() / count;
+	}
+	
+	public long getMaxDispatchNanos() {
+		return maxDispatchNanos.get();
+	}
+}
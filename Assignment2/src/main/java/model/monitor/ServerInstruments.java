@@ -0,0 +1,109 @@
+package model.monitor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import model.Customer;
+import model.CustomerServer;
+import model.CustomerServerListener;
+
+public class ServerInstruments implements CustomerServerListener {
+	
+	private final CustomerServer server;
+	
+	// Striped counters, so that updates from several threads never contend
+	private final LongAdder servedCustomers = new LongAdder();
+	private final LongAdder rejectedCustomers = new LongAdder();
+	private final LongAdder stolenCustomers = new LongAdder();
+	private final LongAdder busyTime = new LongAdder();
+	private volatile boolean busy = false;
+	
+	/**
+	 * Creates new instruments for the given CustomerServer. They only count
+	 * events once added as a listener of the server.
+	 * @param server - the CustomerServer to measure
+	 */
+	public ServerInstruments(CustomerServer server) {
+		this.server = server;
+	}
+	
+	/**
+	 * Returns the gauges and counters of the CustomerServer, for publishing
+	 * in a {@link MetricsRegistry}.
+	 * @return the suppliers of each metric, by metric name
+	 */
+	public Map<String, Supplier<? extends Number>> getMetrics() {
+		Map<String, Supplier<? extends Number>> metrics = new LinkedHashMap<String, Supplier<? extends Number>>();
+		metrics.put("QueueDepth", server::getNoOfClients);
+		metrics.put("WaitingTime", server::getWaitingTime);
+		metrics.put("RemainingCapacity", server::getRemainingCapacity);
+		metrics.put("Busy", () -> busy ? 1 : 0);
+		metrics.put("ServedCustomers", servedCustomers::sum);
+		metrics.put("RejectedCustomers", rejectedCustomers::sum);
+		metrics.put("StolenCustomers", stolenCustomers::sum);
+		metrics.put("BusyTime", busyTime::sum);
+		return metrics;
+	}
+
+	public CustomerServer getServer() {
+		return server;
+	}
+	
+	public long getServedCustomers() {
+		return servedCustomers.sum();
+	}
+	
+	public long getRejectedCustomers() {
+		return rejectedCustomers.sum();
+	}
+	
+	/**
+	 * Returns the number of Customers this CustomerServer took over from others
+	 * through work stealing.
+	 * @return the number of stolen Customers
+	 */
+	public long getStolenCustomers() {
+		return stolenCustomers.sum();
+	}
+	
+	public long getBusyTime() {
+		return busyTime.sum();
+	}
+	
+	public boolean isBusy() {
+		return busy;
+	}
+
+	@Override
+	public void customerRejected(CustomerServer server, Customer cust) {
+		rejectedCustomers.increment();
+	}
+
+	@Override
+	public void customerStolen(CustomerServer victim, CustomerServer thief, Customer cust) {
+		if(thief == server) stolenCustomers.increment();
+	}
+
+	@Override
+	public void serviceStarted(CustomerServer server, Customer cust) {
+		busy = true;
+	}
+
+	@Override
+	public void timeUnitServed(CustomerServer server) {
+		busyTime.increment();
+	}
+
+	@Override
+	public void timeServed(CustomerServer server, int units) {
+		busyTime.add(units);
+	}
+
+	@Override
+	public void serviceFinished(CustomerServer server, Customer cust) {
+		servedCustomers.increment();
+		busy = false;
+	}
+}
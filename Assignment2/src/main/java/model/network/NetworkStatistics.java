@@ -0,0 +1,68 @@
+package model.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import model.SimulationStatistics;
+import model.stats.Histogram;
+import model.stats.QueueMetrics;
+
+public class NetworkStatistics extends SimulationStatistics {
+
+	private final List<String> stageNames;
+	private final List<QueueMetrics> stageMetrics;
+	private final Histogram endToEndTime = new Histogram();
+	
+	/**
+	 * Creates new, empty statistics for a queue network with the given stages.
+	 * The inherited dispatch statistics count Customers as they leave the
+	 * network, with the time from entering to leaving it as their waiting time.
+	 * @param stageNames - the names of the stages, in order
+	 */
+	public NetworkStatistics(List<String> stageNames) {
+		this.stageNames = new ArrayList<String>(stageNames);
+		this.stageMetrics = new ArrayList<QueueMetrics>(Collections.<QueueMetrics>nCopies(stageNames.size(), null));
+	}
+	
+	/**
+	 * Records a Customer that has just left the network.
+	 * @param entryTime - the time the Customer entered the network
+	 * @param exitTime - the time the Customer finished at its last stage
+	 */
+	public void recordExit(int entryTime, int exitTime) {
+		recordDispatch(entryTime, exitTime);
+		endToEndTime.record(exitTime - entryTime);
+	}
+	
+	public void setStageMetrics(int stage, QueueMetrics metrics) {
+		stageMetrics.set(stage, metrics);
+	}
+	
+	/**
+	 * Returns the metrics of the servers of one stage, whose waiting and sojourn
+	 * times are measured from the time Customers arrived at that stage. A Customer
+	 * visiting a stage several times is counted on each visit.
+	 * @param stage - the index of the stage
+	 * @return the metrics of the stage, or null if none were gathered
+	 */
+	public QueueMetrics getStageMetrics(int stage) {
+		return stageMetrics.get(stage);
+	}
+	
+	/**
+	 * Returns the names of the stages, in order.
+	 * @return an unmodifiable list of stage names
+	 */
+	public List<String> getStageNames() {
+		return Collections.unmodifiableList(stageNames);
+	}
+	
+	/**
+	 * Returns the time Customers spent between entering and leaving the network.
+	 * @return the end-to-end time histogram
+	 */
+	public Histogram getEndToEndTime() {
+		return endToEndTime;
+	}
+}
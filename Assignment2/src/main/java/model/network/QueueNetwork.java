@@ -0,0 +1,125 @@
+package model.network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.QueueScheduler;
+import model.QueueScheduler.QueueType;
+
+public class QueueNetwork {
+
+	private final List<Stage> stages = new ArrayList<Stage>();
+	private final Map<String, Stage> byName = new HashMap<String, Stage>();
+	
+	/**
+	 * Adds a stage served by the servers of the given QueueScheduler, with its own
+	 * strategy. Customers enter the network at the first stage added, with the
+	 * service time they arrived with; at every other stage, their service time is
+	 * drawn between the given bounds. Customers are handed from stage to stage as
+	 * the same objects, so the queues of the scheduler must keep them as objects.
+	 * @param name - the name of the stage, unique within the network
+	 * @param scheduler - the QueueScheduler serving the stage
+	 * @param minServiceTime - the shortest service time at this stage
+	 * @param maxServiceTime - the longest service time at this stage
+	 * @return the new Stage
+	 * @throws IllegalArgumentException if the name is taken, the service times are
+	 * 				invalid or the queues are of type {@link QueueType#COMPACT}
+	 */
+	public Stage addStage(String name, QueueScheduler scheduler, int minServiceTime, int maxServiceTime) {
+		if(byName.containsKey(name)) {
+			throw new IllegalArgumentException("There already is a stage named " + name);
+		}
+		if(minServiceTime < 0 || maxServiceTime < minServiceTime) {
+			throw new IllegalArgumentException("Invalid service times for " + name + ": "
+					+ minServiceTime + " to " + maxServiceTime);
+		}
+		if(scheduler.getQueueType() == QueueType.COMPACT) {
+			throw new IllegalArgumentException("Stage " + name + " cannot hand Customers on from compact queues");
+		}
+		
+		Stage stage = new Stage(stages.size(), name, scheduler, minServiceTime, maxServiceTime);
+		stages.add(stage);
+		byName.put(name, stage);
+		return stage;
+	}
+	
+	/**
+	 * Sends the given fraction of the Customers finishing at one stage to another.
+	 * Customers that no route takes leave the network. Routes may lead back to
+	 * earlier stages, e.g. for rework.
+	 * @param from - the stage Customers finish at
+	 * @param to - the stage they go to next
+	 * @param probability - the fraction of Customers that go there
+	 * @throws IllegalArgumentException if a stage is not part of this network, or the
+	 * 				routes from the stage Customers finish at would add up to more than 1
+	 */
+	public void route(Stage from, Stage to, double probability) {
+		if(from != byName.get(from.getName()) || to != byName.get(to.getName())) {
+			throw new IllegalArgumentException("Routes must join stages of the same network");
+		}
+		from.addRoute(to.getIndex(), probability);
+	}
+	
+	/**
+	 * Checks that the network has stages and that Customers can leave it from
+	 * every stage, so that none loop between stages forever.
+	 * @throws IllegalStateException if the network is empty, or some stage only
+	 * 				leads to stages that every Customer leaves for another stage
+	 */
+	public void validate() {
+		if(stages.isEmpty()) throw new IllegalStateException("The network has no stages");
+		
+		// Mark the stages from which Customers can leave, then those leading to them
+		boolean[] leaves = new boolean[stages.size()];
+		boolean changed = true;
+		while(changed) {
+			changed = false;
+			for(Stage stage : stages) {
+				if(leaves[stage.getIndex()]) continue;
+				
+				boolean canLeave = stage.getRoutedProbability() < 1;
+				for(int target : stage.getTargets()) {
+					canLeave |= leaves[target];
+				}
+				if(canLeave) {
+					leaves[stage.getIndex()] = true;
+					changed = true;
+				}
+			}
+		}
+		
+		for(Stage stage : stages) {
+			if(!leaves[stage.getIndex()]) {
+				throw new IllegalStateException("Customers can never leave the network from " + stage.getName());
+			}
+		}
+	}
+	
+	/**
+	 * Returns the stages of this network, in the order they were added.
+	 * @return an unmodifiable list of stages
+	 */
+	public List<Stage> getStages() {
+		return Collections.unmodifiableList(stages);
+	}
+	
+	/**
+	 * Returns the stage with the given name.
+	 * @param name - the name of the stage
+	 * @return the stage, or null if there is none with that name
+	 */
+	public Stage getStage(String name) {
+		return byName.get(name);
+	}
+	
+	/**
+	 * Returns the stage at which Customers enter the network.
+	 * @return the first stage added
+	 */
+	public Stage getEntry() {
+		return stages.get(0);
+	}
+}
@@ -0,0 +1,123 @@
+package model.network;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import model.QueueScheduler;
+
+public class Stage {
+
+	private final int index;
+	private final String name;
+	private final QueueScheduler scheduler;
+	private final int minServiceTime;
+	private final int maxServiceTime;
+	
+	// Customers finishing here go to targets[i] if the draw falls below
+	// cumulative[i] and above the previous bound, and leave otherwise
+	private int[] targets = new int[0];
+	private double[] cumulative = new double[0];
+	
+	/**
+	 * Creates a new Stage of a queue network, as per {@link QueueNetwork#addStage(String, QueueScheduler, int, int)}.
+	 * @param index - the position of the stage in its network
+	 * @param name - the name of the stage
+	 * @param scheduler - the QueueScheduler whose servers and strategy serve the stage
+	 * @param minServiceTime - the shortest service time at this stage
+	 * @param maxServiceTime - the longest service time at this stage
+	 */
+	Stage(int index, String name, QueueScheduler scheduler, int minServiceTime, int maxServiceTime) {
+		this.index = index;
+		this.name = name;
+		this.scheduler = scheduler;
+		this.minServiceTime = minServiceTime;
+		this.maxServiceTime = maxServiceTime;
+	}
+	
+	/**
+	 * Adds a route from this stage to the given one.
+	 * @param target - the index of the stage Customers go to
+	 * @param probability - the probability of going there
+	 * @throws IllegalArgumentException if the probability is not between 0 and 1, or
+	 * 				the routes of this stage would add up to more than 1
+	 */
+	void addRoute(int target, double probability) {
+		if(!(probability >= 0 && probability <= 1)) {
+			throw new IllegalArgumentException("Invalid routing probability: " + probability);
+		}
+		
+		double total = getRoutedProbability() + probability;
+		// Allow for rounding errors in probabilities given as decimals
+		if(total > 1 + 1e-9) {
+			throw new IllegalArgumentException("The routes from " + name + " add up to " + total);
+		}
+		
+		targets = Arrays.copyOf(targets, targets.length + 1);
+		cumulative = Arrays.copyOf(cumulative, cumulative.length + 1);
+		targets[targets.length - 1] = target;
+		cumulative[cumulative.length - 1] = Math.min(1, total);
+	}
+	
+	/**
+	 * Chooses where a Customer goes after finishing at this stage.
+	 * @param draw - a random number between 0 (inclusive) and 1 (exclusive)
+	 * @return the index of the next stage, or -1 if the Customer leaves the network
+	 */
+	public int nextStage(double draw) {
+		for(int i = 0; i < cumulative.length; ++i) {
+			if(draw < cumulative[i]) return targets[i];
+		}
+		return -1;
+	}
+	
+	/**
+	 * Draws the service time of a Customer arriving at this stage, uniformly
+	 * between the shortest and longest service times, both included.
+	 * @param random - the source of randomness to use
+	 * @return the service time
+	 */
+	public int drawServiceTime(SplittableRandom random) {
+		return minServiceTime + random.nextInt(maxServiceTime - minServiceTime + 1);
+	}
+	
+	/**
+	 * Returns the indices of the stages Customers may go to from this one.
+	 * @return a copy of the targets of the routes, in the order they were added
+	 */
+	public int[] getTargets() {
+		return targets.clone();
+	}
+	
+	/**
+	 * Returns the probability that a Customer finishing at this stage goes on to
+	 * another stage rather than leaving the network.
+	 * @return the sum of the probabilities of the routes
+	 */
+	public double getRoutedProbability() {
+		return cumulative.length == 0 ? 0 : cumulative[cumulative.length - 1];
+	}
+	
+	/**
+	 * Returns the position of this stage in its network.
+	 * @return the index of the stage
+	 */
+	public int getIndex() {
+		return index;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	public QueueScheduler getScheduler() {
+		return scheduler;
+	}
+	
+	public int getMinServiceTime() {
+		return minServiceTime;
+	}
+	
+	public int getMaxServiceTime() {
+		return maxServiceTime;
+	}
+}
@@ -0,0 +1,67 @@
+package model.partition;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import model.Customer;
+
+/**
+ * The messages exchanged between a {@link PartitionedSimulator} and its
+ * {@link PartitionWorker}s, as big-endian values over a socket. The coordinator
+ * opens with the setup of the partition, then sends one step per time moment with
+ * arrivals: the Customers assigned to the worker in the moment just decided, and
+ * the next moment to advance to. The worker answers each step with the number of
+ * Customers it had waiting at the end of the moment just decided, followed by the
+ * load of every server that changed since the coordinator last knew it. The
+ * final step ends the run instead, and is answered with the results.
+ */
+class PartitionProtocol {
+
+	/**
+	 * Opens every connection, from either side ("QPRT" in ASCII)
+	 */
+	static final int MAGIC = 0x51505254;
+	static final int VERSION = 1;
+	
+	/**
+	 * Admits the assigned Customers, then advances to the next time moment with arrivals
+	 */
+	static final byte STEP = 1;
+	/**
+	 * Admits the assigned Customers, then simulates up to the time limit and sends the results
+	 */
+	static final byte FINISH = 2;
+	
+	/**
+	 * Writes one assignment: the server's position in the partition, then the id,
+	 * arrival time and serving time of the Customer.
+	 */
+	static void writeAssignment(DataOutputStream out, int server, Customer cust) throws IOException {
+		out.writeInt(server);
+		out.writeInt(cust.getId());
+		out.writeInt(cust.getArrivalTime());
+		out.writeInt(cust.getServingTime());
+	}
+	
+	/**
+	 * Reads the Customer of an assignment, once its server has been read.
+	 */
+	static Customer readCustomer(DataInputStream in) throws IOException {
+		int id = in.readInt();
+		Customer cust = new Customer(in.readInt(), in.readInt());
+		cust.setId(id);
+		return cust;
+	}
+	
+	static void writeHeader(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+	}
+	
+	static void readHeader(DataInputStream in) throws IOException {
+		if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException("The other side does not speak version " + VERSION + " of the partition protocol");
+		}
+	}
+}
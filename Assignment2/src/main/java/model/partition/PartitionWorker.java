@@ -0,0 +1,153 @@
+package model.partition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import controller.LogDisplay;
+import model.Customer;
+import model.CustomerServer;
+import model.QueueScheduler;
+import model.QueueScheduler.QueueType;
+import model.SimulationStatistics;
+import model.event.EventSimulator;
+import model.stats.ServerMetrics;
+
+public class PartitionWorker implements Closeable {
+
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+	private final LogDisplay logger;
+	
+	/**
+	 * Creates a new PartitionWorker connected to the {@link PartitionedSimulator}
+	 * listening at the given address, usually in another process on the same machine.
+	 * @param host - the host of the coordinator
+	 * @param port - the port the coordinator listens on
+	 * @param logger - a LogDisplay element to which the servers post log events
+	 * @throws IOException if the coordinator cannot be reached
+	 */
+	public PartitionWorker(String host, int port, LogDisplay logger) throws IOException {
+		this.socket = new Socket(host, port);
+		socket.setTcpNoDelay(true);
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		this.logger = logger;
+	}
+	
+	/**
+	 * Simulates the servers of the partition the coordinator assigns to this worker
+	 * on an {@link EventSimulator}, admitting the Customers the coordinator sends and
+	 * reporting the load of the servers after every step, until the run is over.
+	 * @throws IOException if the connection fails or the coordinator breaks the protocol
+	 */
+	public void run() throws IOException {
+		PartitionProtocol.writeHeader(out);
+		out.flush();
+		PartitionProtocol.readHeader(in);
+		
+		int servers = in.readInt();
+		int capacity = in.readInt();
+		QueueType queueType = QueueType.values()[in.readByte()];
+		int timeLimit = in.readInt();
+		
+		QueueScheduler scheduler = new QueueScheduler(timeLimit, servers, capacity, queueType, logger);
+		EventSimulator simulator = new EventSimulator(scheduler, timeLimit);
+		simulator.start();
+		
+		// The load of each server as the coordinator knows it, so only changes are sent
+		int[] knownClients = new int[servers];
+		int[] knownWaiting = new int[servers];
+		int[] knownRoom = new int[servers];
+		Arrays.fill(knownRoom, capacity);
+		
+		boolean momentOpen = false;
+		while(true) {
+			byte message = in.readByte();
+			if(message != PartitionProtocol.STEP && message != PartitionProtocol.FINISH) {
+				throw new IOException("Unknown message from the coordinator: " + message);
+			}
+			
+			// Customers for the same server are added together, in order of arrival
+			Map<Integer, List<Customer>> groups = new LinkedHashMap<Integer, List<Customer>>();
+			for(int i = in.readInt(); i > 0; --i) {
+				int server = in.readInt();
+				Customer cust = PartitionProtocol.readCustomer(in);
+				groups.computeIfAbsent(server, id -> new ArrayList<Customer>()).add(cust);
+				
+				// The coordinator counts the Customer as added right away
+				++knownClients[server];
+				knownWaiting[server] += cust.getServingTime();
+				--knownRoom[server];
+			}
+			for(Map.Entry<Integer, List<Customer>> group : groups.entrySet()) {
+				simulator.admit(group.getValue(), scheduler.getServers().get(group.getKey()));
+			}
+			int waiting = momentOpen ? simulator.finishMoment() : 0;
+			
+			if(message == PartitionProtocol.FINISH) {
+				SimulationStatistics statistics = simulator.finish();
+				out.writeInt(waiting);
+				writeResults(statistics, simulator.getProcessedEvents());
+				out.flush();
+				return;
+			}
+			
+			simulator.advanceTo(in.readInt());
+			momentOpen = true;
+			out.writeInt(waiting);
+			writeChanges(scheduler.getServers(), knownClients, knownWaiting, knownRoom);
+			out.flush();
+		}
+	}
+	
+	private void writeChanges(List<CustomerServer> servers, int[] knownClients, int[] knownWaiting, int[] knownRoom) throws IOException {
+		List<CustomerServer> changed = new ArrayList<CustomerServer>();
+		for(CustomerServer server : servers) {
+			int id = server.getId();
+			if(server.getNoOfClients() != knownClients[id] || server.getWaitingTime() != knownWaiting[id]
+					|| server.getRemainingCapacity() != knownRoom[id]) {
+				knownClients[id] = server.getNoOfClients();
+				knownWaiting[id] = server.getWaitingTime();
+				knownRoom[id] = server.getRemainingCapacity();
+				changed.add(server);
+			}
+		}
+		
+		out.writeInt(changed.size());
+		for(CustomerServer server : changed) {
+			int id = server.getId();
+			out.writeInt(id);
+			out.writeInt(knownClients[id]);
+			out.writeInt(knownWaiting[id]);
+			out.writeInt(knownRoom[id]);
+		}
+	}
+	
+	private void writeResults(SimulationStatistics statistics, long processedEvents) throws IOException {
+		out.writeLong(processedEvents);
+		out.writeInt(statistics.getDispatchedCustomers());
+		out.writeLong(statistics.getTotalWaitingTime());
+		
+		List<ServerMetrics> metrics = statistics.getMetrics().getServers();
+		out.writeInt(metrics.size());
+		for(ServerMetrics serverMetrics : metrics) {
+			serverMetrics.write(out);
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+}
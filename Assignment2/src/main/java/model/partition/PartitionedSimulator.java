@@ -0,0 +1,381 @@
+package model.partition;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import controller.LogDisplay;
+import model.Customer;
+import model.CustomerServer;
+import model.QueueScheduler;
+import model.QueueScheduler.QueueType;
+import model.SimulationStatistics;
+import model.Simulator;
+import model.arrival.ArrivalSource;
+import model.stats.QueueMetrics;
+import model.stats.ServerMetrics;
+import model.strategy.IndexedStrategy;
+import model.strategy.Strategy;
+import model.strategy.Strategy.Policy;
+import model.strategy.StrategyIndexedLowestNumber;
+import model.strategy.StrategyIndexedLowestTime;
+import model.strategy.StrategyLowestNumber;
+import model.strategy.StrategyLowestTime;
+import model.strategy.StrategyPowerOfChoices;
+
+public class PartitionedSimulator implements Simulator {
+
+	/**
+	 * How long to wait for every worker to connect, in milliseconds
+	 */
+	public final static int CONNECT_TIMEOUT = 60_000;
+	
+	private final int timeLimit;
+	private final int capacity;
+	private final QueueType queueType;
+	private final int partitions;
+	
+	// Stand-ins for the servers of every worker, numbered across all of them
+	private final List<CustomerServer> servers;
+	// firstServer[w] is the id of the first server of worker w; owner[id] is the worker of a server
+	private final int[] firstServer;
+	private final int[] owner;
+	private Strategy strategy;
+	
+	private ServerSocket listener;
+	private Worker[] workers;
+	private volatile int currentTime = 0;
+	private long processedEvents = 0;
+	
+	/**
+	 * Connection to one worker, with the assignments collected for its next step.
+	 */
+	private static class Worker {
+	
+		final Socket socket;
+		final DataInputStream in;
+		final DataOutputStream out;
+		
+		final ByteArrayOutputStream assignmentBytes = new ByteArrayOutputStream();
+		final DataOutputStream assignments = new DataOutputStream(assignmentBytes);
+		int assigned = 0;
+		
+		Worker(Socket socket) throws IOException {
+			this.socket = socket;
+			socket.setTcpNoDelay(true);
+			this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		}
+		
+		/**
+		 * Sends the collected assignments after the given message, then clears them.
+		 */
+		void send(byte message) throws IOException {
+			out.writeByte(message);
+			out.writeInt(assigned);
+			assignmentBytes.writeTo(out);
+			assignmentBytes.reset();
+			assigned = 0;
+		}
+	}
+	
+	/**
+	 * Creates a new PartitionedSimulator that spreads the given number of servers over
+	 * several worker processes, each simulating its own share of them on a virtual clock.
+	 * This process chooses the server of every Customer with a strategy over the load
+	 * the workers report, and sends each of them the Customers of its servers, in steps
+	 * of one time moment with arrivals. Each step only starts once every worker has
+	 * finished the previous one, so the load seen by the strategy is never out of date.
+	 * Workers are started separately, as per {@link PartitionWorker}, and connect to the
+	 * port returned by {@link #listen()}. The strategy defaults to {@link Policy#SHORTEST_QUEUE}.
+	 * @param servers - the total number of servers
+	 * @param capacity - the maximum number of Customers in the queue of each server
+	 * @param queueType - the type of queue used by the workers' servers
+	 * @param timeLimit - the last time moment that is simulated
+	 * @param partitions - the number of worker processes
+	 * @param logger - a LogDisplay element to which log events can be posted
+	 * @throws IllegalArgumentException if there are fewer servers than partitions
+	 */
+	public PartitionedSimulator(int servers, int capacity, QueueType queueType, int timeLimit, int partitions, LogDisplay logger) {
+		if(partitions < 1 || partitions > servers) {
+			throw new IllegalArgumentException("Cannot spread " + servers + " servers over " + partitions + " partitions");
+		}
+		
+		this.timeLimit = timeLimit;
+		this.capacity = capacity;
+		this.queueType = queueType;
+		this.partitions = partitions;
+		
+		// Each worker gets a contiguous block of servers, of sizes differing by one at most
+		this.servers = new ArrayList<CustomerServer>(servers);
+		this.firstServer = new int[partitions + 1];
+		this.owner = new int[servers];
+		for(int w = 0; w <= partitions; ++w) {
+			firstServer[w] = (int) ((long) w * servers / partitions);
+		}
+		for(int w = 0; w < partitions; ++w) {
+			for(int id = firstServer[w]; id < firstServer[w + 1]; ++id) {
+				this.servers.add(new RemoteServer(id, capacity, logger));
+				owner[id] = w;
+			}
+		}
+		
+		setStrategy(Policy.SHORTEST_QUEUE);
+	}
+	
+	/**
+	 * Sets the strategy for assigning Customers to servers based on the given policy,
+	 * as per {@link QueueScheduler#setStrategy(Policy)}.
+	 * @param policy - the policy to follow for assignments
+	 */
+	public void setStrategy(Policy policy) {
+		boolean indexed = servers.size() >= QueueScheduler.INDEXED_STRATEGY_THRESHOLD;
+		switch(policy) {
+			case SHORTEST_QUEUE:
+				setStrategy(indexed ? new StrategyIndexedLowestNumber(servers) : new StrategyLowestNumber());
+				break;
+			case SHORTEST_TIME:
+				setStrategy(indexed ? new StrategyIndexedLowestTime(servers) : new StrategyLowestTime());
+				break;
+			case POWER_OF_D_CHOICES:
+				setStrategy(new StrategyPowerOfChoices(QueueScheduler.DEFAULT_CHOICES, Policy.SHORTEST_TIME));
+				break;
+		}
+	}
+	
+	/**
+	 * Sets the strategy for assigning Customers to servers. It chooses among the
+	 * servers of {@link #getServers()}, which report the load of the remote servers.
+	 * @param strategy - the strategy to use
+	 */
+	public void setStrategy(Strategy strategy) {
+		// Indexed strategies listen to the servers, so stop the old one first
+		if(this.strategy instanceof IndexedStrategy && this.strategy != strategy) {
+			((IndexedStrategy) this.strategy).detach();
+		}
+		this.strategy = strategy;
+	}
+	
+	/**
+	 * Returns the stand-ins for the servers of every worker, which report the load
+	 * of each server as of the latest step and only serve for choosing servers.
+	 * @return an unmodifiable list of the servers, by id
+	 */
+	public List<CustomerServer> getServers() {
+		return Collections.unmodifiableList(servers);
+	}
+	
+	/**
+	 * Starts listening for workers on a free port of the loopback interface.
+	 * @return the port workers should connect to
+	 * @throws IOException if no port can be opened
+	 */
+	public int listen() throws IOException {
+		listener = new ServerSocket(0, partitions, InetAddress.getLoopbackAddress());
+		listener.setSoTimeout(CONNECT_TIMEOUT);
+		return listener.getLocalPort();
+	}
+	
+	/**
+	 * Runs the simulation for the given Customers across the workers, once they have
+	 * connected. The Customers arriving in the same time moment are dispatched together,
+	 * as with {@link model.event.EventSimulator#setBatchDispatch(boolean)}. When every
+	 * queue is full, Customers wait here in order of arrival and are offered again in
+	 * each following time moment, rather than as soon as a place frees up.
+	 * @param arrivals - the Customers to simulate, in ascending order of arrival
+	 * @return the statistics gathered over the simulation, combined across workers
+	 * @throws IllegalStateException if {@link #listen()} was not called first
+	 * @throws UncheckedIOException if a worker does not connect in time or its connection fails
+	 */
+	@Override
+	public SimulationStatistics run(ArrivalSource arrivals) {
+		if(listener == null) throw new IllegalStateException("Workers can only connect after listen()");
+		
+		try {
+			connectWorkers();
+			return simulate(arrivals);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Partitioned simulation failed", e);
+		} finally {
+			closeConnections();
+		}
+	}
+	
+	@Override
+	public int getCurrentTime() {
+		return currentTime;
+	}
+	
+	/**
+	 * Returns the number of events handled by every worker, once the run is over.
+	 * @return the total number of handled events
+	 */
+	public long getProcessedEvents() {
+		return processedEvents;
+	}
+	
+	private void connectWorkers() throws IOException {
+		workers = new Worker[partitions];
+		for(int w = 0; w < partitions; ++w) {
+			workers[w] = new Worker(listener.accept());
+			PartitionProtocol.writeHeader(workers[w].out);
+			workers[w].out.writeInt(firstServer[w + 1] - firstServer[w]);
+			workers[w].out.writeInt(capacity);
+			workers[w].out.writeByte(queueType.ordinal());
+			workers[w].out.writeInt(timeLimit);
+			workers[w].out.flush();
+			PartitionProtocol.readHeader(workers[w].in);
+		}
+	}
+	
+	private SimulationStatistics simulate(ArrivalSource arrivals) throws IOException {
+		SimulationStatistics statistics = new SimulationStatistics();
+		Deque<Customer> held = new ArrayDeque<Customer>();
+		
+		// Every step admits the Customers of the current moment, then advances to the next
+		int next = arrivals.hasNext() ? arrivals.peekArrivalTime() : Integer.MAX_VALUE;
+		if(next <= timeLimit) step(PartitionProtocol.STEP, next);
+		
+		while(next <= timeLimit) {
+			currentTime = next;
+			dispatch(arrivals, held);
+			
+			next = !held.isEmpty() ? currentTime + 1 : arrivals.hasNext() ? arrivals.peekArrivalTime() : Integer.MAX_VALUE;
+			if(next > timeLimit) break;
+			statistics.recordWaiting(currentTime, step(PartitionProtocol.STEP, next));
+		}
+		
+		// The last step also collects the results of every worker
+		statistics.recordWaiting(currentTime, step(PartitionProtocol.FINISH, 0));
+		return collectResults(statistics);
+	}
+	
+	/**
+	 * Sends every worker its assignments with the given message, then waits for all
+	 * of them to answer, so that they work on the step at the same time.
+	 * @return the number of Customers waiting across all workers at the end of the moment just decided
+	 */
+	private int step(byte message, int nextTime) throws IOException {
+		for(Worker worker : workers) {
+			worker.send(message);
+			if(message == PartitionProtocol.STEP) worker.out.writeInt(nextTime);
+			worker.out.flush();
+		}
+		
+		int waiting = 0;
+		for(int w = 0; w < partitions; ++w) {
+			DataInputStream in = workers[w].in;
+			waiting += in.readInt();
+			if(message == PartitionProtocol.FINISH) continue;
+			
+			for(int i = in.readInt(); i > 0; --i) {
+				int id = firstServer[w] + in.readInt();
+				((RemoteServer) servers.get(id)).update(in.readInt(), in.readInt(), in.readInt());
+			}
+		}
+		return waiting;
+	}
+	
+	/**
+	 * Chooses servers for the Customers held back and those arriving now, in the same
+	 * way as {@link QueueScheduler#dispatchBatch(List)}, and queues them for their
+	 * workers. Customers for which there is no room are held back, with every later one.
+	 */
+	private void dispatch(ArrivalSource arrivals, Deque<Customer> held) throws IOException {
+		List<Customer> batch = new ArrayList<Customer>(held);
+		held.clear();
+		while(arrivals.hasNext() && arrivals.peekArrivalTime() == currentTime) {
+			batch.add(arrivals.next());
+		}
+		
+		int[] chosen = strategy.selectServers(batch, servers);
+		boolean[] placed = new boolean[batch.size()];
+		if(chosen != null) {
+			for(int i = 0; i < chosen.length; ++i) {
+				if(chosen[i] < 0) continue;
+				assign(batch.get(i), (RemoteServer) servers.get(chosen[i]));
+				placed[i] = true;
+			}
+		}
+		
+		for(int i = 0; i < batch.size(); ++i) {
+			if(placed[i]) continue;
+			
+			Customer cust = batch.get(i);
+			CustomerServer target = held.isEmpty() && chosen == null ? strategy.selectServer(cust, servers) : null;
+			if(target == null && held.isEmpty()) target = firstWithRoom();
+			if(target == null) {
+				held.add(cust);
+			} else {
+				assign(cust, (RemoteServer) target);
+			}
+		}
+	}
+	
+	private CustomerServer firstWithRoom() {
+		for(CustomerServer server : servers) {
+			if(server.getRemainingCapacity() > 0) return server;
+		}
+		return null;
+	}
+	
+	private void assign(Customer cust, RemoteServer target) throws IOException {
+		target.assign(cust);
+		
+		Worker worker = workers[owner[target.getId()]];
+		PartitionProtocol.writeAssignment(worker.assignments, target.getId() - firstServer[owner[target.getId()]], cust);
+		++worker.assigned;
+	}
+	
+	/**
+	 * Reads the results of every worker after the last step and combines them.
+	 */
+	private SimulationStatistics collectResults(SimulationStatistics statistics) throws IOException {
+		long totalWaitingTime = 0;
+		int dispatchedCustomers = 0;
+		List<ServerMetrics> metrics = new ArrayList<ServerMetrics>(servers.size());
+		for(int w = 0; w < partitions; ++w) {
+			DataInputStream in = workers[w].in;
+			processedEvents += in.readLong();
+			dispatchedCustomers += in.readInt();
+			totalWaitingTime += in.readLong();
+			
+			// Workers number their servers from zero
+			for(int i = in.readInt(); i > 0; --i) {
+				ServerMetrics local = ServerMetrics.read(in);
+				CustomerServer server = servers.get(firstServer[w] + local.getServerId());
+				metrics.add(new ServerMetrics(server.getId(), server.getName(), local));
+			}
+		}
+		
+		statistics.restore(statistics.getPeakHour(), statistics.getPeakWaiting(), totalWaitingTime, dispatchedCustomers);
+		statistics.setMetrics(new QueueMetrics(metrics, timeLimit + 1));
+		statistics.recordServerTime((long) servers.size() * (timeLimit + 1), servers.size(), timeLimit + 1);
+		return statistics;
+	}
+	
+	private void closeConnections() {
+		try {
+			if(workers != null) {
+				for(Worker worker : workers) {
+					if(worker != null) worker.socket.close();
+				}
+			}
+			listener.close();
+		} catch (IOException e) {
+			System.out.println("Could not close the connections to the workers: " + e.getMessage());
+		}
+	}
+}
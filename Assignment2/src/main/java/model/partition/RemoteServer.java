@@ -0,0 +1,82 @@
+package model.partition;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import controller.LogDisplay;
+import model.Customer;
+import model.CustomerServer;
+import model.QueueScheduler;
+
+class RemoteServer extends CustomerServer {
+
+	private final int capacity;
+	private int clients = 0;
+	private int room;
+	
+	/**
+	 * Creates a stand-in for a CustomerServer simulated by a worker process, whose
+	 * load is that of its latest summary plus the Customers assigned to it since.
+	 * Strategies read it like any other server; its own queue always stays empty.
+	 * @param id - the id of the server across the whole partitioned simulation
+	 * @param capacity - the maximum number of Customers in its queue
+	 * @param logger - a LogDisplay element to which events can be written
+	 */
+	RemoteServer(int id, int capacity, LogDisplay logger) {
+		super(id, QueueScheduler.serverName(id), new LinkedBlockingQueue<Customer>(1), logger);
+		this.capacity = capacity;
+		this.room = capacity;
+	}
+	
+	/**
+	 * Takes on the load reported by the worker. Listeners such as indexed strategies
+	 * are told through {@link model.CustomerServerListener#queueRestored(CustomerServer)}.
+	 * @param clients - the number of Customers in queue
+	 * @param waitingTime - the waiting time of the server
+	 * @param room - the remaining capacity of the server
+	 */
+	void update(int clients, int waitingTime, int room) {
+		this.clients = clients;
+		this.room = room;
+		restoreQueue(Collections.<Customer>emptyList(), waitingTime);
+	}
+	
+	/**
+	 * Counts the given Customer as added to the server, until the next summary.
+	 * @param cust - the Customer sent to the worker for this server
+	 */
+	void assign(Customer cust) {
+		update(clients + 1, getWaitingTime() + cust.getServingTime(), room - 1);
+	}
+	
+	@Override
+	public void addCustomer(Customer cust) {
+		throw new UnsupportedOperationException(getName() + " is simulated by a worker process");
+	}
+	
+	@Override
+	public void addCustomers(List<Customer> custs) {
+		throw new UnsupportedOperationException(getName() + " is simulated by a worker process");
+	}
+	
+	@Override
+	public boolean offerCustomer(Customer cust) {
+		throw new UnsupportedOperationException(getName() + " is simulated by a worker process");
+	}
+	
+	@Override
+	public int getNoOfClients() {
+		return clients;
+	}
+	
+	@Override
+	public int getRemainingCapacity() {
+		return room;
+	}
+	
+	@Override
+	public int getCapacity() {
+		return capacity;
+	}
+}
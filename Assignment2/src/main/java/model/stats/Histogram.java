@@ -0,0 +1,224 @@
+package model.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class Histogram {
+	
+	// Values below SUB_BUCKET_COUNT get a bucket each; above that, every power
+	// of two is split into SUB_BUCKET_HALF buckets, so a recorded value is off
+	// by at most 1/SUB_BUCKET_HALF of itself
+	private static final int SUB_BUCKET_BITS = 7;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+	
+	private long[] counts = new long[SUB_BUCKET_COUNT];
+	private long totalCount = 0;
+	private long totalValue = 0;
+	private long min = Long.MAX_VALUE;
+	private long max = 0;
+	
+	/**
+	 * Creates a new, empty Histogram. Memory grows with the largest value
+	 * recorded rather than with the number of values, by 512 bytes for each
+	 * doubling of the range, and nothing is allocated while recording values
+	 * within the range already seen.
+	 */
+	public Histogram() {
+	}
+	
+	/**
+	 * Creates a new Histogram holding the same values as the given one.
+	 * @param other - the Histogram to copy
+	 */
+	public Histogram(Histogram other) {
+		this.counts = Arrays.copyOf(other.counts, other.counts.length);
+		this.totalCount = other.totalCount;
+		this.totalValue = other.totalValue;
+		this.min = other.min;
+		this.max = other.max;
+	}
+	
+	/**
+	 * Records a single occurrence of the given value.
+	 * @param value - the value to record
+	 * @throws IllegalArgumentException if the value is negative
+	 */
+	public void record(long value) {
+		record(value, 1);
+	}
+	
+	/**
+	 * Records the given value a number of times.
+	 * @param value - the value to record
+	 * @param count - how many times the value occurred
+	 * @throws IllegalArgumentException if the value or count is negative
+	 */
+	public void record(long value, long count) {
+		if(value < 0 || count < 0) {
+			throw new IllegalArgumentException("Cannot record " + count + " occurrences of " + value);
+		}
+		if(count == 0) return;
+		
+		int index = indexOf(value);
+		if(index >= counts.length) {
+			counts = Arrays.copyOf(counts, Math.max(index + 1, 2 * counts.length));
+		}
+		
+		counts[index] += count;
+		totalCount += count;
+		totalValue += value * count;
+		if(value < min) min = value;
+		if(value > max) max = value;
+	}
+	
+	/**
+	 * Adds every value recorded in the given Histogram to this one, as if
+	 * they had been recorded here directly.
+	 * @param other - the Histogram to add
+	 */
+	public void add(Histogram other) {
+		if(other.totalCount == 0) return;
+		
+		if(other.counts.length > counts.length) {
+			counts = Arrays.copyOf(counts, other.counts.length);
+		}
+		for(int i = 0; i < other.counts.length; ++i) {
+			counts[i] += other.counts[i];
+		}
+		
+		totalCount += other.totalCount;
+		totalValue += other.totalValue;
+		if(other.min < min) min = other.min;
+		if(other.max > max) max = other.max;
+	}
+	
+	/**
+	 * Removes every recorded value, keeping the memory already allocated.
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0);
+		totalCount = 0;
+		totalValue = 0;
+		min = Long.MAX_VALUE;
+		max = 0;
+	}
+
+	/**
+	 * Writes the recorded values to the given output, leaving out the empty
+	 * buckets past the largest value, so that they can be read back with
+	 * {@link #read(DataInput)}.
+	 * @param out - the output to write to
+	 * @throws IOException if the output cannot be written
+	 */
+	public void write(DataOutput out) throws IOException {
+		int used = totalCount == 0 ? 0 : indexOf(max) + 1;
+		out.writeInt(used);
+		for(int i = 0; i < used; ++i) {
+			out.writeLong(counts[i]);
+		}
+		out.writeLong(totalCount);
+		out.writeLong(totalValue);
+		out.writeLong(min);
+		out.writeLong(max);
+	}
+	
+	/**
+	 * Reads a Histogram written with {@link #write(DataOutput)}.
+	 * @param in - the input to read from
+	 * @return a Histogram holding the values that were written
+	 * @throws IOException if the input cannot be read or is not a Histogram
+	 */
+	public static Histogram read(DataInput in) throws IOException {
+		int used = in.readInt();
+		if(used < 0) throw new IOException("Invalid histogram size: " + used);
+		
+		Histogram histogram = new Histogram();
+		histogram.counts = new long[Math.max(used, SUB_BUCKET_COUNT)];
+		for(int i = 0; i < used; ++i) {
+			histogram.counts[i] = in.readLong();
+		}
+		histogram.totalCount = in.readLong();
+		histogram.totalValue = in.readLong();
+		histogram.min = in.readLong();
+		histogram.max = in.readLong();
+		return histogram;
+	}
+
+	public long getCount() {
+		return totalCount;
+	}
+	
+	/**
+	 * Returns the smallest recorded value.
+	 * @return the smallest value, or 0 if nothing was recorded
+	 */
+	public long getMin() {
+		return totalCount == 0 ? 0 : min;
+	}
+	
+	/**
+	 * Returns the largest recorded value, exactly.
+	 * @return the largest value, or 0 if nothing was recorded
+	 */
+	public long getMax() {
+		return max;
+	}
+	
+	/**
+	 * Returns the exact mean of the recorded values.
+	 * @return the mean, or 0 if nothing was recorded
+	 */
+	public double getMean() {
+		return totalCount == 0 ? 0 : (double) totalValue / totalCount;
+	}
+	
+	/**
+	 * Returns the smallest value that at least the given percentage of the
+	 * recorded values are lower than or equal to, up to the precision of the
+	 * Histogram. Values below 128 are exact; larger ones are within 1/64 of
+	 * themselves, rounded up but never past the maximum.
+	 * @param percentile - the percentage, between 0 and 100
+	 * @return the value at the given percentile, or 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if(totalCount == 0) return 0;
+		
+		double clamped = Math.min(Math.max(percentile, 0), 100);
+		long target = Math.max(1, (long) Math.ceil(clamped / 100 * totalCount));
+		
+		long seen = 0;
+		for(int i = 0; i < counts.length; ++i) {
+			seen += counts[i];
+			if(seen >= target) {
+				return Math.min(highestValueAt(i), max);
+			}
+		}
+		return max;
+	}
+	
+	private static int indexOf(long value) {
+		if(value < SUB_BUCKET_COUNT) return (int) value;
+		
+		// Keep the highest SUB_BUCKET_BITS bits of the value
+		int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+	}
+	
+	private static long highestValueAt(int index) {
+		if(index < SUB_BUCKET_COUNT) return index;
+		
+		int shift = index / SUB_BUCKET_HALF - 1;
+		long subBucket = index - shift * SUB_BUCKET_HALF;
+		return ((subBucket + 1) << shift) - 1;
+	}
+	
+	@Override
+	public String toString() {
+		return "count=" + getCount() + " mean=" + String.format("%.2f", getMean())
+				+ " p50=" + getValueAtPercentile(50) + " p95=" + getValueAtPercentile(95)
+				+ " p99=" + getValueAtPercentile(99) + " max=" + getMax();
+	}
+}
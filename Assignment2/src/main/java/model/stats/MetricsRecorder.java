@@ -0,0 +1,102 @@
+package model.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import model.Customer;
+import model.CustomerServer;
+import model.CustomerServerListener;
+import model.QueueScheduler;
+
+public class MetricsRecorder implements CustomerServerListener {
+	
+	private final IntSupplier clock;
+	private final List<ServerMetrics> metrics = new ArrayList<ServerMetrics>();
+	
+	/**
+	 * Creates a new MetricsRecorder that measures waiting time, sojourn time,
+	 * queue length and busy time of the CustomerServers it is attached to.
+	 * @param clock - gives the current time moment of the simulation,
+	 * 				  e.g. {@link model.Simulator#getCurrentTime()}
+	 */
+	public MetricsRecorder(IntSupplier clock) {
+		this.clock = clock;
+	}
+	
+	/**
+	 * Starts measuring every CustomerServer of the given QueueScheduler,
+	 * whose servers must have ids matching their positions.
+	 * @param scheduler - the QueueScheduler to measure
+	 */
+	public void attach(QueueScheduler scheduler) {
+		for(CustomerServer server : scheduler.getServers()) {
+			while(metrics.size() <= server.getId()) {
+				metrics.add(null);
+			}
+			metrics.set(server.getId(), new ServerMetrics(server.getId(), server.getName()));
+			server.addListener(this);
+		}
+	}
+	
+	/**
+	 * Stops measuring the given QueueScheduler. Values measured so far are kept.
+	 * @param scheduler - the QueueScheduler to stop measuring
+	 */
+	public void detach(QueueScheduler scheduler) {
+		for(CustomerServer server : scheduler.getServers()) {
+			server.removeListener(this);
+		}
+	}
+	
+	/**
+	 * Returns a copy of the values measured so far.
+	 * @param elapsedTime - the number of time units the servers were open for
+	 * @return the metrics of every attached CustomerServer
+	 */
+	public QueueMetrics getMetrics(long elapsedTime) {
+		return new QueueMetrics(metrics, elapsedTime);
+	}
+
+	/**
+	 * Replaces the values measured so far for the attached CustomerServers with
+	 * copies of the given ones, e.g. those saved in a checkpoint.
+	 * @param values - the metrics to continue from, matched to servers by id
+	 * @throws IllegalArgumentException if some metrics belong to no attached server
+	 */
+	public void restore(List<ServerMetrics> values) {
+		for(ServerMetrics value : values) {
+			int id = value.getServerId();
+			if(id < 0 || id >= metrics.size() || metrics.get(id) == null) {
+				throw new IllegalArgumentException("No server with id " + id + " is measured");
+			}
+			metrics.set(id, new ServerMetrics(value));
+		}
+	}
+
+	@Override
+	public void customerAdded(CustomerServer server, Customer cust) {
+		// The new Customer is already in the queue
+		metrics.get(server.getId()).recordQueueLength(Math.max(0, server.getNoOfClients() - 1));
+	}
+
+	@Override
+	public void serviceStarted(CustomerServer server, Customer cust) {
+		metrics.get(server.getId()).recordWaitingTime(clock.getAsInt() - cust.getArrivalTime());
+	}
+
+	@Override
+	public void timeUnitServed(CustomerServer server) {
+		metrics.get(server.getId()).recordBusyTime();
+	}
+
+	@Override
+	public void timeServed(CustomerServer server, int units) {
+		metrics.get(server.getId()).recordBusyTime(units);
+	}
+
+	@Override
+	public void serviceFinished(CustomerServer server, Customer cust) {
+		metrics.get(server.getId()).recordSojournTime(clock.getAsInt() - cust.getArrivalTime());
+	}
+}
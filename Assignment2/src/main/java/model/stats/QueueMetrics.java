@@ -0,0 +1,113 @@
+package model.stats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class QueueMetrics {
+	
+	private final List<ServerMetrics> servers = new ArrayList<ServerMetrics>();
+	private final Histogram waitingTime = new Histogram();
+	private final Histogram sojournTime = new Histogram();
+	private final Histogram queueLength = new Histogram();
+	private long elapsedTime;
+	
+	/**
+	 * Creates a new QueueMetrics from copies of the given per-server metrics,
+	 * gathered over the given time.
+	 * @param servers - the metrics of each CustomerServer, in order of id
+	 * @param elapsedTime - the number of time units the metrics were gathered over
+	 */
+	public QueueMetrics(List<ServerMetrics> servers, long elapsedTime) {
+		this.elapsedTime = elapsedTime;
+		for(ServerMetrics server : servers) {
+			ServerMetrics copy = new ServerMetrics(server);
+			this.servers.add(copy);
+			addTotals(copy);
+		}
+	}
+	
+	/**
+	 * Adds the metrics of another run to these ones, so that percentiles and
+	 * utilisation cover both runs. Servers are matched by position; servers
+	 * that only the other run has are added as they are.
+	 * @param other - the metrics to add
+	 */
+	public void add(QueueMetrics other) {
+		for(int i = 0; i < other.servers.size(); ++i) {
+			ServerMetrics server = other.servers.get(i);
+			if(i < servers.size()) {
+				servers.get(i).add(server);
+			} else {
+				servers.add(new ServerMetrics(server));
+			}
+			addTotals(server);
+		}
+		elapsedTime += other.elapsedTime;
+	}
+	
+	private void addTotals(ServerMetrics server) {
+		waitingTime.add(server.getWaitingTime());
+		sojournTime.add(server.getSojournTime());
+		queueLength.add(server.getQueueLength());
+	}
+	
+	/**
+	 * Returns the metrics of each CustomerServer, in order of id.
+	 * @return an unmodifiable list of per-server metrics
+	 */
+	public List<ServerMetrics> getServers() {
+		return Collections.unmodifiableList(servers);
+	}
+	
+	/**
+	 * Returns the time Customers of every server spent in their queue before being served.
+	 * @return the overall waiting time histogram
+	 */
+	public Histogram getWaitingTime() {
+		return waitingTime;
+	}
+	
+	/**
+	 * Returns the time Customers of every server spent between arrival and the end of their service.
+	 * @return the overall sojourn time histogram
+	 */
+	public Histogram getSojournTime() {
+		return sojournTime;
+	}
+	
+	/**
+	 * Returns the number of Customers that arriving Customers found ahead of them.
+	 * @return the overall queue length histogram
+	 */
+	public Histogram getQueueLength() {
+		return queueLength;
+	}
+
+	public long getElapsedTime() {
+		return elapsedTime;
+	}
+	
+	/**
+	 * Returns the fraction of the elapsed time the given server spent serving Customers.
+	 * @param index - the position of the server
+	 * @return the utilisation of the server, between 0 and 1
+	 */
+	public double getUtilisation(int index) {
+		return servers.get(index).getUtilisation(elapsedTime);
+	}
+	
+	/**
+	 * Returns the fraction of the elapsed time the servers spent serving Customers, on average.
+	 * @return the utilisation of all servers, between 0 and 1
+	 */
+	public double getUtilisation() {
+		if(servers.isEmpty() || elapsedTime <= 0) return 0;
+		
+		long busyTime = 0;
+		for(ServerMetrics server : servers) {
+			busyTime += server.getBusyTime();
+		}
+		return (double) busyTime / ((double) elapsedTime * servers.size());
+	}
+}
@@ -0,0 +1,119 @@
+package model.stats;
+
+public class QueueingEstimate {
+	
+	private final double arrivalRate;
+	private final double meanServiceTime;
+	private final int servers;
+	private final double utilisation;
+	private final double probabilityOfWaiting;
+	private final double queuedTime;
+	
+	/**
+	 * Estimates the steady state of the given number of servers sharing Poisson
+	 * arrivals, with the Erlang C formula for an M/M/c queue. Service times that are
+	 * not exponential are accounted for with the Allen-Cunneen approximation, which
+	 * scales the time spent in queue by (1 + Cs^2) / 2, Cs being the coefficient of
+	 * variation of the service time. The queues are taken to be unbounded and served
+	 * as a single queue, which slightly underestimates the waiting of separate queues
+	 * chosen by shortest queue or time, and underestimates that of random choices more.
+	 * This takes O(c) time, so even thousands of servers are estimated in microseconds.
+	 * @param arrivalRate - the average number of Customers arriving per time moment
+	 * @param meanServiceTime - the average time it takes to serve a Customer
+	 * @param serviceVariance - the variance of the time it takes to serve a Customer
+	 * @param servers - the number of servers
+	 * @throws IllegalArgumentException if the number of servers or the mean service time is not positive
+	 */
+	public QueueingEstimate(double arrivalRate, double meanServiceTime, double serviceVariance, int servers) {
+		if(servers <= 0 || meanServiceTime <= 0) {
+			throw new IllegalArgumentException("Cannot estimate " + servers + " servers with a mean service time of " + meanServiceTime);
+		}
+		
+		this.arrivalRate = arrivalRate;
+		this.meanServiceTime = meanServiceTime;
+		this.servers = servers;
+		
+		double offeredLoad = arrivalRate * meanServiceTime;
+		this.utilisation = offeredLoad / servers;
+		if(utilisation >= 1) {
+			// The queues grow without bound
+			this.probabilityOfWaiting = 1;
+			this.queuedTime = Double.POSITIVE_INFINITY;
+			return;
+		}
+		
+		// Erlang B by its recurrence, which unlike the factorials never overflows
+		double blocking = 1;
+		for(int k = 1; k <= servers; ++k) {
+			blocking = offeredLoad * blocking / (k + offeredLoad * blocking);
+		}
+		this.probabilityOfWaiting = servers * blocking / (servers - offeredLoad * (1 - blocking));
+		
+		double variation = serviceVariance / (meanServiceTime * meanServiceTime);
+		this.queuedTime = probabilityOfWaiting * meanServiceTime / (servers * (1 - utilisation)) * (1 + variation) / 2;
+	}
+	
+	public double getArrivalRate() {
+		return arrivalRate;
+	}
+	
+	public double getMeanServiceTime() {
+		return meanServiceTime;
+	}
+	
+	public int getServers() {
+		return servers;
+	}
+	
+	/**
+	 * Returns the fraction of time each server is expected to spend serving Customers.
+	 * At 1 or above, the servers cannot keep up and the other estimates are infinite.
+	 * @return the offered load per server
+	 */
+	public double getUtilisation() {
+		return utilisation;
+	}
+	
+	/**
+	 * Returns whether the servers can keep up with the arrivals in the long run.
+	 * @return true if the utilisation is below 1
+	 */
+	public boolean isStable() {
+		return utilisation < 1;
+	}
+	
+	/**
+	 * Returns the probability that an arriving Customer finds every server busy
+	 * and has to queue, as given by the Erlang C formula.
+	 * @return the probability of queueing, between 0 and 1
+	 */
+	public double getProbabilityOfWaiting() {
+		return probabilityOfWaiting;
+	}
+	
+	/**
+	 * Returns the expected time a Customer spends in queue before being served,
+	 * comparable to {@link QueueMetrics#getWaitingTime()}.
+	 * @return the expected time in queue, or infinity if the servers cannot keep up
+	 */
+	public double getQueuedTime() {
+		return queuedTime;
+	}
+	
+	/**
+	 * Returns the expected time between the arrival of a Customer and its finish time,
+	 * comparable to {@link QueueMetrics#getSojournTime()}.
+	 * @return the expected time in the system, or infinity if the servers cannot keep up
+	 */
+	public double getSojournTime() {
+		return queuedTime + meanServiceTime;
+	}
+	
+	/**
+	 * Returns the expected number of Customers queueing across all servers, by Little's law.
+	 * @return the expected number of Customers in queue, or infinity if the servers cannot keep up
+	 */
+	public double getQueueLength() {
+		return arrivalRate * queuedTime;
+	}
+}
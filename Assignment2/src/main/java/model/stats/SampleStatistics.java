@@ -0,0 +1,194 @@
+package model.stats;
+
+public class SampleStatistics {
+	
+	private long count = 0;
+	private double mean = 0;
+	// Sum of squared differences from the mean
+	private double squares = 0;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+	
+	/**
+	 * Adds one observation, such as the result of one replication. The mean
+	 * and variance are updated incrementally, without keeping the observations.
+	 * @param value - the observed value
+	 */
+	public void add(double value) {
+		++count;
+		double delta = value - mean;
+		mean += delta / count;
+		squares += delta * (value - mean);
+		
+		if(value < min) min = value;
+		if(value > max) max = value;
+	}
+	
+	/**
+	 * Adds every observation of the given SampleStatistics to this one.
+	 * @param other - the observations to add
+	 */
+	public void add(SampleStatistics other) {
+		if(other.count == 0) return;
+		
+		long total = count + other.count;
+		double delta = other.mean - mean;
+		squares += other.squares + delta * delta * count * other.count / total;
+		mean += delta * other.count / total;
+		count = total;
+		
+		if(other.min < min) min = other.min;
+		if(other.max > max) max = other.max;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+	
+	/**
+	 * Returns the unbiased sample variance of the observations.
+	 * @return the variance, or 0 with fewer than two observations
+	 */
+	public double getVariance() {
+		return count < 2 ? 0 : squares / (count - 1);
+	}
+	
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+	
+	public double getMin() {
+		return count == 0 ? 0 : min;
+	}
+	
+	public double getMax() {
+		return count == 0 ? 0 : max;
+	}
+	
+	/**
+	 * Returns half the width of the Student t confidence interval for the mean,
+	 * so that the interval is the mean plus or minus this value.
+	 * @param confidence - the confidence level, e.g. 0.95
+	 * @return the half-width, or infinity with fewer than two observations
+	 */
+	public double getHalfWidth(double confidence) {
+		if(count < 2) return Double.POSITIVE_INFINITY;
+		return studentQuantile(0.5 + confidence / 2, count - 1) * getStandardDeviation() / Math.sqrt(count);
+	}
+	
+	/**
+	 * Checks whether the confidence interval for the mean is narrow enough,
+	 * relative to the mean itself.
+	 * @param confidence - the confidence level, e.g. 0.95
+	 * @param precision - the largest allowed half-width, as a fraction of the mean
+	 * @return true if the half-width is at most the given fraction of the mean
+	 */
+	public boolean isPrecise(double confidence, double precision) {
+		return getHalfWidth(confidence) <= precision * Math.abs(mean);
+	}
+	
+	/**
+	 * Returns the quantile of Student's t distribution with the given degrees
+	 * of freedom. Up to 1000 degrees of freedom, it is found by bisection on
+	 * the exact distribution function; above that, a Cornish-Fisher expansion
+	 * around the normal quantile is used, whose error is far below 1e-6 there.
+	 * @param p - the probability, strictly between 0 and 1
+	 * @param degrees - the degrees of freedom, at least 1
+	 * @return the value below which the given fraction of the distribution lies
+	 */
+	public static double studentQuantile(double p, long degrees) {
+		if(p < 0.5) return -studentQuantile(1 - p, degrees);
+		
+		if(degrees > 1000) {
+			double z = normalQuantile(p);
+			double z2 = z * z, z3 = z2 * z, z5 = z3 * z2, z7 = z5 * z2;
+			double v = degrees;
+			return z + (z3 + z) / (4 * v)
+					+ (5 * z5 + 16 * z3 + 3 * z) / (96 * v * v)
+					+ (3 * z7 + 19 * z5 + 17 * z3 - 15 * z) / (384 * v * v * v);
+		}
+		
+		double low = 0, high = 1;
+		while(studentDistribution(high, degrees) < p) {
+			low = high;
+			high *= 2;
+		}
+		for(int i = 0; i < 100 && high - low > 1e-12 * high; ++i) {
+			double middle = (low + high) / 2;
+			if(studentDistribution(middle, degrees) < p) {
+				low = middle;
+			} else {
+				high = middle;
+			}
+		}
+		return (low + high) / 2;
+	}
+	
+	// The distribution function of Student's t for a non-negative value,
+	// as per Abramowitz and Stegun 26.7.3 and 26.7.4
+	private static double studentDistribution(double t, long degrees) {
+		double theta = Math.atan(t / Math.sqrt(degrees));
+		double cos2 = Math.cos(theta) * Math.cos(theta);
+		
+		// Probability of falling between -t and t
+		double within;
+		if(degrees % 2 == 1) {
+			double sum = 0, term = 1;
+			for(long k = 3; k <= degrees; k += 2) {
+				sum += term;
+				term *= cos2 * (k - 1) / k;
+			}
+			within = 2 / Math.PI * (theta + Math.sin(theta) * Math.cos(theta) * sum);
+		} else {
+			double sum = 0, term = 1;
+			for(long k = 2; k <= degrees; k += 2) {
+				sum += term;
+				term *= cos2 * (k - 1) / k;
+			}
+			within = Math.sin(theta) * sum;
+		}
+		return 0.5 + within / 2;
+	}
+	
+	/**
+	 * Returns the quantile of the standard normal distribution, using Acklam's
+	 * rational approximation, which has a relative error below 1.2e-9.
+	 * @param p - the probability, strictly between 0 and 1
+	 * @return the value below which the given fraction of the distribution lies
+	 */
+	public static double normalQuantile(double p) {
+		if(p <= 0 || p >= 1) throw new IllegalArgumentException("Probability must be between 0 and 1, got " + p);
+		
+		final double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+				1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+		final double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+				6.680131188771972e+01, -1.328068155288572e+01};
+		final double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+				-2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+		final double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+				3.754408661907416e+00};
+		
+		if(p < 0.02425) {
+			double q = Math.sqrt(-2 * Math.log(p));
+			return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+					/ ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+		}
+		if(p > 1 - 0.02425) {
+			return -normalQuantile(1 - p);
+		}
+		
+		double q = p - 0.5;
+		double r = q * q;
+		return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+				/ (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+	}
+	
+	@Override
+	public String toString() {
+		return String.format("%.3f (sd %.3f, n %d)", mean, getStandardDeviation(), count);
+	}
+}
@@ -0,0 +1,180 @@
+package model.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class ServerMetrics {
+	
+	private final int serverId;
+	private final String serverName;
+	
+	private final Histogram waitingTime;
+	private final Histogram sojournTime;
+	private final Histogram queueLength;
+	private long busyTime = 0;
+	
+	/**
+	 * Creates new, empty metrics for the CustomerServer with the given id and name.
+	 * @param serverId - the id of the CustomerServer
+	 * @param serverName - the name of the CustomerServer
+	 */
+	public ServerMetrics(int serverId, String serverName) {
+		this(serverId, serverName, new Histogram(), new Histogram(), new Histogram(), 0);
+	}
+	
+	/**
+	 * Creates new metrics holding the same values as the given ones, for the server
+	 * with the given id and name, e.g. when combining the metrics of several
+	 * partitions of a simulation whose servers were numbered separately.
+	 * @param serverId - the id of the CustomerServer
+	 * @param serverName - the name of the CustomerServer
+	 * @param other - the metrics to copy
+	 */
+	public ServerMetrics(int serverId, String serverName, ServerMetrics other) {
+		this(serverId, serverName, new Histogram(), new Histogram(), new Histogram(), 0);
+		add(other);
+	}
+	
+	private ServerMetrics(int serverId, String serverName, Histogram waitingTime, Histogram sojournTime,
+			Histogram queueLength, long busyTime) {
+		this.serverId = serverId;
+		this.serverName = serverName;
+		this.waitingTime = waitingTime;
+		this.sojournTime = sojournTime;
+		this.queueLength = queueLength;
+		this.busyTime = busyTime;
+	}
+	
+	/**
+	 * Creates new metrics holding the same values as the given ones.
+	 * @param other - the metrics to copy
+	 */
+	public ServerMetrics(ServerMetrics other) {
+		this(other.serverId, other.serverName, new Histogram(), new Histogram(), new Histogram(), 0);
+		synchronized(other) {
+			this.waitingTime.add(other.waitingTime);
+			this.sojournTime.add(other.sojournTime);
+			this.queueLength.add(other.queueLength);
+			this.busyTime = other.busyTime;
+		}
+	}
+	
+	/**
+	 * Records the time a Customer spent in the queue before being served.
+	 * @param time - the time between the Customer's arrival and the start of its service
+	 */
+	public synchronized void recordWaitingTime(int time) {
+		waitingTime.record(time);
+	}
+	
+	/**
+	 * Records the total time a Customer spent at the CustomerServer.
+	 * @param time - the time between the Customer's arrival and the end of its service
+	 */
+	public synchronized void recordSojournTime(int time) {
+		sojournTime.record(time);
+	}
+	
+	/**
+	 * Records the number of Customers an arriving Customer found in the queue.
+	 * @param length - the number of Customers ahead of the new one
+	 */
+	public synchronized void recordQueueLength(int length) {
+		queueLength.record(length);
+	}
+	
+	/**
+	 * Records one time unit spent serving a Customer.
+	 */
+	public synchronized void recordBusyTime() {
+		++busyTime;
+	}
+	
+	/**
+	 * Records the given number of time units spent serving a Customer.
+	 * @param units - the number of time units
+	 */
+	public synchronized void recordBusyTime(int units) {
+		busyTime += units;
+	}
+	
+	/**
+	 * Adds the values recorded in the given metrics to these ones.
+	 * @param other - the metrics to add
+	 */
+	public synchronized void add(ServerMetrics other) {
+		ServerMetrics copy = new ServerMetrics(other);
+		waitingTime.add(copy.waitingTime);
+		sojournTime.add(copy.sojournTime);
+		queueLength.add(copy.queueLength);
+		busyTime += copy.busyTime;
+	}
+
+	/**
+	 * Writes these metrics to the given output, so that they can be read back
+	 * with {@link #read(DataInput)}.
+	 * @param out - the output to write to
+	 * @throws IOException if the output cannot be written
+	 */
+	public synchronized void write(DataOutput out) throws IOException {
+		out.writeInt(serverId);
+		out.writeUTF(serverName);
+		waitingTime.write(out);
+		sojournTime.write(out);
+		queueLength.write(out);
+		out.writeLong(busyTime);
+	}
+	
+	/**
+	 * Reads metrics written with {@link #write(DataOutput)}.
+	 * @param in - the input to read from
+	 * @return metrics holding the values that were written
+	 * @throws IOException if the input cannot be read or holds no metrics
+	 */
+	public static ServerMetrics read(DataInput in) throws IOException {
+		int serverId = in.readInt();
+		String serverName = in.readUTF();
+		Histogram waitingTime = Histogram.read(in);
+		Histogram sojournTime = Histogram.read(in);
+		Histogram queueLength = Histogram.read(in);
+		return new ServerMetrics(serverId, serverName, waitingTime, sojournTime, queueLength, in.readLong());
+	}
+
+	public int getServerId() {
+		return serverId;
+	}
+
+	public String getServerName() {
+		return serverName;
+	}
+
+	public Histogram getWaitingTime() {
+		return waitingTime;
+	}
+
+	public Histogram getSojournTime() {
+		return sojournTime;
+	}
+
+	public Histogram getQueueLength() {
+		return queueLength;
+	}
+	
+	/**
+	 * Returns the number of time units spent serving Customers.
+	 * @return the busy time of the CustomerServer
+	 */
+	public long getBusyTime() {
+		return busyTime;
+	}
+	
+	/**
+	 * Returns the fraction of the given time spent serving Customers.
+	 * @param elapsedTime - the number of time units the CustomerServer was open for
+	 * @return the utilisation, between 0 and 1
+	 */
+	public double getUtilisation(long elapsedTime) {
+		return elapsedTime <= 0 ? 0 : (double) busyTime / elapsedTime;
+	}
+}
@@ -0,0 +1,254 @@
+package model.store;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import model.Customer;
+
+public class CompactCustomerQueue extends AbstractQueue<Customer> implements BlockingQueue<Customer> {
+	
+	private static final int INITIAL_SIZE = 16;
+	
+	private final int capacity;
+	
+	// A ring buffer of the fields of every queued Customer, one array per field
+	private int[] ids;
+	private int[] arrivalTimes;
+	private int[] servingTimes;
+	private int[] finishTimes;
+	private int head = 0;
+	// Only changed under the lock, but read without it by size()
+	private volatile int count = 0;
+	
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition notEmpty = lock.newCondition();
+	private final Condition notFull = lock.newCondition();
+	
+	/**
+	 * Creates a new, empty CompactCustomerQueue holding at most the given number
+	 * of Customers. Queued Customers are kept as four ints each, instead of as
+	 * objects linked by nodes; a new Customer object is created each time one
+	 * is taken out. Memory grows with the number of queued Customers, not with
+	 * the capacity.
+	 * @param capacity - the maximum number of Customers in the queue
+	 * @throws IllegalArgumentException if the capacity is not positive
+	 */
+	public CompactCustomerQueue(int capacity) {
+		if(capacity <= 0) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		this.capacity = capacity;
+		allocate(Math.min(capacity, INITIAL_SIZE));
+	}
+	
+	private void allocate(int size) {
+		ids = new int[size];
+		arrivalTimes = new int[size];
+		servingTimes = new int[size];
+		finishTimes = new int[size];
+	}
+	
+	private void grow() {
+		int[] oldIds = ids, oldArrivals = arrivalTimes, oldServings = servingTimes, oldFinishes = finishTimes;
+		int oldSize = oldIds.length;
+		allocate((int) Math.min(capacity, 2L * oldSize));
+		
+		// Unwrap the ring so that the head ends up at index 0
+		int firstPart = Math.min(count, oldSize - head);
+		copyOut(oldIds, ids, firstPart);
+		copyOut(oldArrivals, arrivalTimes, firstPart);
+		copyOut(oldServings, servingTimes, firstPart);
+		copyOut(oldFinishes, finishTimes, firstPart);
+		head = 0;
+	}
+	
+	private void copyOut(int[] from, int[] to, int firstPart) {
+		System.arraycopy(from, head, to, 0, firstPart);
+		System.arraycopy(from, 0, to, firstPart, count - firstPart);
+	}
+	
+	// Must be called with the lock held, and with room in the queue
+	private void enqueue(Customer cust) {
+		if(count == ids.length) grow();
+		
+		int tail = head + count;
+		if(tail >= ids.length) tail -= ids.length;
+		
+		ids[tail] = cust.getId();
+		arrivalTimes[tail] = cust.getArrivalTime();
+		servingTimes[tail] = cust.getServingTime();
+		finishTimes[tail] = cust.getFinishTime();
+		++count;
+		notEmpty.signal();
+	}
+	
+	// Must be called with the lock held, and with a Customer in the queue
+	private Customer dequeue() {
+		Customer cust = customerAt(head);
+		if(++head == ids.length) head = 0;
+		--count;
+		notFull.signal();
+		return cust;
+	}
+	
+	private Customer customerAt(int index) {
+		Customer cust = new Customer(arrivalTimes[index], servingTimes[index]);
+		cust.setId(ids[index]);
+		cust.setFinishTime(finishTimes[index]);
+		return cust;
+	}
+
+	@Override
+	public boolean offer(Customer cust) {
+		if(cust == null) throw new NullPointerException();
+		
+		lock.lock();
+		try {
+			if(count == capacity) return false;
+			enqueue(cust);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offer(Customer cust, long timeout, TimeUnit unit) throws InterruptedException {
+		if(cust == null) throw new NullPointerException();
+		
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while(count == capacity) {
+				if(nanos <= 0) return false;
+				nanos = notFull.awaitNanos(nanos);
+			}
+			enqueue(cust);
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void put(Customer cust) throws InterruptedException {
+		if(cust == null) throw new NullPointerException();
+		
+		lock.lockInterruptibly();
+		try {
+			while(count == capacity) {
+				notFull.await();
+			}
+			enqueue(cust);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Customer poll() {
+		lock.lock();
+		try {
+			return count == 0 ? null : dequeue();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Customer poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long nanos = unit.toNanos(timeout);
+		lock.lockInterruptibly();
+		try {
+			while(count == 0) {
+				if(nanos <= 0) return null;
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return dequeue();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Customer take() throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			while(count == 0) {
+				notEmpty.await();
+			}
+			return dequeue();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public Customer peek() {
+		lock.lock();
+		try {
+			return count == 0 ? null : customerAt(head);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	@Override
+	public int remainingCapacity() {
+		return capacity - count;
+	}
+
+	@Override
+	public int drainTo(Collection<? super Customer> c) {
+		return drainTo(c, Integer.MAX_VALUE);
+	}
+
+	@Override
+	public int drainTo(Collection<? super Customer> c, int maxElements) {
+		if(c == this) throw new IllegalArgumentException();
+		
+		lock.lock();
+		try {
+			int drained = 0;
+			while(count > 0 && drained < maxElements) {
+				c.add(dequeue());
+				++drained;
+			}
+			return drained;
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/**
+	 * Returns an iterator over copies of the Customers queued at the time of
+	 * the call, from first to last. The iterator does not support removal.
+	 */
+	@Override
+	public Iterator<Customer> iterator() {
+		List<Customer> snapshot;
+		lock.lock();
+		try {
+			snapshot = new ArrayList<Customer>(count);
+			int index = head;
+			for(int i = 0; i < count; ++i) {
+				snapshot.add(customerAt(index));
+				if(++index == ids.length) index = 0;
+			}
+		} finally {
+			lock.unlock();
+		}
+		return Collections.unmodifiableList(snapshot).iterator();
+	}
+}
@@ -0,0 +1,162 @@
+package model.store;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import model.Customer;
+import model.arrival.ArrivalSource;
+import model.distribution.Distribution;
+import model.distribution.UniformDistribution;
+
+public class CustomerStore {
+	
+	private int[] arrivalTimes;
+	private int[] servingTimes;
+	private int size = 0;
+	
+	/**
+	 * Creates a new, empty CustomerStore with room for the given number of
+	 * Customers. Each Customer takes two ints, indexed by its id, instead of
+	 * being kept as an object; Customer objects are only created as they are read.
+	 * @param capacity - the number of Customers to make room for
+	 */
+	public CustomerStore(int capacity) {
+		this.arrivalTimes = new int[capacity];
+		this.servingTimes = new int[capacity];
+	}
+	
+	/**
+	 * Generates randomised Customers, exactly like
+	 * {@link model.CustomerGenerator#generateRandomClients(int, int, int, int, Random)}
+	 * does with the same source of randomness, but without creating an object for each.
+	 * @param number - the number of clients to generate
+	 * @param minProcTime - the minimum processing time for each client
+	 * @param maxProcTime - the maximum processing time for each client, included
+	 * @param maxTime - a maximum bound on the client's ideal finishing time
+	 * @param rand - the source of randomness to use
+	 * @return a CustomerStore holding the Customers in ascending order of arrival
+	 */
+	public static CustomerStore generateRandomClients(int number, int minProcTime, int maxProcTime, int maxTime, Random rand) {
+		return generateRandomClients(number, new UniformDistribution(minProcTime, maxProcTime), maxTime, rand);
+	}
+	
+	/**
+	 * Generates randomised Customers exactly like
+	 * {@link model.CustomerGenerator#generateRandomClients(int, Distribution, int, Random)}
+	 * does with the same source of randomness, but without creating an object for each.
+	 * @param number - the number of clients to generate
+	 * @param procTimes - the distribution of processing times
+	 * @param maxTime - a maximum bound on the client's ideal finishing time
+	 * @param rand - the source of randomness to use
+	 * @return a CustomerStore holding the Customers in ascending order of arrival
+	 */
+	public static CustomerStore generateRandomClients(int number, Distribution procTimes, int maxTime, Random rand) {
+		int[] arrivals = new int[number];
+		int[] servings = new int[number];
+		int[] countAtTime = new int[maxTime + 1];
+		
+		for(int i = 0; i < number; ++i) {
+			servings[i] = procTimes.sampleTime(rand, maxTime);
+			arrivals[i] = rand.nextInt(Math.max(1, maxTime - servings[i]));
+			++countAtTime[arrivals[i] + 1];
+		}
+		
+		// Counting sort by arrival, which keeps Customers arriving at the same
+		// time in the order they were generated, as the List version does
+		for(int t = 1; t <= maxTime; ++t) {
+			countAtTime[t] += countAtTime[t - 1];
+		}
+		
+		CustomerStore store = new CustomerStore(number);
+		for(int i = 0; i < number; ++i) {
+			int position = countAtTime[arrivals[i]]++;
+			store.arrivalTimes[position] = arrivals[i];
+			store.servingTimes[position] = servings[i];
+		}
+		store.size = number;
+		
+		return store;
+	}
+	
+	/**
+	 * Adds a Customer with the given times after the last one. Its id is its
+	 * position in the store.
+	 * @param arrivalTime - the time the Customer arrives
+	 * @param servingTime - the time it takes to serve the Customer
+	 * @return the id of the new Customer
+	 * @throws IllegalArgumentException if the Customer arrives before the previous one
+	 */
+	public int add(int arrivalTime, int servingTime) {
+		if(size > 0 && arrivalTime < arrivalTimes[size - 1]) {
+			throw new IllegalArgumentException("Customer " + size + " arrives before the one preceding it");
+		}
+		if(size == arrivalTimes.length) {
+			int newCapacity = Math.max(16, 2 * size);
+			arrivalTimes = Arrays.copyOf(arrivalTimes, newCapacity);
+			servingTimes = Arrays.copyOf(servingTimes, newCapacity);
+		}
+		
+		arrivalTimes[size] = arrivalTime;
+		servingTimes[size] = servingTime;
+		return size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getArrivalTime(int id) {
+		return arrivalTimes[id];
+	}
+
+	public int getServingTime(int id) {
+		return servingTimes[id];
+	}
+	
+	/**
+	 * Creates a Customer object for the Customer with the given id. Each call
+	 * creates a new object.
+	 * @param id - the id of the Customer
+	 * @return a Customer with the stored times and the given id
+	 */
+	public Customer getCustomer(int id) {
+		if(id < 0 || id >= size) throw new IndexOutOfBoundsException("No customer with id " + id);
+		
+		Customer cust = new Customer(arrivalTimes[id], servingTimes[id]);
+		cust.setId(id);
+		return cust;
+	}
+	
+	/**
+	 * Returns an ArrivalSource over the Customers of this store, creating
+	 * each Customer object only when it arrives.
+	 * @return the Customers of this store, in ascending order of arrival
+	 */
+	public ArrivalSource arrivals() {
+		return new ArrivalSource() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public Customer next() {
+				if(!hasNext()) throw new NoSuchElementException();
+				return getCustomer(next++);
+			}
+
+			@Override
+			public int peekArrivalTime() {
+				return hasNext() ? arrivalTimes[next] : Integer.MAX_VALUE;
+			}
+
+			@Override
+			public void close() {
+				// Nothing to release
+			}
+		};
+	}
+}
@@ -0,0 +1,141 @@
+package model.strategy;
+
+import java.util.List;
+
+import model.Customer;
+import model.CustomerServer;
+import model.CustomerServerListener;
+
+public abstract class IndexedStrategy implements Strategy, CustomerServerListener {
+	
+	private final List<CustomerServer> servers;
+	private final LoadHeap heap;
+	// Servers found to have no load left, ordered by id alone
+	private final LoadHeap drained;
+	
+	/**
+	 * Creates a new IndexedStrategy over the given CustomerServers, which must
+	 * have the ids 0, 1, 2... in the order they appear in the list. The strategy
+	 * listens to every server, so that its index is updated whenever their load
+	 * changes, until {@link #detach()} is called.
+	 * @param servers - the CustomerServers to which Customers will be assigned
+	 * @throws IllegalArgumentException if the ids do not match the positions in the list
+	 */
+	protected IndexedStrategy(List<CustomerServer> servers) {
+		this.servers = servers;
+		this.heap = new LoadHeap(servers.size());
+		this.drained = new LoadHeap(servers.size());
+		
+		for(int i = 0; i < servers.size(); ++i) {
+			CustomerServer server = servers.get(i);
+			if(server.getId() != i) {
+				throw new IllegalArgumentException("Server " + i + " has id " + server.getId());
+			}
+			
+			server.addListener(this);
+			refresh(server);
+		}
+	}
+	
+	/**
+	 * Returns the load of the given CustomerServer, by which servers are ordered.
+	 * @param server - the CustomerServer whose load to compute
+	 * @return the load of the server; lower values are preferred
+	 */
+	protected abstract int loadOf(CustomerServer server);
+	
+	/**
+	 * Checks whether the given CustomerServer has no load left. Loads that drop as
+	 * time passes, without the server telling its listeners, are keyed by when they
+	 * run out instead; the servers whose load has run out all tie, and are chosen
+	 * by id like any other tie.
+	 * @param server - the CustomerServer to check
+	 * @return true if the server's load is as low as it can be
+	 */
+	protected boolean isDrained(CustomerServer server) {
+		return false;
+	}
+	
+	/**
+	 * Chooses the least loaded CustomerServer that is not full, with the same choice
+	 * as the corresponding linear strategy. The given list must be the one this
+	 * strategy was created for. The Customer is added afterwards by the caller,
+	 * so a full queue never blocks while the servers need this strategy's lock
+	 * to report that a place has freed up.
+	 * @param cust - the Customer to be added to a queue
+	 * @param queues - the CustomerServer queues to which to add the Customer
+	 * @return the chosen CustomerServer, or null if every queue is full
+	 */
+	@Override
+	public synchronized CustomerServer selectServer(Customer cust, List<CustomerServer> queues) {
+		int id;
+		while((id = heap.peek()) >= 0 && isDrained(servers.get(id))) {
+			heap.update(id, 0, false);
+			drained.update(id, 0, true);
+		}
+		
+		if(drained.peek() >= 0) id = drained.peek();
+		return id < 0 ? null : servers.get(id);
+	}
+	
+	/**
+	 * Indexed strategies keep their servers ordered as their load changes, so each
+	 * choice already takes logarithmic time without reading every server. Batches
+	 * are therefore dispatched one Customer at a time.
+	 * @return null
+	 */
+	@Override
+	public int[] selectServers(List<Customer> batch, List<CustomerServer> queues) {
+		return null;
+	}
+	
+	/**
+	 * Stops listening to the CustomerServers. The strategy must not be used
+	 * to dispatch Customers afterwards.
+	 */
+	public void detach() {
+		for(CustomerServer server : servers) {
+			server.removeListener(this);
+		}
+	}
+	
+	private synchronized void refresh(CustomerServer server) {
+		drained.update(server.getId(), 0, false);
+		heap.update(server.getId(), loadOf(server), server.getRemainingCapacity() > 0);
+	}
+
+	@Override
+	public void customerAdded(CustomerServer server, Customer cust) {
+		refresh(server);
+	}
+
+	@Override
+	public void acceptingChanged(CustomerServer server) {
+		refresh(server);
+	}
+
+	@Override
+	public void queueRestored(CustomerServer server) {
+		refresh(server);
+	}
+
+	@Override
+	public void customerStolen(CustomerServer victim, CustomerServer thief, Customer cust) {
+		refresh(victim);
+	}
+
+	@Override
+	public void serviceStarted(CustomerServer server, Customer cust) {
+		refresh(server);
+	}
+
+	@Override
+	public void timeUnitServed(CustomerServer server) {
+		refresh(server);
+	}
+
+	@Override
+	public void serviceFinished(CustomerServer server, Customer cust) {
+		refresh(server);
+	}
+}
@@ -0,0 +1,105 @@
+package model.strategy;
+
+import java.util.Arrays;
+
+public class LoadHeap {
+	
+	// heap[i] is the id stored at position i of the binary heap
+	private final int[] heap;
+	// position[id] is the position of the id in the heap, or -1 if absent
+	private final int[] position;
+	private final int[] keys;
+	private int size = 0;
+	
+	/**
+	 * Creates an empty LoadHeap able to hold the ids from 0 to capacity - 1. Its
+	 * users must synchronize access to it themselves.
+	 * @param capacity - the number of ids that can be stored
+	 */
+	public LoadHeap(int capacity) {
+		heap = new int[capacity];
+		position = new int[capacity];
+		keys = new int[capacity];
+		Arrays.fill(position, -1);
+	}
+	
+	/**
+	 * Updates the key of the given id, inserting or removing it so that it
+	 * is only present in the heap when asked to be.
+	 * @param id - the id to update
+	 * @param key - the new key of the id
+	 * @param present - whether the id should be in the heap
+	 */
+	public void update(int id, int key, boolean present) {
+		int pos = position[id];
+		keys[id] = key;
+		
+		if(!present) {
+			if(pos >= 0) removeAt(pos);
+		} else if(pos < 0) {
+			heap[size] = id;
+			position[id] = size;
+			siftUp(size++);
+		} else {
+			siftUp(pos);
+			siftDown(position[id]);
+		}
+	}
+	
+	/**
+	 * Returns the id with the lowest key, choosing the lowest id among equal keys.
+	 * @return the id with the lowest key, or -1 if the heap is empty
+	 */
+	public int peek() {
+		return size == 0 ? -1 : heap[0];
+	}
+	
+	private void removeAt(int pos) {
+		int removed = heap[pos];
+		position[removed] = -1;
+		
+		--size;
+		if(pos == size) return;
+		
+		// Move the last id into the freed position, then restore the heap order
+		int moved = heap[size];
+		heap[pos] = moved;
+		position[moved] = pos;
+		siftUp(pos);
+		siftDown(position[moved]);
+	}
+	
+	private boolean less(int a, int b) {
+		return keys[a] < keys[b] || (keys[a] == keys[b] && a < b);
+	}
+	
+	private void siftUp(int pos) {
+		int id = heap[pos];
+		while(pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			if(!less(id, heap[parent])) break;
+			
+			heap[pos] = heap[parent];
+			position[heap[pos]] = pos;
+			pos = parent;
+		}
+		heap[pos] = id;
+		position[id] = pos;
+	}
+	
+	private void siftDown(int pos) {
+		int id = heap[pos];
+		while(true) {
+			int child = 2 * pos + 1;
+			if(child >= size) break;
+			if(child + 1 < size && less(heap[child + 1], heap[child])) ++child;
+			if(!less(heap[child], id)) break;
+			
+			heap[pos] = heap[child];
+			position[heap[pos]] = pos;
+			pos = child;
+		}
+		heap[pos] = id;
+		position[id] = pos;
+	}
+}
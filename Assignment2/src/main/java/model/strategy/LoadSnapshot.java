@@ -0,0 +1,123 @@
+package model.strategy;
+
+import java.util.Arrays;
+import java.util.List;
+
+import model.Customer;
+import model.CustomerServer;
+
+class LoadSnapshot {
+
+	private final List<CustomerServer> servers;
+	
+	// The load of each server, read at most once per batch
+	private final int[] clients;
+	private final int[] waitingTime;
+	private final int[] room;
+	// stamp[id] is the batch in which the load of the server was read
+	private final int[] stamp;
+	private int batch = 0;
+	
+	// The servers with room by load, built by the first call to lowest() in a batch
+	private final LoadHeap heap;
+	private int heapBatch = 0;
+	private boolean heapByTime;
+	
+	/**
+	 * Creates a LoadSnapshot of the given CustomerServers, which reads the load of
+	 * each server the first time it is needed in a batch, then only updates it locally.
+	 * @param servers - the CustomerServers whose load is kept
+	 */
+	LoadSnapshot(List<CustomerServer> servers) {
+		this.servers = servers;
+		this.clients = new int[servers.size()];
+		this.waitingTime = new int[servers.size()];
+		this.room = new int[servers.size()];
+		this.stamp = new int[servers.size()];
+		this.heap = new LoadHeap(servers.size());
+	}
+	
+	/**
+	 * Starts a new batch, so that the load of every server is read again.
+	 * This takes constant time, however many servers there are.
+	 */
+	void newBatch() {
+		if(++batch == 0) {
+			// The counter wrapped around, so old stamps could match again
+			Arrays.fill(stamp, 0);
+			heapBatch = 0;
+			batch = 1;
+		}
+	}
+	
+	/**
+	 * Checks whether this LoadSnapshot was created for the given list of servers.
+	 */
+	boolean covers(List<CustomerServer> servers) {
+		return this.servers == servers;
+	}
+	
+	int size() {
+		return servers.size();
+	}
+	
+	private void load(int id) {
+		if(stamp[id] == batch) return;
+		
+		CustomerServer server = servers.get(id);
+		clients[id] = server.getNoOfClients();
+		waitingTime[id] = server.getWaitingTime();
+		room[id] = server.getRemainingCapacity();
+		stamp[id] = batch;
+	}
+	
+	int getNoOfClients(int id) {
+		load(id);
+		return clients[id];
+	}
+	
+	int getWaitingTime(int id) {
+		load(id);
+		return waitingTime[id];
+	}
+	
+	boolean hasRoom(int id) {
+		load(id);
+		return room[id] > 0;
+	}
+	
+	/**
+	 * Records that the given Customer will be added to the given server.
+	 * @param id - the id of the server
+	 * @param cust - the Customer assigned to it
+	 */
+	void assign(int id, Customer cust) {
+		load(id);
+		++clients[id];
+		waitingTime[id] += cust.getServingTime();
+		--room[id];
+		
+		if(heapBatch == batch) heap.update(id, heapByTime ? waitingTime[id] : clients[id], room[id] > 0);
+	}
+	
+	/**
+	 * Returns the server with room that has the lowest load, choosing the
+	 * lowest id among equal loads, like the linear strategies. The first call
+	 * in a batch reads every server into a heap, which {@link #assign(int, Customer)}
+	 * keeps up to date, so each later call takes constant time.
+	 * @param byTime - whether to compare waiting times rather than numbers of clients,
+	 * 				   which must be the same for every call in a batch
+	 * @return the id of the server, or -1 if every server is full
+	 */
+	int lowest(boolean byTime) {
+		if(heapBatch != batch) {
+			for(int id = 0; id < servers.size(); ++id) {
+				load(id);
+				heap.update(id, byTime ? waitingTime[id] : clients[id], room[id] > 0);
+			}
+			heapBatch = batch;
+			heapByTime = byTime;
+		}
+		return heap.peek();
+	}
+}
@@ -15,16 +15,68 @@ public interface Strategy {
 		/**
 		 * Customers are assigned to the queue with the shortest waiting time
 		 */
-		SHORTEST_TIME
+		SHORTEST_TIME,
+		/**
+		 * Customers are assigned to the best of a few randomly sampled queues
+		 */
+		POWER_OF_D_CHOICES
+	}
+	
+	/**
+	 * Chooses which of the CustomerServers given the Customer should go to, without
+	 * adding it there. The exact CustomerServer chosen depends on the implementation.
+	 * Only servers with room are chosen.
+	 * @param cust - the Customer to be added to a queue
+	 * @param queues - the CustomerServer queues to which to add the Customer
+	 * @return the chosen CustomerServer, or null if every server considered was full
+	 * @see StrategyLowestNumber#selectServer(Customer, List)
+	 * @see StrategyLowestTime#selectServer(Customer, List)
+	 * @see StrategyPowerOfChoices#selectServer(Customer, List)
+	 */
+	public CustomerServer selectServer(Customer cust, List<CustomerServer> queues);
+	
+	/**
+	 * Chooses servers for a whole batch of Customers arriving together, without
+	 * adding them. Strategies that support this read the load of each server at
+	 * most once per batch and update it locally as Customers are assigned, instead
+	 * of re-reading it for every Customer.
+	 * @param batch - the Customers to be added to queues, in order of arrival
+	 * @param queues - the CustomerServer queues to which to add the Customers
+	 * @return for each Customer, the position in the list of its chosen server, or -1
+	 * 		   if every server considered was full; or null if this strategy only
+	 * 		   chooses for one Customer at a time
+	 */
+	public default int[] selectServers(List<Customer> batch, List<CustomerServer> queues) {
+		return null;
 	}
 	
 	/**
-	 * Assigns the given Customer to one of the CustomerServers given.
-	 * The exact CustomerServer chosen depends on the implementation.
+	 * Assigns the given Customer to one of the CustomerServers given, as chosen by
+	 * {@link #selectServer(Customer, List)}. If that finds no server with room, the
+	 * first server that has room is used, and if every queue is full, the Customer
+	 * waits for a place in the first one.
 	 * @param cust - the Customer to be added to a queue
 	 * @param queues - the CustomerServer queues to which to add the Customer
-	 * @see StrategyLowestNumber#dispatchCustomer(Customer, List)
-	 * @see StrategyLowestTime#dispatchCustomer(Customer, List)
+	 * @return the CustomerServer to which the Customer was assigned
 	 */
-	public void dispatchCustomer(Customer cust, List<CustomerServer> queues);
+	public default CustomerServer dispatchCustomer(Customer cust, List<CustomerServer> queues) {
+		CustomerServer target = selectServer(cust, queues);
+		
+		// The servers considered were all full, so look for any server with room
+		if(target == null) {
+			for(CustomerServer server : queues) {
+				if(server.getRemainingCapacity() > 0) {
+					target = server;
+					break;
+				}
+			}
+		}
+		
+		// Every queue is full, so wait for a place in the first one
+		if(target == null) target = queues.get(0);
+		
+		// Assign the Customer there
+		target.addCustomer(cust);
+		return target;
+	}
 }
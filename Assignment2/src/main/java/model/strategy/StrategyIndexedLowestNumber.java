@@ -0,0 +1,38 @@
+package model.strategy;
+
+import java.util.List;
+
+import model.Customer;
+import model.CustomerServer;
+
+public class StrategyIndexedLowestNumber extends IndexedStrategy {
+
+	/**
+	 * Creates a strategy that assigns Customers to the CustomerServer with the
+	 * lowest number of clients, like {@link StrategyLowestNumber}, but keeps the
+	 * servers indexed by their number of clients instead of scanning them.
+	 * @param servers - the CustomerServers to which Customers will be assigned
+	 */
+	public StrategyIndexedLowestNumber(List<CustomerServer> servers) {
+		super(servers);
+	}
+
+	@Override
+	protected int loadOf(CustomerServer server) {
+		return server.getNoOfClients();
+	}
+	
+	/**
+	 * The number of clients does not change while one is being served.
+	 */
+	@Override
+	public void timeUnitServed(CustomerServer server) {
+	}
+	
+	/**
+	 * Nor does it when a service finishes, as the Customer left the queue when it started.
+	 */
+	@Override
+	public void serviceFinished(CustomerServer server, Customer cust) {
+	}
+}
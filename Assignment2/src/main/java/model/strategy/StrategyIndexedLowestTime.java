@@ -0,0 +1,30 @@
+package model.strategy;
+
+import java.util.List;
+
+import model.CustomerServer;
+
+public class StrategyIndexedLowestTime extends IndexedStrategy {
+
+	/**
+	 * Creates a strategy that assigns Customers to the CustomerServer with the
+	 * lowest waiting time, like {@link StrategyLowestTime}, but keeps the
+	 * servers indexed instead of scanning them. Servers are indexed by the time
+	 * they will have served everyone, which for servers on a clock stays the same
+	 * while they are busy; it is the waiting time for the others.
+	 * @param servers - the CustomerServers to which Customers will be assigned
+	 */
+	public StrategyIndexedLowestTime(List<CustomerServer> servers) {
+		super(servers);
+	}
+
+	@Override
+	protected int loadOf(CustomerServer server) {
+		return server.getDrainTime();
+	}
+	
+	@Override
+	protected boolean isDrained(CustomerServer server) {
+		return server.getWaitingTime() == 0;
+	}
+}
@@ -6,26 +6,49 @@ import model.Customer;
 import model.CustomerServer;
 
 public class StrategyLowestNumber implements Strategy {
+	
+	// Reused from batch to batch, so its arrays are only allocated once
+	private LoadSnapshot snapshot = null;
 
 	/**
-	 * Assigns the given Customer to the CustomerServer with the lowest number
+	 * Chooses the CustomerServer with room that has the lowest number
 	 * of clients in the given list. This is a more natural representation of
 	 * customer behaviour, who often judge based on "rules of thumb" such as
 	 * the number of people in each queue.
 	 * @param cust - the Customer to be added to a queue
 	 * @param queues - the CustomerServer queues to which to add the Customer
+	 * @return the chosen CustomerServer, or null if every queue is full
 	 */
 	@Override
-	public void dispatchCustomer(Customer cust, List<CustomerServer> queues) {
+	public CustomerServer selectServer(Customer cust, List<CustomerServer> queues) {
 		// Find the CustomerServer with the lowest number of clients
-		CustomerServer target = queues.get(0);
+		CustomerServer target = null;
 		for(CustomerServer server : queues) {
-			if(server.getNoOfClients() < target.getNoOfClients()
-					&& server.getRemainingCapacity() > 0) target = server;
+			if(server.getRemainingCapacity() > 0
+					&& (target == null || server.getNoOfClients() < target.getNoOfClients())) target = server;
 		}
 		
-		// Assign the Customer there
-		target.addCustomer(cust);
+		return target;
+	}
+	
+	/**
+	 * Chooses servers for a batch of Customers like {@link #selectServer(Customer, List)},
+	 * reading the load of every server once for the whole batch.
+	 * @param batch - the Customers to be added to queues, in order of arrival
+	 * @param queues - the CustomerServer queues to which to add the Customers
+	 * @return for each Customer, the position of its chosen server, or -1 if every queue is full
+	 */
+	@Override
+	public synchronized int[] selectServers(List<Customer> batch, List<CustomerServer> queues) {
+		if(snapshot == null || !snapshot.covers(queues)) snapshot = new LoadSnapshot(queues);
+		snapshot.newBatch();
+		
+		int[] targets = new int[batch.size()];
+		for(int i = 0; i < targets.length; ++i) {
+			targets[i] = snapshot.lowest(false);
+			if(targets[i] >= 0) snapshot.assign(targets[i], batch.get(i));
+		}
+		return targets;
 	}
 
 }
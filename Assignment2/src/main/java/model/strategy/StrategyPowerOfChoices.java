@@ -0,0 +1,168 @@
+package model.strategy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import model.Customer;
+import model.CustomerServer;
+import model.strategy.Strategy.Policy;
+
+public class StrategyPowerOfChoices implements Strategy {
+	
+	private final int choices;
+	private final boolean byTime;
+	// Null when sampling with ThreadLocalRandom
+	private final SplittableRandom seeded;
+	// Reused from batch to batch; only the sampled servers are read in each
+	private LoadSnapshot snapshot = null;
+	
+	/**
+	 * Creates a strategy that samples the given number of random CustomerServers
+	 * for every Customer and picks the best of them, as judged by the given policy.
+	 * @param choices - the number of servers sampled per Customer
+	 * @param basis - {@link Policy#SHORTEST_QUEUE} to compare servers by number of
+	 * 				  clients, or {@link Policy#SHORTEST_TIME} to compare them by waiting time
+	 * @throws IllegalArgumentException if choices is not positive or the basis is
+	 * 				  not one of the two policies above
+	 */
+	public StrategyPowerOfChoices(int choices, Policy basis) {
+		this(choices, basis, null);
+	}
+	
+	/**
+	 * Creates a strategy that samples the given number of random CustomerServers
+	 * for every Customer and picks the best of them, drawing the samples from a
+	 * generator with the given seed, so that runs with the same Customers make
+	 * the same choices. Concurrent dispatches take turns on the generator.
+	 * @param choices - the number of servers sampled per Customer
+	 * @param basis - {@link Policy#SHORTEST_QUEUE} to compare servers by number of
+	 * 				  clients, or {@link Policy#SHORTEST_TIME} to compare them by waiting time
+	 * @param seed - the seed of the generator, or null to sample with {@link ThreadLocalRandom}
+	 * @throws IllegalArgumentException if choices is not positive or the basis is
+	 * 				  not one of the two policies above
+	 */
+	public StrategyPowerOfChoices(int choices, Policy basis, Long seed) {
+		if(choices < 1) throw new IllegalArgumentException("At least one choice is needed, got " + choices);
+		if(basis != Policy.SHORTEST_QUEUE && basis != Policy.SHORTEST_TIME) {
+			throw new IllegalArgumentException("Cannot compare servers by " + basis);
+		}
+		
+		this.choices = choices;
+		this.byTime = basis == Policy.SHORTEST_TIME;
+		this.seeded = seed == null ? null : new SplittableRandom(seed);
+	}
+	
+	/**
+	 * Chooses the least loaded of a few randomly chosen CustomerServers with room.
+	 * This gives waiting times close to those of always picking the least loaded
+	 * server, while only looking at a constant number of them. The sampled servers
+	 * are distinct, so that no choice is wasted on a server already compared. Servers
+	 * that do not accept Customers, e.g. those closed by an {@link model.ElasticPool},
+	 * are replaced by another draw rather than counted as choices, until every server
+	 * has been drawn.
+	 * @param cust - the Customer to be added to a queue
+	 * @param queues - the CustomerServer queues to which to add the Customer
+	 * @return the chosen CustomerServer, or null if every sampled server was full
+	 */
+	@Override
+	public CustomerServer selectServer(Customer cust, List<CustomerServer> queues) {
+		// Find the best of the sampled CustomerServers
+		CustomerServer target = null;
+		int targetLoad = Integer.MAX_VALUE;
+		int size = queues.size();
+		int[] drawn = new int[Math.min(choices, size)];
+		for(int i = 0, count = 0; i < choices && count < size; ++count) {
+			// Closed servers were drawn, so more draws are needed than choices
+			if(count == drawn.length) drawn = Arrays.copyOf(drawn, Math.min(2 * count, size));
+			
+			CustomerServer server = queues.get(sampleDistinct(size, drawn, count));
+			if(!server.isAccepting()) continue;
+			
+			++i;
+			if(server.getRemainingCapacity() == 0) continue;
+			
+			int load = byTime ? server.getWaitingTime() : server.getNoOfClients();
+			if(target == null || load < targetLoad) {
+				target = server;
+				targetLoad = load;
+			}
+		}
+		
+		return target;
+	}
+	
+	/**
+	 * Chooses servers for a batch of Customers like {@link #selectServer(Customer, List)},
+	 * reading the load of each sampled server only once for the whole batch.
+	 * @param batch - the Customers to be added to queues, in order of arrival
+	 * @param queues - the CustomerServer queues to which to add the Customers
+	 * @return for each Customer, the position of its chosen server, or -1 if every
+	 * 		   sampled server was full
+	 */
+	@Override
+	public synchronized int[] selectServers(List<Customer> batch, List<CustomerServer> queues) {
+		if(snapshot == null || !snapshot.covers(queues)) snapshot = new LoadSnapshot(queues);
+		snapshot.newBatch();
+		
+		int size = queues.size();
+		int[] drawn = new int[size];
+		int[] targets = new int[batch.size()];
+		for(int i = 0; i < targets.length; ++i) {
+			int target = -1;
+			int targetLoad = Integer.MAX_VALUE;
+			for(int j = 0, count = 0; j < choices && count < size; ++count) {
+				int id = sampleDistinct(size, drawn, count);
+				if(!queues.get(id).isAccepting()) continue;
+				
+				++j;
+				if(!snapshot.hasRoom(id)) continue;
+				
+				int load = byTime ? snapshot.getWaitingTime(id) : snapshot.getNoOfClients(id);
+				if(target < 0 || load < targetLoad) {
+					target = id;
+					targetLoad = load;
+				}
+			}
+			
+			targets[i] = target;
+			if(target >= 0) snapshot.assign(target, batch.get(i));
+		}
+		return targets;
+	}
+	
+	/**
+	 * Draws a random index that has not been drawn yet, with every such index
+	 * equally likely, and adds it to the drawn ones.
+	 * @param bound - the number of indices to draw from
+	 * @param drawn - the indices drawn so far, in increasing order, with room for one more
+	 * @param count - the number of indices drawn so far
+	 * @return the drawn index
+	 */
+	private int sampleDistinct(int bound, int[] drawn, int count) {
+		// Draw among the indices left, then shift past the drawn ones below it
+		int index = sample(bound - count);
+		int pos = 0;
+		while(pos < count && drawn[pos] <= index) {
+			++index;
+			++pos;
+		}
+		
+		System.arraycopy(drawn, pos, drawn, pos + 1, count - pos);
+		drawn[pos] = index;
+		return index;
+	}
+	
+	private int sample(int bound) {
+		if(seeded == null) return ThreadLocalRandom.current().nextInt(bound);
+		
+		synchronized(seeded) {
+			return seeded.nextInt(bound);
+		}
+	}
+	
+	public int getChoices() {
+		return choices;
+	}
+}
@@ -0,0 +1,91 @@
+package model.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class TraceReader implements Closeable {
+	
+	// A whole number of records, just under the 2 GB limit of a mapping
+	private static final long REGION_SIZE = (Integer.MAX_VALUE / TraceWriter.RECORD_SIZE) * (long) TraceWriter.RECORD_SIZE;
+	
+	private final FileChannel channel;
+	private final long size;
+	
+	private MappedByteBuffer region;
+	private long regionEnd;
+	
+	/**
+	 * Opens the trace file at the given path for reading.
+	 * @param path - the location of the trace file
+	 * @throws IOException if the file cannot be read or is not a trace file
+	 */
+	public TraceReader(Path path) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = channel.size();
+		
+		if(size < TraceWriter.HEADER_SIZE) {
+			channel.close();
+			throw new IOException(path + " is too short to be a trace file");
+		}
+		
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TraceWriter.HEADER_SIZE);
+		int magic = header.getInt();
+		int version = header.getInt();
+		int recordSize = header.getInt();
+		if(magic != TraceWriter.MAGIC || version != TraceWriter.VERSION || recordSize != TraceWriter.RECORD_SIZE) {
+			channel.close();
+			throw new IOException(path + " is not a version " + TraceWriter.VERSION + " trace file");
+		}
+		
+		mapRegion(TraceWriter.HEADER_SIZE);
+	}
+	
+	/**
+	 * Returns the number of records in the trace.
+	 * @return the number of records
+	 */
+	public long getRecordCount() {
+		return (size - TraceWriter.HEADER_SIZE) / TraceWriter.RECORD_SIZE;
+	}
+	
+	/**
+	 * Reads the next record into the given object, which can be reused
+	 * for every record so that reading does not allocate memory.
+	 * @param record - the object to fill in
+	 * @return true if a record was read, false if the end of the trace was reached
+	 * @throws IOException if the next region of the file cannot be mapped,
+	 * 				or the next record has an unknown type
+	 */
+	public boolean next(TraceRecord record) throws IOException {
+		if(region.remaining() < TraceWriter.RECORD_SIZE) {
+			if(size - regionEnd < TraceWriter.RECORD_SIZE) return false;
+			mapRegion(regionEnd);
+		}
+		
+		long offset = regionEnd - region.remaining();
+		int time = region.getInt();
+		int type = region.getInt();
+		if(type < 0 || type >= TraceRecord.TYPES.length) {
+			throw new IOException("Record at offset " + offset + " has an unknown type: " + type);
+		}
+		
+		record.set(time, TraceRecord.TYPES[type], region.getInt(), region.getInt(),
+				region.getInt(), region.getInt(), region.getInt());
+		return true;
+	}
+	
+	private void mapRegion(long start) throws IOException {
+		long length = Math.min(REGION_SIZE, size - start);
+		region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		regionEnd = start + length;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
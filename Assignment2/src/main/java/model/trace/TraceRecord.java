@@ -0,0 +1,84 @@
+package model.trace;
+
+public class TraceRecord {
+	
+	public enum Type {
+		/**
+		 * A Customer was added to the queue of a server
+		 */
+		DISPATCH,
+		/**
+		 * A server took a Customer out of its queue to serve it
+		 */
+		SERVICE_START,
+		/**
+		 * A server finished serving a Customer
+		 */
+		SERVICE_END,
+		/**
+		 * A Customer was taken from the end of the queue of a server by an idle
+		 * one, which starts serving it in the SERVICE_START record that follows.
+		 * Kept last, so that traces written before it existed read the same
+		 */
+		STOLEN
+	}
+	
+	// Cached, since Type.values() creates a new array on every call
+	static final Type[] TYPES = Type.values();
+	
+	private int time;
+	private Type type;
+	private int serverId;
+	private int customerId;
+	private int arrivalTime;
+	private int servingTime;
+	private int finishTime;
+	
+	void set(int time, Type type, int serverId, int customerId, int arrivalTime, int servingTime, int finishTime) {
+		this.time = time;
+		this.type = type;
+		this.serverId = serverId;
+		this.customerId = customerId;
+		this.arrivalTime = arrivalTime;
+		this.servingTime = servingTime;
+		this.finishTime = finishTime;
+	}
+
+	public int getTime() {
+		return time;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public int getServerId() {
+		return serverId;
+	}
+
+	public int getCustomerId() {
+		return customerId;
+	}
+
+	public int getArrivalTime() {
+		return arrivalTime;
+	}
+
+	public int getServingTime() {
+		return servingTime;
+	}
+
+	public int getFinishTime() {
+		return finishTime;
+	}
+	
+	/**
+	 * Returns the fields of this record in a readable form, e.g.
+	 * "12 DISPATCH server=3 customer=41 (10, 4) finish=17".
+	 */
+	@Override
+	public String toString() {
+		return time + " " + type + " server=" + serverId + " customer=" + customerId
+				+ " (" + arrivalTime + ", " + servingTime + ") finish=" + finishTime;
+	}
+}
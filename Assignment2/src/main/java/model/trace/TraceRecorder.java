@@ -0,0 +1,76 @@
+package model.trace;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.IntSupplier;
+
+import model.Customer;
+import model.CustomerServer;
+import model.CustomerServerListener;
+import model.QueueScheduler;
+
+public class TraceRecorder implements CustomerServerListener {
+	
+	private final TraceWriter writer;
+	private final IntSupplier clock;
+	
+	/**
+	 * Creates a new TraceRecorder that writes the events of the CustomerServers
+	 * it is attached to into the given TraceWriter.
+	 * @param writer - the TraceWriter receiving the records
+	 * @param clock - gives the current time moment of the simulation,
+	 * 				  e.g. {@link model.Simulator#getCurrentTime()}
+	 */
+	public TraceRecorder(TraceWriter writer, IntSupplier clock) {
+		this.writer = writer;
+		this.clock = clock;
+	}
+	
+	/**
+	 * Starts recording the events of every CustomerServer of the given QueueScheduler.
+	 * @param scheduler - the QueueScheduler to record
+	 */
+	public void attach(QueueScheduler scheduler) {
+		for(CustomerServer server : scheduler.getServers()) {
+			server.addListener(this);
+		}
+	}
+	
+	/**
+	 * Stops recording the events of the given QueueScheduler.
+	 * @param scheduler - the QueueScheduler to stop recording
+	 */
+	public void detach(QueueScheduler scheduler) {
+		for(CustomerServer server : scheduler.getServers()) {
+			server.removeListener(this);
+		}
+	}
+	
+	private void record(TraceRecord.Type type, CustomerServer server, Customer cust) {
+		try {
+			writer.write(clock.getAsInt(), type, server.getId(), cust);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Could not write to the trace", e);
+		}
+	}
+
+	@Override
+	public void customerAdded(CustomerServer server, Customer cust) {
+		record(TraceRecord.Type.DISPATCH, server, cust);
+	}
+
+	@Override
+	public void customerStolen(CustomerServer victim, CustomerServer thief, Customer cust) {
+		record(TraceRecord.Type.STOLEN, victim, cust);
+	}
+
+	@Override
+	public void serviceStarted(CustomerServer server, Customer cust) {
+		record(TraceRecord.Type.SERVICE_START, server, cust);
+	}
+
+	@Override
+	public void serviceFinished(CustomerServer server, Customer cust) {
+		record(TraceRecord.Type.SERVICE_END, server, cust);
+	}
+}
@@ -0,0 +1,119 @@
+package model.trace;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+import model.Customer;
+import model.QueueScheduler;
+import model.SimulationStatistics;
+
+public class TraceReplay {
+	
+	/**
+	 * Computes the statistics of a recorded simulation from its trace. For traces
+	 * recorded with the event engine, these are the same statistics the run produced.
+	 * @param reader - the trace to replay, from its first record
+	 * @return the statistics of the recorded simulation
+	 * @throws IOException if the trace cannot be read
+	 */
+	public static SimulationStatistics replayStatistics(TraceReader reader) throws IOException {
+		SimulationStatistics statistics = new SimulationStatistics();
+		TraceRecord record = new TraceRecord();
+		
+		int waiting = 0;
+		int currentTime = -1;
+		while(reader.next(record)) {
+			// The number of waiting Customers is sampled once all the
+			// events of a time moment have been applied
+			if(record.getTime() != currentTime) {
+				if(currentTime >= 0) statistics.recordWaiting(currentTime, waiting);
+				currentTime = record.getTime();
+			}
+			
+			switch(record.getType()) {
+				case DISPATCH:
+					statistics.recordDispatch(record.getArrivalTime(), record.getFinishTime());
+					++waiting;
+					break;
+				case SERVICE_START:
+					--waiting;
+					break;
+				case STOLEN:
+					// Still waiting until the thief's SERVICE_START record
+					break;
+				case SERVICE_END:
+					break;
+			}
+		}
+		if(currentTime >= 0) statistics.recordWaiting(currentTime, waiting);
+		
+		return statistics;
+	}
+	
+	/**
+	 * Rebuilds the contents of every queue from a trace and passes their descriptions
+	 * to the given display once per time moment, in the same format as
+	 * {@link QueueScheduler#getQueueDescriptions()}. This allows a recorded run to be
+	 * watched again, e.g. through {@code SimulatorFrame#displayData(List)}.
+	 * @param reader - the trace to replay, from its first record
+	 * @param display - receives the queue descriptions of each time moment
+	 * @param millisPerTick - how long to wait between time moments, or 0 not to wait
+	 * @throws IOException if the trace cannot be read
+	 * @throws InterruptedException if interrupted while waiting between time moments
+	 */
+	public static void replayQueues(TraceReader reader, Consumer<List<String>> display, long millisPerTick)
+			throws IOException, InterruptedException {
+		List<Deque<Customer>> queues = new ArrayList<Deque<Customer>>();
+		TraceRecord record = new TraceRecord();
+		
+		int currentTime = -1;
+		while(reader.next(record)) {
+			if(record.getTime() != currentTime) {
+				// Time moments without events leave the queues unchanged,
+				// so the current state stays on display for all of them
+				if(currentTime >= 0) showQueues(queues, display, millisPerTick * (record.getTime() - currentTime));
+				currentTime = record.getTime();
+			}
+			
+			while(queues.size() <= record.getServerId()) {
+				queues.add(new ArrayDeque<Customer>());
+			}
+			Deque<Customer> queue = queues.get(record.getServerId());
+			
+			switch(record.getType()) {
+				case DISPATCH:
+					queue.addLast(new Customer(record.getArrivalTime(), record.getServingTime()));
+					break;
+				case SERVICE_START:
+					// Stolen Customers start at a server with an empty queue
+					queue.pollFirst();
+					break;
+				case STOLEN:
+					queue.pollLast();
+					break;
+				case SERVICE_END:
+					break;
+			}
+		}
+		if(currentTime >= 0) showQueues(queues, display, 0);
+	}
+	
+	private static void showQueues(List<Deque<Customer>> queues, Consumer<List<String>> display, long millisToWait)
+			throws InterruptedException {
+		List<String> descriptions = new ArrayList<String>(queues.size());
+		for(int id = 0; id < queues.size(); ++id) {
+			StringBuilder description = new StringBuilder(QueueScheduler.serverName(id)).append(':');
+			for(Customer cust : queues.get(id)) {
+				description.append(' ').append(cust.toString());
+			}
+			descriptions.add(description.toString());
+		}
+		
+		display.accept(descriptions);
+		if(millisToWait > 0) Thread.sleep(millisToWait);
+	}
+}
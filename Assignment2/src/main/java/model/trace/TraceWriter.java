@@ -0,0 +1,111 @@
+package model.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import model.Customer;
+
+public class TraceWriter implements Closeable {
+	
+	/**
+	 * Marks the start of every trace file ("QTRC" in ASCII)
+	 */
+	public static final int MAGIC = 0x51545243;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 16;
+	/**
+	 * Size of each record: time, type, server, customer, arrival, serving and finish
+	 * time, stored as seven big-endian ints
+	 */
+	public static final int RECORD_SIZE = 7 * Integer.BYTES;
+	
+	private static final int DEFAULT_REGION_SIZE = 64 << 20;
+	
+	private final FileChannel channel;
+	private final int regionSize;
+	
+	private MappedByteBuffer region;
+	private long regionStart;
+	private long recordCount = 0;
+	
+	/**
+	 * Creates a new TraceWriter that writes to the file at the given path,
+	 * replacing it if it already exists.
+	 * @param path - the location of the trace file
+	 * @throws IOException if the file cannot be created
+	 */
+	public TraceWriter(Path path) throws IOException {
+		this(path, DEFAULT_REGION_SIZE);
+	}
+	
+	/**
+	 * Creates a new TraceWriter that writes to the file at the given path,
+	 * replacing it if it already exists. The file is memory-mapped one region
+	 * at a time, so writing a record never allocates memory; only moving on to
+	 * the next region does.
+	 * @param path - the location of the trace file
+	 * @param regionSize - the number of bytes mapped at once
+	 * @throws IOException if the file cannot be created
+	 */
+	public TraceWriter(Path path, int regionSize) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.regionSize = Math.max(regionSize, HEADER_SIZE + RECORD_SIZE);
+		
+		mapRegion(0);
+		region.putInt(MAGIC);
+		region.putInt(VERSION);
+		region.putInt(RECORD_SIZE);
+		region.putInt(0);
+	}
+	
+	/**
+	 * Appends one record for the given Customer to the trace.
+	 * @param time - the time moment of the event
+	 * @param type - the kind of event
+	 * @param serverId - the id of the CustomerServer involved
+	 * @param cust - the Customer involved
+	 * @throws IOException if the next region of the file cannot be mapped
+	 */
+	public synchronized void write(int time, TraceRecord.Type type, int serverId, Customer cust) throws IOException {
+		if(region.remaining() < RECORD_SIZE) {
+			mapRegion(regionStart + region.position());
+		}
+		
+		region.putInt(time);
+		region.putInt(type.ordinal());
+		region.putInt(serverId);
+		region.putInt(cust.getId());
+		region.putInt(cust.getArrivalTime());
+		region.putInt(cust.getServingTime());
+		region.putInt(cust.getFinishTime());
+		++recordCount;
+	}
+	
+	/**
+	 * Returns the number of records written so far.
+	 * @return the number of records
+	 */
+	public synchronized long getRecordCount() {
+		return recordCount;
+	}
+	
+	private void mapRegion(long start) throws IOException {
+		regionStart = start;
+		region = channel.map(FileChannel.MapMode.READ_WRITE, start, regionSize);
+	}
+	
+	/**
+	 * Flushes the trace to disk and cuts the file down to the records written.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		region.force();
+		channel.truncate(regionStart + region.position());
+		channel.close();
+	}
+}
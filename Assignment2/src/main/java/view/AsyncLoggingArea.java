@@ -0,0 +1,119 @@
+package view;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.swing.JTextArea;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.text.BadLocationException;
+
+import controller.LogDisplay;
+
+public class AsyncLoggingArea extends JTextArea implements LogDisplay {
+	/**
+	 * Default-generated serialVersionUID
+	 */
+	private static final long serialVersionUID = 4127730531923180587L;
+	
+	private static final int DEFAULT_CAPACITY = 1 << 16;
+	private static final int DEFAULT_MAX_LINES = 5000;
+	// About 20 refreshes per second, whatever the speed of the simulation
+	private static final int REFRESH_INTERVAL = 50;
+	
+	private final LogRingBuffer pending;
+	private final LongAdder droppedLines = new LongAdder();
+	private final int maxLines;
+	
+	/**
+	 * Creates a new AsyncLoggingArea keeping the last 5000 lines.
+	 */
+	public AsyncLoggingArea() {
+		this(DEFAULT_CAPACITY, DEFAULT_MAX_LINES);
+	}
+	
+	/**
+	 * Creates a new AsyncLoggingArea. Lines added from any thread are stored
+	 * in a lock-free buffer and moved to the text area in batches on the Swing
+	 * event dispatch thread, so adding a line never waits for the display.
+	 * @param capacity - the number of lines that can wait to be displayed; lines
+	 * 					 added while the buffer is full are dropped and counted
+	 * @param maxLines - the number of lines kept in the text area, older ones
+	 * 					 being removed
+	 */
+	public AsyncLoggingArea(int capacity, int maxLines) {
+		this.pending = new LogRingBuffer(capacity);
+		this.maxLines = maxLines;
+		
+		Timer refresher = new Timer(REFRESH_INTERVAL, e -> flush());
+		refresher.start();
+	}
+
+	/**
+	 * Queues the given line to be displayed at the next refresh. This method
+	 * never blocks and may be called from any thread.
+	 * @param text - the line to be displayed
+	 */
+	@Override
+	public void addTextLine(String text) {
+		if(!pending.offer(text)) droppedLines.increment();
+	}
+	
+	/**
+	 * Replaces the whole text, discarding any lines still waiting to be
+	 * displayed. May be called from any thread.
+	 * @param text - the new text
+	 */
+	@Override
+	public void setText(String text) {
+		// Called by the JTextArea constructor before the buffer exists
+		if(pending != null) {
+			while(pending.poll() != null);
+			droppedLines.reset();
+		}
+		
+		if(SwingUtilities.isEventDispatchThread()) {
+			super.setText(text);
+			return;
+		}
+		
+		// Wait for the text to be replaced, so that lines added afterwards
+		// cannot be flushed before it and then erased
+		try {
+			SwingUtilities.invokeAndWait(() -> super.setText(text));
+		} catch (InterruptedException | InvocationTargetException e) {
+			System.out.println("Interrupted in AsyncLoggingArea#setText!");
+			e.printStackTrace();
+		}
+	}
+	
+	/**
+	 * Moves every waiting line to the text area in a single append, then
+	 * removes the oldest lines beyond the retained maximum.
+	 */
+	private void flush() {
+		StringBuilder batch = new StringBuilder();
+		String line;
+		while((line = pending.poll()) != null) {
+			batch.append('\n').append(line);
+		}
+		
+		long dropped = droppedLines.sumThenReset();
+		if(dropped > 0) {
+			batch.append("\n(").append(dropped).append(" log lines dropped)");
+		}
+		
+		if(batch.length() == 0) return;
+		append(batch.toString());
+		
+		int excess = getLineCount() - maxLines;
+		if(excess > 0) {
+			try {
+				replaceRange("", 0, getLineEndOffset(excess - 1));
+			} catch (BadLocationException e) {
+				System.out.println("Could not trim the log in AsyncLoggingArea#flush!");
+				e.printStackTrace();
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package view;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class LogRingBuffer {
+	
+	private final String[] lines;
+	// sequences[i] tells which lap of the buffer slot i is ready for: equal to
+	// the write position when free, and to the write position + 1 once written
+	private final AtomicLongArray sequences;
+	private final int mask;
+	
+	private final AtomicLong writePosition = new AtomicLong(0);
+	private final AtomicLong readPosition = new AtomicLong(0);
+	
+	/**
+	 * Creates an empty LogRingBuffer holding at most the given number of lines,
+	 * rounded up to a power of two. Any number of threads may add and remove
+	 * lines at the same time without locking.
+	 * @param capacity - the maximum number of lines held at once
+	 */
+	LogRingBuffer(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		
+		lines = new String[size];
+		sequences = new AtomicLongArray(size);
+		mask = size - 1;
+		for(int i = 0; i < size; ++i) {
+			sequences.set(i, i);
+		}
+	}
+	
+	/**
+	 * Adds the given line at the end of the buffer, unless it is full.
+	 * @param line - the line to add
+	 * @return true if the line was added, false if the buffer was full
+	 */
+	boolean offer(String line) {
+		long pos = writePosition.get();
+		while(true) {
+			int slot = (int) pos & mask;
+			long diff = sequences.get(slot) - pos;
+			
+			if(diff == 0) {
+				if(writePosition.compareAndSet(pos, pos + 1)) {
+					lines[slot] = line;
+					sequences.lazySet(slot, pos + 1);
+					return true;
+				}
+				pos = writePosition.get();
+			} else if(diff < 0) {
+				// The slot still holds a line from the previous lap
+				return false;
+			} else {
+				// Another thread took this position first
+				pos = writePosition.get();
+			}
+		}
+	}
+	
+	/**
+	 * Removes the oldest line from the buffer.
+	 * @return the oldest line, or null if the buffer is empty
+	 */
+	String poll() {
+		long pos = readPosition.get();
+		while(true) {
+			int slot = (int) pos & mask;
+			long diff = sequences.get(slot) - (pos + 1);
+			
+			if(diff == 0) {
+				if(readPosition.compareAndSet(pos, pos + 1)) {
+					String line = lines[slot];
+					lines[slot] = null;
+					sequences.lazySet(slot, pos + mask + 1);
+					return line;
+				}
+				pos = readPosition.get();
+			} else if(diff < 0) {
+				// Nothing has been written to this position yet
+				return null;
+			} else {
+				pos = readPosition.get();
+			}
+		}
+	}
+}
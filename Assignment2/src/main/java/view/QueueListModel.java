@@ -0,0 +1,189 @@
+package view;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.swing.AbstractListModel;
+import javax.swing.Timer;
+
+import model.Customer;
+import model.CustomerServer;
+import model.CustomerServerListener;
+import model.QueueScheduler;
+
+public class QueueListModel extends AbstractListModel<String> implements CustomerServerListener {
+	/**
+	 * Default-generated serialVersionUID
+	 */
+	private static final long serialVersionUID = -2694051349326361845L;
+	
+	// About 60 refreshes per second, whatever the speed of the simulation
+	private static final int REFRESH_INTERVAL = 16;
+	// Rows only list the first Customers of long queues, so rendering one
+	// takes the same time however long its queue gets
+	private static final int MAX_SHOWN_CUSTOMERS = 50;
+	
+	private volatile Attachment attachment = new Attachment(Collections.<CustomerServer>emptyList());
+	private final AtomicBoolean anyChanged = new AtomicBoolean(false);
+	
+	// Only used on the event dispatch thread
+	private String[] rows = new String[0];
+	
+	/**
+	 * Creates a new, empty QueueListModel. Rows are refreshed on the Swing
+	 * event dispatch thread at most 60 times per second, and only for the
+	 * queues that changed since the previous refresh.
+	 */
+	public QueueListModel() {
+		Timer refresher = new Timer(REFRESH_INTERVAL, e -> refresh());
+		refresher.start();
+	}
+	
+	/**
+	 * Shows the queues of the given QueueScheduler, one row per queue, keeping
+	 * them up to date as Customers are added and served. Any QueueScheduler
+	 * shown before is detached. May be called from any thread.
+	 * @param scheduler - the QueueScheduler whose queues will be shown
+	 */
+	public synchronized void attach(QueueScheduler scheduler) {
+		detach();
+		
+		Attachment attached = new Attachment(scheduler.getServers());
+		for(int i = 0; i < attached.servers.size(); ++i) {
+			attached.changed.set(i, 1);
+		}
+		
+		attachment = attached;
+		for(CustomerServer server : attached.servers) {
+			server.addListener(this);
+		}
+		anyChanged.set(true);
+	}
+	
+	/**
+	 * Stops following the queues currently shown. Their rows keep their last contents.
+	 */
+	public synchronized void detach() {
+		for(CustomerServer server : attachment.servers) {
+			server.removeListener(this);
+		}
+	}
+	
+	/**
+	 * Replaces the rows with the given ones, updating only those that differ.
+	 * Any QueueScheduler shown before is detached. Must be called on the
+	 * event dispatch thread.
+	 * @param rowsData - the new rows, one per queue
+	 */
+	public void setRows(List<String> rowsData) {
+		synchronized(this) {
+			detach();
+			attachment = new Attachment(Collections.<CustomerServer>emptyList());
+		}
+		
+		resize(rowsData.size());
+		int firstChanged = -1;
+		for(int i = 0; i < rows.length; ++i) {
+			firstChanged = updateRow(i, rowsData.get(i), firstChanged);
+		}
+		fireChanged(firstChanged, rows.length);
+	}
+	
+	private void refresh() {
+		if(!anyChanged.getAndSet(false)) return;
+		
+		Attachment current = attachment;
+		
+		resize(current.servers.size());
+		int firstChanged = -1;
+		for(int i = 0; i < rows.length; ++i) {
+			if(current.changed.getAndSet(i, 0) == 0) {
+				// Close the run of changed rows, if any
+				fireChanged(firstChanged, i);
+				firstChanged = -1;
+			} else {
+				firstChanged = updateRow(i, current.servers.get(i).describeQueue(MAX_SHOWN_CUSTOMERS), firstChanged);
+			}
+		}
+		fireChanged(firstChanged, rows.length);
+	}
+	
+	// Returns the start of the current run of changed rows, or -1 if there is none
+	private int updateRow(int index, String row, int firstChanged) {
+		if(row.equals(rows[index])) {
+			fireChanged(firstChanged, index);
+			return -1;
+		}
+		
+		rows[index] = row;
+		return firstChanged < 0 ? index : firstChanged;
+	}
+	
+	private void fireChanged(int from, int to) {
+		if(from >= 0) fireContentsChanged(this, from, to - 1);
+	}
+	
+	private void resize(int size) {
+		int oldSize = rows.length;
+		if(size == oldSize) return;
+		
+		String[] resized = new String[size];
+		System.arraycopy(rows, 0, resized, 0, Math.min(size, oldSize));
+		for(int i = oldSize; i < size; ++i) {
+			resized[i] = "";
+		}
+		rows = resized;
+		
+		if(size < oldSize) {
+			fireIntervalRemoved(this, size, oldSize - 1);
+		} else {
+			fireIntervalAdded(this, oldSize, size - 1);
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return rows.length;
+	}
+
+	@Override
+	public String getElementAt(int index) {
+		return rows[index];
+	}
+	
+	private void markChanged(CustomerServer server) {
+		AtomicIntegerArray current = attachment.changed;
+		if(server.getId() < current.length()) {
+			current.set(server.getId(), 1);
+			anyChanged.set(true);
+		}
+	}
+
+	@Override
+	public void customerAdded(CustomerServer server, Customer cust) {
+		markChanged(server);
+	}
+
+	@Override
+	public void customerStolen(CustomerServer victim, CustomerServer thief, Customer cust) {
+		markChanged(victim);
+	}
+
+	@Override
+	public void serviceStarted(CustomerServer server, Customer cust) {
+		markChanged(server);
+	}
+	
+	// The queues being shown, along with a flag for each telling whether it changed
+	private static class Attachment {
+		private final List<CustomerServer> servers;
+		private final AtomicIntegerArray changed;
+		
+		private Attachment(List<CustomerServer> servers) {
+			this.servers = servers;
+			this.changed = new AtomicIntegerArray(servers.size());
+		}
+	}
+}
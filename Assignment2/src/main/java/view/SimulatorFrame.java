@@ -1,5 +1,6 @@
 package view;
 
+import java.awt.BorderLayout;
 import java.awt.GridLayout;
 import java.awt.event.ActionListener;
 import java.util.List;
@@ -13,17 +14,21 @@ import javax.swing.JList;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
+
+import model.QueueScheduler;
 
 public class SimulatorFrame extends JFrame {
 	// This is just a default value; we don't really need it
 	private static final long serialVersionUID = 1L;
 	
-	private static final String[] strategies = {"Shortest queue", "Shortest time"};
+	private static final String[] strategies = {"Shortest queue", "Shortest time", "Power of two choices"};
 	
 	private JPanel mainPanel;
 	private JPanel settingsPanel;
 	private JPanel simulationPanel;
-	private LoggingArea logDisplay;
+	private QueueListModel queueModel = new QueueListModel();
+	private AsyncLoggingArea logDisplay;
 	private JButton startButton = new JButton("Start");
 	
 	private JTextField timeField = new JTextField("100");
@@ -67,11 +72,13 @@ public class SimulatorFrame extends JFrame {
 					hiddenSettingsPanel.add(new JLabel("Strategy"));
 					hiddenSettingsPanel.add(strategyBox);
 				settingsPanel.add(startButton);
-			simulationPanel = new JPanel();
+			simulationPanel = new JPanel(new BorderLayout());
 			//mainPanel.add(simulationPanel, BorderLayout.CENTER); // TODO: add it in a good position relative to the other elements to come
 			mainPanel.add(simulationPanel);
+				JList<String> queueList = new JList<String>(queueModel);
+				simulationPanel.add(new JScrollPane(queueList));
 		
-			logDisplay = new LoggingArea();
+			logDisplay = new AsyncLoggingArea();
 			JScrollPane hiddenDisplayScroller = new JScrollPane(logDisplay);
 			//mainPanel.add(hiddenDisplayScroller, BorderLayout.SOUTH);
 			mainPanel.add(hiddenDisplayScroller);
@@ -85,26 +92,18 @@ public class SimulatorFrame extends JFrame {
 	 * @param queuesData - the data to be displayed
 	 */
 	public void displayData(List<String> queuesData) {
-		simulationPanel.removeAll();
-		
-		JScrollPane dataPane = createDataScrollPane(queuesData);
-		
-		simulationPanel.add(dataPane);
-		simulationPanel.repaint();
-		simulationPanel.validate();
+		// Only the rows that differ from the displayed ones are repainted
+		SwingUtilities.invokeLater(() -> queueModel.setRows(queuesData));
 	}
 	
 	/**
-	 * Creates a new JScrollPane that holds the data pertaining to the queues
-	 * that has been passed as a parameter.
-	 * @param queuesData - the data to be displayed
-	 * @return a JScrollPane that contains the given data
+	 * Displays the queues of the given QueueScheduler in the simulation window,
+	 * updating them as Customers are added and served, instead of waiting for
+	 * {@link #displayData(List)} to be called.
+	 * @param scheduler - the QueueScheduler whose queues will be displayed
 	 */
-	private JScrollPane createDataScrollPane(List<String> queuesData) {
-		// We use toArray because JList does not support
-		// getting initial data from a List, but only from an array
-		JList<String> queueList = new JList<String>(queuesData.toArray(new String[0]));
-		return new JScrollPane(queueList);
+	public void displayQueues(QueueScheduler scheduler) {
+		queueModel.attach(scheduler);
 	}
 	
 	/**
@@ -115,7 +114,7 @@ public class SimulatorFrame extends JFrame {
 		startButton.addActionListener(act);
 	}
 	
-	public LoggingArea getLoggingArea() {
+	public AsyncLoggingArea getLoggingArea() {
 		return logDisplay;
 	}
 	
@@ -144,6 +143,7 @@ public class SimulatorFrame extends JFrame {
 	 * <ol start="0">
 	 * <li> Shortest queue </li>
 	 * <li> Shortest time </li>
+	 * <li> Power of two choices </li>
 	 * </ol>
 	 * @return an integer representing the selected strategy
 	 */
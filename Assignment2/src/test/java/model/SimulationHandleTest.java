@@ -0,0 +1,61 @@
+package model;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import controller.NullLogDisplay;
+import junit.framework.TestCase;
+
+public class SimulationHandleTest extends TestCase {
+	
+	/**
+	 * Cancels a run on a caller's executor with a single thread, where one server is
+	 * busy with a long Customer and the other never got to start, and checks that the
+	 * handle only reports being done once the thread is actually free again.
+	 */
+	public void testCancelStopsTasksOnCallersExecutor() throws Exception {
+		QueueScheduler scheduler = new QueueScheduler(100, 2, 5, new NullLogDisplay());
+		scheduler.getServers().get(0).addCustomer(new Customer(0, 100));
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			SimulationHandle handle = scheduler.start(executor);
+			assertFalse(handle.await(200, TimeUnit.MILLISECONDS));
+			assertFalse(handle.isDone());
+			
+			handle.cancel();
+			assertTrue(handle.await(5, TimeUnit.SECONDS));
+			assertTrue(handle.isDone());
+			assertFalse(executor.isShutdown());
+			
+			// The only thread must not still be serving the long Customer
+			executor.submit(() -> { }).get(1, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	public void testCancelStopsPooledServers() throws Exception {
+		QueueScheduler scheduler = new QueueScheduler(100, 3, 5, new NullLogDisplay());
+		scheduler.getServers().get(1).addCustomer(new Customer(0, 100));
+		SimulationHandle handle = scheduler.start(ExecutionMode.SHARED_POOL);
+		assertFalse(handle.await(200, TimeUnit.MILLISECONDS));
+		
+		handle.cancel();
+		assertTrue(handle.await(5, TimeUnit.SECONDS));
+		assertTrue(handle.isDone());
+	}
+	
+	public void testAwaitWaitsForLastCustomers() throws Exception {
+		QueueScheduler scheduler = new QueueScheduler(100, 1, 5, new NullLogDisplay());
+		scheduler.getServers().get(0).addCustomer(new Customer(0, 2));
+		SimulationHandle handle = scheduler.start(ExecutionMode.PLATFORM_THREADS);
+		Thread.sleep(200);
+		scheduler.endSimulation();
+		assertFalse(handle.isDone());
+		
+		assertTrue(handle.await(5, TimeUnit.SECONDS));
+		assertTrue(handle.isDone());
+		assertEquals(0, scheduler.getCustomerCount());
+	}
+}
@@ -0,0 +1,133 @@
+package model.arrival;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import model.Customer;
+
+public class ArrivalFilesTest extends TestCase {
+	
+	private Path csv;
+	private Path binary;
+	
+	@Override
+	protected void setUp() throws IOException {
+		csv = Files.createTempFile("arrivals", ".csv");
+		binary = Files.createTempFile("arrivals", ".bin");
+	}
+	
+	@Override
+	protected void tearDown() throws IOException {
+		Files.deleteIfExists(csv);
+		Files.deleteIfExists(binary);
+	}
+	
+	private static List<Customer> readAll(ArrivalSource source) throws IOException {
+		List<Customer> customers = new ArrayList<Customer>();
+		try {
+			while(source.hasNext()) {
+				int arrival = source.peekArrivalTime();
+				Customer cust = source.next();
+				assertEquals(arrival, cust.getArrivalTime());
+				customers.add(cust);
+			}
+			assertEquals(Integer.MAX_VALUE, source.peekArrivalTime());
+		} finally {
+			source.close();
+		}
+		return customers;
+	}
+	
+	private static void assertSameCustomers(List<Customer> expected, List<Customer> actual) {
+		assertEquals(expected.size(), actual.size());
+		for(int i = 0; i < expected.size(); ++i) {
+			assertEquals(expected.get(i).getId(), actual.get(i).getId());
+			assertEquals(expected.get(i).getArrivalTime(), actual.get(i).getArrivalTime());
+			assertEquals(expected.get(i).getServingTime(), actual.get(i).getServingTime());
+		}
+	}
+	
+	/**
+	 * Writes random arrivals, some arriving together, as a CSV file without ids.
+	 */
+	private List<Customer> writeRandomCsv(int count, long seed) throws IOException {
+		Random random = new Random(seed);
+		List<Customer> customers = new ArrayList<Customer>();
+		StringBuilder contents = new StringBuilder("arrival,serving\n");
+		int time = 0;
+		for(int id = 0; id < count; ++id) {
+			time += random.nextInt(3);
+			Customer cust = new Customer(time, 1 + random.nextInt(20));
+			cust.setId(id);
+			customers.add(cust);
+			contents.append(cust.getArrivalTime()).append(',').append(cust.getServingTime()).append('\n');
+		}
+		Files.write(csv, contents.toString().getBytes(StandardCharsets.US_ASCII));
+		return customers;
+	}
+	
+	public void testCsvToBinaryRoundTrip() throws IOException {
+		List<Customer> customers = writeRandomCsv(10000, 1);
+		
+		long written;
+		try(CsvArrivalSource source = new CsvArrivalSource(csv)) {
+			written = BinaryArrivalWriter.convert(source, binary);
+		}
+		assertEquals(customers.size(), written);
+		assertEquals(BinaryArrivalWriter.HEADER_SIZE + written * BinaryArrivalWriter.RECORD_SIZE, Files.size(binary));
+		
+		ArrivalSource source = ArrivalFiles.open(binary);
+		assertTrue(source instanceof BinaryArrivalSource);
+		assertEquals(written, ((BinaryArrivalSource) source).getCustomerCount());
+		assertSameCustomers(customers, readAll(source));
+	}
+	
+	public void testOpenDetectsCsv() throws IOException {
+		List<Customer> customers = writeRandomCsv(100, 2);
+		
+		ArrivalSource source = ArrivalFiles.open(csv);
+		assertTrue(source instanceof CsvArrivalSource);
+		assertSameCustomers(customers, readAll(source));
+	}
+	
+	public void testShortCsvIsNotTakenForBinary() throws IOException {
+		Files.write(csv, "1,2\n".getBytes(StandardCharsets.US_ASCII));
+		
+		List<Customer> customers = readAll(ArrivalFiles.open(csv));
+		assertEquals(1, customers.size());
+		assertEquals(2, customers.get(0).getServingTime());
+	}
+	
+	public void testConversionRenumbersIds() throws IOException {
+		Files.write(csv, "0,3,50\n1,2,8\n".getBytes(StandardCharsets.US_ASCII));
+		try(CsvArrivalSource source = new CsvArrivalSource(csv)) {
+			BinaryArrivalWriter.convert(source, binary);
+		}
+		
+		List<Customer> customers = readAll(ArrivalFiles.open(binary));
+		assertEquals(0, customers.get(0).getId());
+		assertEquals(1, customers.get(1).getId());
+		assertEquals(3, customers.get(0).getServingTime());
+		assertEquals(1, customers.get(1).getArrivalTime());
+	}
+	
+	public void testWriterRejectsArrivalsOutOfOrder() throws IOException {
+		try(BinaryArrivalWriter writer = new BinaryArrivalWriter(binary)) {
+			writer.write(new Customer(5, 1));
+			writer.write(new Customer(5, 2));
+			try {
+				writer.write(new Customer(4, 1));
+				fail("Wrote an arrival out of order");
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+		}
+		assertEquals(2, readAll(ArrivalFiles.open(binary)).size());
+	}
+}
@@ -0,0 +1,111 @@
+package model.arrival;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import model.Customer;
+
+public class CsvArrivalSourceTest extends TestCase {
+	
+	private Path file;
+	
+	@Override
+	protected void setUp() throws IOException {
+		file = Files.createTempFile("arrivals", ".csv");
+	}
+	
+	@Override
+	protected void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+	
+	private List<Customer> read(String contents) throws IOException {
+		Files.write(file, contents.getBytes(StandardCharsets.US_ASCII));
+		List<Customer> customers = new ArrayList<Customer>();
+		try(CsvArrivalSource source = new CsvArrivalSource(file)) {
+			while(source.hasNext()) {
+				customers.add(source.next());
+			}
+		}
+		return customers;
+	}
+	
+	/**
+	 * Checks that reading the given contents fails with the given exception,
+	 * whose message starts with the given text.
+	 */
+	private void assertRejected(String contents, Class<? extends RuntimeException> type, String message) throws IOException {
+		try {
+			read(contents);
+			fail("Accepted " + contents);
+		} catch (RuntimeException e) {
+			assertEquals(type, e.getClass());
+			assertTrue(e.getMessage(), e.getMessage().startsWith(message));
+		}
+	}
+	
+	private static void assertCustomer(int id, int arrivalTime, int servingTime, Customer cust) {
+		assertEquals(id, cust.getId());
+		assertEquals(arrivalTime, cust.getArrivalTime());
+		assertEquals(servingTime, cust.getServingTime());
+	}
+	
+	public void testHeaderBlankLinesAndWhitespace() throws IOException {
+		List<Customer> customers = read("arrival,serving\n\n1, 4\r\n  \n\t2 ,3\n\n5,1");
+		assertEquals(3, customers.size());
+		assertCustomer(0, 1, 4, customers.get(0));
+		assertCustomer(1, 2, 3, customers.get(1));
+		assertCustomer(2, 5, 1, customers.get(2));
+	}
+	
+	public void testIdsAreKeptOrNumberedByPosition() throws IOException {
+		List<Customer> customers = read("0,1,40\n0,2\n3,1,7\n4,4\n");
+		assertCustomer(40, 0, 1, customers.get(0));
+		assertCustomer(1, 0, 2, customers.get(1));
+		assertCustomer(7, 3, 1, customers.get(2));
+		assertCustomer(3, 4, 4, customers.get(3));
+	}
+	
+	public void testEmptyFile() throws IOException {
+		try(CsvArrivalSource source = new CsvArrivalSource(file)) {
+			assertFalse(source.hasNext());
+			assertEquals(Integer.MAX_VALUE, source.peekArrivalTime());
+		}
+		assertTrue(read("arrival,serving\n\n").isEmpty());
+	}
+	
+	public void testLargestValueIsAccepted() throws IOException {
+		List<Customer> customers = read("0,2147483647\n2147483647,1\n");
+		assertCustomer(0, 0, Integer.MAX_VALUE, customers.get(0));
+		assertCustomer(1, Integer.MAX_VALUE, 1, customers.get(1));
+	}
+	
+	public void testValuesAboveIntRangeAreRejected() throws IOException {
+		assertRejected("1,2\n3,2147483648\n", IllegalArgumentException.class,
+				"Line 2 has a value above " + Integer.MAX_VALUE);
+		assertRejected("1,2\n3,4\n5,1,99999999999999999999999\n", IllegalArgumentException.class,
+				"Line 3 has a value above " + Integer.MAX_VALUE);
+	}
+	
+	public void testNegativeValuesAreRejected() throws IOException {
+		assertRejected("arrival,serving\n1,-2\n", IllegalArgumentException.class, "Line 2 has a negative value: -2");
+		assertRejected("1,2\n\n-3,2\n", IllegalArgumentException.class, "Line 3 has a negative value: -3");
+	}
+	
+	public void testMalformedLinesAreRejected() throws IOException {
+		assertRejected("1,2\n3\n", IllegalArgumentException.class, "Line 2 is not a valid arrival");
+		assertRejected("1,2\n3,4,5,6\n", IllegalArgumentException.class, "Line 2 is not a valid arrival");
+		assertRejected("1,2\n3,,4\n", IllegalArgumentException.class, "Line 2 is not a valid arrival");
+		assertRejected("1,2\narrival,serving\n", IllegalArgumentException.class, "Line 2 is not a valid arrival");
+		assertRejected("1,2\n3,4x\n", IllegalArgumentException.class, "Line 2 is not a valid arrival");
+	}
+	
+	public void testArrivalsOutOfOrderAreRejected() throws IOException {
+		assertRejected("5,1\n6,1\n4,1\n", IllegalStateException.class, "Line 3 arrives before the line preceding it");
+	}
+}
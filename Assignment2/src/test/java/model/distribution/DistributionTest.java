@@ -0,0 +1,65 @@
+package model.distribution;
+
+import java.util.List;
+import java.util.Random;
+
+import controller.NullLogDisplay;
+import junit.framework.TestCase;
+import model.Customer;
+import model.CustomerGenerator;
+import model.CustomerServer;
+import model.QueueScheduler;
+import model.SimulationStatistics;
+import model.arrival.ListArrivalSource;
+import model.event.EventSimulator;
+import model.strategy.Strategy.Policy;
+
+public class DistributionTest extends TestCase {
+	
+	// Infinite mean: about one sample in 50000 is past Integer.MAX_VALUE
+	private final Distribution pareto = new ParetoDistribution(1, 0.4);
+	
+	public void testTimesStayWithinBound() {
+		Random random = new Random(1);
+		int timeLimit = 1000;
+		boolean reachedBound = false;
+		for(int i = 0; i < 1000000; ++i) {
+			int time = pareto.sampleTime(random, timeLimit);
+			assertTrue(time >= 1 && time <= timeLimit);
+			reachedBound |= time == timeLimit;
+		}
+		assertTrue(reachedBound);
+		
+		assertEquals(1, pareto.sampleTime(random, 0));
+	}
+	
+	public void testQueuesOfLongestTimesDoNotOverflow() {
+		Random random = new Random(2);
+		CustomerServer server = new CustomerServer(0, "Queue 0", 100, new NullLogDisplay());
+		int timeLimit = Integer.MAX_VALUE / 1000;
+		for(int i = 0; i < 100; ++i) {
+			Customer cust = new Customer(0, pareto.sampleTime(random, timeLimit));
+			assertTrue(server.offerCustomer(cust));
+			assertTrue(cust.getFinishTime() > 0);
+		}
+		assertTrue(server.getWaitingTime() > 0);
+	}
+	
+	public void testHeavyTailedRun() {
+		int timeLimit = 2000;
+		List<Customer> customers = CustomerGenerator.generateRandomClients(20000, pareto, timeLimit, new Random(3));
+		QueueScheduler scheduler = new QueueScheduler(timeLimit, 10, 50, new NullLogDisplay());
+		scheduler.setStrategy(Policy.SHORTEST_TIME);
+		SimulationStatistics statistics = new EventSimulator(scheduler, timeLimit).run(new ListArrivalSource(customers));
+		
+		assertTrue(statistics.getDispatchedCustomers() > 0);
+		assertTrue(statistics.getTotalWaitingTime() > 0);
+		for(Customer cust : customers) {
+			assertTrue(cust.getServingTime() <= timeLimit);
+			assertTrue(cust.getFinishTime() >= 0);
+		}
+		for(CustomerServer server : scheduler.getServers()) {
+			assertTrue(server.getWaitingTime() >= 0);
+		}
+	}
+}
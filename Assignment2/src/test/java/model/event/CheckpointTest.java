@@ -0,0 +1,133 @@
+package model.event;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import controller.NullLogDisplay;
+import junit.framework.TestCase;
+import model.Customer;
+import model.CustomerGenerator;
+import model.QueueScheduler;
+import model.QueueScheduler.QueueType;
+import model.SimulationStatistics;
+import model.arrival.ListArrivalSource;
+import model.stats.QueueMetrics;
+import model.strategy.Strategy.Policy;
+
+public class CheckpointTest extends TestCase {
+	
+	private static final int TIME_LIMIT = 300;
+	private static final int SERVERS = 5;
+	private static final int CAPACITY = 6;
+	
+	private List<Customer> customers;
+	
+	@Override
+	protected void setUp() {
+		customers = CustomerGenerator.generateRandomClients(900, 1, 15, TIME_LIMIT, new Random(7));
+	}
+	
+	/**
+	 * Gives every run Customers of its own, since the simulation sets their finish times.
+	 */
+	private ListArrivalSource arrivals() {
+		List<Customer> copies = new ArrayList<Customer>(customers.size());
+		for(Customer cust : customers) {
+			Customer copy = new Customer(cust.getArrivalTime(), cust.getServingTime());
+			copy.setId(cust.getId());
+			copies.add(copy);
+		}
+		return new ListArrivalSource(copies);
+	}
+	
+	private static EventSimulator simulator(Policy policy, boolean stealing) {
+		QueueScheduler scheduler = new QueueScheduler(TIME_LIMIT, SERVERS, CAPACITY,
+				stealing ? QueueType.DEQUE : QueueType.LINKED, new NullLogDisplay());
+		scheduler.setStrategy(policy);
+		EventSimulator simulator = new EventSimulator(scheduler, TIME_LIMIT);
+		if(stealing) scheduler.enableWorkStealing(simulator::getCurrentTime);
+		return simulator;
+	}
+	
+	private static void assertSameStatistics(String message, SimulationStatistics expected, SimulationStatistics actual) {
+		assertEquals(message, expected.getDispatchedCustomers(), actual.getDispatchedCustomers());
+		assertEquals(message, expected.getRejectedCustomers(), actual.getRejectedCustomers());
+		assertEquals(message, expected.getTotalWaitingTime(), actual.getTotalWaitingTime());
+		assertEquals(message, expected.getPeakWaiting(), actual.getPeakWaiting());
+		assertEquals(message, expected.getPeakHour(), actual.getPeakHour());
+		
+		QueueMetrics metrics = expected.getMetrics();
+		if(metrics != null) {
+			assertEquals(message, metrics.getSojournTime().toString(), actual.getMetrics().getSojournTime().toString());
+			assertEquals(message, metrics.getWaitingTime().toString(), actual.getMetrics().getWaitingTime().toString());
+		}
+	}
+	
+	/**
+	 * Takes a checkpoint every few time moments of a run, then resumes each of them
+	 * on a new QueueScheduler and checks that the result is that of the whole run.
+	 */
+	private void assertResumesMatch(Policy policy, boolean stealing) throws IOException {
+		List<Checkpoint> checkpoints = new ArrayList<Checkpoint>();
+		EventSimulator uninterrupted = simulator(policy, stealing);
+		uninterrupted.setCheckpoints(37, checkpoints::add);
+		SimulationStatistics expected = uninterrupted.run(arrivals());
+		
+		assertTrue(checkpoints.size() >= TIME_LIMIT / 37 - 1);
+		for(Checkpoint checkpoint : checkpoints) {
+			assertEquals(SERVERS, checkpoint.getServers());
+			SimulationStatistics resumed = simulator(policy, stealing).resume(checkpoint, arrivals());
+			assertSameStatistics("Resumed at " + checkpoint.getTime(), expected, resumed);
+		}
+	}
+	
+	public void testResumeShortestTime() throws IOException {
+		assertResumesMatch(Policy.SHORTEST_TIME, false);
+	}
+	
+	public void testResumeShortestQueue() throws IOException {
+		assertResumesMatch(Policy.SHORTEST_QUEUE, false);
+	}
+	
+	public void testResumeWithWorkStealing() throws IOException {
+		assertResumesMatch(Policy.SHORTEST_QUEUE, true);
+	}
+	
+	public void testWriteAndRead() throws IOException {
+		List<Checkpoint> checkpoints = new ArrayList<Checkpoint>();
+		EventSimulator uninterrupted = simulator(Policy.SHORTEST_TIME, false);
+		uninterrupted.setCheckpoints(100, checkpoints::add);
+		SimulationStatistics expected = uninterrupted.run(arrivals());
+		
+		Path file = Files.createTempFile("simulation", ".ckpt");
+		try {
+			Checkpoint checkpoint = checkpoints.get(0);
+			checkpoint.write(file);
+			Checkpoint read = Checkpoint.read(file);
+			assertEquals(checkpoint.getTime(), read.getTime());
+			assertEquals(checkpoint.size(), read.size());
+			assertSameStatistics("Read back", expected, simulator(Policy.SHORTEST_TIME, false).resume(read, arrivals()));
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+	
+	public void testResumeChecksServers() throws IOException {
+		List<Checkpoint> checkpoints = new ArrayList<Checkpoint>();
+		EventSimulator uninterrupted = simulator(Policy.SHORTEST_TIME, false);
+		uninterrupted.setCheckpoints(100, checkpoints::add);
+		uninterrupted.run(arrivals());
+		
+		QueueScheduler other = new QueueScheduler(TIME_LIMIT, SERVERS + 1, CAPACITY, new NullLogDisplay());
+		try {
+			new EventSimulator(other, TIME_LIMIT).resume(checkpoints.get(0), arrivals());
+			fail("Resumed on a different number of servers");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+}
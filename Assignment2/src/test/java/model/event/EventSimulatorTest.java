@@ -0,0 +1,82 @@
+package model.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import controller.NullLogDisplay;
+import junit.framework.TestCase;
+import model.Customer;
+import model.QueueScheduler;
+import model.RealTimeSimulator;
+import model.SimulationStatistics;
+import model.arrival.ListArrivalSource;
+import model.strategy.Strategy.Policy;
+
+public class EventSimulatorTest extends TestCase {
+	
+	private static List<Customer> customers(int[][] times) {
+		List<Customer> customers = new ArrayList<Customer>();
+		for(int i = 0; i < times.length; ++i) {
+			Customer cust = new Customer(times[i][0], times[i][1]);
+			cust.setId(i);
+			customers.add(cust);
+		}
+		return customers;
+	}
+	
+	private static QueueScheduler scheduler(int servers, int capacity, int timeLimit) {
+		QueueScheduler scheduler = new QueueScheduler(timeLimit, servers, capacity, new NullLogDisplay());
+		scheduler.setStrategy(Policy.SHORTEST_TIME);
+		return scheduler;
+	}
+	
+	public void testHeldBackArrivalsCountTheTimeHeldBack() {
+		// The third Customer only gets a place in queue once the first one leaves it
+		List<Customer> customers = customers(new int[][] { { 0, 10 }, { 0, 10 }, { 0, 10 } });
+		SimulationStatistics statistics = new EventSimulator(scheduler(1, 1, 40), 40).run(new ListArrivalSource(customers));
+		
+		assertEquals(10, customers.get(0).getFinishTime());
+		assertEquals(20, customers.get(1).getFinishTime());
+		assertEquals(30, customers.get(2).getFinishTime());
+		assertEquals(0, customers.get(2).getArrivalTime());
+		
+		assertEquals(3, statistics.getDispatchedCustomers());
+		assertEquals(60, statistics.getTotalWaitingTime());
+		assertEquals(20, statistics.getAverageWaitingTime());
+		assertEquals(30, statistics.getMetrics().getSojournTime().getMax());
+		assertEquals(statistics.getMetrics().getSojournTime().getMean(), statistics.getAverageWaitingTime(), 0);
+	}
+	
+	public void testFinishTimesMatchServiceEnds() {
+		// Customers join queues behind services started in earlier moments
+		List<Customer> customers = customers(new int[][] { { 0, 4 }, { 1, 3 }, { 2, 2 }, { 2, 5 }, { 6, 1 }, { 6, 2 } });
+		SimulationStatistics statistics = new EventSimulator(scheduler(2, 2, 30), 30).run(new ListArrivalSource(customers));
+		
+		long total = 0;
+		for(Customer cust : customers) {
+			total += cust.getFinishTime() - cust.getArrivalTime();
+		}
+		assertEquals(total, statistics.getTotalWaitingTime());
+		assertEquals((double) total / customers.size(), statistics.getMetrics().getSojournTime().getMean(), 1e-9);
+	}
+	
+	/**
+	 * Runs a few time moments in real time, one second each, with every Customer
+	 * arriving at an idle server, so that the threads of the servers cannot race the
+	 * dispatching of Customers, and checks that the event engine gives the same result.
+	 */
+	public void testMatchesRealTime() {
+		int timeLimit = 5;
+		int[][] times = { { 0, 3 }, { 0, 3 }, { 1, 2 }, { 5, 2 }, { 5, 2 } };
+		
+		SimulationStatistics events = new EventSimulator(scheduler(3, 2, timeLimit), timeLimit)
+				.run(new ListArrivalSource(customers(times)));
+		SimulationStatistics realTime = new RealTimeSimulator(scheduler(3, 2, timeLimit), timeLimit, new NullLogDisplay())
+				.run(new ListArrivalSource(customers(times)));
+		
+		assertEquals(events.getDispatchedCustomers(), realTime.getDispatchedCustomers());
+		assertEquals(events.getTotalWaitingTime(), realTime.getTotalWaitingTime());
+		assertEquals(events.getAverageWaitingTime(), realTime.getAverageWaitingTime());
+		assertEquals(events.getServerTime(), realTime.getServerTime());
+	}
+}
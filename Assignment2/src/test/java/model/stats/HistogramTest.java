@@ -0,0 +1,137 @@
+package model.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+public class HistogramTest extends TestCase {
+	
+	private static final double[] PERCENTILES = { 0, 1, 10, 25, 50, 75, 90, 95, 99, 99.9, 100 };
+	
+	/**
+	 * Returns the exact value at the given percentile of the sorted values, as defined
+	 * by {@link Histogram#getValueAtPercentile(double)}.
+	 */
+	private static long exactPercentile(long[] sorted, double percentile) {
+		long target = Math.max(1, (long) Math.ceil(percentile / 100 * sorted.length));
+		return sorted[(int) target - 1];
+	}
+	
+	private static long[] randomValues(Random random, int count, long bound) {
+		long[] values = new long[count];
+		for(int i = 0; i < count; ++i) {
+			values[i] = (long) (random.nextDouble() * bound);
+		}
+		return values;
+	}
+	
+	private static Histogram histogramOf(long[] values) {
+		Histogram histogram = new Histogram();
+		for(long value : values) {
+			histogram.record(value);
+		}
+		return histogram;
+	}
+	
+	/**
+	 * Checks every percentile against the sorted values: exact below 128, otherwise
+	 * rounded up by at most 1/64 of the value, and never past the maximum.
+	 */
+	private static void assertPercentiles(long[] values, Histogram histogram) {
+		long[] sorted = Arrays.copyOf(values, values.length);
+		Arrays.sort(sorted);
+		
+		for(double percentile : PERCENTILES) {
+			long exact = exactPercentile(sorted, percentile);
+			long value = histogram.getValueAtPercentile(percentile);
+			if(exact < 128) {
+				assertEquals("p" + percentile, exact, value);
+			} else {
+				assertTrue("p" + percentile + " = " + value + " is below " + exact, value >= exact);
+				assertTrue("p" + percentile + " = " + value + " is too far from " + exact, value <= exact + exact / 64);
+			}
+			assertTrue(value <= sorted[sorted.length - 1]);
+		}
+		
+		assertEquals(values.length, histogram.getCount());
+		assertEquals(sorted[0], histogram.getMin());
+		assertEquals(sorted[sorted.length - 1], histogram.getMax());
+	}
+	
+	public void testSmallValuesAreExact() {
+		Random random = new Random(1);
+		for(int run = 0; run < 20; ++run) {
+			long[] values = randomValues(random, 1 + random.nextInt(1000), 128);
+			assertPercentiles(values, histogramOf(values));
+		}
+	}
+	
+	public void testLargeValuesAreWithinPrecision() {
+		Random random = new Random(2);
+		for(long bound = 1000; bound <= 1000000000000L; bound *= 1000) {
+			long[] values = randomValues(random, 5000, bound);
+			assertPercentiles(values, histogramOf(values));
+		}
+	}
+	
+	public void testRepeatedValues() {
+		long[] values = new long[1000];
+		Arrays.fill(values, 0, 500, 7);
+		Arrays.fill(values, 500, 1000, 4000);
+		Histogram histogram = new Histogram();
+		histogram.record(7, 500);
+		histogram.record(4000, 500);
+		assertPercentiles(values, histogram);
+		assertEquals((7 + 4000) / 2.0, histogram.getMean(), 1e-9);
+	}
+	
+	public void testEmpty() {
+		Histogram histogram = new Histogram();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getMin());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(0.0, histogram.getMean(), 0);
+	}
+	
+	public void testNegativeValuesAreRejected() {
+		try {
+			new Histogram().record(-1);
+			fail("Recorded a negative value");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+	
+	public void testAddEqualsRecordingEverything() {
+		Random random = new Random(3);
+		long[] first = randomValues(random, 2000, 100);
+		long[] second = randomValues(random, 2000, 1000000);
+		
+		Histogram histogram = histogramOf(first);
+		histogram.add(histogramOf(second));
+		
+		long[] all = Arrays.copyOf(first, first.length + second.length);
+		System.arraycopy(second, 0, all, first.length, second.length);
+		assertPercentiles(all, histogram);
+		assertEquals(histogramOf(all).toString(), histogram.toString());
+	}
+	
+	public void testWriteAndRead() throws IOException {
+		long[] values = randomValues(new Random(4), 3000, 50000);
+		Histogram histogram = histogramOf(values);
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		histogram.write(new DataOutputStream(bytes));
+		Histogram read = Histogram.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+		
+		assertPercentiles(values, read);
+		assertEquals(histogram.toString(), read.toString());
+	}
+}
@@ -0,0 +1,138 @@
+package model.store;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import model.Customer;
+
+public class CompactCustomerQueueTest extends TestCase {
+	
+	private static Customer customer(int id) {
+		Customer cust = new Customer(id * 3, 1 + id % 7);
+		cust.setId(id);
+		cust.setFinishTime(id * 5);
+		return cust;
+	}
+	
+	private static void assertCustomer(Customer expected, Customer actual) {
+		assertNotNull(actual);
+		assertEquals(expected.getId(), actual.getId());
+		assertEquals(expected.getArrivalTime(), actual.getArrivalTime());
+		assertEquals(expected.getServingTime(), actual.getServingTime());
+		assertEquals(expected.getFinishTime(), actual.getFinishTime());
+	}
+	
+	private static void assertContents(ArrayDeque<Customer> expected, CompactCustomerQueue queue) {
+		assertEquals(expected.size(), queue.size());
+		List<Customer> actual = new ArrayList<Customer>(queue);
+		int i = 0;
+		for(Customer cust : expected) {
+			assertCustomer(cust, actual.get(i++));
+		}
+	}
+	
+	/**
+	 * Offers and polls at random against an ArrayDeque, so that the ring wraps
+	 * around and grows at every position of its head.
+	 */
+	private static void runAgainstDeque(int capacity, long seed) {
+		CompactCustomerQueue queue = new CompactCustomerQueue(capacity);
+		ArrayDeque<Customer> expected = new ArrayDeque<Customer>();
+		Random random = new Random(seed);
+		int nextId = 0;
+		
+		for(int step = 0; step < 5000; ++step) {
+			if(random.nextInt(100) < 55) {
+				Customer cust = customer(nextId++);
+				boolean added = queue.offer(cust);
+				assertEquals(expected.size() < capacity, added);
+				if(added) expected.addLast(cust);
+			} else {
+				Customer cust = queue.poll();
+				if(expected.isEmpty()) {
+					assertNull(cust);
+				} else {
+					assertCustomer(expected.pollFirst(), cust);
+				}
+			}
+			assertEquals(capacity - expected.size(), queue.remainingCapacity());
+			
+			if(step % 97 == 0) assertContents(expected, queue);
+		}
+		assertContents(expected, queue);
+	}
+	
+	public void testWrapAroundMatchesDeque() {
+		int[] capacities = { 1, 2, 5, 16, 17, 40, 100, 1000 };
+		for(int i = 0; i < capacities.length; ++i) {
+			runAgainstDeque(capacities[i], i);
+		}
+	}
+	
+	public void testGrowsWhileWrapped() {
+		CompactCustomerQueue queue = new CompactCustomerQueue(100);
+		ArrayDeque<Customer> expected = new ArrayDeque<Customer>();
+		
+		// Move the head to the middle of the initial ring, then fill past its size
+		for(int id = 0; id < 10; ++id) {
+			queue.offer(customer(id));
+			assertCustomer(customer(id), queue.poll());
+		}
+		for(int id = 10; id < 60; ++id) {
+			assertTrue(queue.offer(customer(id)));
+			expected.addLast(customer(id));
+		}
+		assertContents(expected, queue);
+		assertCustomer(expected.peekFirst(), queue.peek());
+	}
+	
+	public void testCapacityIsEnforced() throws InterruptedException {
+		CompactCustomerQueue queue = new CompactCustomerQueue(3);
+		for(int id = 0; id < 3; ++id) {
+			assertTrue(queue.offer(customer(id)));
+		}
+		assertEquals(0, queue.remainingCapacity());
+		assertFalse(queue.offer(customer(3)));
+		assertFalse(queue.offer(customer(3), 10, TimeUnit.MILLISECONDS));
+		assertEquals(3, queue.size());
+		
+		assertCustomer(customer(0), queue.poll());
+		assertTrue(queue.offer(customer(3), 10, TimeUnit.MILLISECONDS));
+		assertEquals(0, queue.remainingCapacity());
+	}
+	
+	public void testDrainTo() {
+		CompactCustomerQueue queue = new CompactCustomerQueue(20);
+		for(int id = 0; id < 10; ++id) {
+			queue.offer(customer(id));
+		}
+		
+		List<Customer> drained = new ArrayList<Customer>();
+		assertEquals(4, queue.drainTo(drained, 4));
+		assertEquals(6, queue.drainTo(drained));
+		assertEquals(0, queue.size());
+		for(int id = 0; id < 10; ++id) {
+			assertCustomer(customer(id), drained.get(id));
+		}
+	}
+	
+	public void testInvalidArguments() {
+		try {
+			new CompactCustomerQueue(0);
+			fail("Created a queue without room");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		
+		try {
+			new CompactCustomerQueue(5).offer(null);
+			fail("Offered a null Customer");
+		} catch (NullPointerException e) {
+			// Expected
+		}
+	}
+}
@@ -0,0 +1,183 @@
+package model.strategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import controller.NullLogDisplay;
+import junit.framework.TestCase;
+import model.Customer;
+import model.CustomerServer;
+
+public class IndexedStrategyTest extends TestCase {
+	
+	private static final int SERVERS = 8;
+	private static final int CAPACITY = 3;
+	private static final int STEPS = 2000;
+	
+	private List<CustomerServer> servers;
+	private Customer[] serving;
+	private int[] remaining;
+	private int time;
+	private boolean clocked;
+	
+	private void createServers(boolean clocked) {
+		servers = new ArrayList<CustomerServer>();
+		serving = new Customer[SERVERS];
+		remaining = new int[SERVERS];
+		time = 0;
+		this.clocked = clocked;
+		for(int i = 0; i < SERVERS; ++i) {
+			CustomerServer server = new CustomerServer(i, "Queue " + i, CAPACITY, new NullLogDisplay());
+			if(clocked) server.setClock(() -> time);
+			servers.add(server);
+		}
+	}
+	
+	/**
+	 * Checks that both strategies choose the same server for the next Customer.
+	 */
+	private void assertSameChoice(Strategy linear, Strategy indexed, int step) {
+		Customer cust = new Customer(time, 1);
+		assertSame("Step " + step, linear.selectServer(cust, servers), indexed.selectServer(cust, servers));
+	}
+	
+	/**
+	 * Starts serving the next Customer of the given server if it is idle.
+	 */
+	private void beginService(CustomerServer server) {
+		int i = server.getId();
+		if(serving[i] == null && (serving[i] = server.beginService()) != null) {
+			remaining[i] = serving[i].getServingTime();
+		}
+	}
+	
+	/**
+	 * Makes a random change to the servers, with short serving times so that loads often tie.
+	 * Servers on a clock start serving as soon as they have Customers, like in the event
+	 * engine, since their load is only indexed by drain time while they are busy.
+	 */
+	private void randomChange(Random random) {
+		CustomerServer server = servers.get(random.nextInt(SERVERS));
+		int change = random.nextInt(10);
+		if(change < 5) {
+			server.offerCustomer(new Customer(time, 1 + random.nextInt(3)));
+			if(clocked) beginService(server);
+		} else if(change < 8) {
+			beginService(server);
+		} else {
+			server.setAccepting(!server.isAccepting());
+		}
+	}
+	
+	/**
+	 * Serves one unit of time on every server without a clock, as their threads would.
+	 */
+	private void serveTimeUnit() {
+		for(CustomerServer server : servers) {
+			int i = server.getId();
+			if(serving[i] == null) continue;
+			
+			server.serveTimeUnit();
+			if(--remaining[i] == 0) {
+				server.finishService(serving[i]);
+				serving[i] = null;
+			}
+		}
+	}
+	
+	/**
+	 * Advances the clock, finishing every service that ends at the new moment,
+	 * as the event engine does before anything else happens at that moment,
+	 * then starting the next ones.
+	 */
+	private void advanceClock() {
+		++time;
+		for(CustomerServer server : servers) {
+			int i = server.getId();
+			if(serving[i] != null && server.getServiceEnd() == time) {
+				server.finishService(serving[i]);
+				serving[i] = null;
+			}
+		}
+		for(CustomerServer server : servers) {
+			beginService(server);
+		}
+	}
+	
+	private void runRandomLoads(boolean clocked, boolean byNumber, long seed) {
+		createServers(clocked);
+		Strategy linear = byNumber ? new StrategyLowestNumber() : new StrategyLowestTime();
+		IndexedStrategy indexed = byNumber ? new StrategyIndexedLowestNumber(servers) : new StrategyIndexedLowestTime(servers);
+		
+		Random random = new Random(seed);
+		for(int step = 0; step < STEPS; ++step) {
+			randomChange(random);
+			assertSameChoice(linear, indexed, step);
+			
+			if(random.nextInt(4) == 0) {
+				if(clocked) {
+					advanceClock();
+				} else {
+					serveTimeUnit();
+				}
+				assertSameChoice(linear, indexed, step);
+			}
+		}
+		indexed.detach();
+	}
+	
+	public void testLowestTimeMatchesLinear() {
+		for(long seed = 1; seed <= 20; ++seed) {
+			runRandomLoads(false, false, seed);
+		}
+	}
+	
+	public void testLowestTimeMatchesLinearOnClock() {
+		for(long seed = 1; seed <= 20; ++seed) {
+			runRandomLoads(true, false, seed);
+		}
+	}
+	
+	public void testLowestNumberMatchesLinear() {
+		for(long seed = 1; seed <= 20; ++seed) {
+			runRandomLoads(false, true, seed);
+		}
+	}
+	
+	public void testLowestNumberMatchesLinearOnClock() {
+		for(long seed = 1; seed <= 20; ++seed) {
+			runRandomLoads(true, true, seed);
+		}
+	}
+	
+	public void testTiesGoToLowestId() {
+		createServers(false);
+		StrategyIndexedLowestTime indexed = new StrategyIndexedLowestTime(servers);
+		servers.get(0).offerCustomer(new Customer(0, 2));
+		servers.get(3).offerCustomer(new Customer(0, 2));
+		
+		assertSame(servers.get(1), indexed.selectServer(null, servers));
+		servers.get(1).setAccepting(false);
+		assertSame(servers.get(2), indexed.selectServer(null, servers));
+		indexed.detach();
+	}
+	
+	public void testClosedAndFullServersAreSkipped() {
+		createServers(false);
+		StrategyIndexedLowestNumber indexed = new StrategyIndexedLowestNumber(servers);
+		for(CustomerServer server : servers) {
+			if(server.getId() != 5) server.setAccepting(false);
+		}
+		assertSame(servers.get(5), indexed.selectServer(null, servers));
+		
+		for(int i = 0; i < CAPACITY; ++i) {
+			servers.get(5).offerCustomer(new Customer(0, 1));
+		}
+		assertNull(indexed.selectServer(null, servers));
+		
+		servers.get(2).setAccepting(true);
+		assertSame(servers.get(2), indexed.selectServer(null, servers));
+		indexed.detach();
+	}
+}
@@ -0,0 +1,67 @@
+package model.strategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import controller.NullLogDisplay;
+import junit.framework.TestCase;
+import model.Customer;
+import model.CustomerServer;
+import model.strategy.Strategy.Policy;
+
+public class StrategyPowerOfChoicesTest extends TestCase {
+	
+	private static final int SELECTIONS = 1000;
+	
+	private static List<CustomerServer> createServers(int count) {
+		List<CustomerServer> servers = new ArrayList<CustomerServer>();
+		for(int i = 0; i < count; ++i) {
+			servers.add(new CustomerServer(i, "Queue " + i, 5, new NullLogDisplay()));
+		}
+		return servers;
+	}
+	
+	/**
+	 * With two servers and two choices, both servers are compared every time
+	 * only if the choices differ, so the idle one must always be picked.
+	 */
+	public void testTwoChoicesDiffer() {
+		List<CustomerServer> servers = createServers(2);
+		servers.get(0).offerCustomer(new Customer(0, 3));
+		StrategyPowerOfChoices strategy = new StrategyPowerOfChoices(2, Policy.SHORTEST_QUEUE, 7L);
+		
+		for(int i = 0; i < SELECTIONS; ++i) {
+			Customer cust = new Customer(0, 1);
+			assertSame("Selection " + i, servers.get(1), strategy.selectServer(cust, servers));
+			assertEquals("Batch " + i, 1, strategy.selectServers(Collections.singletonList(cust), servers)[0]);
+		}
+	}
+	
+	public void testClosedServersAreDrawnAgain() {
+		List<CustomerServer> servers = createServers(5);
+		for(CustomerServer server : servers) {
+			if(server.getId() != 3) server.setAccepting(false);
+		}
+		StrategyPowerOfChoices strategy = new StrategyPowerOfChoices(2, Policy.SHORTEST_TIME, 7L);
+		
+		for(int i = 0; i < SELECTIONS; ++i) {
+			Customer cust = new Customer(0, 1);
+			assertSame("Selection " + i, servers.get(3), strategy.selectServer(cust, servers));
+			assertEquals("Batch " + i, 3, strategy.selectServers(Collections.singletonList(cust), servers)[0]);
+		}
+	}
+	
+	public void testEveryServerIsSampled() {
+		List<CustomerServer> servers = createServers(6);
+		StrategyPowerOfChoices strategy = new StrategyPowerOfChoices(1, Policy.SHORTEST_QUEUE, 7L);
+		
+		int[] picked = new int[servers.size()];
+		for(int i = 0; i < SELECTIONS; ++i) {
+			++picked[strategy.selectServer(new Customer(0, 1), servers).getId()];
+		}
+		for(int i = 0; i < picked.length; ++i) {
+			assertTrue("Server " + i + " picked " + picked[i] + " times", picked[i] > SELECTIONS / picked.length / 2);
+		}
+	}
+}
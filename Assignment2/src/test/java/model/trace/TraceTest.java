@@ -0,0 +1,134 @@
+package model.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import controller.NullLogDisplay;
+import junit.framework.TestCase;
+import model.Customer;
+import model.CustomerGenerator;
+import model.QueueScheduler;
+import model.SimulationStatistics;
+import model.arrival.ListArrivalSource;
+import model.event.EventSimulator;
+import model.strategy.Strategy.Policy;
+
+public class TraceTest extends TestCase {
+	
+	private Path file;
+	
+	@Override
+	protected void setUp() throws IOException {
+		file = Files.createTempFile("simulation", ".trace");
+	}
+	
+	@Override
+	protected void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+	
+	private static Customer customer(int i) {
+		Customer cust = new Customer(i / 3, 1 + i % 11);
+		cust.setId(i);
+		cust.setFinishTime(i + 100);
+		return cust;
+	}
+	
+	public void testWriteAndReadAcrossRegions() throws IOException {
+		TraceRecord.Type[] types = TraceRecord.Type.values();
+		int count = 1000;
+		
+		// Small regions, so that records are written across many of them
+		try(TraceWriter writer = new TraceWriter(file, 3 * TraceWriter.RECORD_SIZE + 5)) {
+			for(int i = 0; i < count; ++i) {
+				writer.write(i / 2, types[i % types.length], i % 7, customer(i));
+			}
+			assertEquals(count, writer.getRecordCount());
+		}
+		assertEquals(TraceWriter.HEADER_SIZE + count * (long) TraceWriter.RECORD_SIZE, Files.size(file));
+		
+		try(TraceReader reader = new TraceReader(file)) {
+			assertEquals(count, reader.getRecordCount());
+			TraceRecord record = new TraceRecord();
+			for(int i = 0; i < count; ++i) {
+				assertTrue(reader.next(record));
+				Customer cust = customer(i);
+				assertEquals(i / 2, record.getTime());
+				assertEquals(types[i % types.length], record.getType());
+				assertEquals(i % 7, record.getServerId());
+				assertEquals(cust.getId(), record.getCustomerId());
+				assertEquals(cust.getArrivalTime(), record.getArrivalTime());
+				assertEquals(cust.getServingTime(), record.getServingTime());
+				assertEquals(cust.getFinishTime(), record.getFinishTime());
+			}
+			assertFalse(reader.next(record));
+		}
+	}
+	
+	public void testOtherFilesAreRejected() throws IOException {
+		Files.write(file, new byte[TraceWriter.HEADER_SIZE + TraceWriter.RECORD_SIZE]);
+		try {
+			new TraceReader(file).close();
+			fail("Read a file without a trace header");
+		} catch (IOException e) {
+			// Expected
+		}
+	}
+	
+	public void testUnknownTypesAreRejected() throws IOException {
+		try(TraceWriter writer = new TraceWriter(file)) {
+			for(int i = 0; i < 3; ++i) {
+				writer.write(i, TraceRecord.Type.DISPATCH, 0, customer(i));
+			}
+		}
+		
+		// Corrupt the type of the second record
+		long offset = TraceWriter.HEADER_SIZE + TraceWriter.RECORD_SIZE;
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			ByteBuffer type = ByteBuffer.allocate(Integer.BYTES).putInt(0, TraceRecord.TYPES.length);
+			channel.write(type, offset + Integer.BYTES);
+		}
+		
+		try(TraceReader reader = new TraceReader(file)) {
+			TraceRecord record = new TraceRecord();
+			assertTrue(reader.next(record));
+			try {
+				reader.next(record);
+				fail("Read a record with an unknown type");
+			} catch (IOException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("offset " + offset));
+			}
+		}
+	}
+	
+	public void testReplayMatchesRecordedRun() throws IOException {
+		int timeLimit = 200;
+		QueueScheduler scheduler = new QueueScheduler(timeLimit, 4, 5, new NullLogDisplay());
+		scheduler.setStrategy(Policy.SHORTEST_TIME);
+		EventSimulator simulator = new EventSimulator(scheduler, timeLimit);
+		
+		SimulationStatistics recorded;
+		try(TraceWriter writer = new TraceWriter(file)) {
+			TraceRecorder recorder = new TraceRecorder(writer, simulator::getCurrentTime);
+			recorder.attach(scheduler);
+			recorded = simulator.run(new ListArrivalSource(
+					CustomerGenerator.generateRandomClients(400, 1, 12, timeLimit, new Random(5))));
+			recorder.detach(scheduler);
+		}
+		
+		SimulationStatistics replayed;
+		try(TraceReader reader = new TraceReader(file)) {
+			replayed = TraceReplay.replayStatistics(reader);
+		}
+		assertTrue(recorded.getDispatchedCustomers() > 0);
+		assertEquals(recorded.getDispatchedCustomers(), replayed.getDispatchedCustomers());
+		assertEquals(recorded.getTotalWaitingTime(), replayed.getTotalWaitingTime());
+		assertEquals(recorded.getPeakWaiting(), replayed.getPeakWaiting());
+		assertEquals(recorded.getPeakHour(), replayed.getPeakHour());
+	}
+}